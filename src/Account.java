@@ -49,6 +49,21 @@ public class Account implements Serializable {
         this.failedPinAttempts = 0;
     }
 
+    /**
+     * Сақталған күйден қалпына келтіру (AccountCodec үшін, PIN қайта хэштелмейді)
+     */
+    Account(int id, String ownerName, String pinCodeHash, double balance, LocalDateTime createdAt,
+            LocalDateTime lastModified, boolean isLocked, int failedPinAttempts) {
+        this.id = id;
+        this.ownerName = ownerName;
+        this.pinCodeHash = pinCodeHash;
+        this.balance = balance;
+        this.createdAt = createdAt;
+        this.lastModified = lastModified;
+        this.isLocked = isLocked;
+        this.failedPinAttempts = failedPinAttempts;
+    }
+
     /**
      * PIN кодты тексереді
      */
@@ -186,6 +201,10 @@ public class Account implements Serializable {
         return failedPinAttempts;
     }
 
+    String getPinCodeHash() {
+        return pinCodeHash;
+    }
+
     // ============ SETTERS (шектеулі) ============
 
     public void setOwnerName(String ownerName) {
@@ -203,6 +222,13 @@ public class Account implements Serializable {
         this.balance = balance;
     }
 
+    /**
+     * lastModified-ті жаңарту (bulk операциялар үшін)
+     */
+    protected void touch() {
+        this.lastModified = LocalDateTime.now();
+    }
+
     @Override
     public String toString() {
         return String.format("Account[ID=%d, Owner=%s, Balance=%.2f, Locked=%s]",
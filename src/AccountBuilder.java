@@ -28,6 +28,18 @@ public class AccountBuilder {
         return this;
     }
 
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public String getPinCode() {
+        return pinCode;
+    }
+
+    public double getInitialBalance() {
+        return initialBalance;
+    }
+
     public Account build() {
         Account account = new Account(id, ownerName, pinCode);
         if (initialBalance > 0) {
@@ -40,6 +52,22 @@ public class AccountBuilder {
         return account;
     }
 
+    /**
+     * Транзакция тарихы бар аккаунт жасау
+     * Бастапқы баланс DEPOSIT транзакциясы ретінде жазылады
+     */
+    public AccountWithHistory buildWithHistory() {
+        AccountWithHistory account = new AccountWithHistory(id, ownerName, pinCode);
+        if (initialBalance > 0) {
+            try {
+                account.deposit(initialBalance);
+            } catch (InvalidAmountException e) {
+                throw new IllegalArgumentException("Invalid initial balance: " + initialBalance, e);
+            }
+        }
+        return account;
+    }
+
     /**
      * Ескі форматтан жаңа форматқа миграция
      */
@@ -0,0 +1,143 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AccountWithHistory-дің ықшам binary форматы (Java serialization-сыз)
+ *
+ * Формат:
+ *   version (u8), id (i32), ownerName (UTF), pinHash (32 байт SHA-256),
+ *   balance (f64), createdAt, lastModified (әрқайсысы i64 секунд + i32 наносекунд),
+ *   flags (u8: bit0 = locked), failedPinAttempts (u8), транзакциялар саны (i32)
+ *   әр транзакция: type (u8), amount (f64), timestamp, from (i32), to (i32),
+ *                  sequenceId (i64), description (u8 бар/жоқ + UTF)
+ */
+public final class AccountCodec {
+    private static final int VERSION = 1;
+    private static final int HASH_BYTES = 32;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private AccountCodec() {
+    }
+
+    /**
+     * Аккаунт monitor-ы астында кодтау: баланс, флагтар және тарих бір сәттегі күй
+     * (қатар deposit/transfer жартылай өзгерткен жазба шықпайды). out memory буфері болуы керек -
+     * lock астында диск I/O жасалмайды.
+     */
+    public static void write(DataOutput out, AccountWithHistory account) throws IOException {
+        synchronized (account) {
+            writeLocked(out, account);
+        }
+    }
+
+    private static void writeLocked(DataOutput out, AccountWithHistory account) throws IOException {
+        out.writeByte(VERSION);
+        out.writeInt(account.getId());
+        out.writeUTF(account.getOwnerName());
+        writeHash(out, account.getPinCodeHash());
+        out.writeDouble(account.getBalance());
+        writeTime(out, account.getCreatedAt());
+        writeTime(out, account.getLastModified());
+        out.writeByte(account.isLocked() ? 1 : 0);
+        out.writeByte(account.getFailedPinAttempts());
+
+        List<Transaction> transactions = account.getTransactions();
+        out.writeInt(transactions.size());
+        for (Transaction transaction : transactions) {
+            out.writeByte(transaction.getType().ordinal());
+            out.writeDouble(transaction.getAmount());
+            writeTime(out, transaction.getTimestamp());
+            out.writeInt(transaction.getFromAccountId());
+            out.writeInt(transaction.getToAccountId());
+            out.writeLong(transaction.getSequenceId());
+            String description = transaction.getDescription();
+            out.writeBoolean(description != null);
+            if (description != null) {
+                out.writeUTF(description);
+            }
+        }
+    }
+
+    public static AccountWithHistory read(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported account record version: " + version);
+        }
+        int id = in.readInt();
+        String ownerName = in.readUTF();
+        String pinHash = readHash(in);
+        double balance = in.readDouble();
+        LocalDateTime createdAt = readTime(in);
+        LocalDateTime lastModified = readTime(in);
+        boolean locked = (in.readUnsignedByte() & 1) != 0;
+        int failedPinAttempts = in.readUnsignedByte();
+
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt account record: negative transaction count");
+        }
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int type = in.readUnsignedByte();
+            if (type >= TYPES.length) {
+                throw new IOException("Corrupt account record: unknown transaction type " + type);
+            }
+            double amount = in.readDouble();
+            LocalDateTime timestamp = readTime(in);
+            int from = in.readInt();
+            int to = in.readInt();
+            long sequenceId = in.readLong();
+            String description = in.readBoolean() ? in.readUTF() : null;
+
+            Transaction transaction = new Transaction(TYPES[type], amount, from, to, description, timestamp);
+            if (sequenceId != 0) {
+                transaction.assignSequenceId(sequenceId);
+            }
+            transactions.add(transaction);
+        }
+
+        return new AccountWithHistory(id, ownerName, pinHash, balance, createdAt, lastModified,
+                locked, failedPinAttempts, transactions);
+    }
+
+    // ============ HELPERS ============
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Hex SHA-256 (64 таңба) -> 32 байт
+     */
+    private static void writeHash(DataOutput out, String hex) throws IOException {
+        if (hex.length() != HASH_BYTES * 2) {
+            throw new IOException("Unexpected PIN hash length: " + hex.length());
+        }
+        for (int i = 0; i < HASH_BYTES; i++) {
+            out.writeByte(Character.digit(hex.charAt(2 * i), 16) << 4
+                    | Character.digit(hex.charAt(2 * i + 1), 16));
+        }
+    }
+
+    private static String readHash(DataInput in) throws IOException {
+        char[] hex = new char[HASH_BYTES * 2];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            int b = in.readUnsignedByte();
+            hex[2 * i] = Character.forDigit(b >>> 4, 16);
+            hex[2 * i + 1] = Character.forDigit(b & 0xF, 16);
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Аккаунт ID-лерінің реттелген жиыны (findPage үшін): сегменттелген bitmap
+ * - ID кеңістігі 65536 ID-лік сегменттерге бөлінеді, сегмент ішінде ID пайда болғанда ғана жасалады
+ *   (10M аккаунт ≈ 153 сегмент × 8 KB)
+ * - add/remove/contains O(1), lock-сыз (bit-тер CAS арқылы)
+ * - next(afterId): бос сегменттер summary bitmap пен сегмент санағышы арқылы өткізіледі,
+ *   сондықтан ID-лер арасындағы үлкен бос аралықтар бүтін сандарды бір-бірлеп тексертпейді
+ * - Weakly consistent: қатар add/remove next()-ке көрінуі немесе көрінбеуі мүмкін
+ */
+public class AccountIdSet {
+    public static final int NONE = -1;
+
+    private static final int SEGMENT_BITS = 16;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+    private static final int WORDS_PER_SEGMENT = (1 << SEGMENT_BITS) / Long.SIZE;
+    private static final int SEGMENT_COUNT = 1 << (Integer.SIZE - 1 - SEGMENT_BITS); // Теріс емес int-тер
+
+    private final AtomicReferenceArray<Segment> segments = new AtomicReferenceArray<>(SEGMENT_COUNT);
+    private final AtomicLongArray allocated = new AtomicLongArray(SEGMENT_COUNT / Long.SIZE); // Жасалған сегменттер
+
+    /**
+     * @return true - ID жаңадан қосылды
+     */
+    public boolean add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Account ID cannot be negative: " + id);
+        }
+        return segmentFor(id >>> SEGMENT_BITS).set(id & SEGMENT_MASK);
+    }
+
+    /**
+     * @return true - ID жиында болып, өшірілді
+     */
+    public boolean remove(int id) {
+        if (id < 0) {
+            return false;
+        }
+        Segment segment = segments.get(id >>> SEGMENT_BITS);
+        return segment != null && segment.clear(id & SEGMENT_MASK);
+    }
+
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        Segment segment = segments.get(id >>> SEGMENT_BITS);
+        return segment != null && segment.get(id & SEGMENT_MASK);
+    }
+
+    /**
+     * afterId-ден кейінгі ең кіші ID
+     * @return ID немесе NONE
+     */
+    public int next(int afterId) {
+        if (afterId == Integer.MAX_VALUE) {
+            return NONE;
+        }
+        int from = Math.max(afterId + 1, 0);
+        int index = from >>> SEGMENT_BITS;
+        int bit = from & SEGMENT_MASK;
+
+        while (true) {
+            int next = nextAllocated(index);
+            if (next == NONE) {
+                return NONE;
+            }
+            if (next != index) {
+                index = next;
+                bit = 0; // Келесі сегмент басынан қаралады
+            }
+            Segment segment = segments.get(index);
+            if (segment.count.get() > 0) {
+                int found = segment.next(bit);
+                if (found != NONE) {
+                    return (index << SEGMENT_BITS) | found;
+                }
+            }
+            index++;
+            bit = 0;
+        }
+    }
+
+    /**
+     * Сегменттер орнында қалады (қайта толтыруға дайын), тек bit-тер тазаланады
+     */
+    public void clear() {
+        for (int index = nextAllocated(0); index != NONE; index = nextAllocated(index + 1)) {
+            segments.get(index).reset();
+        }
+    }
+
+    // ============ INTERNAL ============
+
+    /**
+     * index-тен бастап бірінші жасалған сегмент
+     * @return сегмент индексі немесе NONE
+     */
+    private int nextAllocated(int index) {
+        if (index >= SEGMENT_COUNT) {
+            return NONE;
+        }
+        int word = index >>> 6;
+        long bits = allocated.get(word) & (-1L << (index & 63));
+        while (bits == 0) {
+            if (++word == allocated.length()) {
+                return NONE;
+            }
+            bits = allocated.get(word);
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Сегментті алу немесе жасау; summary bit-і әрқашан қойылған болады
+     * (CAS-та ұтылған thread та тексереді - add() қайтқанда ID next()-ке көрінеді)
+     */
+    private Segment segmentFor(int index) {
+        Segment segment = segments.get(index);
+        if (segment == null) {
+            Segment created = new Segment();
+            segment = segments.compareAndSet(index, null, created) ? created : segments.get(index);
+        }
+
+        int word = index >>> 6;
+        long mask = 1L << (index & 63);
+        long current;
+        while (((current = allocated.get(word)) & mask) == 0) {
+            if (allocated.compareAndSet(word, current, current | mask)) {
+                break;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * 65536 ID-лік bitmap + қосылған ID-лер саны (бос сегментті сканерлемей өткізу үшін)
+     */
+    private static final class Segment {
+        private final AtomicLongArray words = new AtomicLongArray(WORDS_PER_SEGMENT);
+        private final AtomicInteger count = new AtomicInteger();
+
+        private boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+
+        private boolean set(int bit) {
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+            count.incrementAndGet();
+            return true;
+        }
+
+        private boolean clear(int bit) {
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) == 0) {
+                    return false;
+                }
+            } while (!words.compareAndSet(word, current, current & ~mask));
+            count.decrementAndGet();
+            return true;
+        }
+
+        private int next(int bit) {
+            int word = bit >>> 6;
+            long bits = words.get(word) & (-1L << bit);
+            while (bits == 0) {
+                if (++word == WORDS_PER_SEGMENT) {
+                    return NONE;
+                }
+                bits = words.get(word);
+            }
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+
+        private void reset() {
+            for (int i = 0; i < WORDS_PER_SEGMENT; i++) {
+                words.set(i, 0);
+            }
+            count.set(0);
+        }
+    }
+}
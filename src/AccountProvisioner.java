@@ -0,0 +1,229 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Аккаунттарды жаппай ашу (onboarding)
+ * - Жарамсыз жолдар алдын ала тексеріліп, бөлек шығарылады
+ * - ID-лер бір қадамда қатар ретінде бөлінеді
+ * - PIN хэштеу (SHA-256) параллель орындалады
+ * - Барлық аккаунт үшін бір ғана flush
+ *
+ * CSV форматы: owner,pin[,initial_balance] (header міндетті емес)
+ */
+public class AccountProvisioner {
+    private static final String PIN_PATTERN = "\\d{4}";
+
+    private final AccountRepository repository;
+    private final int parallelism;
+    private Consumer<AccountWithHistory> createdListener = account -> { };
+
+    public AccountProvisioner(AccountRepository repository, int parallelism) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.repository = repository;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Әр ашылған аккаунт туралы хабарлау (мысалы, аудит журналы үшін)
+     */
+    public AccountProvisioner onCreated(Consumer<AccountWithHistory> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        this.createdListener = listener;
+        return this;
+    }
+
+    /**
+     * Builder-лер тізімінен аккаунттар ашу (ID-ді provisioner өзі береді)
+     * @param requests owner, PIN және бастапқы баланс берілген builder-лер
+     * @return ашылған аккаунттар (requests ретімен)
+     */
+    public List<AccountWithHistory> provision(List<AccountBuilder> requests) {
+        for (AccountBuilder request : requests) {
+            String error = validate(request);
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+        }
+        if (requests.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int firstId = repository.allocateIds(requests.size());
+        AccountWithHistory[] accounts = new AccountWithHistory[requests.size()];
+
+        // PIN хэштеу - ең қымбат бөлігі, сондықтан параллель
+        // Шақырушының builder-лері өзгертілмейді: ID көшірмеге қойылады
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, accounts.length).parallel().forEach(i -> {
+                AccountBuilder request = requests.get(i);
+                accounts[i] = new AccountBuilder()
+                        .setId(firstId + i)
+                        .setOwnerName(request.getOwnerName())
+                        .setPinCode(request.getPinCode())
+                        .setInitialBalance(request.getInitialBalance())
+                        .buildWithHistory();
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Provisioning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Provisioning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        repository.saveAll(Arrays.asList(accounts));
+        repository.flush();
+
+        for (AccountWithHistory account : accounts) {
+            createdListener.accept(account);
+        }
+
+        return new ArrayList<>(Arrays.asList(accounts));
+    }
+
+    /**
+     * CSV файлынан аккаунттар ашу
+     * @param input owner,pin[,initial_balance] жолдары
+     * @param output ашылған аккаунттар (id,owner) жазылатын файл
+     * @param rejects жарамсыз жолдар жазылатын файл
+     * @return есеп
+     */
+    public Report provisionFromCsv(Path input, Path output, Path rejects) throws IOException {
+        long startNanos = System.nanoTime();
+        List<AccountBuilder> requests = new ArrayList<>();
+        long rejected = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+
+            rejectWriter.write("line_number,reason,original_line");
+            rejectWriter.newLine();
+
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("owner,")) {
+                    continue; // Бос жол немесе header
+                }
+
+                String error;
+                AccountBuilder request = null;
+                try {
+                    request = parse(line);
+                    error = validate(request);
+                } catch (NumberFormatException e) {
+                    error = "Invalid initial balance";
+                }
+
+                if (error != null) {
+                    rejectWriter.write(lineNumber + "," + error.replace(',', ';') + "," + line);
+                    rejectWriter.newLine();
+                    rejected++;
+                } else {
+                    requests.add(request);
+                }
+            }
+        }
+
+        List<AccountWithHistory> accounts = provision(requests);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("id,owner");
+            writer.newLine();
+            StringBuilder sb = new StringBuilder(64);
+            for (AccountWithHistory account : accounts) {
+                sb.setLength(0);
+                sb.append(account.getId()).append(',').append(account.getOwnerName());
+                writer.append(sb).append('\n');
+            }
+        }
+
+        return new Report(accounts.size(), rejected, output, rejects,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static AccountBuilder parse(String line) {
+        String[] parts = line.split(",", -1);
+        AccountBuilder builder = new AccountBuilder()
+                .setOwnerName(parts[0].trim())
+                .setPinCode(parts.length > 1 ? parts[1].trim() : null);
+        if (parts.length > 2 && !parts[2].trim().isEmpty()) {
+            builder.setInitialBalance(Double.parseDouble(parts[2].trim()));
+        }
+        return builder;
+    }
+
+    /**
+     * Жолды тексеру
+     * @return қате сипаттамасы немесе null
+     */
+    private static String validate(AccountBuilder request) {
+        if (request.getOwnerName() == null || request.getOwnerName().trim().isEmpty()) {
+            return "Owner name cannot be empty";
+        }
+        if (request.getPinCode() == null || !request.getPinCode().matches(PIN_PATTERN)) {
+            return "PIN must be exactly 4 digits";
+        }
+        if (request.getInitialBalance() < 0 || Double.isNaN(request.getInitialBalance())) {
+            return "Initial balance cannot be negative";
+        }
+        if (request.getInitialBalance() > 0 && request.getInitialBalance() < 0.01) {
+            return "Initial balance must be at least 0.01";
+        }
+        return null;
+    }
+
+    /**
+     * Provisioning есебі
+     */
+    public static final class Report {
+        private final long created;
+        private final long rejected;
+        private final Path outputFile;
+        private final Path rejectsFile;
+        private final long elapsedMillis;
+
+        Report(long created, long rejected, Path outputFile, Path rejectsFile, long elapsedMillis) {
+            this.created = created;
+            this.rejected = rejected;
+            this.outputFile = outputFile;
+            this.rejectsFile = rejectsFile;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getAccountsPerSecond() {
+            return elapsedMillis == 0 ? created : created * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Created %d accounts (%d rejected) in %.1fs (%.0f accounts/s)",
+                    created, rejected, elapsedMillis / 1000.0, getAccountsPerSecond());
+        }
+
+        // Getters
+        public long getCreated() { return created; }
+        public long getRejected() { return rejected; }
+        public Path getOutputFile() { return outputFile; }
+        public Path getRejectsFile() { return rejectsFile; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+}
@@ -0,0 +1,283 @@
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * Аккаунттар бойынша сұраныс (immutable) - AccountQueryEngine орындайды
+ *
+ * Мысал:
+ *   AccountQuery query = AccountQuery.builder()
+ *           .locked(true)
+ *           .balanceBetween(0, 0)
+ *           .sortBy(AccountQuery.SortField.ID, false)
+ *           .limit(100)
+ *           .build();
+ *
+ * Барлық шарттар AND арқылы біріктіріледі. Бос шарт (null) - шектеу жоқ.
+ */
+public final class AccountQuery {
+
+    /**
+     * Сұрыптау өрісі
+     */
+    public enum SortField {
+        ID(Comparator.comparingInt(AccountWithHistory::getId)),
+        OWNER(Comparator.comparing(AccountWithHistory::getOwnerName, String.CASE_INSENSITIVE_ORDER)),
+        BALANCE(Comparator.comparingDouble(AccountWithHistory::getBalance)),
+        CREATED_AT(Comparator.comparing(AccountWithHistory::getCreatedAt)),
+        LAST_MODIFIED(Comparator.comparing(AccountWithHistory::getLastModified));
+
+        private final Comparator<AccountWithHistory> comparator;
+
+        SortField(Comparator<AccountWithHistory> comparator) {
+            this.comparator = comparator;
+        }
+
+        Comparator<AccountWithHistory> comparator(boolean descending) {
+            // Бірдей мәндер ID бойынша - нәтиже детерминистік
+            Comparator<AccountWithHistory> byField = descending ? comparator.reversed() : comparator;
+            return byField.thenComparingInt(AccountWithHistory::getId);
+        }
+    }
+
+    private final Integer minId;
+    private final Integer maxId;
+    private final String ownerContains;
+    private final Double minBalance;
+    private final Double maxBalance;
+    private final Boolean locked;
+    private final LocalDateTime createdAfter;
+    private final LocalDateTime createdBefore;
+    private final LocalDateTime modifiedAfter;
+    private final LocalDateTime modifiedBefore;
+    private final SortField sortField;
+    private final boolean descending;
+    private final int limit;
+
+    private AccountQuery(Builder builder) {
+        this.minId = builder.minId;
+        this.maxId = builder.maxId;
+        this.ownerContains = builder.ownerContains;
+        this.minBalance = builder.minBalance;
+        this.maxBalance = builder.maxBalance;
+        this.locked = builder.locked;
+        this.createdAfter = builder.createdAfter;
+        this.createdBefore = builder.createdBefore;
+        this.modifiedAfter = builder.modifiedAfter;
+        this.modifiedBefore = builder.modifiedBefore;
+        this.sortField = builder.sortField;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Барлық шарттарды бір predicate-ке біріктіру
+     * Index қайтарған кандидаттар да осымен қайта тексеріледі
+     */
+    Predicate<AccountWithHistory> toPredicate() {
+        String foldedOwner = ownerContains != null ? OwnerNameIndex.fold(ownerContains) : null;
+        return account -> {
+            int id = account.getId();
+            if ((minId != null && id < minId) || (maxId != null && id > maxId)) {
+                return false;
+            }
+            double balance = account.getBalance();
+            if ((minBalance != null && balance < minBalance) || (maxBalance != null && balance > maxBalance)) {
+                return false;
+            }
+            if (locked != null && account.isLocked() != locked) {
+                return false;
+            }
+            if ((createdAfter != null && !account.getCreatedAt().isAfter(createdAfter))
+                    || (createdBefore != null && !account.getCreatedAt().isBefore(createdBefore))) {
+                return false;
+            }
+            if ((modifiedAfter != null && !account.getLastModified().isAfter(modifiedAfter))
+                    || (modifiedBefore != null && !account.getLastModified().isBefore(modifiedBefore))) {
+                return false;
+            }
+            return foldedOwner == null || OwnerNameIndex.fold(account.getOwnerName()).contains(foldedOwner);
+        };
+    }
+
+    // Getters
+    public Integer getMinId() { return minId; }
+    public Integer getMaxId() { return maxId; }
+    public String getOwnerContains() { return ownerContains; }
+    public Double getMinBalance() { return minBalance; }
+    public Double getMaxBalance() { return maxBalance; }
+    public Boolean getLocked() { return locked; }
+    public SortField getSortField() { return sortField; }
+    public boolean isDescending() { return descending; }
+    public int getLimit() { return limit; }
+
+    public boolean hasIdRange() {
+        return minId != null || maxId != null;
+    }
+
+    public boolean hasBalanceRange() {
+        return minBalance != null || maxBalance != null;
+    }
+
+    public boolean hasLimit() {
+        return limit != Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("AccountQuery[");
+        if (hasIdRange()) {
+            sb.append("id ").append(minId != null ? minId : "*").append("..")
+                    .append(maxId != null ? maxId : "*").append(", ");
+        }
+        if (ownerContains != null) {
+            sb.append("owner~'").append(ownerContains).append("', ");
+        }
+        if (hasBalanceRange()) {
+            sb.append("balance ").append(minBalance != null ? minBalance : "*").append("..")
+                    .append(maxBalance != null ? maxBalance : "*").append(", ");
+        }
+        if (locked != null) {
+            sb.append("locked=").append(locked).append(", ");
+        }
+        if (createdAfter != null || createdBefore != null) {
+            sb.append("created ").append(createdAfter != null ? createdAfter : "*").append("..")
+                    .append(createdBefore != null ? createdBefore : "*").append(", ");
+        }
+        if (modifiedAfter != null || modifiedBefore != null) {
+            sb.append("modified ").append(modifiedAfter != null ? modifiedAfter : "*").append("..")
+                    .append(modifiedBefore != null ? modifiedBefore : "*").append(", ");
+        }
+        if (sortField != null) {
+            sb.append("sort ").append(sortField).append(descending ? " DESC" : " ASC").append(", ");
+        }
+        if (hasLimit()) {
+            sb.append("limit ").append(limit).append(", ");
+        }
+        if (sb.charAt(sb.length() - 1) == ' ') {
+            sb.setLength(sb.length() - 2);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * AccountQuery құру үшін Builder
+     */
+    public static final class Builder {
+        private Integer minId;
+        private Integer maxId;
+        private String ownerContains;
+        private Double minBalance;
+        private Double maxBalance;
+        private Boolean locked;
+        private LocalDateTime createdAfter;
+        private LocalDateTime createdBefore;
+        private LocalDateTime modifiedAfter;
+        private LocalDateTime modifiedBefore;
+        private SortField sortField;
+        private boolean descending;
+        private int limit = Integer.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder id(int id) {
+            return idBetween(id, id);
+        }
+
+        public Builder idBetween(int minId, int maxId) {
+            if (minId > maxId) {
+                throw new IllegalArgumentException("Minimum ID cannot exceed maximum");
+            }
+            this.minId = minId;
+            this.maxId = maxId;
+            return this;
+        }
+
+        /**
+         * Иесінің атында кездесетін мәтін (регистрге тәуелсіз)
+         */
+        public Builder ownerContains(String text) {
+            if (text == null || text.trim().isEmpty()) {
+                throw new IllegalArgumentException("Owner search text cannot be empty");
+            }
+            this.ownerContains = text.trim();
+            return this;
+        }
+
+        public Builder balanceAtLeast(double minBalance) {
+            this.minBalance = minBalance;
+            return this;
+        }
+
+        public Builder balanceAtMost(double maxBalance) {
+            this.maxBalance = maxBalance;
+            return this;
+        }
+
+        public Builder balanceBetween(double minBalance, double maxBalance) {
+            if (minBalance > maxBalance) {
+                throw new IllegalArgumentException("Minimum balance cannot exceed maximum");
+            }
+            this.minBalance = minBalance;
+            this.maxBalance = maxBalance;
+            return this;
+        }
+
+        public Builder locked(boolean locked) {
+            this.locked = locked;
+            return this;
+        }
+
+        public Builder createdAfter(LocalDateTime time) {
+            this.createdAfter = time;
+            return this;
+        }
+
+        public Builder createdBefore(LocalDateTime time) {
+            this.createdBefore = time;
+            return this;
+        }
+
+        public Builder modifiedAfter(LocalDateTime time) {
+            this.modifiedAfter = time;
+            return this;
+        }
+
+        /**
+         * Белгілі уақыттан бері өзгермеген (inactive) аккаунттар
+         */
+        public Builder modifiedBefore(LocalDateTime time) {
+            this.modifiedBefore = time;
+            return this;
+        }
+
+        public Builder sortBy(SortField field, boolean descending) {
+            if (field == null) {
+                throw new IllegalArgumentException("Sort field cannot be null");
+            }
+            this.sortField = field;
+            this.descending = descending;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Limit must be positive");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public AccountQuery build() {
+            if (minBalance != null && maxBalance != null && minBalance > maxBalance) {
+                throw new IllegalArgumentException("Minimum balance cannot exceed maximum");
+            }
+            return new AccountQuery(this);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * AccountQuery орындаушы
+ * - Бар index-ті таңдайды: ID (тікелей get / keyset), owner trigram, balance skip list
+ * - Balance бойынша сұрыптау + limit болса, balance index-ті ретімен беттеп оқиды
+ * - Index жоқ болса - repository stream-і бойынша fork/join (parallel) scan
+ * - Қай жоспар таңдалғанын Result-та қайтарады
+ */
+public class AccountQueryEngine {
+    private static final int PARALLEL_THRESHOLD = 10_000; // Кішкене банкте parallel overhead артық
+    private static final int MIN_PAGE_SIZE = 256;
+
+    /**
+     * Орындау жоспары
+     */
+    public enum Plan {
+        ID_LOOKUP,
+        ID_RANGE,
+        OWNER_INDEX,
+        BALANCE_INDEX,
+        BALANCE_ORDER,
+        FULL_SCAN
+    }
+
+    private final AccountRepository repository;
+
+    public AccountQueryEngine(AccountRepository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        this.repository = repository;
+    }
+
+    public Result<AccountWithHistory> execute(AccountQuery query) {
+        return execute(query, Function.identity());
+    }
+
+    /**
+     * Сұранысты орындап, әр аккаунтты projection арқылы түрлендіру
+     */
+    public <T> Result<T> execute(AccountQuery query, Function<AccountWithHistory, T> projection) {
+        if (query == null || projection == null) {
+            throw new IllegalArgumentException("Query and projection cannot be null");
+        }
+        long startNanos = System.nanoTime();
+        Predicate<AccountWithHistory> predicate = query.toPredicate();
+        Plan plan = choosePlan(query);
+
+        long[] examined = new long[1];
+        List<AccountWithHistory> matches;
+        String detail;
+        switch (plan) {
+            case ID_LOOKUP:
+                Optional<AccountWithHistory> account = repository.findById(query.getMinId());
+                examined[0] = account.isPresent() ? 1 : 0;
+                matches = account.filter(predicate)
+                        .map(Collections::singletonList)
+                        .orElse(Collections.emptyList());
+                detail = "findById(" + query.getMinId() + ")";
+                break;
+            case ID_RANGE:
+                matches = scanIdRange(query, predicate, examined);
+                detail = "keyset pages from id " + (query.getMinId() != null ? query.getMinId() : 1);
+                break;
+            case OWNER_INDEX:
+                matches = filter(repository.findByOwnerName(query.getOwnerContains()), predicate, examined);
+                detail = "trigram index '" + query.getOwnerContains() + "'";
+                break;
+            case BALANCE_INDEX:
+                double min = query.getMinBalance() != null ? query.getMinBalance() : -Double.MAX_VALUE;
+                double max = query.getMaxBalance() != null ? query.getMaxBalance() : Double.MAX_VALUE;
+                matches = filter(repository.findByBalanceBetween(min, max, 0, Integer.MAX_VALUE),
+                        predicate, examined);
+                detail = "balance skip list range";
+                break;
+            case BALANCE_ORDER:
+                matches = scanBalanceOrder(query, predicate, examined);
+                detail = "balance skip list " + (query.isDescending() ? "top-N" : "bottom-N") + " pages";
+                break;
+            default:
+                boolean parallel = repository.count() >= PARALLEL_THRESHOLD;
+                matches = fullScan(query, predicate, parallel);
+                examined[0] = repository.count();
+                detail = parallel ? "parallel fork/join scan" : "sequential scan";
+        }
+
+        // BALANCE_ORDER нәтижесі ретімен келеді, қалғандары сұрыпталады
+        if (query.getSortField() != null && plan != Plan.BALANCE_ORDER && plan != Plan.FULL_SCAN) {
+            matches = new ArrayList<>(matches);
+            matches.sort(query.getSortField().comparator(query.isDescending()));
+        }
+        if (matches.size() > query.getLimit()) {
+            matches = matches.subList(0, query.getLimit());
+        }
+
+        List<T> rows = new ArrayList<>(matches.size());
+        for (AccountWithHistory match : matches) {
+            rows.add(projection.apply(match));
+        }
+        return new Result<>(rows, plan, detail, examined[0], (System.nanoTime() - startNanos) / 1_000);
+    }
+
+    /**
+     * Ең таңдамалы (selective) index-ті эвристика бойынша таңдау
+     */
+    Plan choosePlan(AccountQuery query) {
+        if (query.getMinId() != null && query.getMinId().equals(query.getMaxId())) {
+            return Plan.ID_LOOKUP;
+        }
+        if (query.getOwnerContains() != null) {
+            return Plan.OWNER_INDEX;
+        }
+        if (query.getMinId() != null && query.getMaxId() != null) {
+            return Plan.ID_RANGE;
+        }
+        if (query.hasBalanceRange()) {
+            return Plan.BALANCE_INDEX;
+        }
+        if (query.getSortField() == AccountQuery.SortField.BALANCE && query.hasLimit()) {
+            return Plan.BALANCE_ORDER;
+        }
+        if (query.hasIdRange()) {
+            return Plan.ID_RANGE;
+        }
+        return Plan.FULL_SCAN;
+    }
+
+    // ============ PLANS ============
+
+    private List<AccountWithHistory> scanIdRange(AccountQuery query, Predicate<AccountWithHistory> predicate,
+                                                 long[] examined) {
+        int afterId = query.getMinId() != null ? Math.max(query.getMinId(), 1) - 1 : 0;
+        int maxId = query.getMaxId() != null ? query.getMaxId() : Integer.MAX_VALUE;
+        // Сұрыптау болмаса limit-ке жеткенде тоқтауға болады (ID реті)
+        boolean stopAtLimit = query.getSortField() == null
+                || (query.getSortField() == AccountQuery.SortField.ID && !query.isDescending());
+        int pageSize = Math.max(MIN_PAGE_SIZE, stopAtLimit && query.hasLimit() ? query.getLimit() : 0);
+
+        List<AccountWithHistory> matches = new ArrayList<>();
+        while (true) {
+            List<AccountWithHistory> page = repository.findPage(afterId, pageSize);
+            for (AccountWithHistory account : page) {
+                if (account.getId() > maxId) {
+                    return matches;
+                }
+                examined[0]++;
+                if (predicate.test(account)) {
+                    matches.add(account);
+                    if (stopAtLimit && matches.size() >= query.getLimit()) {
+                        return matches;
+                    }
+                }
+            }
+            if (page.size() < pageSize) {
+                return matches;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Balance index-ті ретімен беттеп оқу, limit жиналғанда тоқтау
+     */
+    private List<AccountWithHistory> scanBalanceOrder(AccountQuery query, Predicate<AccountWithHistory> predicate,
+                                                      long[] examined) {
+        int pageSize = Math.max(MIN_PAGE_SIZE, query.getLimit() * 2);
+        List<AccountWithHistory> matches = new ArrayList<>(Math.min(query.getLimit(), 1024));
+        for (int offset = 0; ; offset += pageSize) {
+            List<AccountWithHistory> page = query.isDescending()
+                    ? repository.findTopByBalance(offset, pageSize)
+                    : repository.findBottomByBalance(offset, pageSize);
+            for (AccountWithHistory account : page) {
+                examined[0]++;
+                if (predicate.test(account)) {
+                    matches.add(account);
+                    if (matches.size() >= query.getLimit()) {
+                        return matches;
+                    }
+                }
+            }
+            if (page.size() < pageSize) {
+                return matches;
+            }
+        }
+    }
+
+    private List<AccountWithHistory> fullScan(AccountQuery query, Predicate<AccountWithHistory> predicate,
+                                              boolean parallel) {
+        Stream<AccountWithHistory> stream = repository.stream();
+        if (parallel) {
+            stream = stream.parallel(); // Common ForkJoinPool, сегменттер бойынша бөлінеді
+        }
+        stream = stream.filter(predicate);
+        if (query.getSortField() != null) {
+            stream = stream.sorted(query.getSortField().comparator(query.isDescending()));
+        }
+        if (query.hasLimit()) {
+            stream = stream.limit(query.getLimit());
+        }
+        return stream.collect(Collectors.toList());
+    }
+
+    private static List<AccountWithHistory> filter(List<AccountWithHistory> candidates,
+                                                   Predicate<AccountWithHistory> predicate, long[] examined) {
+        examined[0] = candidates.size();
+        List<AccountWithHistory> matches = new ArrayList<>();
+        for (AccountWithHistory candidate : candidates) {
+            if (predicate.test(candidate)) {
+                matches.add(candidate);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Сұраныс нәтижесі және орындау жоспары
+     */
+    public static final class Result<T> {
+        private final List<T> rows;
+        private final Plan plan;
+        private final String planDetail;
+        private final long examined;
+        private final long elapsedMicros;
+
+        Result(List<T> rows, Plan plan, String planDetail, long examined, long elapsedMicros) {
+            this.rows = Collections.unmodifiableList(rows);
+            this.plan = plan;
+            this.planDetail = planDetail;
+            this.examined = examined;
+            this.elapsedMicros = elapsedMicros;
+        }
+
+        public List<T> getRows() { return rows; }
+        public Plan getPlan() { return plan; }
+        public String getPlanDetail() { return planDetail; }
+        public long getExamined() { return examined; }
+        public long getElapsedMicros() { return elapsedMicros; }
+
+        /**
+         * EXPLAIN жолы
+         */
+        public String explain() {
+            return String.format("%s (%s): examined %,d, returned %,d in %,d us",
+                    plan, planDetail, examined, rows.size(), elapsedMicros);
+        }
+
+        @Override
+        public String toString() {
+            return explain();
+        }
+    }
+}
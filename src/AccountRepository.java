@@ -1,5 +1,8 @@
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
 
 /**
  * Repository паттерні - деректермен жұмысты абстракциялау
@@ -16,6 +19,13 @@ public interface AccountRepository {
      */
     AccountWithHistory save(AccountWithHistory account);
 
+    /**
+     * Бірнеше аккаунтты бір қадамда сақтау: lock бір рет алынады, index-тер бір өтуде жаңартылады
+     * @param accounts сақталатын аккаунттар
+     * @return сақталған аккаунттар (сол ретпен)
+     */
+    List<AccountWithHistory> saveAll(Collection<AccountWithHistory> accounts);
+
     /**
      * ID бойынша аккаунтты табу
      * @param id аккаунт ID
@@ -23,12 +33,34 @@ public interface AccountRepository {
      */
     Optional<AccountWithHistory> findById(int id);
 
+    /**
+     * Бірнеше ID бойынша аккаунттарды табу
+     * @param ids аккаунт ID-лері
+     * @return табылған аккаунттар (ids ретімен, табылмағандары өткізіледі)
+     */
+    List<AccountWithHistory> findAllById(Collection<Integer> ids);
+
     /**
      * Барлық аккаунттарды қайтару
      * @return аккаунттар тізімі
      */
     List<AccountWithHistory> findAll();
 
+    /**
+     * Барлық аккаунттарды көшірмесіз stream ретінде аралау
+     * Spliterator жақсы бөлінеді, сондықтан parallel() өңдеуге жарайды (weakly consistent)
+     * @return аккаунттар stream-і
+     */
+    Stream<AccountWithHistory> stream();
+
+    /**
+     * ID бойынша keyset pagination: afterId-ден кейінгі келесі бет (ID өсу ретімен)
+     * @param afterId алдыңғы беттің соңғы ID-і (бірінші бет үшін 0)
+     * @param limit беттегі ең көп жазба саны
+     * @return аккаунттар беті (бос болса - соңы)
+     */
+    List<AccountWithHistory> findPage(int afterId, int limit);
+
     /**
      * Аккаунтты өшіру
      * @param id аккаунт ID
@@ -36,6 +68,13 @@ public interface AccountRepository {
      */
     boolean deleteById(int id);
 
+    /**
+     * Бірнеше аккаунтты бір қадамда өшіру
+     * @param ids аккаунт ID-лері
+     * @return шынымен өшірілген ID-лер
+     */
+    List<Integer> deleteAllById(Collection<Integer> ids);
+
     /**
      * Иесінің аты бойынша іздеу
      * @param ownerName иесінің аты
@@ -50,6 +89,32 @@ public interface AccountRepository {
      */
     List<AccountWithHistory> findByBalanceGreaterThan(double minBalance);
 
+    /**
+     * Balance аралығы бойынша іздеу (balance өсу ретімен, беттеп)
+     * @param minBalance минималды balance (қоса)
+     * @param maxBalance максималды balance (қоса)
+     * @param offset өткізілетін жазбалар саны
+     * @param limit беттегі ең көп жазба саны
+     * @return табылған аккаунттар
+     */
+    List<AccountWithHistory> findByBalanceBetween(double minBalance, double maxBalance, int offset, int limit);
+
+    /**
+     * Ең үлкен balance-тағы аккаунттар (top-N, беттеп)
+     * @param offset өткізілетін жазбалар саны
+     * @param limit беттегі ең көп жазба саны
+     * @return balance кему ретімен аккаунттар
+     */
+    List<AccountWithHistory> findTopByBalance(int offset, int limit);
+
+    /**
+     * Ең кіші balance-тағы аккаунттар (bottom-N, беттеп)
+     * @param offset өткізілетін жазбалар саны
+     * @param limit беттегі ең көп жазба саны
+     * @return balance өсу ретімен аккаунттар
+     */
+    List<AccountWithHistory> findBottomByBalance(int offset, int limit);
+
     /**
      * Аккаунт бар ма екенін тексеру
      * @param id аккаунт ID
@@ -69,6 +134,29 @@ public interface AccountRepository {
      */
     int getNextId();
 
+    /**
+     * Бір қадамда count ID-ден тұратын қатар бөлу (bulk provisioning үшін)
+     * @param count қажет ID саны
+     * @return қатардың бірінші ID-і (first .. first + count - 1)
+     */
+    int allocateIds(int count);
+
+    /**
+     * Save/delete арқылы жаңартылатын банк санағыштары (O(1) статистика)
+     * @return осы repository-дің санағыштары
+     */
+    BankCounters getCounters();
+
+    /**
+     * Бірнеше аккаунтты өзгертетін операция (transfer) өзгерту мен save-ті осы lock астында жасайды
+     * Snapshot-ын бөлек-бөлек алатын storage (shard-тар) оны snapshot кезінде exclusive алады,
+     * сонда операцияның бір жағы ғана жазылған күй болмайды. flush() бұл lock ұсталып тұрғанда шақырылмайды.
+     * @return lock немесе null (storage бір snapshot-пен жазылады, lock керек емес)
+     */
+    default Lock getTransferLock() {
+        return null;
+    }
+
     /**
      * Барлық деректерді storage-ке жазу (flush)
      */
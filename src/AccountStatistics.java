@@ -0,0 +1,45 @@
+/**
+ * Аккаунт статистикасы
+ */
+public class AccountStatistics {
+    private final int accountId;
+    private final String ownerName;
+    private final double currentBalance;
+    private final double totalDeposited;
+    private final double totalWithdrawn;
+    private final int transactionCount;
+    private final boolean isLocked;
+
+    public AccountStatistics(AccountWithHistory account) {
+        this.accountId = account.getId();
+        this.ownerName = account.getOwnerName();
+        this.currentBalance = account.getBalance();
+        this.totalDeposited = account.getTotalDeposited();
+        this.totalWithdrawn = account.getTotalWithdrawn();
+        this.transactionCount = account.getTransactionCount();
+        this.isLocked = account.isLocked();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "Account #%d (%s)\n" +
+                        "  Current Balance: %.2f KZT\n" +
+                        "  Total Deposited: %.2f KZT\n" +
+                        "  Total Withdrawn: %.2f KZT\n" +
+                        "  Transactions: %d\n" +
+                        "  Status: %s",
+                accountId, ownerName, currentBalance, totalDeposited,
+                totalWithdrawn, transactionCount, isLocked ? "LOCKED" : "ACTIVE"
+        );
+    }
+
+    // Getters
+    public int getAccountId() { return accountId; }
+    public String getOwnerName() { return ownerName; }
+    public double getCurrentBalance() { return currentBalance; }
+    public double getTotalDeposited() { return totalDeposited; }
+    public double getTotalWithdrawn() { return totalWithdrawn; }
+    public int getTransactionCount() { return transactionCount; }
+    public boolean isLocked() { return isLocked; }
+}
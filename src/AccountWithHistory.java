@@ -1,7 +1,11 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Жетілдірілген AccountWithHistory класы
@@ -18,16 +22,46 @@ public class AccountWithHistory extends Account implements Serializable {
     private final List<Transaction> transactions;
     private static final int MAX_HISTORY_SIZE = 1000; // Шектеу
 
+    // Type index: абсолютті позиция = evictedCount + list индексі
+    private transient TransactionTypeIndex typeIndex;
+    private transient long evictedCount;
+
     /**
      * Конструктор
      */
     public AccountWithHistory(int id, String ownerName, String pinCode) {
         super(id, ownerName, pinCode);
         this.transactions = new ArrayList<>();
+        this.typeIndex = new TransactionTypeIndex();
         // Аккаунт ашылғанын жазамыз
         addTransaction(new Transaction(TransactionType.ACCOUNT_CREATED, 0.0, id, id));
     }
 
+    /**
+     * Сақталған күйден қалпына келтіру (AccountCodec үшін)
+     * Транзакциялар ledger-ге қайта жазылмайды - олардың sequence ID-лері бар
+     */
+    AccountWithHistory(int id, String ownerName, String pinCodeHash, double balance,
+                       LocalDateTime createdAt, LocalDateTime lastModified, boolean locked,
+                       int failedPinAttempts, List<Transaction> transactions) {
+        super(id, ownerName, pinCodeHash, balance, createdAt, lastModified, locked, failedPinAttempts);
+        this.transactions = new ArrayList<>(transactions);
+        this.typeIndex = new TransactionTypeIndex();
+        for (int i = 0; i < this.transactions.size(); i++) {
+            typeIndex.add(this.transactions.get(i).getType(), i, this.transactions.get(i).getTimestamp());
+        }
+    }
+
+    /**
+     * Serialization көшірмесі (writeReplace, source lock астында): transient typeIndex құрылмайды -
+     * оқығанда readObject қайта құрады
+     */
+    private AccountWithHistory(AccountWithHistory source) {
+        super(source.getId(), source.getOwnerName(), source.getPinCodeHash(), source.getBalance(),
+                source.getCreatedAt(), source.getLastModified(), source.isLocked(), source.getFailedPinAttempts());
+        this.transactions = new ArrayList<>(source.transactions);
+    }
+
     /**
      * Ақша салу (override)
      */
@@ -84,11 +118,14 @@ public class AccountWithHistory extends Account implements Serializable {
                         toAccount.getId()
                 );
 
+                // Екі жақтың уақыты бірдей - CSV импорт оларды осы арқылы жұптайды
                 Transaction toTx = new Transaction(
                         TransactionType.TRANSFER_IN,
                         amount,
                         this.getId(),
-                        toAccount.getId()
+                        toAccount.getId(),
+                        null,
+                        fromTx.getTimestamp()
                 );
 
                 this.addTransaction(fromTx);
@@ -97,6 +134,30 @@ public class AccountWithHistory extends Account implements Serializable {
         }
     }
 
+    /**
+     * Тарихи транзакцияларды топтап қолдану (bulk import үшін, PIN тексерусіз)
+     * Балансты теріс қылатын немесе сомасы қате жазбалар қолданылмайды
+     * @return қабылданбаған транзакциялар
+     */
+    public synchronized List<Transaction> importTransactions(List<Transaction> batch) {
+        List<Transaction> rejected = new ArrayList<>();
+        double balance = getBalance();
+
+        for (Transaction transaction : batch) {
+            double delta = transaction.getSignedAmount();
+            if (transaction.getAmount() < 0 || Double.isNaN(delta) || balance + delta < 0) {
+                rejected.add(transaction);
+                continue;
+            }
+            balance += delta;
+            addTransaction(transaction);
+        }
+
+        setBalance(balance);
+        touch();
+        return rejected;
+    }
+
     /**
      * Internal deposit - transfer үшін (PIN тексерусіз)
      */
@@ -117,84 +178,168 @@ public class AccountWithHistory extends Account implements Serializable {
      * Transaction қосу (synchronized)
      */
     private synchronized void addTransaction(Transaction transaction) {
+        // Глобалды ledger sequence ID береді
+        TransactionLedger.getInstance().append(transaction);
+        typeIndex.add(transaction.getType(), evictedCount + transactions.size(), transaction.getTimestamp());
         transactions.add(transaction);
 
         // Егер тарих тым үлкен болса, ескілерін өшіру
         if (transactions.size() > MAX_HISTORY_SIZE) {
-            transactions.remove(0);
+            Transaction evicted = transactions.remove(0);
+            typeIndex.evict(evicted.getType(), evictedCount);
+            evictedCount++;
         }
     }
 
     /**
-     * Барлық транзакцияларды қайтару (unmodifiable)
+     * Файлдан оқығанда transient index-ті қайта құру
      */
-    public List<Transaction> getTransactions() {
-        synchronized (transactions) {
-            return Collections.unmodifiableList(new ArrayList<>(transactions));
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.typeIndex = new TransactionTypeIndex();
+        this.evictedCount = 0;
+        for (int i = 0; i < transactions.size(); i++) {
+            typeIndex.add(transactions.get(i).getType(), i, transactions.get(i).getTimestamp());
         }
     }
 
+    /**
+     * Serialization үшін account lock астындағы көшірме (FileAccountRepository snapshot-ы операциялармен
+     * қатар жүреді): баланс пен тарих бір сәтке сәйкес, тарих тізімі жазылып жатқанда өзгермейді
+     */
+    private synchronized Object writeReplace() {
+        return new AccountWithHistory(this);
+    }
+
+    /**
+     * Барлық транзакцияларды қайтару (unmodifiable)
+     */
+    public synchronized List<Transaction> getTransactions() {
+        return Collections.unmodifiableList(new ArrayList<>(transactions));
+    }
+
     /**
      * Соңғы N транзакцияны қайтару
      */
-    public List<Transaction> getLastTransactions(int count) {
-        synchronized (transactions) {
-            int size = transactions.size();
-            int start = Math.max(0, size - count);
-            return Collections.unmodifiableList(
-                    new ArrayList<>(transactions.subList(start, size))
-            );
+    public synchronized List<Transaction> getLastTransactions(int count) {
+        int size = transactions.size();
+        int start = Math.max(0, size - count);
+        return Collections.unmodifiableList(
+                new ArrayList<>(transactions.subList(start, size))
+        );
+    }
+
+    /**
+     * Әр транзакцияны көшірмесіз аралау (account lock астында орындалады)
+     */
+    public synchronized void forEachTransaction(Consumer<Transaction> action) {
+        for (Transaction transaction : transactions) {
+            action.accept(transaction);
         }
     }
 
     /**
-     * Transaction санын қайтару
+     * Абсолют позициядан бастап ең көбі max транзакцияны көшіру (lock тек көшіру кезінде ұсталады)
+     * Позиция evict болған жазбаларды да санайды, сондықтан шақырулар арасында ескі
+     * жазбалар өшірілсе де ығыспайды (өшірілгендер өткізіліп кетеді)
+     * @return келесі шақыруға берілетін позиция
      */
-    public int getTransactionCount() {
-        synchronized (transactions) {
-            return transactions.size();
+    public synchronized long copyTransactions(long fromPosition, int max, List<Transaction> into) {
+        int first = (int) Math.max(0, fromPosition - evictedCount);
+        int end = Math.min(transactions.size(), first + max);
+        for (int i = first; i < end; i++) {
+            into.add(transactions.get(i));
         }
+        return evictedCount + end;
     }
 
     /**
-     * Белгілі бір типтегі транзакцияларды іздеу
+     * (afterSequence, upToSequence] аралығындағы транзакцияларды аралау
+     * (соңынан іздейді - жаңалары ғана қаралады; upToSequence-тен кейін қосылғандар өткізіледі)
      */
-    public List<Transaction> getTransactionsByType(TransactionType type) {
-        synchronized (transactions) {
-            List<Transaction> filtered = new ArrayList<>();
-            for (Transaction tx : transactions) {
-                if (tx.getType() == type) {
-                    filtered.add(tx);
-                }
+    public synchronized void forEachTransactionBetween(long afterSequence, long upToSequence,
+                                                       Consumer<Transaction> action) {
+        int first = transactions.size();
+        while (first > 0 && transactions.get(first - 1).getSequenceId() > afterSequence) {
+            first--;
+        }
+        for (int i = first; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (transaction.getSequenceId() > upToSequence) {
+                break;
             }
-            return Collections.unmodifiableList(filtered);
+            action.accept(transaction);
         }
     }
 
     /**
-     * Жалпы депозит сомасын есептеу
+     * Transaction санын қайтару
+     */
+    public synchronized int getTransactionCount() {
+        return transactions.size();
+    }
+
+    /**
+     * Тарихтағы ең үлкен sequence ID (файлдан жүктегенде ledger-ді қалпына келтіру үшін)
+     */
+    public synchronized long getLastSequenceId() {
+        return transactions.isEmpty() ? 0 :
+                transactions.get(transactions.size() - 1).getSequenceId();
+    }
+
+    /**
+     * Белгілі бір типтегі транзакцияларды іздеу (index арқылы - нәтиже өлшеміне пропорционал)
      */
-    public double getTotalDeposited() {
-        synchronized (transactions) {
-            return transactions.stream()
-                    .filter(tx -> tx.getType() == TransactionType.DEPOSIT ||
-                            tx.getType() == TransactionType.TRANSFER_IN)
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
+    public synchronized List<Transaction> getTransactionsByType(TransactionType type) {
+        int count = typeIndex.count(type);
+        List<Transaction> filtered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            filtered.add(transactionAt(typeIndex.positionAt(type, i)));
         }
+        return Collections.unmodifiableList(filtered);
+    }
+
+    /**
+     * Белгілі бір типтегі транзакциялар саны - O(1)
+     */
+    public synchronized int countTransactionsByType(TransactionType type) {
+        return typeIndex.count(type);
+    }
+
+    /**
+     * since уақытынан кейінгі белгілі типтегі транзакциялар
+     * Index-ті соңынан жүріп, уақыт ретімен қосылған ескі жазбаға жеткенде тоқтайды
+     * (импортталған ескі жазбалар тоқтатпайды)
+     */
+    public synchronized List<Transaction> getTransactionsByTypeSince(TransactionType type,
+                                                                    LocalDateTime since) {
+        return Collections.unmodifiableList(typeIndex.findSince(type, since, this::transactionAt));
+    }
+
+    /**
+     * Жалпы депозит сомасын есептеу
+     */
+    public synchronized double getTotalDeposited() {
+        return sumByType(TransactionType.DEPOSIT) + sumByType(TransactionType.TRANSFER_IN);
     }
 
     /**
      * Жалпы алынған сомасын есептеу
      */
-    public double getTotalWithdrawn() {
-        synchronized (transactions) {
-            return transactions.stream()
-                    .filter(tx -> tx.getType() == TransactionType.WITHDRAW ||
-                            tx.getType() == TransactionType.TRANSFER_OUT)
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
+    public synchronized double getTotalWithdrawn() {
+        return sumByType(TransactionType.WITHDRAW) + sumByType(TransactionType.TRANSFER_OUT);
+    }
+
+    private double sumByType(TransactionType type) {
+        double sum = 0;
+        for (int i = 0; i < typeIndex.count(type); i++) {
+            sum += transactionAt(typeIndex.positionAt(type, i)).getAmount();
         }
+        return sum;
+    }
+
+    private Transaction transactionAt(long position) {
+        return transactions.get((int) (position - evictedCount));
     }
 
     @Override
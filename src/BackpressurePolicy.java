@@ -0,0 +1,18 @@
+/**
+ * Async лог буфері толғанда не істеу керек
+ */
+public enum BackpressurePolicy {
+    BLOCK("Block caller until space is available"),
+    DROP("Drop the new event"),
+    SAMPLE("Keep one of every N events, drop the rest");
+
+    private final String description;
+
+    BackpressurePolicy(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Balance бойынша реттелген concurrent index
+ * - Skip list кілті: (balance, id) - бірдей balance-тағы аккаунттар ID бойынша реттеледі
+ * - Әр аккаунттың индекстегі соңғы balance-ы бөлек map-та (ескі кілтті табу үшін)
+ * - Repository save кезінде жаңартылады (deposit/withdraw/transfer-ден кейін save шақырылады)
+ * - Range, top-N, bottom-N сұраныстары сұрыптаусыз, offset/limit арқылы беттеледі
+ */
+public class BalanceIndex {
+    private final ConcurrentSkipListSet<Key> keys = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Integer, Double> balances = new ConcurrentHashMap<>();
+
+    /**
+     * Аккаунт balance-ын индекстеу немесе жаңарту
+     * compute бір ID үшін жаңартуларды ретке келтіреді, басқа ID-лер бөгелмейді.
+     * Balance compute ішінде оқылады: екі save қатар келсе, соңғысы ең жаңа мәнді жазады
+     */
+    public void put(Account account) {
+        int id = account.getId();
+        balances.compute(id, (key, previous) -> {
+            double balance = account.getBalance();
+            if (previous == null || previous != balance) {
+                if (previous != null) {
+                    keys.remove(new Key(previous, id));
+                }
+                keys.add(new Key(balance, id));
+            }
+            return balance;
+        });
+    }
+
+    /**
+     * Аккаунтты индекстен өшіру
+     */
+    public void remove(int id) {
+        balances.computeIfPresent(id, (key, previous) -> {
+            keys.remove(new Key(previous, id));
+            return null;
+        });
+    }
+
+    /**
+     * minBalance-тан үлкен balance-тағы аккаунттар (balance өсу ретімен)
+     */
+    public List<Integer> greaterThan(double minBalance) {
+        return collect(keys.tailSet(new Key(minBalance, Integer.MAX_VALUE), false), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * min <= balance <= max аралығындағы аккаунттар (balance өсу ретімен)
+     */
+    public List<Integer> range(double min, double max, int offset, int limit) {
+        checkPage(offset, limit);
+        if (min > max) {
+            throw new IllegalArgumentException("Minimum balance cannot exceed maximum");
+        }
+        return collect(keys.subSet(new Key(min, Integer.MIN_VALUE), true,
+                new Key(max, Integer.MAX_VALUE), true), offset, limit);
+    }
+
+    /**
+     * Ең үлкен balance-тағы аккаунттар (кему ретімен)
+     */
+    public List<Integer> top(int offset, int limit) {
+        checkPage(offset, limit);
+        return collect(keys.descendingSet(), offset, limit);
+    }
+
+    /**
+     * Ең кіші balance-тағы аккаунттар (өсу ретімен)
+     */
+    public List<Integer> bottom(int offset, int limit) {
+        checkPage(offset, limit);
+        return collect(keys, offset, limit);
+    }
+
+    public void clear() {
+        balances.clear();
+        keys.clear();
+    }
+
+    public int size() {
+        return balances.size();
+    }
+
+    // ============ INTERNAL ============
+
+    /**
+     * Skip list-ті offset-ке дейін өткізіп, limit ID жинау
+     * Iterator weakly consistent: қатар жаңартылған аккаунт бетке түспеуі мүмкін,
+     * бірақ seen арқылы бір аккаунт екі рет шықпайды
+     */
+    private static List<Integer> collect(NavigableSet<Key> view, int offset, int limit) {
+        List<Integer> result = new ArrayList<>(Math.min(limit, 1024));
+        Set<Integer> seen = new HashSet<>();
+        int skipped = 0;
+        for (Key key : view) {
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+            if (seen.add(key.id)) {
+                result.add(key.id);
+            }
+        }
+        return result;
+    }
+
+    private static void checkPage(int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+    }
+
+    /**
+     * Skip list кілті - (balance, id)
+     */
+    private static final class Key implements Comparable<Key> {
+        private final double balance;
+        private final int id;
+
+        private Key(double balance, int id) {
+            this.balance = balance;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byBalance = Double.compare(balance, other.balance);
+            return byBalance != 0 ? byBalance : Integer.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return id == other.id && Double.compare(balance, other.balance) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Double.hashCode(balance) + id;
+        }
+    }
+}
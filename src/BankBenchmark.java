@@ -0,0 +1,505 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Өнімділікті өлшеу сценарийлері (JMH жоқ, қарапайым main)
+ *
+ * Қолдану:
+ *   java BankBenchmark provision [accounts]
+ *   java BankBenchmark balance [accounts] [writerThreads] [seconds]
+ *   java BankBenchmark intmap [accounts] [lookups]
+ *   java -Xmx256m BankBenchmark disk [accounts] [cacheSize] [operations]
+ *   java BankBenchmark shards [accounts] [threads] [operations] [maxShards]
+ *   java BankBenchmark ids [threads] [idsPerThread]
+ */
+public class BankBenchmark {
+
+    public static void main(String[] args) {
+        String scenario = args.length > 0 ? args[0] : "provision";
+
+        switch (scenario) {
+            case "provision":
+                benchmarkProvisioning(intArg(args, 1, 1_000_000));
+                break;
+            case "balance":
+                benchmarkBalanceIndex(intArg(args, 1, 1_000_000), intArg(args, 2, 4), intArg(args, 3, 5));
+                break;
+            case "intmap":
+                benchmarkIntAccountMap(intArg(args, 1, 1_000_000), intArg(args, 2, 20_000_000));
+                break;
+            case "disk":
+                benchmarkDiskStore(intArg(args, 1, 10_000_000), intArg(args, 2, 50_000), intArg(args, 3, 2_000_000));
+                break;
+            case "shards":
+                benchmarkSharding(intArg(args, 1, 5_000), intArg(args, 2, 4), intArg(args, 3, 200),
+                        intArg(args, 4, 8));
+                break;
+            case "ids":
+                benchmarkIdAllocation(intArg(args, 1, 4), intArg(args, 2, 5_000_000));
+                break;
+            default:
+                System.err.println("Unknown scenario: " + scenario);
+                System.err.println("Available: provision, balance, intmap, disk, shards, ids");
+                System.exit(1);
+        }
+    }
+
+    /**
+     * Bulk provisioning: createAccount() циклімен салыстыру
+     */
+    private static void benchmarkProvisioning(int accounts) {
+        System.out.println("=== Bulk provisioning: " + accounts + " accounts ===");
+
+        List<AccountBuilder> requests = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            requests.add(new AccountBuilder()
+                    .setOwnerName("Owner " + i)
+                    .setPinCode(String.format("%04d", i % 10_000))
+                    .setInitialBalance(i % 3 == 0 ? 1000.0 : 0.0));
+        }
+
+        // Екі жақ та FileAccountRepository-да: файлды қайта жазу құны өлшенеді
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("bank-provision-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        FileAccountRepository repository = new FileAccountRepository(
+                directory.resolve("bulk").toString(), "accounts.dat", false);
+        AccountProvisioner provisioner = new AccountProvisioner(repository,
+                Runtime.getRuntime().availableProcessors());
+
+        long start = System.nanoTime();
+        provisioner.provision(requests);
+        long elapsed = System.nanoTime() - start;
+        report("bulk provision", accounts, elapsed);
+
+        // Салыстыру үшін: бір-бірлеп createAccount (кішкене үлгіде, әрқайсысы толық flush)
+        int sample = Math.min(accounts, 1_000);
+        BankService service = new BankService(new FileAccountRepository(
+                directory.resolve("loop").toString(), "accounts.dat", false));
+        start = System.nanoTime();
+        for (int i = 0; i < sample; i++) {
+            service.createAccount("Owner " + i, "1234");
+        }
+        elapsed = System.nanoTime() - start;
+        report("createAccount loop", sample, elapsed);
+
+        deleteRecursively(directory);
+    }
+
+    /**
+     * Balance index: top-N және range сұраныстары қатар deposit/withdraw жүктемесі астында,
+     * толық сұрыптаумен салыстыру
+     */
+    private static void benchmarkBalanceIndex(int accounts, int writerThreads, int seconds) {
+        System.out.println("=== Balance index: " + accounts + " accounts, "
+                + writerThreads + " writers, " + seconds + "s ===");
+
+        List<AccountBuilder> requests = new ArrayList<>(accounts);
+        ThreadLocalRandom seed = ThreadLocalRandom.current();
+        for (int i = 0; i < accounts; i++) {
+            requests.add(new AccountBuilder()
+                    .setOwnerName("Owner " + i)
+                    .setPinCode("1234")
+                    .setInitialBalance(seed.nextInt(1_000_000) / 100.0));
+        }
+        InMemoryAccountRepository repository = new InMemoryAccountRepository();
+        new AccountProvisioner(repository, Runtime.getRuntime().availableProcessors()).provision(requests);
+
+        // Baseline: индекссіз top-100
+        long start = System.nanoTime();
+        List<AccountWithHistory> sortedTop = repository.findAll().stream()
+                .sorted(Comparator.comparingDouble(AccountWithHistory::getBalance).reversed())
+                .limit(100)
+                .collect(Collectors.toList());
+        report("full sort top-100", 1, System.nanoTime() - start);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong updates = new AtomicLong();
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < writerThreads; t++) {
+            Thread writer = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    AccountWithHistory account = repository.findById(1 + random.nextInt(accounts)).orElse(null);
+                    if (account == null) {
+                        continue;
+                    }
+                    try {
+                        if (random.nextBoolean()) {
+                            account.deposit(1 + random.nextInt(500));
+                        } else {
+                            account.withdraw(1 + random.nextInt(500));
+                        }
+                    } catch (Exception e) {
+                        continue; // Қаражат жетпеді - қалыпты жағдай
+                    }
+                    repository.save(account);
+                    updates.incrementAndGet();
+                }
+            }, "balance-writer-" + t);
+            writers.add(writer);
+            writer.start();
+        }
+
+        long queries = 0;
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        start = System.nanoTime();
+        while (System.nanoTime() < end) {
+            repository.findTopByBalance(0, 100);
+            repository.findTopByBalance(100, 100); // Екінші бет
+            repository.findBottomByBalance(0, 100);
+            repository.findByBalanceBetween(5000.0, 5010.0, 0, 100);
+            queries += 4;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        running.set(false);
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        report("indexed queries", queries, elapsed);
+        report("concurrent updates", updates.get(), elapsed);
+
+        // Жүктеме аяқталған соң index толық сұрыптаумен сәйкес болуы керек
+        sortedTop = repository.findAll().stream()
+                .sorted(Comparator.comparingDouble(AccountWithHistory::getBalance).reversed())
+                .limit(100)
+                .collect(Collectors.toList());
+        List<AccountWithHistory> indexedTop = repository.findTopByBalance(0, 100);
+        boolean consistent = true;
+        for (int i = 0; i < sortedTop.size(); i++) {
+            if (sortedTop.get(i).getBalance() != indexedTop.get(i).getBalance()) {
+                consistent = false;
+                break;
+            }
+        }
+        System.out.println("Index consistent with full sort: " + consistent);
+    }
+
+    /**
+     * IntAccountMap мен ConcurrentHashMap<Integer, ...> салыстыру:
+     * findById throughput және бір жазбаға келетін memory (мәндер ортақ, тек map overhead)
+     */
+    private static void benchmarkIntAccountMap(int accounts, int lookups) {
+        System.out.println("=== Account map: " + accounts + " accounts, " + lookups + " lookups ===");
+
+        AccountWithHistory[] values = new AccountWithHistory[accounts];
+        for (int i = 0; i < accounts; i++) {
+            values[i] = new AccountWithHistory(i + 1, "Owner " + i, "1234");
+        }
+        int[] keys = new int[lookups];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < lookups; i++) {
+            keys[i] = 1 + random.nextInt(accounts);
+        }
+
+        long before = usedHeap();
+        ConcurrentHashMap<Integer, AccountWithHistory> boxed = new ConcurrentHashMap<>();
+        for (AccountWithHistory account : values) {
+            boxed.put(account.getId(), account);
+        }
+        long boxedBytes = usedHeap() - before;
+
+        before = usedHeap();
+        IntAccountMap primitive = new IntAccountMap();
+        for (AccountWithHistory account : values) {
+            primitive.put(account.getId(), account);
+        }
+        long primitiveBytes = usedHeap() - before;
+
+        System.out.printf("%-28s %8.1f bytes/entry%n", "ConcurrentHashMap memory", boxedBytes / (double) accounts);
+        System.out.printf("%-28s %8.1f bytes/entry%n", "IntAccountMap memory", primitiveBytes / (double) accounts);
+
+        // Warm-up, содан кейін өлшеу (JIT үшін)
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            long checksum = 0;
+            for (int key : keys) {
+                checksum += boxed.get(key).getId();
+            }
+            long boxedElapsed = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int key : keys) {
+                checksum -= primitive.get(key).getId();
+            }
+            long primitiveElapsed = System.nanoTime() - start;
+
+            if (round == 1) {
+                report("ConcurrentHashMap.get", lookups, boxedElapsed);
+                report("IntAccountMap.get", lookups, primitiveElapsed);
+                System.out.println("Checksum (must be 0): " + checksum);
+            }
+        }
+    }
+
+    /**
+     * DiskAccountRepository: шектелген heap-те (мысалы, -Xmx256m) үлкен банк
+     * Жүктеме skewed: ID = N * u^3 (u - біркелкі), яғни аз аккаунтқа көп сұраныс түседі
+     */
+    private static void benchmarkDiskStore(int accounts, int cacheSize, int operations) {
+        System.out.printf("=== Disk store: %,d accounts, cache %,d, %,d operations, max heap %,d MB ===%n",
+                accounts, cacheSize, operations, Runtime.getRuntime().maxMemory() >> 20);
+
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("bank-disk-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        DiskAccountRepository repository = new DiskAccountRepository(directory.toString(), cacheSize);
+
+        long start = System.nanoTime();
+        int first = repository.allocateIds(accounts);
+        for (int i = 0; i < accounts; i++) {
+            repository.save(new AccountWithHistory(first + i, "Owner " + i, "1234"));
+        }
+        repository.flush();
+        report("Create + write-back", accounts, System.nanoTime() - start);
+        System.out.printf("%-28s %,12d MB heap, %,d MB data file%n", "After load",
+                usedHeap() >> 20, repository.getDataFileSize() >> 20);
+
+        checkLiveIdentity(repository, first, accounts, cacheSize);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            double u = random.nextDouble();
+            int id = first + (int) (accounts * u * u * u);
+            AccountWithHistory account = repository.findById(id).orElseThrow(IllegalStateException::new);
+            try {
+                account.deposit(1.0);
+            } catch (InvalidAmountException e) {
+                throw new IllegalStateException(e);
+            }
+            repository.save(account);
+        }
+        report("Skewed deposit + save", operations, System.nanoTime() - start);
+        System.out.println(repository.getCacheStats());
+        System.out.printf("Disk reads: %,d, disk writes: %,d%n", repository.getDiskReads(), repository.getDiskWrites());
+
+        start = System.nanoTime();
+        repository.flush();
+        System.out.printf("%-28s %8.2fs  (%,d MB data file, %,d MB live, %d compactions)%n", "Flush",
+                (System.nanoTime() - start) / 1e9, repository.getDataFileSize() >> 20,
+                repository.getLiveDataBytes() >> 20, repository.getCompactions());
+
+        start = System.nanoTime();
+        BankCounters.Report check = repository.getCounters().verify(repository.stream());
+        report("Full scan (verify)", accounts, System.nanoTime() - start);
+        System.out.println(check);
+        System.out.printf("%-28s %,12d MB heap%n", "After run", usedHeap() >> 20);
+
+        repository.close();
+        deleteRecursively(directory);
+    }
+
+        /**
+     * ShardedAccountRepository: BankService сияқты әр операциядан кейін flush (deposit + save + flush)
+     * Shard саны 1, 2, 4 .. maxShards - flush тек өзгерген shard файлдарын параллель жазады
+     */
+    private static void benchmarkSharding(int accounts, int threads, int operations, int maxShards) {
+        System.out.printf("=== Sharded file store: %,d accounts, %d threads, %,d operations, %d CPUs ===%n",
+                accounts, threads, operations, Runtime.getRuntime().availableProcessors());
+
+        for (int shardCount = 1; shardCount <= maxShards; shardCount *= 2) {
+            Path directory;
+            try {
+                directory = Files.createTempDirectory("bank-shard-bench");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Ledger journal JVM-де біреу ғана - бенчмарк shard-тарды journal-сыз құрады
+            List<AccountRepository> shards = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new FileAccountRepository(directory.resolve("shard-" + i).toString(), "accounts.dat", false));
+            }
+            ShardedAccountRepository repository = new ShardedAccountRepository(shards);
+            int first = repository.allocateIds(accounts);
+            for (int i = 0; i < accounts; i++) {
+                repository.save(new AccountWithHistory(first + i, "Owner " + i, "1234"));
+            }
+            repository.flush();
+
+            AtomicLong remaining = new AtomicLong(operations);
+            List<Thread> workers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (remaining.decrementAndGet() >= 0) {
+                        AccountWithHistory account = repository.findById(first + random.nextInt(accounts))
+                                .orElseThrow(IllegalStateException::new);
+                        try {
+                            account.deposit(1.0);
+                        } catch (InvalidAmountException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        repository.save(account);
+                        repository.flush();
+                    }
+                }, "shard-worker-" + t);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            report(shardCount + " shard(s) deposit+flush", operations, System.nanoTime() - start);
+
+            BankCounters.Report check = repository.getCounters().verify(repository.stream());
+            if (!check.isConsistent()) {
+                System.out.println(check);
+            }
+            deleteRecursively(directory);
+        }
+    }
+
+        /**
+     * ID бөлу: synchronized санауыш пен IdAllocator (persistent, block leasing) салыстыру
+     * Соңында барлық ID-лер бірегей екені тексеріледі
+     */
+    private static void benchmarkIdAllocation(int threads, int idsPerThread) {
+        System.out.printf("=== ID allocation: %d threads x %,d ids ===%n", threads, idsPerThread);
+
+        Object monitor = new Object();
+        int[] counter = {1};
+        int[][] ids = new int[threads][idsPerThread];
+        for (int round = 0; round < 2; round++) { // Бірінші round - JIT warm-up
+            long synchronizedElapsed = runAllocators(ids, () -> {
+                synchronized (monitor) {
+                    return counter[0]++;
+                }
+            });
+
+            Path directory;
+            try {
+                directory = Files.createTempDirectory("bank-id-bench");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long memoryElapsed = runAllocators(ids, new IdAllocator()::next);
+            IdAllocator allocator = new IdAllocator(directory.resolve("ids.hwm"));
+            long leasedElapsed = runAllocators(ids, allocator::next);
+            deleteRecursively(directory);
+
+            if (round == 1) {
+                long total = (long) threads * idsPerThread;
+                report("synchronized counter", total, synchronizedElapsed);
+                report("IdAllocator (memory)", total, memoryElapsed);
+                report("IdAllocator (fsync/block)", total, leasedElapsed);
+                System.out.println("All leased IDs unique: " + allUnique(ids));
+            }
+        }
+    }
+
+    /**
+     * Әр thread ids[t] массивін allocator-дан толтырады
+     * @return өткен уақыт (наносекунд)
+     */
+    private static long runAllocators(int[][] ids, IntSupplier allocator) {
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < ids.length; t++) {
+            int[] own = ids[t];
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < own.length; i++) {
+                    own[i] = allocator.getAsInt();
+                }
+            }, "id-allocator-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static boolean allUnique(int[][] ids) {
+        BitSet seen = new BitSet();
+        for (int[] own : ids) {
+            for (int id : own) {
+                if (seen.get(id)) {
+                    return false;
+                }
+                seen.set(id);
+            }
+        }
+        return true;
+    }
+
+    // ============ HELPERS ============
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Regression: cache-тен evict болған, бірақ ұсталған аккаунт үшін findById сол объектіні қайтаруы керек
+     * (екі тірі объект болса, біреуінің deposit-і екіншісінің save-імен жоғалады)
+     */
+    private static void checkLiveIdentity(DiskAccountRepository repository, int first, int accounts,
+                                          int cacheSize) {
+        AccountWithHistory held = repository.findById(first).orElseThrow(IllegalStateException::new);
+        int touched = Math.min(accounts - 1, cacheSize * 2);
+        for (int i = 1; i <= touched; i++) {
+            repository.findById(first + i); // held cache-тен ығыстырылады
+        }
+        AccountWithHistory reloaded = repository.findById(first).orElseThrow(IllegalStateException::new);
+        if (reloaded != held) {
+            throw new IllegalStateException("Account " + first + " has two live objects after eviction");
+        }
+        System.out.printf("%-28s %s%n", "Live identity", "ok (same object after " + touched + " loads)");
+    }
+
+    private static void report(String name, long operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-28s %,12d ops in %8.2fs  (%,.0f ops/s)%n",
+                name, operations, seconds, operations / seconds);
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to delete " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
@@ -0,0 +1,294 @@
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Банк бойынша live санағыштар (striped adders - LongAdder/DoubleAdder)
+ * - Аккаунттар саны, active/locked саны, жалпы balance
+ * - Транзакция типі бойынша саны мен көлемі
+ *
+ * Repository save/delete кезінде жаңартылады: әр аккаунттың соңғы есептелген күйі
+ * (balance, locked, соңғы sequence ID) сақталып, жаңа күймен айырмасы ғана қосылады.
+ * Күй аккаунт monitor-ы астында snapshot-қа алынады, транзакциялар snapshot-тың sequence-іне
+ * дейін ғана саналады: қатар deposit қосқан жазба келесі save-те бір рет саналады.
+ * Сондықтан статистиканы оқу O(1), ал кез келген мутация жолы (deposit, transfer, import,
+ * unlock, delete, cleanup) save/delete арқылы өтсе жеткілікті.
+ *
+ * Тип бойынша санағыштар жинақталатын (cumulative): аккаунт өшірілгенде азаймайды.
+ */
+public class BankCounters {
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final double BALANCE_TOLERANCE = 0.005; // double жинақталу қателігі
+
+    private final LongAdder accounts = new LongAdder();
+    private final LongAdder lockedAccounts = new LongAdder();
+    private final DoubleAdder totalBalance = new DoubleAdder();
+    private final LongAdder[] typeCounts = new LongAdder[TYPES.length];
+    private final DoubleAdder[] typeVolumes = new DoubleAdder[TYPES.length];
+    private final ConcurrentHashMap<Integer, State> tracked = new ConcurrentHashMap<>();
+
+    public BankCounters() {
+        for (int i = 0; i < TYPES.length; i++) {
+            typeCounts[i] = new LongAdder();
+            typeVolumes[i] = new DoubleAdder();
+        }
+    }
+
+    /**
+     * Аккаунт сақталды - айырманы санағыштарға қосу
+     * compute бір аккаунттың save-терін ретке келтіреді, күй compute ішінде оқылады
+     */
+    public void onSaved(AccountWithHistory account) {
+        tracked.compute(account.getId(), (id, previous) -> {
+            State current = State.of(account);
+            apply(account, current, previous);
+            return current;
+        });
+    }
+
+    /**
+     * Аккаунт өшірілді - оның үлесін алып тастау
+     */
+    public void onDeleted(int accountId) {
+        tracked.computeIfPresent(accountId, (id, previous) -> {
+            onRemoved(previous.balance, previous.locked);
+            return null;
+        });
+    }
+
+    /**
+     * Алдыңғы күйді repository өзі сақтайтын жағдай үшін (мысалы, DiskAccountRepository
+     * оны дискідегі index-те ұстайды - 10M аккаунтқа heap-те map ұстамау үшін)
+     * Шақырушы бір аккаунттың өзгерістерін ретке келтіруі керек
+     * @param previous соңғы есептелген күй (null болса - жаңа аккаунт, бүкіл тарих саналады)
+     * @param current сақталатын күй (State.of(account))
+     */
+    public void onChanged(AccountWithHistory account, State previous, State current) {
+        apply(account, current, previous);
+    }
+
+    private void apply(AccountWithHistory account, State current, State previous) {
+        if (previous == null) {
+            onLoaded(current.balance, current.locked);
+            // Бүкіл тарих (ескі файлдарда sequence 0 болуы мүмкін), бірақ snapshot-тан кейін
+            // қосылғандары келесі save-ке қалады - әйтпесе екі рет саналады
+            account.forEachTransactionBetween(Long.MIN_VALUE, current.lastSequence, this::count);
+            return;
+        }
+
+        if (current.balance != previous.balance) {
+            totalBalance.add(current.balance - previous.balance);
+        }
+        if (current.locked != previous.locked) {
+            if (current.locked) {
+                lockedAccounts.increment();
+            } else {
+                lockedAccounts.decrement();
+            }
+        }
+        if (current.lastSequence > previous.lastSequence) {
+            account.forEachTransactionBetween(previous.lastSequence, current.lastSequence, this::count);
+        }
+    }
+
+    /**
+     * Бұрыннан бар аккаунтты тарихсыз есепке алу (storage ашылғанда)
+     */
+    public void onLoaded(double balance, boolean locked) {
+        accounts.increment();
+        totalBalance.add(balance);
+        if (locked) {
+            lockedAccounts.increment();
+        }
+    }
+
+    /**
+     * Аккаунттың соңғы есептелген үлесін алып тастау
+     */
+    public void onRemoved(double balance, boolean locked) {
+        accounts.decrement();
+        totalBalance.add(-balance);
+        if (locked) {
+            lockedAccounts.decrement();
+        }
+    }
+
+    public void clear() {
+        tracked.clear();
+        accounts.reset();
+        lockedAccounts.reset();
+        totalBalance.reset();
+        for (int i = 0; i < TYPES.length; i++) {
+            typeCounts[i].reset();
+            typeVolumes[i].reset();
+        }
+    }
+
+    /**
+     * Бірнеше санағыштың қосындысы (snapshot) - мысалы, shard-тар бойынша
+     * Нәтиже өзгермейтін көшірме: кейінгі save/delete оған әсер етпейді
+     */
+    public static BankCounters sum(List<BankCounters> parts) {
+        BankCounters total = new BankCounters();
+        for (BankCounters part : parts) {
+            total.accounts.add(part.accounts.sum());
+            total.lockedAccounts.add(part.lockedAccounts.sum());
+            total.totalBalance.add(part.totalBalance.sum());
+            for (int i = 0; i < TYPES.length; i++) {
+                total.typeCounts[i].add(part.typeCounts[i].sum());
+                total.typeVolumes[i].add(part.typeVolumes[i].sum());
+            }
+        }
+        return total;
+    }
+
+    private void count(Transaction transaction) {
+        int type = transaction.getType().ordinal();
+        typeCounts[type].increment();
+        typeVolumes[type].add(transaction.getAmount());
+    }
+
+    // ============ READ ============
+
+    public int getTotalAccounts() {
+        return accounts.intValue();
+    }
+
+    public int getLockedAccounts() {
+        return lockedAccounts.intValue();
+    }
+
+    public int getActiveAccounts() {
+        return getTotalAccounts() - getLockedAccounts();
+    }
+
+    public double getTotalBalance() {
+        return totalBalance.sum();
+    }
+
+    public long getTransactionCount(TransactionType type) {
+        return typeCounts[type.ordinal()].sum();
+    }
+
+    public double getTransactionVolume(TransactionType type) {
+        return typeVolumes[type.ordinal()].sum();
+    }
+
+    public Map<TransactionType, Long> getTransactionCounts() {
+        Map<TransactionType, Long> counts = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TYPES) {
+            counts.put(type, getTransactionCount(type));
+        }
+        return counts;
+    }
+
+    public Map<TransactionType, Double> getTransactionVolumes() {
+        Map<TransactionType, Double> volumes = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TYPES) {
+            volumes.put(type, getTransactionVolume(type));
+        }
+        return volumes;
+    }
+
+    // ============ VERIFY ============
+
+    /**
+     * Санағыштарды толық қайта санаумен салыстыру
+     * Тип бойынша санағыштар тексерілмейді: аккаунт тарихы шектеулі (ескілері өшеді)
+     * және өшірілген аккаунттардың транзакциялары санағышта қалады
+     */
+    public Report verify(Stream<AccountWithHistory> allAccounts) {
+        int expectedAccounts = 0;
+        int expectedLocked = 0;
+        double expectedBalance = 0.0;
+        for (Iterator<AccountWithHistory> it = allAccounts.iterator(); it.hasNext(); ) {
+            AccountWithHistory account = it.next();
+            expectedAccounts++;
+            expectedBalance += account.getBalance();
+            if (account.isLocked()) {
+                expectedLocked++;
+            }
+        }
+        return new Report(expectedAccounts, getTotalAccounts(),
+                expectedLocked, getLockedAccounts(),
+                expectedBalance, getTotalBalance());
+    }
+
+    /**
+     * Аккаунттың соңғы есептелген күйі
+     */
+    public static final class State {
+        private final double balance;
+        private final boolean locked;
+        private final long lastSequence;
+
+        public State(double balance, boolean locked, long lastSequence) {
+            this.balance = balance;
+            this.locked = locked;
+            this.lastSequence = lastSequence;
+        }
+
+        /**
+         * Үш өріс аккаунт monitor-ы астында оқылады - балансы мен sequence бір күйге жатады
+         * (AccountWithHistory методтары this-ке synchronized)
+         */
+        public static State of(AccountWithHistory account) {
+            synchronized (account) {
+                return new State(account.getBalance(), account.isLocked(), account.getLastSequenceId());
+            }
+        }
+
+        public double getBalance() { return balance; }
+        public boolean isLocked() { return locked; }
+        public long getLastSequence() { return lastSequence; }
+    }
+
+    /**
+     * Тексеру есебі
+     */
+    public static final class Report {
+        private final int expectedAccounts;
+        private final int actualAccounts;
+        private final int expectedLocked;
+        private final int actualLocked;
+        private final double expectedBalance;
+        private final double actualBalance;
+
+        Report(int expectedAccounts, int actualAccounts, int expectedLocked, int actualLocked,
+               double expectedBalance, double actualBalance) {
+            this.expectedAccounts = expectedAccounts;
+            this.actualAccounts = actualAccounts;
+            this.expectedLocked = expectedLocked;
+            this.actualLocked = actualLocked;
+            this.expectedBalance = expectedBalance;
+            this.actualBalance = actualBalance;
+        }
+
+        public boolean isConsistent() {
+            return expectedAccounts == actualAccounts
+                    && expectedLocked == actualLocked
+                    && Math.abs(expectedBalance - actualBalance) < BALANCE_TOLERANCE;
+        }
+
+        public int getExpectedAccounts() { return expectedAccounts; }
+        public int getActualAccounts() { return actualAccounts; }
+        public int getExpectedLocked() { return expectedLocked; }
+        public int getActualLocked() { return actualLocked; }
+        public double getExpectedBalance() { return expectedBalance; }
+        public double getActualBalance() { return actualBalance; }
+
+        @Override
+        public String toString() {
+            return String.format("Counters %s: accounts %d/%d, locked %d/%d, balance %.2f/%.2f "
+                            + "(recount/live)",
+                    isConsistent() ? "consistent" : "MISMATCH",
+                    expectedAccounts, actualAccounts, expectedLocked, actualLocked,
+                    expectedBalance, actualBalance);
+        }
+    }
+}
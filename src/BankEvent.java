@@ -0,0 +1,298 @@
+import java.time.ZoneId;
+
+/**
+ * Құрылымды банк оқиғасы (binary event log жазбасы)
+ * - Сома minor units (тиын) түрінде сақталады
+ * - Уақыт epoch миллисекунд
+ * - Мәтін тек қажет болғанда (flusher thread-та) жасалады
+ */
+public final class BankEvent {
+
+    /**
+     * Операция түрі (код binary форматта сақталады - өзгертпеу керек)
+     */
+    public enum Op {
+        ACCOUNT_CREATED(1),
+        DEPOSIT(2),
+        WITHDRAW(3),
+        TRANSFER(4),
+        TRANSFER_IN(5),   // Бір жақты кіріс (CSV импорт)
+        TRANSFER_OUT(6),  // Бір жақты шығыс (CSV импорт)
+        PIN_CHANGED(7),
+        ACCOUNT_UNLOCKED(8),
+        ACCOUNT_DELETED(9);
+
+        private static final Op[] BY_CODE = new Op[16];
+
+        static {
+            for (Op op : values()) {
+                BY_CODE[op.code] = op;
+            }
+        }
+
+        private final int code;
+
+        Op(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public static Op fromCode(int code) {
+            Op op = code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+            if (op == null) {
+                throw new IllegalArgumentException("Unknown event op: " + code);
+            }
+            return op;
+        }
+    }
+
+    /**
+     * Операция нәтижесі
+     */
+    public enum Outcome {
+        SUCCESS(0),
+        INVALID_AMOUNT(1),
+        INSUFFICIENT_FUNDS(2),
+        INVALID_PIN(3),
+        ACCOUNT_NOT_FOUND(4),
+        REJECTED(5),
+        UNKNOWN(6); // Өзгеріс жасалды, бірақ сақталуы белгісіз (OutcomeUnknownException)
+
+        private static final Outcome[] BY_CODE = values();
+
+        private final int code;
+
+        Outcome(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public static Outcome fromCode(int code) {
+            if (code < 0 || code >= BY_CODE.length) {
+                throw new IllegalArgumentException("Unknown event outcome: " + code);
+            }
+            return BY_CODE[code];
+        }
+
+        /**
+         * Exception-нан нәтиже коды
+         */
+        public static Outcome of(Exception e) {
+            if (e instanceof InsufficientFundsException) {
+                return INSUFFICIENT_FUNDS;
+            }
+            if (e instanceof InvalidAmountException) {
+                return INVALID_AMOUNT;
+            }
+            if (e instanceof InvalidPinException) {
+                return INVALID_PIN;
+            }
+            if (e instanceof AccountNotFoundException) {
+                return ACCOUNT_NOT_FOUND;
+            }
+            if (e instanceof OutcomeUnknownException) {
+                return UNKNOWN;
+            }
+            return REJECTED;
+        }
+    }
+
+    private final Op op;
+    private final Outcome outcome;
+    private final long timestampMillis;
+    private final int accountId;
+    private final int counterpartyId; // 0 = жоқ
+    private final long amountMinor;
+    private final String ownerName; // Тек ACCOUNT_CREATED үшін
+
+    BankEvent(Op op, Outcome outcome, long timestampMillis, int accountId,
+              int counterpartyId, long amountMinor, String ownerName) {
+        if (op == null || outcome == null) {
+            throw new IllegalArgumentException("Op and outcome cannot be null");
+        }
+        this.op = op;
+        this.outcome = outcome;
+        this.timestampMillis = timestampMillis;
+        this.accountId = accountId;
+        this.counterpartyId = counterpartyId;
+        this.amountMinor = amountMinor;
+        this.ownerName = ownerName;
+    }
+
+    // ============ FACTORY METHODS ============
+
+    public static BankEvent accountCreated(int accountId, String ownerName, double initialBalance) {
+        return of(Op.ACCOUNT_CREATED, accountId, 0, initialBalance, ownerName);
+    }
+
+    public static BankEvent deposit(int accountId, double amount) {
+        return of(Op.DEPOSIT, accountId, 0, amount, null);
+    }
+
+    public static BankEvent withdraw(int accountId, double amount) {
+        return of(Op.WITHDRAW, accountId, 0, amount, null);
+    }
+
+    public static BankEvent transfer(int fromId, int toId, double amount) {
+        return of(Op.TRANSFER, fromId, toId, amount, null);
+    }
+
+    public static BankEvent pinChanged(int accountId) {
+        return of(Op.PIN_CHANGED, accountId, 0, 0, null);
+    }
+
+    public static BankEvent accountUnlocked(int accountId) {
+        return of(Op.ACCOUNT_UNLOCKED, accountId, 0, 0, null);
+    }
+
+    public static BankEvent accountDeleted(int accountId) {
+        return of(Op.ACCOUNT_DELETED, accountId, 0, 0, null);
+    }
+
+    /**
+     * Импортталған транзакциядан оқиға (уақыты транзакцияның өз уақыты)
+     * @return ақша қозғалмайтын транзакция үшін null
+     */
+    public static BankEvent imported(Transaction transaction) {
+        Op op;
+        int accountId;
+        int counterpartyId;
+        switch (transaction.getType()) {
+            case DEPOSIT:
+                op = Op.DEPOSIT;
+                accountId = transaction.getFromAccountId();
+                counterpartyId = 0;
+                break;
+            case WITHDRAW:
+                op = Op.WITHDRAW;
+                accountId = transaction.getFromAccountId();
+                counterpartyId = 0;
+                break;
+            case TRANSFER_IN:
+                op = Op.TRANSFER_IN;
+                accountId = transaction.getToAccountId();
+                counterpartyId = transaction.getFromAccountId();
+                break;
+            case TRANSFER_OUT:
+                op = Op.TRANSFER_OUT;
+                accountId = transaction.getFromAccountId();
+                counterpartyId = transaction.getToAccountId();
+                break;
+            default:
+                return null;
+        }
+        long timestampMillis = transaction.getTimestamp()
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new BankEvent(op, Outcome.SUCCESS, timestampMillis, accountId, counterpartyId,
+                toMinorUnits(transaction.getAmount()), null);
+    }
+
+    private static BankEvent of(Op op, int accountId, int counterpartyId, double amount, String ownerName) {
+        return new BankEvent(op, Outcome.SUCCESS, System.currentTimeMillis(), accountId,
+                counterpartyId, toMinorUnits(amount), ownerName);
+    }
+
+    /**
+     * Сәтсіз нұсқасы (сол өрістермен)
+     */
+    public BankEvent failed(Outcome outcome) {
+        return new BankEvent(op, outcome, timestampMillis, accountId, counterpartyId, amountMinor, ownerName);
+    }
+
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    // ============ GETTERS ============
+
+    public Op getOp() { return op; }
+    public Outcome getOutcome() { return outcome; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public int getAccountId() { return accountId; }
+    public int getCounterpartyId() { return counterpartyId; }
+    public long getAmountMinor() { return amountMinor; }
+    public String getOwnerName() { return ownerName; }
+
+    public double getAmount() {
+        return amountMinor / 100.0;
+    }
+
+    public boolean isSuccess() {
+        return outcome == Outcome.SUCCESS;
+    }
+
+    /**
+     * Оқиғаға қатысты аккаунттар (лог индексі үшін)
+     */
+    public int[] getAccountIds() {
+        return counterpartyId != 0 ? new int[]{accountId, counterpartyId} : new int[]{accountId};
+    }
+
+    // ============ TEXT ============
+
+    /**
+     * Бұрынғы мәтін лог форматындағы хабарлама
+     */
+    public StringBuilder appendMessage(StringBuilder sb) {
+        switch (op) {
+            case ACCOUNT_CREATED:
+                sb.append("Account created: ID=").append(accountId).append(", Owner=").append(ownerName);
+                break;
+            case DEPOSIT:
+                appendAmount(sb.append("Deposit: Account=").append(accountId));
+                break;
+            case WITHDRAW:
+                appendAmount(sb.append("Withdraw: Account=").append(accountId));
+                break;
+            case TRANSFER:
+                appendAmount(sb.append("Transfer: From=").append(accountId).append(", To=").append(counterpartyId));
+                break;
+            case TRANSFER_IN:
+                appendAmount(sb.append("Transfer in: Account=").append(accountId).append(", From=").append(counterpartyId));
+                break;
+            case TRANSFER_OUT:
+                appendAmount(sb.append("Transfer out: Account=").append(accountId).append(", To=").append(counterpartyId));
+                break;
+            case PIN_CHANGED:
+                sb.append("PIN changed: Account=").append(accountId);
+                break;
+            case ACCOUNT_UNLOCKED:
+                sb.append("Account unlocked: ").append(accountId);
+                break;
+            case ACCOUNT_DELETED:
+                sb.append("Account deleted: ").append(accountId);
+                break;
+            default:
+                sb.append(op);
+        }
+        if (outcome != Outcome.SUCCESS) {
+            sb.append(" FAILED: ").append(outcome);
+        }
+        return sb;
+    }
+
+    private StringBuilder appendAmount(StringBuilder sb) {
+        sb.append(", Amount=");
+        long minor = amountMinor;
+        if (minor < 0) {
+            sb.append('-');
+            minor = -minor;
+        }
+        sb.append(minor / 100).append('.');
+        if (minor % 100 < 10) {
+            sb.append('0');
+        }
+        return sb.append(minor % 100);
+    }
+
+    @Override
+    public String toString() {
+        return appendMessage(new StringBuilder(64)).toString();
+    }
+}
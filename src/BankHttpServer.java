@@ -0,0 +1,746 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BankService-ті HTTP/JSON API ретінде ашатын ендірілген сервер (JDK com.sun.net.httpserver)
+ *
+ * Endpoint-тер (PIN - X-Pin header немесе JSON "pin", idempotency - Idempotency-Key header):
+ *   POST /accounts                      {"ownerName":"..","pin":".."}        -> 201
+ *   GET  /accounts/{id}                 X-Pin                                 -> аккаунт
+ *   GET  /accounts/{id}/transactions    X-Pin, ?limit=N (default 10)          -> тарих
+ *   POST /accounts/{id}/deposit         {"amount":100,"pin":".."}
+ *   POST /accounts/{id}/withdraw        {"amount":100,"pin":".."}
+ *   POST /transfers                     {"fromId":1,"toId":2,"amount":100,"pin":".."}
+ *   GET  /stats                                                               -> банк статистикасы
+ * Қателер: {"error":"<Exception>","message":".."}, 400/403/404/422/500
+ *
+ * Threading: әр сұраныс жеке virtual thread-те (Java 21+, reflection арқылы),
+ * ескі JVM-де cached thread pool
+ * Group commit: сервер autoFlush-ты өшіріп, BankService-ке durability barrier береді; өзгеріс жасаған сұраныс
+ * жауап бермес бұрын өзінен кейін басталған flush-ты күтеді - бір flush бір уақытта келген көп сұранысты жабады.
+ * Idempotency нәтижесі сол flush сәтті болғанда ғана жарияланады (сәтсіз болса - UNKNOWN, 500)
+ * JSON: reflection-сыз, қолмен жазылған encoder/decoder (байттардан тікелей, тек керек өрістер)
+ */
+public class BankHttpServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int DEFAULT_HISTORY_LIMIT = 10;
+
+    static {
+        // Header мен body бөлек жазылады: Nagle + delayed ACK әр жауапқа ~40ms қосады
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final BankService bankService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final GroupCommit groupCommit;
+
+    /**
+     * @param port 0 - бос порт автоматты таңдалады
+     */
+    public BankHttpServer(BankService bankService, int port) throws IOException {
+        this.bankService = bankService;
+        this.executor = newRequestExecutor();
+        this.groupCommit = new GroupCommit(bankService);
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.server.createContext("/accounts", this::handleAccounts);
+        this.server.createContext("/transfers", this::handleTransfers);
+        this.server.createContext("/stats", this::handleStats);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * java BankHttpServer [port]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        AccountRepository repository = ConsoleApp.createRepository();
+        TransactionLogger logger = new TransactionLogger(new LoggerConfig()
+                .setAsync(true)
+                .setBackpressurePolicy(BackpressurePolicy.BLOCK)
+                .setBinaryEventLog(true));
+        IdempotencyCache idempotencyCache = new IdempotencyCache(Paths.get("data", "idempotency.log"));
+        BankService service = new BankService(repository, logger, idempotencyCache);
+
+        BankHttpServer server = new BankHttpServer(service, port);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            logger.close();
+            idempotencyCache.close();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println("Bank HTTP API listening on port " + server.getPort()
+                + " (" + server.getThreadingMode() + ")");
+        stopped.await();
+    }
+
+    public void start() {
+        bankService.setAutoFlush(false);
+        bankService.setDurabilityBarrier(groupCommit::awaitDurable);
+        groupCommit.start();
+        server.start();
+    }
+
+    /**
+     * Жаңа сұраныстарды қабылдауды тоқтатып, соңғы өзгерістерді дискке жазу
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        bankService.setDurabilityBarrier(null);
+        groupCommit.stop();
+        bankService.setAutoFlush(true); // Соңғы flush осында
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getThreadingMode() {
+        return executor.getClass().getName().contains("ThreadPerTask") ? "virtual threads" : "thread pool";
+    }
+
+    // ============ HANDLERS ============
+
+    private void handleAccounts(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = splitPath(exchange);
+        try {
+            if (path.length == 1) {
+                requireMethod(method, "POST");
+                JsonRequest request = JsonRequest.parse(readBody(exchange));
+                AccountWithHistory account = bankService.createAccount(request.ownerName, request.pin);
+                send(exchange, 201, appendAccount(new StringBuilder(128), account));
+                return;
+            }
+
+            int id = parseInt(path[1], "account ID");
+            if (path.length == 2) {
+                requireMethod(method, "GET");
+                AccountWithHistory account = bankService.getAccount(id, pin(exchange, null));
+                send(exchange, 200, appendAccount(new StringBuilder(128), account));
+                return;
+            }
+            if (path.length != 3) {
+                throw new NotFound();
+            }
+
+            switch (path[2]) {
+                case "transactions": {
+                    requireMethod(method, "GET");
+                    AccountWithHistory account = bankService.getAccount(id, pin(exchange, null));
+                    String limit = queryParameter(exchange, "limit");
+                    List<Transaction> transactions = account.getLastTransactions(
+                            limit != null ? parseInt(limit, "limit") : DEFAULT_HISTORY_LIMIT);
+                    send(exchange, 200, appendTransactions(new StringBuilder(256), id, transactions));
+                    return;
+                }
+                case "deposit":
+                case "withdraw": {
+                    requireMethod(method, "POST");
+                    JsonRequest request = JsonRequest.parse(readBody(exchange));
+                    String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+                    if (path[2].equals("deposit")) {
+                        bankService.deposit(id, request.amount, pin(exchange, request), key);
+                    } else {
+                        bankService.withdraw(id, request.amount, pin(exchange, request), key);
+                    }
+                    sendBalance(exchange, id);
+                    return;
+                }
+                default:
+                    throw new NotFound();
+            }
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    private void handleTransfers(HttpExchange exchange) throws IOException {
+        try {
+            if (splitPath(exchange).length != 1) {
+                throw new NotFound();
+            }
+            requireMethod(exchange.getRequestMethod(), "POST");
+            JsonRequest request = JsonRequest.parse(readBody(exchange));
+            String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            bankService.transfer(request.fromId, request.toId, request.amount, pin(exchange, request), key);
+            sendBalance(exchange, request.fromId);
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange.getRequestMethod(), "GET");
+            BankStatistics stats = bankService.getBankStatistics();
+            StringBuilder json = new StringBuilder(128)
+                    .append("{\"totalAccounts\":").append(stats.getTotalAccounts())
+                    .append(",\"activeAccounts\":").append(stats.getActiveAccounts())
+                    .append(",\"lockedAccounts\":").append(stats.getLockedAccounts())
+                    .append(",\"totalBalance\":");
+            TextFormat.appendAmount(json, stats.getTotalBalance()).append('}');
+            send(exchange, 200, json);
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    // ============ RESPONSES ============
+
+    private void sendBalance(HttpExchange exchange, int id) throws IOException, AccountNotFoundException {
+        StringBuilder json = new StringBuilder(48).append("{\"id\":").append(id).append(",\"balance\":");
+        TextFormat.appendAmount(json, bankService.getAccount(id).getBalance()).append('}');
+        send(exchange, 200, json);
+    }
+
+    private static StringBuilder appendAccount(StringBuilder json, AccountWithHistory account) {
+        json.append("{\"id\":").append(account.getId()).append(",\"ownerName\":");
+        appendString(json, account.getOwnerName()).append(",\"balance\":");
+        TextFormat.appendAmount(json, account.getBalance())
+                .append(",\"locked\":").append(account.isLocked()).append('}');
+        return json;
+    }
+
+    private static StringBuilder appendTransactions(StringBuilder json, int id, List<Transaction> transactions) {
+        json.append("{\"id\":").append(id).append(",\"transactions\":[");
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"timestamp\":\"");
+            TextFormat.appendIsoDateTime(json, transaction.getTimestamp()).append("\",\"type\":\"")
+                    .append(transaction.getType().name()).append("\",\"amount\":");
+            TextFormat.appendAmount(json, transaction.getAmount())
+                    .append(",\"fromId\":").append(transaction.getFromAccountId())
+                    .append(",\"toId\":").append(transaction.getToAccountId())
+                    .append(",\"description\":");
+            appendString(json, transaction.getDescription()).append('}');
+        }
+        return json.append("]}");
+    }
+
+    private static void sendError(HttpExchange exchange, Exception e) throws IOException {
+        int status;
+        if (e instanceof NotFound || e instanceof AccountNotFoundException) {
+            status = 404;
+        } else if (e instanceof MethodNotAllowed) {
+            status = 405;
+        } else if (e instanceof InvalidPinException) {
+            status = 403;
+        } else if (e instanceof InvalidAmountException || e instanceof InsufficientFundsException) {
+            status = 422;
+        } else if (e instanceof IllegalArgumentException) {
+            status = 400;
+        } else {
+            status = 500;
+        }
+        StringBuilder json = new StringBuilder(128).append("{\"error\":\"")
+                .append(e.getClass().getSimpleName()).append("\",\"message\":");
+        appendString(json, e.getMessage()).append('}');
+        send(exchange, status, json);
+    }
+
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * JSON string escaping (null -> null)
+     */
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"');
+    }
+
+    // ============ HELPERS ============
+
+    /**
+     * Context-тен кейінгі бөліктер: /accounts/5/deposit -> [accounts, 5, deposit]
+     */
+    private static String[] splitPath(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.endsWith("/") && path.length() > 1 ? path.length() - 1 : path.length();
+        return path.substring(start, end).split("/");
+    }
+
+    private static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.regionMatches(0, name, 0, eq) && eq == name.length()) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    private static String pin(HttpExchange exchange, JsonRequest request) {
+        String header = exchange.getRequestHeaders().getFirst("X-Pin");
+        return header != null ? header : request != null ? request.pin : null;
+    }
+
+    private static void requireMethod(String actual, String expected) {
+        if (!actual.equals(expected)) {
+            throw new MethodNotAllowed(actual);
+        }
+    }
+
+    private static int parseInt(String value, String what) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + what + ": " + value);
+        }
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        byte[] buffer = new byte[1024];
+        int length = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+                if (length == buffer.length) {
+                    if (length >= MAX_BODY_BYTES) {
+                        throw new IllegalArgumentException("Request body too large");
+                    }
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Java 21+ болса virtual thread-per-task, әйтпесе cached daemon pool
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "bank-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class NotFound extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private NotFound() {
+            super("Not found");
+        }
+    }
+
+    private static final class MethodNotAllowed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private MethodNotAllowed(String method) {
+            super("Method not allowed: " + method);
+        }
+    }
+
+    // ============ JSON DECODING ============
+
+    /**
+     * Сұраныс денесі: бір деңгейлі JSON объект, тек белгілі өрістер оқылады
+     * Сандар байттардан тікелей есептеледі (substring/Double.parseDouble жоқ),
+     * белгісіз өрістер аттап өтіледі
+     */
+    static final class JsonRequest {
+        private String ownerName;
+        private String pin;
+        private double amount;
+        private int fromId;
+        private int toId;
+
+        private final byte[] data;
+        private int pos;
+
+        private JsonRequest(byte[] data) {
+            this.data = data;
+        }
+
+        static JsonRequest parse(byte[] data) {
+            JsonRequest request = new JsonRequest(data);
+            if (data.length > 0) {
+                request.parseObject();
+            }
+            return request;
+        }
+
+        private void parseObject() {
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                int keyStart = pos + 1;
+                skipString();
+                int keyEnd = pos - 1;
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                readField(keyStart, keyEnd);
+                skipWhitespace();
+                byte next = data[require(pos++)];
+                if (next == '}') {
+                    return;
+                }
+                if (next != ',') {
+                    throw malformed();
+                }
+            }
+        }
+
+        private void readField(int keyStart, int keyEnd) {
+            if (keyEquals(keyStart, keyEnd, "amount")) {
+                amount = readNumber();
+            } else if (keyEquals(keyStart, keyEnd, "fromId")) {
+                fromId = readId("fromId");
+            } else if (keyEquals(keyStart, keyEnd, "toId")) {
+                toId = readId("toId");
+            } else if (keyEquals(keyStart, keyEnd, "pin")) {
+                pin = readString();
+            } else if (keyEquals(keyStart, keyEnd, "ownerName")) {
+                ownerName = readString();
+            } else {
+                skipValue();
+            }
+        }
+
+        private boolean keyEquals(int start, int end, String key) {
+            if (end - start != key.length()) {
+                return false;
+            }
+            for (int i = 0; i < key.length(); i++) {
+                if (data[start + i] != key.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Бүтін бөлік + бөлшек бөлік (экспонентасыз) - ақша сомалары үшін жеткілікті
+         */
+        private double readNumber() {
+            boolean negative = peek() == '-';
+            if (negative) {
+                pos++;
+            }
+            long mantissa = 0;
+            long scale = 1;
+            boolean fraction = false;
+            int digits = 0;
+            while (pos < data.length) {
+                byte b = data[pos];
+                if (b >= '0' && b <= '9') {
+                    if (++digits > 18) {
+                        throw new IllegalArgumentException("Number too long");
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (fraction) {
+                        scale *= 10;
+                    }
+                } else if (b == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            if (digits == 0) {
+                throw malformed();
+            }
+            double value = (double) mantissa / scale;
+            return negative ? -value : value;
+        }
+
+        /**
+         * Аккаунт ID: бүтін сан болуы керек (1.9 -> 1 болып кесілмейді, 400 қайтады)
+         */
+        private int readId(String field) {
+            double value = readNumber();
+            if (value != Math.rint(value) || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid " + field + ": must be an integer");
+            }
+            return (int) value;
+        }
+
+        private String readString() {
+            if (peek() == 'n') {
+                skipValue();
+                return null;
+            }
+            int start = pos + 1;
+            boolean escaped = skipString();
+            String raw = new String(data, start, pos - 1 - start, StandardCharsets.UTF_8);
+            return escaped ? unescape(raw) : raw;
+        }
+
+        /**
+         * @return жолда escape (\) бар ма
+         */
+        private boolean skipString() {
+            expect('"');
+            boolean escaped = false;
+            while (true) {
+                byte b = data[require(pos++)];
+                if (b == '"') {
+                    return escaped;
+                }
+                if (b == '\\') {
+                    escaped = true;
+                    require(pos++);
+                }
+            }
+        }
+
+        private void skipValue() {
+            byte b = peek();
+            if (b == '"') {
+                skipString();
+            } else if (b == '{' || b == '[') {
+                throw new IllegalArgumentException("Nested JSON values are not supported");
+            } else {
+                while (pos < data.length && data[pos] != ',' && data[pos] != '}'
+                        && data[pos] > ' ') {
+                    pos++;
+                }
+            }
+        }
+
+        private static String unescape(String raw) {
+            StringBuilder sb = new StringBuilder(raw.length());
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c != '\\' || i + 1 == raw.length()) {
+                    sb.append(c);
+                    continue;
+                }
+                char next = raw.charAt(++i);
+                switch (next) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (i + 4 >= raw.length()) {
+                            throw malformed();
+                        }
+                        sb.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                        i += 4;
+                        break;
+                    default: sb.append(next);
+                }
+            }
+            return sb.toString();
+        }
+
+        private void skipWhitespace() {
+            while (pos < data.length && data[pos] <= ' ') {
+                pos++;
+            }
+        }
+
+        private byte peek() {
+            return data[require(pos)];
+        }
+
+        private void expect(char c) {
+            if (data[require(pos++)] != c) {
+                throw malformed();
+            }
+        }
+
+        private int require(int index) {
+            if (index >= data.length) {
+                throw malformed();
+            }
+            return index;
+        }
+
+        private static IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed JSON request body");
+        }
+    }
+
+    // ============ GROUP COMMIT ============
+
+    /**
+     * Бір flusher thread: сұраныстар "менің өзгерісім дискке жетсін" деп күтеді,
+     * flusher жиналған сұраныстардың бәрін бір repository.flush()-пен жабады
+     * ReentrantLock (synchronized емес) - virtual thread carrier-ді бұғаттамау үшін
+     */
+    private static final class GroupCommit {
+        private final BankService bankService;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition requested = lock.newCondition();
+        private final Condition completed = lock.newCondition();
+        private long requestedTicket;
+        private long completedTicket;
+        private long failedTicket; // Осы ticket-ке дейінгі flush сәтсіз болды
+        private boolean running;
+        private Thread flusher;
+
+        private GroupCommit(BankService bankService) {
+            this.bankService = bankService;
+        }
+
+        private void start() {
+            lock.lock();
+            try {
+                running = true;
+            } finally {
+                lock.unlock();
+            }
+            flusher = new Thread(this::run, "bank-group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+
+        private void stop() {
+            lock.lock();
+            try {
+                running = false;
+                requested.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (flusher != null) {
+                try {
+                    flusher.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Осы шақыруға дейін жасалған өзгерістер дискке жазылғанша күту (BankService durability barrier)
+         * @throws IllegalStateException flush сәтсіз болса (BankService оны OutcomeUnknownException/UNKNOWN етеді,
+         *         клиент 500 алады)
+         */
+        private void awaitDurable() {
+            lock.lock();
+            try {
+                long ticket = ++requestedTicket;
+                requested.signal();
+                while (completedTicket < ticket && running) {
+                    completed.awaitUninterruptibly();
+                }
+                if (failedTicket >= ticket) {
+                    throw new IllegalStateException("Failed to persist changes");
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run() {
+            while (true) {
+                long target;
+                lock.lock();
+                try {
+                    while (requestedTicket == completedTicket && running) {
+                        requested.awaitUninterruptibly();
+                    }
+                    if (!running) {
+                        completed.signalAll();
+                        return;
+                    }
+                    target = requestedTicket;
+                } finally {
+                    lock.unlock();
+                }
+
+                boolean flushed = true;
+                try {
+                    bankService.flush();
+                } catch (RuntimeException e) {
+                    flushed = false;
+                    System.err.println("Warning: Group commit flush failed: " + e.getMessage());
+                }
+
+                lock.lock();
+                try {
+                    if (!flushed) {
+                        failedTicket = target;
+                    }
+                    completedTicket = target;
+                    completed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * BankHttpServer-ге жүктеме тесті (java.net.http.HttpClient)
+ *
+ * Қолдану:
+ *   java BankLoadTest [url|memory|file|-] [maxConcurrency] [requestsPerLevel] [accounts]
+ *
+ * url орнына:
+ *   memory - memory-дағы repository-мен ендірілген сервер (flush жоқ - тек HTTP/JSON құны)
+ *   file   - уақытша каталогтағы FileAccountRepository + idempotency журналы бар ендірілген сервер
+ *            (group commit flush-ы жүктеме астында)
+ *   -      - (default) memory, содан кейін file
+ * Ендірілген сервер бос портта іске қосылады
+ * Concurrency 1, 2, 4, ... maxConcurrency деңгейлерінде аралас жүктеме:
+ * 50% transfer (Idempotency-Key-пен), 30% deposit, 20% balance (GET); әр деңгей үшін throughput, p50/p99/max latency
+ */
+public class BankLoadTest {
+    private static final String PIN = "1234";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int[] accountIds;
+
+    private BankLoadTest(HttpClient client, String baseUrl, int[] accountIds) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.accountIds = accountIds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "-";
+        int maxConcurrency = intArg(args, 1, 64);
+        int requestsPerLevel = intArg(args, 2, 5_000);
+        int accounts = intArg(args, 3, 1_000);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        switch (target) {
+            case "-":
+                runEmbedded(client, "memory", maxConcurrency, requestsPerLevel, accounts);
+                runEmbedded(client, "file", maxConcurrency, requestsPerLevel, accounts);
+                break;
+            case "memory":
+            case "file":
+                runEmbedded(client, target, maxConcurrency, requestsPerLevel, accounts);
+                break;
+            default:
+                run(client, target, maxConcurrency, requestsPerLevel, accounts);
+        }
+    }
+
+    private static void run(HttpClient client, String url, int maxConcurrency, int requestsPerLevel, int accounts)
+            throws IOException, InterruptedException {
+        System.out.println("=== Load test: " + url + ", " + accounts + " accounts, "
+                + requestsPerLevel + " requests per level ===");
+        BankLoadTest test = new BankLoadTest(client, url, createAccounts(client, url, accounts));
+
+        for (int concurrency = 1; concurrency <= maxConcurrency; concurrency *= 2) {
+            System.out.println(test.runLevel(concurrency, requestsPerLevel));
+        }
+    }
+
+    /**
+     * Ендірілген серверді берілген store-мен іске қосып, тест жасау (file - уақытша каталог соңында өшіріледі)
+     */
+    private static void runEmbedded(HttpClient client, String store, int maxConcurrency, int requestsPerLevel,
+                                    int accounts) throws IOException, InterruptedException {
+        Path directory = store.equals("file") ? Files.createTempDirectory("bank-load-test") : null;
+        AccountRepository repository = directory != null
+                ? new FileAccountRepository(directory.toString(), "accounts.dat")
+                : new InMemoryAccountRepository();
+        IdempotencyCache idempotencyCache = directory != null
+                ? new IdempotencyCache(directory.resolve("idempotency.log"))
+                : new IdempotencyCache();
+        TransactionLogger logger = new TransactionLogger(new LoggerConfig().setAsync(true));
+        BankHttpServer server = new BankHttpServer(new BankService(repository, logger, idempotencyCache), 0);
+        try {
+            server.start();
+            String url = "http://localhost:" + server.getPort();
+            System.out.println("Embedded server on " + url + " (" + store + " repository, "
+                    + server.getThreadingMode() + ")");
+            run(client, url, maxConcurrency, requestsPerLevel, accounts);
+        } finally {
+            server.close();
+            logger.close();
+            idempotencyCache.close();
+            if (directory != null) {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    // ============ SETUP ============
+
+    private static int[] createAccounts(HttpClient client, String url, int count)
+            throws IOException, InterruptedException {
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            String body = "{\"ownerName\":\"Load " + i + "\",\"pin\":\"" + PIN + "\"}";
+            HttpResponse<String> response = client.send(post(url + "/accounts", body, null),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Account creation failed: " + response.body());
+            }
+            ids[i] = extractInt(response.body(), "\"id\":");
+            client.send(post(url + "/accounts/" + ids[i] + "/deposit", "{\"amount\":1000000,\"pin\":\""
+                    + PIN + "\"}", null), HttpResponse.BodyHandlers.discarding());
+        }
+        return ids;
+    }
+
+    // ============ LOAD ============
+
+    private Level runLevel(int concurrency, int requests) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[concurrency][];
+        List<Thread> workers = new ArrayList<>(concurrency);
+
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            int worker = w;
+            Thread thread = new Thread(() -> latencies[worker] = runWorker(remaining, errors),
+                    "load-" + w);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (long[] part : latencies) {
+            total += part.length;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (long[] part : latencies) {
+            System.arraycopy(part, 0, merged, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(merged);
+        return new Level(concurrency, total, errors.get(), elapsed, merged);
+    }
+
+    private long[] runWorker(AtomicInteger remaining, AtomicLong errors) {
+        long[] latencies = new long[256];
+        int count = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (remaining.getAndDecrement() > 0) {
+            HttpRequest request = nextRequest(random);
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - begin;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private HttpRequest nextRequest(ThreadLocalRandom random) {
+        int from = accountIds[random.nextInt(accountIds.length)];
+        int roll = random.nextInt(100);
+        if (roll < 50) {
+            int to = accountIds[random.nextInt(accountIds.length)];
+            if (to == from) {
+                to = accountIds[(Arrays.binarySearch(accountIds, from) + 1) % accountIds.length];
+            }
+            return post(baseUrl + "/transfers", "{\"fromId\":" + from + ",\"toId\":" + to
+                    + ",\"amount\":1.5,\"pin\":\"" + PIN + "\"}", "load-" + Long.toHexString(random.nextLong()));
+        }
+        if (roll < 80) {
+            return post(baseUrl + "/accounts/" + from + "/deposit",
+                    "{\"amount\":10,\"pin\":\"" + PIN + "\"}", null);
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/accounts/" + from))
+                .header("X-Pin", PIN)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    // ============ HELPERS ============
+
+    private static HttpRequest post(String url, String json, String idempotencyKey) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    private static int extractInt(String json, String prefix) {
+        int start = json.indexOf(prefix) + prefix.length();
+        int end = start;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return Integer.parseInt(json.substring(start, end));
+    }
+
+    private static void deleteRecursively(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to delete " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    /**
+     * Бір concurrency деңгейінің нәтижесі
+     */
+    private static final class Level {
+        private final int concurrency;
+        private final int requests;
+        private final long errors;
+        private final long elapsedNanos;
+        private final long[] latencies; // Сұрыпталған
+
+        private Level(int concurrency, int requests, long errors, long elapsedNanos, long[] latencies) {
+            this.concurrency = concurrency;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("concurrency %3d: %,7d requests (%d errors) %,9.0f req/s  "
+                            + "p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms",
+                    concurrency, requests, errors, requests * 1e9 / elapsedNanos,
+                    percentileMillis(50), percentileMillis(99), percentileMillis(100));
+        }
+    }
+}
@@ -1,7 +1,16 @@
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 /**
  * Жетілдірілген BankService
@@ -14,15 +23,39 @@ import java.util.stream.Collectors;
 
 
 public class BankService {
+    private static final String STATEMENTS_DIR = "data/statements";
+    private static final String EXPORTS_DIR = "data/exports";
+
     private final AccountRepository repository;
     private final TransactionLogger logger;
+    private final AccountQueryEngine queryEngine;
+    private final IdempotencyCache idempotencyCache;
+    private volatile boolean autoFlush = true;
+    private volatile Runnable durabilityBarrier; // autoFlush=false кезінде өзгерістен кейін күту (HTTP group commit)
 
     /**
      * Конструктор - Repository injection
      */
     public BankService(AccountRepository repository) {
+        this(repository, new TransactionLogger());
+    }
+
+    /**
+     * Конструктор - Repository + Logger injection (мысалы, async logger)
+     */
+    public BankService(AccountRepository repository, TransactionLogger logger) {
+        this(repository, logger, new IdempotencyCache());
+    }
+
+    /**
+     * Конструктор - Repository + Logger + idempotency cache (мысалы, journal-мен)
+     */
+    public BankService(AccountRepository repository, TransactionLogger logger,
+                       IdempotencyCache idempotencyCache) {
         this.repository = repository;
-        this.logger = new TransactionLogger();
+        this.logger = logger;
+        this.queryEngine = new AccountQueryEngine(repository);
+        this.idempotencyCache = idempotencyCache;
     }
 
     /**
@@ -39,12 +72,50 @@ public class BankService {
         AccountWithHistory account = new AccountWithHistory(newId, ownerName, pinCode);
 
         repository.save(account);
-        repository.flush();
+        makeDurable();
 
-        logger.log("Account created: ID=" + newId + ", Owner=" + ownerName);
+        logger.logEvent(BankEvent.accountCreated(newId, ownerName, 0.0));
         return account;
     }
 
+    /**
+     * Аккаунттарды жаппай ашу (әр аккаунт үшін flush жасалмайды)
+     */
+    public List<AccountWithHistory> createAccounts(List<AccountBuilder> requests) {
+        List<AccountWithHistory> accounts = new AccountProvisioner(repository,
+                Runtime.getRuntime().availableProcessors())
+                .onCreated(this::recordCreated)
+                .provision(requests);
+
+        logger.log("Accounts provisioned: Count=" + accounts.size());
+        return accounts;
+    }
+
+    /**
+     * CSV файлынан аккаунттарды жаппай ашу
+     * Нәтиже <файл>.provisioned.csv, жарамсыз жолдар <файл>.rejected.csv
+     */
+    public AccountProvisioner.Report provisionAccounts(Path csvFile) throws IOException {
+        Path output = csvFile.resolveSibling(csvFile.getFileName() + ".provisioned.csv");
+        Path rejects = csvFile.resolveSibling(csvFile.getFileName() + ".rejected.csv");
+        AccountProvisioner.Report report = new AccountProvisioner(repository,
+                Runtime.getRuntime().availableProcessors())
+                .onCreated(this::recordCreated)
+                .provisionFromCsv(csvFile, output, rejects);
+
+        logger.log("Accounts provisioned: File=" + csvFile + ", Count=" + report.getCreated()
+                + ", Rejected=" + report.getRejected());
+        return report;
+    }
+
+    /**
+     * Жаппай ашылған аккаунтты тек binary журналға жазу (мәтін логта жалпы жазба бар)
+     */
+    private void recordCreated(AccountWithHistory account) {
+        logger.recordEvent(BankEvent.accountCreated(account.getId(), account.getOwnerName(),
+                account.getBalance()));
+    }
+
     /**
      * Аккаунтты табу
      */
@@ -53,21 +124,90 @@ public class BankService {
                 .orElseThrow(() -> new AccountNotFoundException(id));
     }
 
+    /**
+     * PIN тексерілген аккаунт (баланс, тарих көру үшін)
+     * Қате PIN-нен бұғатталса, lock күйі сақталады
+     */
+    public AccountWithHistory getAccount(int id, String pin)
+            throws AccountNotFoundException, InvalidPinException {
+
+        AccountWithHistory account = getAccount(id);
+        try {
+            account.checkPin(pin);
+        } catch (InvalidPinException e) {
+            saveIfLocked(id, e);
+            throw e;
+        }
+        return account;
+    }
+
+    /**
+     * Ақша салу (idempotency кілтімен)
+     * Сол кілтпен қайталанған сұраныс қайта орындалмайды - алғашқы нәтиже қайтарылады
+     * @param idempotencyKey клиент берген кілт (null - тексерусіз)
+     */
+    public void deposit(int accountId, double amount, String pin, String idempotencyKey)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException {
+
+        if (idempotencyKey == null) {
+            deposit(accountId, amount, pin);
+            return;
+        }
+        try {
+            runIdempotent(idempotencyKey, "DEPOSIT:" + accountId + ":" + amount,
+                    () -> applyDeposit(accountId, amount, pin, false));
+        } catch (InsufficientFundsException e) {
+            throw new IllegalStateException("Unexpected deposit outcome", e); // Deposit-те болмайды
+        }
+    }
+
     /**
      * Ақша салу
      */
     public void deposit(int accountId, double amount, String pin)
             throws AccountNotFoundException, InvalidPinException,
             InvalidAmountException {
+        applyDeposit(accountId, amount, pin, true);
+    }
 
-        AccountWithHistory account = getAccount(accountId);
-        account.checkPin(pin);
-        account.deposit(amount);
+    /**
+     * @param flush true - осы жерде makeDurable(); false - idempotent жол (cache нәтижені буферге қойған соң)
+     */
+    private void applyDeposit(int accountId, double amount, String pin, boolean flush)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException {
 
-        repository.save(account);
-        repository.flush();
+        BankEvent event = BankEvent.deposit(accountId, amount);
+        try {
+            AccountWithHistory account = getAccount(accountId);
+            account.checkPin(pin);
+            account.deposit(amount);
+
+            persistChanges(flush, account);
+        } catch (AccountNotFoundException | InvalidPinException | InvalidAmountException e) {
+            saveIfLocked(accountId, e);
+            logger.recordEvent(event.failed(BankEvent.Outcome.of(e)));
+            throw e;
+        }
 
-        logger.log(String.format("Deposit: Account=%d, Amount=%.2f", accountId, amount));
+        logger.logEvent(event);
+    }
+
+    /**
+     * Ақша алу (idempotency кілтімен)
+     * @param idempotencyKey клиент берген кілт (null - тексерусіз)
+     */
+    public void withdraw(int accountId, double amount, String pin, String idempotencyKey)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException, InsufficientFundsException {
+
+        if (idempotencyKey == null) {
+            withdraw(accountId, amount, pin);
+            return;
+        }
+        runIdempotent(idempotencyKey, "WITHDRAW:" + accountId + ":" + amount,
+                () -> applyWithdraw(accountId, amount, pin, false));
     }
 
     /**
@@ -76,15 +216,45 @@ public class BankService {
     public void withdraw(int accountId, double amount, String pin)
             throws AccountNotFoundException, InvalidPinException,
             InvalidAmountException, InsufficientFundsException {
+        applyWithdraw(accountId, amount, pin, true);
+    }
 
-        AccountWithHistory account = getAccount(accountId);
-        account.checkPin(pin);
-        account.withdraw(amount);
+    private void applyWithdraw(int accountId, double amount, String pin, boolean flush)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException, InsufficientFundsException {
 
-        repository.save(account);
-        repository.flush();
+        BankEvent event = BankEvent.withdraw(accountId, amount);
+        try {
+            AccountWithHistory account = getAccount(accountId);
+            account.checkPin(pin);
+            account.withdraw(amount);
+
+            persistChanges(flush, account);
+        } catch (AccountNotFoundException | InvalidPinException
+                 | InvalidAmountException | InsufficientFundsException e) {
+            saveIfLocked(accountId, e);
+            logger.recordEvent(event.failed(BankEvent.Outcome.of(e)));
+            throw e;
+        }
 
-        logger.log(String.format("Withdraw: Account=%d, Amount=%.2f", accountId, amount));
+        logger.logEvent(event);
+    }
+
+    /**
+     * Ақша аудару (idempotency кілтімен)
+     * Timeout-тан кейін қайталанған аударым ақшаны екі рет жібермейді
+     * @param idempotencyKey клиент берген кілт (null - тексерусіз)
+     */
+    public void transfer(int fromId, int toId, double amount, String pin, String idempotencyKey)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException, InsufficientFundsException {
+
+        if (idempotencyKey == null) {
+            transfer(fromId, toId, amount, pin);
+            return;
+        }
+        runIdempotent(idempotencyKey, "TRANSFER:" + fromId + ":" + toId + ":" + amount,
+                () -> applyTransfer(fromId, toId, amount, pin, false));
     }
 
     /**
@@ -93,23 +263,178 @@ public class BankService {
     public void transfer(int fromId, int toId, double amount, String pin)
             throws AccountNotFoundException, InvalidPinException,
             InvalidAmountException, InsufficientFundsException {
+        applyTransfer(fromId, toId, amount, pin, true);
+    }
+
+    private void applyTransfer(int fromId, int toId, double amount, String pin, boolean flush)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException, InsufficientFundsException {
 
         if (fromId == toId) {
             throw new IllegalArgumentException("Cannot transfer to the same account");
         }
 
-        AccountWithHistory fromAccount = getAccount(fromId);
-        AccountWithHistory toAccount = getAccount(toId);
+        BankEvent event = BankEvent.transfer(fromId, toId, amount);
+        try {
+            // Екі аккаунт бір bulk шақырумен (sharded/disk store-да бір өту)
+            List<AccountWithHistory> accounts = repository.findAllById(Arrays.asList(fromId, toId));
+            if (accounts.size() < 2) {
+                throw new AccountNotFoundException(
+                        accounts.isEmpty() || accounts.get(0).getId() != fromId ? fromId : toId);
+            }
+            AccountWithHistory fromAccount = accounts.get(0);
+            AccountWithHistory toAccount = accounts.get(1);
+
+            // transferTo методы екі аккаунтты да lock қылып, atomically жасайды;
+            // transfer lock snapshot-ты shard бойынша алатын storage-де екі жақты бірге жазады
+            Lock transferLock = repository.getTransferLock();
+            if (transferLock != null) {
+                transferLock.lock();
+            }
+            try {
+                fromAccount.transferTo(toAccount, amount, pin);
+                persistChanges(false, fromAccount, toAccount);
+            } finally {
+                if (transferLock != null) {
+                    transferLock.unlock();
+                }
+            }
+            if (flush) {
+                persistDurably(); // flush transfer lock-ты exclusive алуы мүмкін - lock-тан тыс
+            }
+        } catch (AccountNotFoundException | InvalidPinException
+                 | InvalidAmountException | InsufficientFundsException e) {
+            saveIfLocked(fromId, e);
+            logger.recordEvent(event.failed(BankEvent.Outcome.of(e)));
+            throw e;
+        }
+
+        logger.logEvent(event);
+    }
+
+    /**
+     * Операцияны idempotency cache арқылы орындау (exception түрлерін сақтап)
+     * Операция flush жасамайды: нәтиже буферге түскен соң makeDurable өзгерісті де, нәтижені де жазады
+     */
+    private void runIdempotent(String key, String request, IdempotencyCache.Operation operation)
+            throws AccountNotFoundException, InvalidPinException,
+            InvalidAmountException, InsufficientFundsException {
+        try {
+            idempotencyCache.execute(key, request, operation, this::makeDurable);
+        } catch (AccountNotFoundException | InvalidPinException | InvalidAmountException
+                 | InsufficientFundsException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight request: " + key, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unexpected failure for idempotency key: " + key, e);
+        }
+    }
+
+    /**
+     * Idempotency cache метрикалары
+     */
+    public IdempotencyCache.Stats getIdempotencyStats() {
+        return idempotencyCache.getStats();
+    }
+
+    // ============ FLUSH ============
+
+    /**
+     * Әр операциядан кейін flush() шақыру (default: true)
+     * false болса өзгерістер flush() шақырылғанша memory-да қалады - batch режимі үшін;
+     * idempotency нәтижелері де журналға тек flush()-та (repository-дан кейін) жазылады
+     */
+    public void setAutoFlush(boolean autoFlush) {
+        this.autoFlush = autoFlush;
+        if (autoFlush) {
+            flush();
+        }
+    }
+
+    public boolean isAutoFlush() {
+        return autoFlush;
+    }
 
-        // transferTo методы екі аккаунтты да lock қылып, atomically жасайды
-        fromAccount.transferTo(toAccount, amount, pin);
+    /**
+     * autoFlush өшік кезде әр өзгерістен кейін шақырылатын күту (мысалы, HTTP group commit):
+     * өзгеріс flush()-пен дискке жеткенде қайтады, flush сәтсіз болса RuntimeException лақтырады
+     * Idempotency нәтижесі осыдан кейін ғана жарияланады; null - күтпейді (batch режимі)
+     */
+    public void setDurabilityBarrier(Runnable durabilityBarrier) {
+        this.durabilityBarrier = durabilityBarrier;
+    }
 
-        repository.save(fromAccount);
-        repository.save(toAccount);
+    /**
+     * Жинақталған өзгерістерді дискке жазу, содан кейін ғана - осы flush жапқан idempotency нәтижелерін
+     */
+    public void flush() {
+        long mark = idempotencyCache.mark(); // Бұған дейінгі нәтижелердің өзгерістері осы flush-қа кіреді
         repository.flush();
+        idempotencyCache.flush(mark);
+    }
 
-        logger.log(String.format("Transfer: From=%d, To=%d, Amount=%.2f",
-                fromId, toId, amount));
+    /**
+     * Өзгерістен кейін: autoFlush болса flush, әйтпесе durability barrier (бар болса) күтіледі
+     * Idempotent жолда нәтиже буферге түскен соң шақырылады - сәтсіз болса кілт UNKNOWN-мен жабылады
+     */
+    private void makeDurable() {
+        if (autoFlush) {
+            flush();
+            return;
+        }
+        Runnable barrier = durabilityBarrier;
+        if (barrier != null) {
+            barrier.run();
+        }
+    }
+
+    /**
+     * Memory-да өзгерген аккаунттарды сақтау (mutation point-тен кейін)
+     * save/flush сәтсіз болса - OutcomeUnknownException: өзгеріс memory-да қалды,
+     * сондықтан idempotency кілті босатылмайды (қайталау екінші рет орындамайды)
+     */
+    private void persistChanges(boolean flush, AccountWithHistory... accounts) {
+        try {
+            if (accounts.length == 1) {
+                repository.save(accounts[0]);
+            } else {
+                repository.saveAll(Arrays.asList(accounts));
+            }
+        } catch (RuntimeException e) {
+            throw new OutcomeUnknownException("Change applied but not persisted: " + e.getMessage(), e);
+        }
+        if (flush) {
+            persistDurably();
+        }
+    }
+
+    private void persistDurably() {
+        try {
+            makeDurable();
+        } catch (RuntimeException e) {
+            throw new OutcomeUnknownException("Change applied but not persisted: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Қате PIN салдарынан бұғатталған аккаунтты сақтау
+     * Lock күйі save арқылы ғана санағыштарға жетеді, makeDurable арқылы дискке жазылады
+     */
+    private void saveIfLocked(int accountId, Exception cause) {
+        if (cause instanceof InvalidPinException) {
+            Optional<AccountWithHistory> locked = repository.findById(accountId)
+                    .filter(AccountWithHistory::isLocked);
+            if (locked.isPresent()) {
+                repository.save(locked.get());
+                try {
+                    makeDurable();
+                } catch (RuntimeException e) {
+                    cause.addSuppressed(e); // Клиент PIN қатесін алады, lock келесі flush-та жазылады
+                }
+            }
+        }
     }
 
     /**
@@ -119,12 +444,17 @@ public class BankService {
             throws AccountNotFoundException, InvalidPinException {
 
         AccountWithHistory account = getAccount(accountId);
-        account.changePin(oldPin, newPin);
+        try {
+            account.changePin(oldPin, newPin);
+        } catch (InvalidPinException e) {
+            saveIfLocked(accountId, e);
+            throw e;
+        }
 
         repository.save(account);
-        repository.flush();
+        makeDurable();
 
-        logger.log("PIN changed: Account=" + accountId);
+        logger.logEvent(BankEvent.pinChanged(accountId));
     }
 
     /**
@@ -135,18 +465,26 @@ public class BankService {
         account.unlock();
 
         repository.save(account);
-        repository.flush();
+        makeDurable();
 
-        logger.log("Account unlocked: " + accountId);
+        logger.logEvent(BankEvent.accountUnlocked(accountId));
     }
 
     /**
-     * Барлық аккаунттарды қайтару
+     * Барлық аккаунттарды қайтару (бүкіл банкті көшіреді - үлкен банкте getAccountsPage қолдану)
      */
     public List<AccountWithHistory> getAllAccounts() {
         return repository.findAll();
     }
 
+    /**
+     * Аккаунттар беті (ID бойынша keyset pagination)
+     * @param afterId алдыңғы беттің соңғы ID-і (бірінші бет үшін 0)
+     */
+    public List<AccountWithHistory> getAccountsPage(int afterId, int limit) {
+        return repository.findPage(afterId, limit);
+    }
+
     /**
      * Иесінің аты бойынша іздеу
      */
@@ -161,6 +499,35 @@ public class BankService {
         return repository.findByBalanceGreaterThan(minBalance);
     }
 
+    /**
+     * Balance аралығындағы аккаунттар (беттеп)
+     */
+    public List<AccountWithHistory> getAccountsInBalanceRange(double minBalance, double maxBalance,
+                                                              int offset, int limit) {
+        return repository.findByBalanceBetween(minBalance, maxBalance, offset, limit);
+    }
+
+    /**
+     * Ең бай аккаунттар (top-N, беттеп)
+     */
+    public List<AccountWithHistory> getRichestAccounts(int offset, int limit) {
+        return repository.findTopByBalance(offset, limit);
+    }
+
+    /**
+     * Ең аз балансы бар аккаунттар (bottom-N, беттеп)
+     */
+    public List<AccountWithHistory> getPoorestAccounts(int offset, int limit) {
+        return repository.findBottomByBalance(offset, limit);
+    }
+
+    /**
+     * Құрастырылған сұраныс бойынша аккаунттар (нәтижеде орындау жоспары бар)
+     */
+    public AccountQueryEngine.Result<AccountWithHistory> queryAccounts(AccountQuery query) {
+        return queryEngine.execute(query);
+    }
+
     /**
      * Аккаунт статистикасы
      */
@@ -172,31 +539,27 @@ public class BankService {
     }
 
     /**
-     * Жалпы статистика
+     * Жалпы статистика - live санағыштардан, аккаунттарды аралаусыз O(1)
      */
     public BankStatistics getBankStatistics() {
-        List<AccountWithHistory> accounts = repository.findAll();
-
-        double totalBalance = accounts.stream()
-                .mapToDouble(AccountWithHistory::getBalance)
-                .sum();
-
-        long activeAccounts = accounts.stream()
-                .filter(acc -> !acc.isLocked())
-                .count();
-
-        long lockedAccounts = accounts.stream()
-                .filter(AccountWithHistory::isLocked)
-                .count();
-
+        BankCounters counters = repository.getCounters();
         return new BankStatistics(
-                accounts.size(),
-                (int) activeAccounts,
-                (int) lockedAccounts,
-                totalBalance
+                counters.getTotalAccounts(),
+                counters.getActiveAccounts(),
+                counters.getLockedAccounts(),
+                counters.getTotalBalance(),
+                counters.getTransactionCounts(),
+                counters.getTransactionVolumes()
         );
     }
 
+    /**
+     * Live санағыштарды толық қайта санаумен тексеру
+     */
+    public BankCounters.Report verifyStatistics() {
+        return repository.getCounters().verify(repository.stream());
+    }
+
     /**
      * Аккаунтты өшіру
      */
@@ -204,7 +567,12 @@ public class BankService {
             throws AccountNotFoundException, InvalidPinException {
 
         AccountWithHistory account = getAccount(accountId);
-        account.checkPin(pin);
+        try {
+            account.checkPin(pin);
+        } catch (InvalidPinException e) {
+            saveIfLocked(accountId, e);
+            throw e;
+        }
 
         if (account.getBalance() > 0) {
             throw new IllegalStateException(
@@ -213,8 +581,8 @@ public class BankService {
 
         boolean deleted = repository.deleteById(accountId);
         if (deleted) {
-            repository.flush();
-            logger.log("Account deleted: " + accountId);
+            makeDurable();
+            logger.logEvent(BankEvent.accountDeleted(accountId));
         }
 
         return deleted;
@@ -224,20 +592,21 @@ public class BankService {
      * Жабық аккаунттарды тазалау
      */
     public int cleanupLockedAccounts() {
-        List<AccountWithHistory> lockedAccounts = repository.findAll().stream()
-                .filter(AccountWithHistory::isLocked)
-                .filter(acc -> acc.getBalance() == 0)
-                .collect(Collectors.toList());
-
-        int count = 0;
-        for (AccountWithHistory account : lockedAccounts) {
-            if (repository.deleteById(account.getId())) {
-                count++;
-            }
+        // Balance index (0..0) кандидаттары ғана тексеріледі, тек ID-лер жиналады
+        AccountQuery query = AccountQuery.builder()
+                .locked(true)
+                .balanceBetween(0, 0)
+                .build();
+        List<Integer> lockedIds = queryEngine.execute(query, AccountWithHistory::getId).getRows();
+
+        List<Integer> deleted = repository.deleteAllById(lockedIds);
+        for (int id : deleted) {
+            logger.recordEvent(BankEvent.accountDeleted(id));
         }
+        int count = deleted.size();
 
         if (count > 0) {
-            repository.flush();
+            makeDurable();
             logger.log("Cleaned up " + count + " locked accounts");
         }
 
@@ -252,91 +621,89 @@ public class BankService {
     }
 
     /**
-     * Repository санын қайтару
+     * Аккаунт және уақыт аралығы бойынша лог іздеу (мысалы, тергеу үшін)
      */
-    public int getAccountCount() {
-        return repository.count();
+    public List<String> searchLogs(Integer accountId, LocalDateTime from, LocalDateTime to,
+                                   int maxResults) {
+        return logger.searchLogs(accountId, from, to, maxResults);
     }
-}
 
-/**
- * Аккаунт статистикасы
- */
-class AccountStatistics {
-    private final int accountId;
-    private final String ownerName;
-    private final double currentBalance;
-    private final double totalDeposited;
-    private final double totalWithdrawn;
-    private final int transactionCount;
-    private final boolean isLocked;
-
-    public AccountStatistics(AccountWithHistory account) {
-        this.accountId = account.getId();
-        this.ownerName = account.getOwnerName();
-        this.currentBalance = account.getBalance();
-        this.totalDeposited = account.getTotalDeposited();
-        this.totalWithdrawn = account.getTotalWithdrawn();
-        this.transactionCount = account.getTransactionCount();
-        this.isLocked = account.isLocked();
-    }
-
-    @Override
-    public String toString() {
-        return String.format(
-                "Account #%d (%s)\n" +
-                        "  Current Balance: %.2f KZT\n" +
-                        "  Total Deposited: %.2f KZT\n" +
-                        "  Total Withdrawn: %.2f KZT\n" +
-                        "  Transactions: %d\n" +
-                        "  Status: %s",
-                accountId, ownerName, currentBalance, totalDeposited,
-                totalWithdrawn, transactionCount, isLocked ? "LOCKED" : "ACTIVE"
-        );
+    /**
+     * Банк бойынша соңғы кезеңдегі белгілі типтегі транзакциялар
+     * Ledger memory-сы жеткіліксіз болса, әр аккаунттың type index-і қолданылады
+     */
+    public List<Transaction> getRecentTransactionsByType(TransactionType type, Duration period) {
+        LocalDateTime since = LocalDateTime.now().minus(period);
+        TransactionLedger ledger = TransactionLedger.getInstance();
+        if (ledger.retainsSince(since)) {
+            return ledger.findRecentByType(type, since);
+        }
+
+        List<Transaction> result = new ArrayList<>();
+        repository.stream().forEach(account -> result.addAll(account.getTransactionsByTypeSince(type, since)));
+        result.sort(Comparator.comparing(Transaction::getTimestamp));
+        return result;
     }
 
-    // Getters
-    public int getAccountId() { return accountId; }
-    public String getOwnerName() { return ownerName; }
-    public double getCurrentBalance() { return currentBalance; }
-    public double getTotalDeposited() { return totalDeposited; }
-    public double getTotalWithdrawn() { return totalWithdrawn; }
-    public int getTransactionCount() { return transactionCount; }
-    public boolean isLocked() { return isLocked; }
-}
+    /**
+     * Барлық аккаунттарға айлық statement жасау (data/statements/yyyy-MM/)
+     */
+    public StatementGenerator.Report generateStatements(YearMonth period,
+                                                       Consumer<StatementGenerator.Report> progressListener) {
+        StatementGenerator generator = new StatementGenerator(repository, Paths.get(STATEMENTS_DIR));
+        StatementGenerator.Report report = generator.generate(period,
+                Runtime.getRuntime().availableProcessors(), progressListener);
+
+        logger.log("Statements generated: Period=" + period + ", Accounts=" + report.getAccountsProcessed());
+        return report;
+    }
 
-/**
- * Банк статистикасы
- */
-class BankStatistics {
-    private final int totalAccounts;
-    private final int activeAccounts;
-    private final int lockedAccounts;
-    private final double totalBalance;
-
-    public BankStatistics(int totalAccounts, int activeAccounts,
-                          int lockedAccounts, double totalBalance) {
-        this.totalAccounts = totalAccounts;
-        this.activeAccounts = activeAccounts;
-        this.lockedAccounts = lockedAccounts;
-        this.totalBalance = totalBalance;
-    }
-
-    @Override
-    public String toString() {
-        return String.format(
-                "Bank Statistics:\n" +
-                        "  Total Accounts: %d\n" +
-                        "  Active Accounts: %d\n" +
-                        "  Locked Accounts: %d\n" +
-                        "  Total Balance: %.2f KZT",
-                totalAccounts, activeAccounts, lockedAccounts, totalBalance
-        );
+    /**
+     * Барлық транзакцияларды CSV-ге экспорттау (data/exports/<timestamp>/)
+     */
+    public TransactionCsvExporter.Report exportTransactions(int shards, boolean gzip) throws IOException {
+        Path directory = Paths.get(EXPORTS_DIR, Long.toString(System.currentTimeMillis()));
+        TransactionCsvExporter.Report report =
+                new TransactionCsvExporter(repository).export(directory, shards, gzip);
+
+        logger.log("Transactions exported: Rows=" + report.getRows() + ", Dir=" + directory);
+        return report;
+    }
+
+    /**
+     * Тарихи транзакцияларды CSV-ден импорттау
+     * Қате жолдар <файл>.rejected.csv файлына жазылады
+     */
+    public TransactionCsvImporter.Report importTransactions(Path csvFile) throws IOException {
+        Path quarantine = csvFile.resolveSibling(csvFile.getFileName() + ".rejected.csv");
+        TransactionCsvImporter.Report report = new TransactionCsvImporter(repository,
+                Runtime.getRuntime().availableProcessors())
+                .onImported(this::recordImported)
+                .importFile(csvFile, quarantine);
+
+        logger.log("Transactions imported: File=" + csvFile + ", Rows=" + report.getImported()
+                + ", Rejected=" + report.getRejected());
+        return report;
+    }
+
+    private void recordImported(Transaction transaction) {
+        BankEvent event = BankEvent.imported(transaction);
+        if (event != null) {
+            logger.recordEvent(event);
+        }
+    }
+
+    /**
+     * Ledger change-feed cursor ашу (position - соңғы өңделген sequence ID)
+     */
+    public LedgerCursor openLedgerCursor(long position, int batchSize) {
+        return new LedgerCursor(TransactionLedger.getInstance(), position, batchSize);
     }
 
-    // Getters
-    public int getTotalAccounts() { return totalAccounts; }
-    public int getActiveAccounts() { return activeAccounts; }
-    public int getLockedAccounts() { return lockedAccounts; }
-    public double getTotalBalance() { return totalBalance; }
+    /**
+     * Repository санын қайтару
+     */
+    public int getAccountCount() {
+        return repository.count();
+    }
 }
@@ -0,0 +1,58 @@
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Банк статистикасы
+ */
+public class BankStatistics {
+    private final int totalAccounts;
+    private final int activeAccounts;
+    private final int lockedAccounts;
+    private final double totalBalance;
+    private final Map<TransactionType, Long> transactionCounts;
+    private final Map<TransactionType, Double> transactionVolumes;
+
+    public BankStatistics(int totalAccounts, int activeAccounts,
+                          int lockedAccounts, double totalBalance) {
+        this(totalAccounts, activeAccounts, lockedAccounts, totalBalance,
+                Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    public BankStatistics(int totalAccounts, int activeAccounts, int lockedAccounts, double totalBalance,
+                          Map<TransactionType, Long> transactionCounts,
+                          Map<TransactionType, Double> transactionVolumes) {
+        this.totalAccounts = totalAccounts;
+        this.activeAccounts = activeAccounts;
+        this.lockedAccounts = lockedAccounts;
+        this.totalBalance = totalBalance;
+        this.transactionCounts = transactionCounts;
+        this.transactionVolumes = transactionVolumes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(
+                "Bank Statistics:\n" +
+                        "  Total Accounts: %d\n" +
+                        "  Active Accounts: %d\n" +
+                        "  Locked Accounts: %d\n" +
+                        "  Total Balance: %.2f KZT",
+                totalAccounts, activeAccounts, lockedAccounts, totalBalance
+        ));
+        for (Map.Entry<TransactionType, Long> entry : transactionCounts.entrySet()) {
+            if (entry.getValue() > 0) {
+                sb.append(String.format("%n  %-17s %,d (%.2f KZT)", entry.getKey() + ":",
+                        entry.getValue(), transactionVolumes.getOrDefault(entry.getKey(), 0.0)));
+            }
+        }
+        return sb.toString();
+    }
+
+    // Getters
+    public int getTotalAccounts() { return totalAccounts; }
+    public int getActiveAccounts() { return activeAccounts; }
+    public int getLockedAccounts() { return lockedAccounts; }
+    public double getTotalBalance() { return totalBalance; }
+    public Map<TransactionType, Long> getTransactionCounts() { return transactionCounts; }
+    public Map<TransactionType, Double> getTransactionVolumes() { return transactionVolumes; }
+}
@@ -0,0 +1,342 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Интерактивсіз batch режимі: командалар файлдан немесе stdin-нен оқылып, BankService арқылы
+ * анимациясыз, толық жылдамдықпен орындалады
+ *
+ * Pipeline: оқу + parse (бөлек thread) -> орындау (рет сақталады) -> буферленген шығыс
+ * autoFlush өшіріледі: repository әр flushInterval командада бір рет және соңында flush болады
+ *
+ * Командалар (бір жолда біреу, '#' - комментарий, [key] - міндетті емес idempotency кілті):
+ *   create <pin> <owner name...>
+ *   deposit <id> <amount> <pin> [key]
+ *   withdraw <id> <amount> <pin> [key]
+ *   transfer <fromId> <toId> <amount> <pin> [key]
+ *   balance <id> <pin>
+ *   history <id> <pin> [count]
+ *
+ * Шығыс (tab-пен бөлінген, stdout):
+ *   <line> OK <command> <fields...>
+ *   <line> TX <transaction csv>          (history үшін әр транзакция)
+ *   <line> ERR <command> <Exception> <message>
+ * Қорытынды (throughput, latency p50/p90/p99/max) stderr-ге шығады
+ */
+public class BatchCommandRunner {
+    public static final int DEFAULT_FLUSH_INTERVAL = 1000;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final Command END = new Command(-1, new String[0]);
+
+    private final BankService bankService;
+    private final int flushInterval;
+
+    public BatchCommandRunner(BankService bankService) {
+        this(bankService, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param flushInterval неше команда сайын repository flush жасалады
+     */
+    public BatchCommandRunner(BankService bankService, int flushInterval) {
+        if (flushInterval <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.bankService = bankService;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Main --batch <file|-> кіру нүктесі
+     */
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : "-";
+        AccountRepository repository = ConsoleApp.createRepository();
+        TransactionLogger logger = new TransactionLogger(new LoggerConfig()
+                .setAsync(true)
+                .setBackpressurePolicy(BackpressurePolicy.BLOCK)
+                .setBinaryEventLog(true));
+        IdempotencyCache idempotencyCache = new IdempotencyCache(Paths.get("data", "idempotency.log"));
+        BankService service = new BankService(repository, logger, idempotencyCache);
+
+        Report report;
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024)) {
+            report = new BatchCommandRunner(service).run(in, out);
+        } finally {
+            logger.close();
+            idempotencyCache.close();
+            if (repository instanceof Closeable) {
+                ((Closeable) repository).close();
+            }
+        }
+        System.err.println(report);
+    }
+
+    /**
+     * Командаларды орындау
+     * @param in командалар көзі (соңына дейін оқылады)
+     * @param out нәтижелер (әр жол сайын flush жасалмайды)
+     */
+    public Report run(BufferedReader in, Writer out) throws IOException {
+        BlockingQueue<Command> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        IOException[] readFailure = new IOException[1];
+        Thread reader = new Thread(() -> readCommands(in, queue, readFailure), "batch-reader");
+        reader.setDaemon(true);
+
+        boolean previousAutoFlush = bankService.isAutoFlush();
+        bankService.setAutoFlush(false);
+
+        long[] latencies = new long[1024];
+        int count = 0;
+        long failed = 0;
+        StringBuilder line = new StringBuilder(256);
+        long start = System.nanoTime();
+        reader.start();
+        try {
+            while (true) {
+                Command command = queue.take();
+                if (command == END) {
+                    break;
+                }
+
+                line.setLength(0);
+                long begin = System.nanoTime();
+                if (!execute(command, line)) {
+                    failed++;
+                }
+                long latency = System.nanoTime() - begin;
+
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+                out.append(line);
+
+                if (count % flushInterval == 0) {
+                    bankService.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch interrupted");
+        } finally {
+            bankService.setAutoFlush(previousAutoFlush);
+            bankService.flush();
+            out.flush();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (readFailure[0] != null) {
+            throw readFailure[0];
+        }
+        return new Report(count, failed, elapsed, Arrays.copyOf(latencies, count));
+    }
+
+    // ============ PIPELINE ============
+
+    private static void readCommands(BufferedReader in, BlockingQueue<Command> queue,
+                                     IOException[] failure) {
+        try {
+            String text;
+            int lineNumber = 0;
+            while ((text = in.readLine()) != null) {
+                lineNumber++;
+                String trimmed = text.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                queue.put(new Command(lineNumber, trimmed.split("\\s+")));
+            }
+        } catch (IOException e) {
+            failure[0] = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                queue.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Бір команданы орындап, нәтиже жолдарын line-ға жазу
+     * @return true - сәтті
+     */
+    private boolean execute(Command command, StringBuilder line) {
+        String[] args = command.args;
+        String name = args[0].toLowerCase();
+        try {
+            switch (name) {
+                case "create": {
+                    requireArgs(args, 3, Integer.MAX_VALUE);
+                    String owner = String.join(" ", Arrays.asList(args).subList(2, args.length));
+                    AccountWithHistory account = bankService.createAccount(owner, args[1]);
+                    ok(line, command, name).append(account.getId());
+                    break;
+                }
+                case "deposit": {
+                    requireArgs(args, 4, 5);
+                    int id = parseId(args[1]);
+                    bankService.deposit(id, parseAmount(args[2]), args[3], optional(args, 4));
+                    appendBalance(ok(line, command, name).append(id).append('\t'), id);
+                    break;
+                }
+                case "withdraw": {
+                    requireArgs(args, 4, 5);
+                    int id = parseId(args[1]);
+                    bankService.withdraw(id, parseAmount(args[2]), args[3], optional(args, 4));
+                    appendBalance(ok(line, command, name).append(id).append('\t'), id);
+                    break;
+                }
+                case "transfer": {
+                    requireArgs(args, 5, 6);
+                    int fromId = parseId(args[1]);
+                    int toId = parseId(args[2]);
+                    bankService.transfer(fromId, toId, parseAmount(args[3]), args[4], optional(args, 5));
+                    appendBalance(ok(line, command, name).append(fromId).append('\t')
+                            .append(toId).append('\t'), fromId);
+                    break;
+                }
+                case "balance": {
+                    requireArgs(args, 3, 3);
+                    AccountWithHistory account = bankService.getAccount(parseId(args[1]), args[2]);
+                    TextFormat.appendAmount(ok(line, command, name).append(account.getId()).append('\t'),
+                            account.getBalance());
+                    break;
+                }
+                case "history": {
+                    requireArgs(args, 3, 4);
+                    AccountWithHistory account = bankService.getAccount(parseId(args[1]), args[2]);
+                    int limit = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+                    List<Transaction> transactions = account.getLastTransactions(limit);
+                    ok(line, command, name).append(account.getId()).append('\t').append(transactions.size());
+                    for (Transaction transaction : transactions) {
+                        line.append('\n').append(command.lineNumber).append("\tTX\t");
+                        transaction.appendCsv(line);
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+            line.append('\n');
+            return true;
+        } catch (Exception e) {
+            line.setLength(0);
+            line.append(command.lineNumber).append("\tERR\t").append(name).append('\t')
+                    .append(e.getClass().getSimpleName()).append('\t')
+                    .append(String.valueOf(e.getMessage()).replace('\n', ' ').replace('\t', ' '))
+                    .append('\n');
+            return false;
+        }
+    }
+
+    // ============ HELPERS ============
+
+    private static StringBuilder ok(StringBuilder line, Command command, String name) {
+        return line.append(command.lineNumber).append("\tOK\t").append(name).append('\t');
+    }
+
+    private void appendBalance(StringBuilder line, int id) throws AccountNotFoundException {
+        TextFormat.appendAmount(line, bankService.getAccount(id).getBalance());
+    }
+
+    private static void requireArgs(String[] args, int min, int max) {
+        if (args.length < min || args.length > max) {
+            throw new IllegalArgumentException("Wrong number of arguments for " + args[0]);
+        }
+    }
+
+    private static String optional(String[] args, int index) {
+        return args.length > index ? args[index] : null;
+    }
+
+    private static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid account ID: " + value);
+        }
+    }
+
+    private static double parseAmount(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    /**
+     * Parse болған команда жолы
+     */
+    private static final class Command {
+        private final int lineNumber;
+        private final String[] args;
+
+        private Command(int lineNumber, String[] args) {
+            this.lineNumber = lineNumber;
+            this.args = args;
+        }
+    }
+
+    /**
+     * Batch қорытындысы: throughput және latency перцентильдері
+     */
+    public static final class Report {
+        private final long commands;
+        private final long failed;
+        private final long elapsedNanos;
+        private final long[] latencies; // Сұрыпталған, наносекунд
+
+        Report(long commands, long failed, long elapsedNanos, long[] latencies) {
+            this.commands = commands;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            Arrays.sort(this.latencies);
+        }
+
+        public double getCommandsPerSecond() {
+            return elapsedNanos == 0 ? commands : commands * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @param percentile 0..100
+         * @return latency, микросекунд
+         */
+        public double getLatencyMicros(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Batch: %d commands (%d failed) in %.2fs (%.0f commands/s), "
+                            + "latency us p50: %.1f, p90: %.1f, p99: %.1f, max: %.1f",
+                    commands, failed, elapsedNanos / 1e9, getCommandsPerSecond(),
+                    getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99),
+                    getLatencyMicros(100));
+        }
+
+        // Getters
+        public long getCommands() { return commands; }
+        public long getFailed() { return failed; }
+        public long getSucceeded() { return commands - failed; }
+        public long getElapsedNanos() { return elapsedNanos; }
+    }
+}
@@ -0,0 +1,138 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Ықшам binary оқиға журналы (append-only)
+ *
+ * Файл форматы:
+ *   header: "BEVT" + version (1 байт)
+ *   жазба:  op (u8), outcome (u8), timestampMillis (i64), accountId (i32),
+ *           counterpartyId (i32), amountMinor (i64) = 26 байт
+ *           ACCOUNT_CREATED үшін қосымша: ownerName (DataOutput.writeUTF)
+ */
+public class BinaryEventLog implements Closeable {
+    private static final byte[] MAGIC = {'B', 'E', 'V', 'T'};
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final DataOutputStream out;
+    private long eventsWritten;
+
+    public BinaryEventLog(Path file) throws IOException {
+        this.file = file;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+        if (!newFile) {
+            checkHeader(file);
+        }
+
+        this.out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                BUFFER_SIZE));
+        if (newFile) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.flush();
+        }
+    }
+
+    /**
+     * Оқиғаны жазу (buffer-ге, flush бөлек)
+     */
+    public synchronized void write(BankEvent event) throws IOException {
+        out.writeByte(event.getOp().getCode());
+        out.writeByte(event.getOutcome().getCode());
+        out.writeLong(event.getTimestampMillis());
+        out.writeInt(event.getAccountId());
+        out.writeInt(event.getCounterpartyId());
+        out.writeLong(event.getAmountMinor());
+        if (event.getOp() == BankEvent.Op.ACCOUNT_CREATED) {
+            out.writeUTF(event.getOwnerName() != null ? event.getOwnerName() : "");
+        }
+        eventsWritten++;
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    public synchronized long getEventsWritten() {
+        return eventsWritten;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // ============ READING ============
+
+    /**
+     * Журналды басынан оқу
+     * Соңғы жазба толық жазылмаған болса (crash), ол өткізіліп жіберіледі
+     * @return оқылған оқиғалар саны
+     */
+    public static long read(Path file, Consumer<BankEvent> consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file), BUFFER_SIZE))) {
+            readHeader(in, file);
+
+            long count = 0;
+            while (true) {
+                int opCode = in.read();
+                if (opCode < 0) {
+                    return count; // Файл соңы
+                }
+                BankEvent event;
+                try {
+                    event = readBody(in, opCode);
+                } catch (EOFException e) {
+                    System.err.println("Warning: Truncated event at the end of " + file + " ignored");
+                    return count;
+                }
+                consumer.accept(event);
+                count++;
+            }
+        }
+    }
+
+    private static BankEvent readBody(DataInputStream in, int opCode) throws IOException {
+        BankEvent.Op op = BankEvent.Op.fromCode(opCode);
+        BankEvent.Outcome outcome = BankEvent.Outcome.fromCode(in.readUnsignedByte());
+        long timestampMillis = in.readLong();
+        int accountId = in.readInt();
+        int counterpartyId = in.readInt();
+        long amountMinor = in.readLong();
+        String ownerName = op == BankEvent.Op.ACCOUNT_CREATED ? in.readUTF() : null;
+        return new BankEvent(op, outcome, timestampMillis, accountId, counterpartyId, amountMinor, ownerName);
+    }
+
+    private static void checkHeader(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            readHeader(in, file);
+        }
+    }
+
+    private static void readHeader(DataInputStream in, Path file) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        try {
+            in.readFully(magic);
+            int version = in.readUnsignedByte();
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+                throw new IOException("Not a binary event log (or unsupported version): " + file);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Binary event log header is truncated: " + file, e);
+        }
+    }
+}
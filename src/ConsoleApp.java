@@ -1,3 +1,9 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
 
@@ -9,6 +15,7 @@ import java.util.Scanner;
  * - Graceful shutdown
  */
 public class ConsoleApp {
+    private static final int ACCOUNTS_PAGE_SIZE = 20;
 
     private final Scanner scanner;
     private final BankService bankService;
@@ -17,18 +24,42 @@ public class ConsoleApp {
     public ConsoleApp() {
         this.scanner = new Scanner(System.in);
 
-        // Repository таңдау (файл немесе memory)
-        AccountRepository repository = new FileAccountRepository();
-        this.bankService = new BankService(repository);
+        AccountRepository repository = createRepository();
+        TransactionLogger logger = new TransactionLogger(new LoggerConfig()
+                .setAsync(true)
+                .setBackpressurePolicy(BackpressurePolicy.BLOCK)
+                .setBinaryEventLog(true));
+        IdempotencyCache idempotencyCache = new IdempotencyCache(Paths.get("data", "idempotency.log"));
+        this.bankService = new BankService(repository, logger, idempotencyCache);
         this.ui = new ConsoleUI();
 
         // Shutdown hook қосу
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println("\n" + Colors.YELLOW + "Saving data..." + Colors.RESET);
+            logger.close(); // Async буферді файлға жазып бітіру
+            idempotencyCache.close();
             scanner.close();
         }));
     }
 
+    /**
+     * Repository таңдау (-Dbank.storage):
+     * - file (default): бір файл
+     * - disk: аккаунттар дискте, heap-те тек cache (-Dbank.cacheSize)
+     * - sharded: ID бойынша бөлінген файлдар (-Dbank.shards)
+     */
+    static AccountRepository createRepository() {
+        String storage = System.getProperty("bank.storage", "file");
+        switch (storage) {
+            case "disk":
+                return new DiskAccountRepository("data", Integer.getInteger("bank.cacheSize", 100_000));
+            case "sharded":
+                return new ShardedAccountRepository("data", Integer.getInteger("bank.shards", 4));
+            default:
+                return new FileAccountRepository();
+        }
+    }
+
     public void run() {
         ui.printWelcome();
 
@@ -89,6 +120,10 @@ public class ConsoleApp {
                 case 8: handleSearchAccount(); break;
                 case 9: handleShowStatistics(); break;
                 case 10: handleShowAllAccounts(); break;
+                case 11: handleGenerateStatements(); break;
+                case 12: handleExportTransactions(); break;
+                case 13: handleImportTransactions(); break;
+                case 14: handleProvisionAccounts(); break;
                 case 0: return false; // Exit
                 default:
                     ui.printError("Invalid option. Please try again!");
@@ -427,20 +462,153 @@ public class ConsoleApp {
     private void handleShowAllAccounts() {
         ui.printHeader("ALL ACCOUNTS");
 
-        List<AccountWithHistory> accounts = bankService.getAllAccounts();
-
-        if (accounts.isEmpty()) {
+        int total = bankService.getAccountCount();
+        if (total == 0) {
             ui.printInfo("No accounts in the system.");
             return;
         }
 
-        System.out.println(Colors.GREEN + "Total accounts: " + accounts.size() + Colors.RESET);
+        System.out.println(Colors.GREEN + "Total accounts: " + total + Colors.RESET);
         System.out.println();
 
-        for (AccountWithHistory account : accounts) {
-            System.out.println(account);
-            System.out.println("  Transactions: " + account.getTransactionCount());
-            System.out.println();
+        // Бет-бетімен көрсету - бүкіл банк memory-ға көшірілмейді
+        int afterId = 0;
+        while (true) {
+            List<AccountWithHistory> page = bankService.getAccountsPage(afterId, ACCOUNTS_PAGE_SIZE);
+            for (AccountWithHistory account : page) {
+                System.out.println(account);
+                System.out.println("  Transactions: " + account.getTransactionCount());
+                System.out.println();
+            }
+            if (page.size() < ACCOUNTS_PAGE_SIZE) {
+                return;
+            }
+            afterId = page.get(page.size() - 1).getId();
+
+            System.out.print("Press Enter for the next page (q to stop): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 11. Айлық statement-тер жасау
+     */
+    private void handleGenerateStatements() {
+        ui.printHeader("GENERATE MONTHLY STATEMENTS");
+
+        YearMonth defaultPeriod = YearMonth.now().minusMonths(1);
+        System.out.print("Enter month (yyyy-MM, default " + defaultPeriod + "): ");
+        String input = scanner.nextLine().trim();
+
+        YearMonth period;
+        try {
+            period = input.isEmpty() ? defaultPeriod : YearMonth.parse(input);
+        } catch (DateTimeParseException e) {
+            ui.printError("Invalid month format!");
+            return;
+        }
+
+        StatementGenerator.Report report = bankService.generateStatements(period,
+                progress -> System.out.println(Colors.YELLOW + "  " + progress + Colors.RESET));
+
+        ui.printSuccess("Statements generated!");
+        ui.printInfo(report.toString());
+    }
+
+    /**
+     * 12. Транзакцияларды CSV-ге экспорттау
+     */
+    private void handleExportTransactions() {
+        ui.printHeader("EXPORT TRANSACTIONS TO CSV");
+
+        System.out.print("Number of output files (default 1): ");
+        String input = scanner.nextLine().trim();
+
+        try {
+            int shards = input.isEmpty() ? 1 : Integer.parseInt(input);
+            boolean gzip = ui.askConfirmation(scanner, "Compress with gzip?");
+
+            TransactionCsvExporter.Report report = bankService.exportTransactions(shards, gzip);
+
+            ui.printSuccess("Export completed!");
+            ui.printInfo(report.toString());
+            ui.printInfo("Directory: " + report.getFiles().get(0).getParent());
+
+        } catch (NumberFormatException e) {
+            ui.printError("Invalid number format!");
+        } catch (IOException e) {
+            ui.printError("Export failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 13. Тарихи транзакцияларды CSV-ден импорттау
+     */
+    private void handleImportTransactions() {
+        ui.printHeader("IMPORT TRANSACTIONS FROM CSV");
+
+        System.out.print("Enter CSV file path: ");
+        String input = scanner.nextLine().trim();
+
+        if (input.isEmpty()) {
+            ui.printError("File path cannot be empty!");
+            return;
+        }
+
+        Path file = Paths.get(input);
+        if (!Files.isRegularFile(file)) {
+            ui.printError("File not found: " + input);
+            return;
+        }
+
+        try {
+            TransactionCsvImporter.Report report = bankService.importTransactions(file);
+
+            ui.printSuccess("Import completed!");
+            ui.printInfo(report.toString());
+            if (report.getRejected() > 0) {
+                ui.printWarning("Rejected rows saved to: " + report.getQuarantineFile());
+            }
+
+        } catch (IOException e) {
+            ui.printError("Import failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 14. CSV файлынан аккаунттарды жаппай ашу
+     */
+    private void handleProvisionAccounts() {
+        ui.printHeader("PROVISION ACCOUNTS FROM CSV");
+
+        System.out.print("Enter CSV file path (owner,pin[,initial_balance]): ");
+        String input = scanner.nextLine().trim();
+
+        if (input.isEmpty()) {
+            ui.printError("File path cannot be empty!");
+            return;
+        }
+
+        Path file = Paths.get(input);
+        if (!Files.isRegularFile(file)) {
+            ui.printError("File not found: " + input);
+            return;
+        }
+
+        try {
+            AccountProvisioner.Report report = bankService.provisionAccounts(file);
+
+            ui.printSuccess("Provisioning completed!");
+            ui.printInfo(report.toString());
+            ui.printInfo("Account IDs saved to: " + report.getOutputFile());
+            if (report.getRejected() > 0) {
+                ui.printWarning("Rejected rows saved to: " + report.getRejectsFile());
+            }
+
+        } catch (IOException e) {
+            ui.printError("Provisioning failed: " + e.getMessage());
         }
     }
 
@@ -56,6 +56,12 @@ public class ConsoleUI {
         System.out.println("    9️⃣  Show bank statistics");
         System.out.println("    🔟 Show all accounts");
         System.out.println();
+        System.out.println("  🛠  Admin Tools:");
+        System.out.println("    1️⃣1️⃣ Generate monthly statements");
+        System.out.println("    1️⃣2️⃣ Export transactions to CSV");
+        System.out.println("    1️⃣3️⃣ Import transactions from CSV");
+        System.out.println("    1️⃣4️⃣ Provision accounts from CSV");
+        System.out.println();
         System.out.println("    0️⃣  Exit");
         System.out.println(Colors.RESET);
         System.out.println(Colors.CYAN + "════════════════════════════════════════════════" + Colors.RESET);
@@ -0,0 +1,979 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Дискте тұратын Repository - банк өлшемі -Xmx-пен шектелмейді
+ * - accounts.db: AccountCodec жазбалары (append-only, жаңа нұсқа файл соңына жазылады)
+ * - accounts.idx: ID бойынша тұрақты өлшемді slot-тар (memory-mapped, heap-тен тыс):
+ *   offset, length, flags, balance, соңғы sequence ID
+ * - Heap-те тек W-TinyLFU cache (working set); dirty жазбалар evict кезінде дискке жазылады
+ * - Бір ID-ге бір тірі объект: cache-тен шыққан, бірақ шақырушыда әлі ұсталған аккаунт weak map
+ *   арқылы табылып, дисктен екінші көшірме жасалмайды (әйтпесе екі объектінің lock-тары бөлек,
+ *   біреуінің өзгерісі екіншісінің save-імен жоғалады)
+ *
+ * Шектеулер:
+ * - Аккаунт объектісі өзгертілгеннен кейін save() шақырылуы керек (BankService солай жасайды):
+ *   cache-тен шығып кеткен өзгертілген, бірақ сақталмаған объект жоғалады
+ * - stream()/scan сұраныстары cache-те де, тірі де емес аккаунт үшін дисктен snapshot береді -
+ *   оны өзгертуге болмайды (BankService аккаунтты әрқашан findById арқылы алады)
+ * - Owner бойынша іздеу толық scan; balance сұраныстары idx-тегі balance-ты scan-дейді
+ *   (heap-тегі trigram/skip list index-тер 10M аккаунтқа сыймайды)
+ * - Тип бойынша санағыштар тек repository ашылғаннан бергі транзакцияларды санайды
+ * Compaction: әр flush аккаунттың толық жазбасын data файлының соңына қосады, сондықтан ескі
+ * нұсқалар жиналады. flush соңында файлдың жартысынан көбі ескі нұсқалар болса (және файл
+ * COMPACT_MIN_BYTES-тен үлкен), тірі жазбалар жаңа буын файлына (accounts.db.<N>) көшіріліп,
+ * жаңа idx уақытша файлға жазылады; commit нүктесі - idx-тің atomic rename-і. Crash-тан кейін
+ * ашқанда idx көрсеткен буыннан басқа data файлдары мен уақытша idx өшіріледі.
+ */
+public class DiskAccountRepository implements AccountRepository, Closeable {
+    private static final String DEFAULT_DIR = "data";
+    private static final String DATA_FILE = "accounts.db";
+    private static final String INDEX_FILE = "accounts.idx";
+    private static final String LEDGER_FILE = "ledger.log";
+    private static final String ID_FILE = "ids.hwm";
+    private static final String COMPACT_SUFFIX = ".compact";
+    private static final long COMPACT_MIN_BYTES = 16L << 20;
+    private static final int DEFAULT_CACHE_CAPACITY = 100_000;
+
+    private final String dataDirectory;
+    private final WTinyLfuCache<AccountWithHistory> cache;
+    private volatile SlotTable slots; // Compaction ауыстырады (this + diskLock астында)
+    private final AccountIdSet accountIds = new AccountIdSet(); // findPage үшін (ашқанда idx-тен толтырылады)
+    private FileChannel data; // diskLock астында
+    private final BankCounters counters;
+    private final IdAllocator idAllocator;
+    private final Object diskLock = new Object(); // slots + data файлы (cache lock-тан кейін алынады)
+    private final Map<Integer, LiveRef> live = new HashMap<>(); // this астында
+    private final ReferenceQueue<AccountWithHistory> collected = new ReferenceQueue<>();
+    private final AtomicLong diskReads = new AtomicLong();
+    private final AtomicLong diskWrites = new AtomicLong();
+    private long dataEnd;
+    private long liveBytes; // idx сілтейтін жазбалардың жалпы ұзындығы (diskLock астында)
+    private long compactions;
+
+    public DiskAccountRepository() {
+        this(DEFAULT_DIR, DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * @param dataDirectory accounts.db / accounts.idx орналасатын папка
+     * @param cacheCapacity heap-те ұсталатын ең көп аккаунт саны
+     */
+    public DiskAccountRepository(String dataDirectory, int cacheCapacity) {
+        this.dataDirectory = dataDirectory;
+        this.counters = new BankCounters();
+        this.cache = new WTinyLfuCache<>(cacheCapacity, this::onEviction);
+        try {
+            Files.createDirectories(Paths.get(dataDirectory));
+            Files.deleteIfExists(Paths.get(dataDirectory, INDEX_FILE + COMPACT_SUFFIX)); // Аяқталмаған compaction
+            this.slots = new SlotTable(Paths.get(dataDirectory, INDEX_FILE));
+            deleteStaleDataFiles(slots.getDataGeneration());
+            this.data = FileChannel.open(dataPath(slots.getDataGeneration()),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.dataEnd = data.size();
+            this.idAllocator = new IdAllocator(Paths.get(dataDirectory, ID_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open disk account store in " + dataDirectory, e);
+        }
+
+        loadCounters();
+        idAllocator.observe(highestId());
+        TransactionLedger.getInstance().restoreSequence(slots.getLastSequence());
+        TransactionLedger.getInstance().attachJournal(Paths.get(dataDirectory, LEDGER_FILE));
+    }
+
+    /**
+     * Санағыштарды idx бойынша толтыру (аккаунт жазбалары оқылмайды)
+     */
+    private void loadCounters() {
+        int highest = slots.getNextId() - 1;
+        for (int id = 1; id <= highest; id++) {
+            if (!slots.isPresent(id)) {
+                continue;
+            }
+            if (slots.length(id) == 0) {
+                slots.markDeleted(id); // Жазбасы flush-қа дейін дискке жетпеген (crash)
+                continue;
+            }
+            counters.onLoaded(slots.balance(id), slots.isLocked(id));
+            accountIds.add(id);
+            liveBytes += slots.length(id);
+        }
+        System.out.println("Opened disk store with " + counters.getTotalAccounts() + " accounts.");
+    }
+
+    @Override
+    public synchronized AccountWithHistory save(AccountWithHistory account) {
+        saveAll(Collections.singletonList(account));
+        return account;
+    }
+
+    /**
+     * Slot-тар diskLock астында бір өтуде жаңартылады, содан кейін санағыштар мен cache
+     */
+    @Override
+    public synchronized List<AccountWithHistory> saveAll(Collection<AccountWithHistory> accounts) {
+        if (accounts == null || accounts.contains(null)) {
+            throw new IllegalArgumentException("Accounts cannot be null");
+        }
+        List<AccountWithHistory> saved = new ArrayList<>(accounts);
+        BankCounters.State[] previous = new BankCounters.State[saved.size()];
+        BankCounters.State[] current = new BankCounters.State[saved.size()];
+        for (int i = 0; i < saved.size(); i++) {
+            if (saved.get(i).getId() <= 0) {
+                throw new IllegalArgumentException("Account ID must be positive");
+            }
+            current[i] = BankCounters.State.of(saved.get(i));
+        }
+
+        synchronized (diskLock) {
+            for (int i = 0; i < saved.size(); i++) {
+                int id = saved.get(i).getId();
+                previous[i] = slots.isPresent(id)
+                        ? new BankCounters.State(slots.balance(id), slots.isLocked(id), slots.lastSequence(id))
+                        : null;
+                slots.putMetadata(id, current[i].getBalance(), current[i].isLocked(), current[i].getLastSequence());
+                slots.raiseNextId(id + 1);
+                accountIds.add(id);
+            }
+        }
+        idAllocator.observe(highestId());
+        expungeCollected();
+        for (int i = 0; i < saved.size(); i++) {
+            AccountWithHistory account = saved.get(i);
+            register(account);
+            counters.onChanged(account, previous[i], current[i]);
+            cache.put(account.getId(), account, true); // Дискке evict немесе flush кезінде жазылады
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<AccountWithHistory> findById(int id) {
+        AccountWithHistory cached = cache.get(id);
+        return cached != null ? Optional.of(cached) : Optional.ofNullable(load(id));
+    }
+
+    /**
+     * Cache miss: save-пен ретке келтіріледі, әйтпесе бір аккаунттың екі объектісі пайда болуы мүмкін
+     * Ретімен: cache, әлі тірі объект (evict болған, бірақ шақырушыда ұсталған), диск
+     * (scan-дар cache-ті ластамау үшін peek қолданады)
+     */
+    private synchronized AccountWithHistory load(int id) {
+        AccountWithHistory cached = cache.peek(id);
+        if (cached != null) {
+            return cached; // Сол арада басқа thread жүктеп/сақтап үлгерді
+        }
+        expungeCollected();
+        LiveRef ref = live.get(id);
+        AccountWithHistory account = ref != null ? ref.get() : null;
+        if (account == null) {
+            account = readFromDisk(id);
+            if (account == null) {
+                return null;
+            }
+            live.put(id, new LiveRef(account, collected));
+        }
+        cache.putIfAbsent(id, account);
+        return account;
+    }
+
+    /**
+     * Сақталған объект осы ID-нің тірі объектісі болады (this астында)
+     */
+    private void register(AccountWithHistory account) {
+        LiveRef ref = live.get(account.getId());
+        if (ref == null || ref.get() != account) {
+            live.put(account.getId(), new LiveRef(account, collected));
+        }
+    }
+
+    /**
+     * GC жинаған объектілердің жазбаларын өшіру (this астында)
+     */
+    private void expungeCollected() {
+        LiveRef ref;
+        while ((ref = (LiveRef) collected.poll()) != null) {
+            live.remove(ref.id, ref);
+        }
+    }
+
+    /**
+     * Cache-те жоқтары бір lock астында, data файлындағы орны бойынша ретімен оқылады
+     */
+    @Override
+    public List<AccountWithHistory> findAllById(Collection<Integer> ids) {
+        AccountWithHistory[] found = new AccountWithHistory[ids.size()];
+        int[] order = new int[ids.size()];
+        int misses = 0;
+        int index = 0;
+        for (int id : ids) {
+            found[index] = cache.get(id);
+            if (found[index] == null) {
+                order[misses++] = index;
+            }
+            index++;
+        }
+        if (misses > 0) {
+            loadAll(ids.toArray(new Integer[0]), found, Arrays.copyOf(order, misses));
+        }
+
+        List<AccountWithHistory> result = new ArrayList<>(found.length);
+        for (AccountWithHistory account : found) {
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    private synchronized void loadAll(Integer[] ids, AccountWithHistory[] found, int[] missing) {
+        long[] offsets = new long[missing.length];
+        synchronized (diskLock) {
+            for (int i = 0; i < missing.length; i++) {
+                int id = ids[missing[i]];
+                offsets[i] = slots.isPresent(id) ? slots.offset(id) : -1;
+            }
+        }
+        Integer[] byOffset = new Integer[missing.length];
+        for (int i = 0; i < missing.length; i++) {
+            byOffset[i] = i;
+        }
+        Arrays.sort(byOffset, Comparator.comparingLong(i -> offsets[i]));
+
+        for (int i : byOffset) {
+            if (offsets[i] >= 0) {
+                found[missing[i]] = load(ids[missing[i]]);
+            }
+        }
+    }
+
+    /**
+     * Cache-ті ластамай оқу (scan және balance сұраулары үшін): cache-те немесе тірі болса сол объект,
+     * әйтпесе дисктен оқылған тек-оқуға арналған snapshot (өзгерту findById арқылы алынған объектпен жасалады)
+     * Диск оқуы repository lock-сыз (scan save-терді тоқтатпайды); оқығаннан кейін cache мен тірі
+     * объект қайта тексеріледі - сол арада жүктелген/сақталған объект snapshot-тан басым
+     */
+    private AccountWithHistory peek(int id) {
+        AccountWithHistory current = peekInMemory(id);
+        if (current != null) {
+            return current;
+        }
+        AccountWithHistory snapshot = readFromDisk(id);
+        if (snapshot == null) {
+            return null;
+        }
+        current = peekInMemory(id);
+        return current != null ? current : snapshot;
+    }
+
+    private AccountWithHistory peekInMemory(int id) {
+        AccountWithHistory cached = cache.peek(id);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            expungeCollected();
+            LiveRef ref = live.get(id);
+            return ref != null ? ref.get() : null;
+        }
+    }
+
+    @Override
+    public List<AccountWithHistory> findAll() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /**
+     * ID ретімен idx бойынша; cache-те жоқ аккаунттар дисктен оқылады, cache-ке қосылмайды
+     */
+    @Override
+    public Stream<AccountWithHistory> stream() {
+        return IntStream.rangeClosed(1, highestId())
+                .filter(slots::isPresent)
+                .mapToObj(this::peek)
+                .filter(account -> account != null);
+    }
+
+    @Override
+    public List<AccountWithHistory> findPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        List<AccountWithHistory> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = accountIds.next(afterId); id != AccountIdSet.NONE && page.size() < limit;
+             id = accountIds.next(id)) {
+            findById(id).ifPresent(page::add);
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized boolean deleteById(int id) {
+        return !deleteAllById(Collections.singletonList(id)).isEmpty();
+    }
+
+    @Override
+    public synchronized List<Integer> deleteAllById(Collection<Integer> ids) {
+        List<Integer> deleted = new ArrayList<>();
+        List<BankCounters.State> removed = new ArrayList<>();
+        synchronized (diskLock) {
+            for (int id : ids) {
+                if (slots.isPresent(id)) {
+                    removed.add(new BankCounters.State(slots.balance(id), slots.isLocked(id), 0));
+                    liveBytes -= slots.length(id);
+                    slots.markDeleted(id);
+                    accountIds.remove(id);
+                    deleted.add(id);
+                }
+            }
+        }
+        for (int i = 0; i < deleted.size(); i++) {
+            cache.remove(deleted.get(i));
+            live.remove(deleted.get(i));
+            counters.onRemoved(removed.get(i).getBalance(), removed.get(i).isLocked());
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<AccountWithHistory> findByOwnerName(String ownerName) {
+        if (ownerName == null || ownerName.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        String folded = OwnerNameIndex.fold(ownerName.trim());
+        return stream()
+                .filter(account -> OwnerNameIndex.fold(account.getOwnerName()).contains(folded))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<AccountWithHistory> findByBalanceGreaterThan(double minBalance) {
+        return resolve(rankByBalance(Math.nextUp(minBalance), Double.MAX_VALUE, false, 0, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public List<AccountWithHistory> findByBalanceBetween(double minBalance, double maxBalance,
+                                                         int offset, int limit) {
+        return resolve(rankByBalance(minBalance, maxBalance, false, offset, limit));
+    }
+
+    @Override
+    public List<AccountWithHistory> findTopByBalance(int offset, int limit) {
+        return resolve(rankByBalance(-Double.MAX_VALUE, Double.MAX_VALUE, true, offset, limit));
+    }
+
+    @Override
+    public List<AccountWithHistory> findBottomByBalance(int offset, int limit) {
+        return resolve(rankByBalance(-Double.MAX_VALUE, Double.MAX_VALUE, false, offset, limit));
+    }
+
+    /**
+     * idx-тегі balance-тарды scan-деп, offset + limit өлшемді heap арқылы бетті таңдау
+     * (аккаунт жазбалары тек нәтижеге кіргендері үшін оқылады)
+     */
+    private List<Integer> rankByBalance(double minBalance, double maxBalance, boolean descending,
+                                        int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Offset must be non-negative and limit positive");
+        }
+        Comparator<Ranked> order = Comparator.comparingDouble((Ranked r) -> r.balance)
+                .thenComparingInt(r -> r.id);
+        if (descending) {
+            order = order.reversed();
+        }
+        long keep = Math.min((long) offset + limit, Math.max(count(), 1));
+        // Heap басында - сақталғандардың ең "нашары", жаңа кандидат одан жақсы болса ауыстырамыз
+        PriorityQueue<Ranked> best = new PriorityQueue<>((int) Math.min(keep, 1 << 16), order.reversed());
+        int highest = highestId();
+        for (int id = 1; id <= highest; id++) {
+            if (!slots.isPresent(id)) {
+                continue;
+            }
+            double balance = slots.balance(id);
+            if (balance < minBalance || balance > maxBalance) {
+                continue;
+            }
+            Ranked candidate = new Ranked(balance, id);
+            if (best.size() < keep) {
+                best.add(candidate);
+            } else if (order.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        List<Ranked> ordered = new ArrayList<>(best);
+        ordered.sort(order);
+        List<Integer> ids = new ArrayList<>(Math.max(0, ordered.size() - offset));
+        for (int i = offset; i < ordered.size(); i++) {
+            ids.add(ordered.get(i).id);
+        }
+        return ids;
+    }
+
+    /**
+     * Сұрау нәтижесін peek арқылы жүктеу: бір реттік scan нәтижесі W-TinyLFU-ға кірмейді және sketch-ті өсірмейді
+     */
+    private List<AccountWithHistory> resolve(List<Integer> ids) {
+        List<AccountWithHistory> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            AccountWithHistory account = peek(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return slots.isPresent(id);
+    }
+
+    @Override
+    public int count() {
+        return counters.getTotalAccounts();
+    }
+
+    @Override
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public int allocateIds(int count) {
+        return idAllocator.allocate(count);
+    }
+
+    @Override
+    public BankCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Dirty жазбаларды data файлына жазу, содан кейін data -> idx ретімен fsync
+     * Ескі нұсқалар файлдың жартысынан асса - compaction
+     */
+    @Override
+    public synchronized void flush() {
+        long covered = TransactionLedger.getInstance().flush();
+        idAllocator.checkpoint(); // Restart нақты келесі ID-ден жалғасады
+        for (Map.Entry<Integer, AccountWithHistory> entry : cache.dirtyEntries()) {
+            writeToDisk(entry.getValue());
+            cache.markClean(entry.getKey(), entry.getValue());
+        }
+        synchronized (diskLock) {
+            try {
+                data.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to sync account data", e);
+            }
+            slots.setLastSequence(TransactionLedger.getInstance().getLastSequence());
+            slots.force();
+            if (dataEnd >= COMPACT_MIN_BYTES && liveBytes * 2 < dataEnd) {
+                compactLocked();
+            }
+        }
+        TransactionLedger.getInstance().markPersisted(covered); // Journal басын кесуге болады
+    }
+
+    /**
+     * Шектерге қарамай flush + compaction (мысалы, үлкен import-тан кейін)
+     */
+    public synchronized void compact() {
+        flush();
+        synchronized (diskLock) {
+            compactLocked();
+        }
+    }
+
+    /**
+     * Тірі жазбаларды жаңа буын файлына көшіру (this + diskLock астында, flush-тан кейін)
+     * Ретімен: жаңа data + уақытша idx жазылып fsync болады -> idx atomic rename (commit) ->
+     * ескі data файлы өшіріледі. Commit-ке дейінгі crash ескі күйді қалдырады.
+     */
+    private void compactLocked() {
+        SlotTable current = slots;
+        int generation = current.getDataGeneration() + 1;
+        Path indexPath = Paths.get(dataDirectory, INDEX_FILE);
+        Path tmpIndex = Paths.get(dataDirectory, INDEX_FILE + COMPACT_SUFFIX);
+        Path newDataPath = dataPath(generation);
+
+        FileChannel compacted = null;
+        SlotTable rewritten = null;
+        try {
+            Files.deleteIfExists(tmpIndex);
+            compacted = FileChannel.open(newDataPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            rewritten = new SlotTable(tmpIndex);
+
+            long position = 0;
+            for (int id = accountIds.next(0); id != AccountIdSet.NONE; id = accountIds.next(id)) {
+                if (!current.isPresent(id)) {
+                    continue;
+                }
+                rewritten.putMetadata(id, current.balance(id), current.isLocked(id), current.lastSequence(id));
+                int length = current.length(id);
+                if (length > 0) {
+                    ByteBuffer record = ByteBuffer.allocate(length);
+                    readFully(data, record, current.offset(id));
+                    record.flip();
+                    long start = position;
+                    while (record.hasRemaining()) {
+                        position += compacted.write(record, position);
+                    }
+                    rewritten.putLocation(id, start, length);
+                }
+            }
+            rewritten.raiseNextId(current.getNextId());
+            rewritten.setLastSequence(current.getLastSequence());
+            rewritten.setDataGeneration(generation);
+            compacted.force(false);
+            rewritten.force();
+            rewritten.close();
+            rewritten = null;
+
+            Files.move(tmpIndex, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            // Commit болды: ескі файлдар жабылады (бұрынғы map-тер жарамды болып қалады)
+            FileChannel previousData = data;
+            data = compacted;
+            compacted = null; // Енді өшірілмейді: idx оған сілтейді
+            slots = new SlotTable(indexPath);
+            closeQuietly(current);
+            previousData.close();
+            dataEnd = position;
+            liveBytes = position;
+            compactions++;
+            deleteStaleDataFiles(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact account data in " + dataDirectory, e);
+        } finally {
+            closeQuietly(rewritten);
+            if (compacted != null) {
+                try {
+                    compacted.close();
+                    Files.deleteIfExists(newDataPath);
+                    Files.deleteIfExists(tmpIndex);
+                } catch (IOException e) {
+                    System.err.println("Warning: Failed to clean up after compaction: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Path dataPath(int generation) {
+        return Paths.get(dataDirectory, generation == 0 ? DATA_FILE : DATA_FILE + "." + generation);
+    }
+
+    /**
+     * idx көрсеткен буыннан басқа data файлдарын өшіру (compaction-нан қалған)
+     */
+    private void deleteStaleDataFiles(int generation) throws IOException {
+        Path keep = dataPath(generation);
+        try (Stream<Path> files = Files.list(Paths.get(dataDirectory))) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if ((name.equals(DATA_FILE) || name.startsWith(DATA_FILE + ".")) && !file.equals(keep)) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(SlotTable table) {
+        if (table != null) {
+            try {
+                table.close();
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to close account index: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            data.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to close account data file: " + e.getMessage());
+        }
+        closeQuietly(slots);
+        try {
+            idAllocator.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to close ID allocator file: " + e.getMessage());
+        }
+    }
+
+    // ============ DISK I/O ============
+
+    /**
+     * Cache listener: evict болған dirty жазбаны дискке жазу (cache lock астында)
+     */
+    private void onEviction(int id, AccountWithHistory account, boolean dirty) {
+        if (dirty) {
+            writeToDisk(account);
+        }
+    }
+
+    private void writeToDisk(AccountWithHistory account) {
+        byte[] record;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            AccountCodec.write(out, account);
+            out.flush();
+            record = bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode account " + account.getId(), e);
+        }
+
+        synchronized (diskLock) {
+            if (!slots.isPresent(account.getId())) {
+                return; // Сол арада өшірілген
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                long position = dataEnd;
+                while (buffer.hasRemaining()) {
+                    position += data.write(buffer, position);
+                }
+                liveBytes += record.length - slots.length(account.getId());
+                slots.putLocation(account.getId(), dataEnd, record.length);
+                dataEnd = position;
+                diskWrites.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write account " + account.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * @return дисктегі соңғы жазылған нұсқа немесе null (жоқ/өшірілген/әлі жазылмаған)
+     */
+    private AccountWithHistory readFromDisk(int id) {
+        for (int attempt = 0; ; attempt++) {
+            long offset;
+            int length;
+            FileChannel channel;
+            synchronized (diskLock) {
+                if (!slots.isPresent(id)) {
+                    return null;
+                }
+                offset = slots.offset(id);
+                length = slots.length(id);
+                channel = data; // Offset осы буын файлына сәйкес
+            }
+            if (length == 0) {
+                return null;
+            }
+
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                readFully(channel, buffer, offset);
+                diskReads.incrementAndGet();
+                return AccountCodec.read(new DataInputStream(new ByteArrayInputStream(buffer.array())));
+            } catch (ClosedChannelException e) {
+                if (attempt > 0) {
+                    throw new UncheckedIOException("Failed to read account " + id, e);
+                }
+                // Lock-сыз оқу (peek) кезінде compaction ескі буын файлын жапты - жаңа орнынан қайта оқу
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read account " + id, e);
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of account data file");
+            }
+            position += read;
+        }
+    }
+
+    private int highestId() {
+        return slots.getNextId() - 1;
+    }
+
+    // ============ METRICS ============
+
+    public WTinyLfuCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    public long getDiskReads() {
+        return diskReads.get();
+    }
+
+    public long getDiskWrites() {
+        return diskWrites.get();
+    }
+
+    public synchronized long getDataFileSize() {
+        synchronized (diskLock) {
+            return dataEnd;
+        }
+    }
+
+    /**
+     * idx сілтейтін (тірі) жазбалардың жалпы өлшемі - қалғаны compaction күтетін ескі нұсқалар
+     */
+    public synchronized long getLiveDataBytes() {
+        synchronized (diskLock) {
+            return liveBytes;
+        }
+    }
+
+    public synchronized long getCompactions() {
+        return compactions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "DiskAccountRepository[accounts=%d, dir=%s, disk reads=%d, disk writes=%d, %s]",
+                count(), dataDirectory, getDiskReads(), getDiskWrites(), getCacheStats()
+        );
+    }
+
+    private static final class Ranked {
+        private final double balance;
+        private final int id;
+
+        private Ranked(double balance, int id) {
+            this.balance = balance;
+            this.id = id;
+        }
+    }
+
+    /**
+     * accounts.idx: 64 байт header + ID бойынша 32 байттық slot-тар
+     *   header: magic (i32), version (i32), nextId (i32: ең үлкен сақталған ID + 1), бос (i32),
+     *           lastSequence (i64)
+     *   slot:   offset (i64), length (i32), flags (i32: bit0 locked, bit1 present),
+     *           balance (f64), lastSequence (i64)
+     * Файл 1M slot-тық (32MB) chunk-тармен map-теледі; жазылмаған аймақтар sparse болып қалады.
+     * Жазу diskLock астында; scan оқулары lock-сыз (weakly consistent)
+     */
+    private static final class SlotTable {
+        private static final int MAGIC = 0x42494458; // "BIDX"
+        private static final int VERSION = 1;
+        private static final int HEADER_BYTES = 64;
+        private static final int SLOT_BYTES = 32;
+        private static final int CHUNK_SHIFT = 20;
+        private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+        private static final long CHUNK_BYTES = (long) CHUNK_SLOTS * SLOT_BYTES;
+        private static final int FLAG_LOCKED = 1;
+        private static final int FLAG_PRESENT = 2;
+
+        private final FileChannel channel;
+        private final MappedByteBuffer header;
+        private volatile MappedByteBuffer[] chunks;
+        private volatile int nextId;
+
+        private SlotTable(Path path) throws IOException {
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean fresh = channel.size() < HEADER_BYTES;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            if (fresh) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, 1);
+                header.putLong(16, 0);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not an account index file: " + path);
+            }
+            this.nextId = Math.max(1, header.getInt(8));
+
+            int existingChunks = (int) ((channel.size() - HEADER_BYTES + CHUNK_BYTES - 1) / CHUNK_BYTES);
+            MappedByteBuffer[] mapped = new MappedByteBuffer[Math.max(existingChunks, 0)];
+            for (int i = 0; i < mapped.length; i++) {
+                mapped[i] = map(i);
+            }
+            this.chunks = mapped;
+        }
+
+        private MappedByteBuffer map(int chunk) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + chunk * CHUNK_BYTES, CHUNK_BYTES);
+        }
+
+        /**
+         * Оқу үшін: chunk әлі жоқ болса null (файл өспейді)
+         */
+        private MappedByteBuffer chunkFor(int id) {
+            MappedByteBuffer[] current = chunks;
+            int chunk = id >>> CHUNK_SHIFT;
+            return chunk < current.length ? current[chunk] : null;
+        }
+
+        /**
+         * Жазу үшін: қажет болса chunk-ты map-теу (diskLock астында)
+         */
+        private MappedByteBuffer writableChunkFor(int id) {
+            int chunk = id >>> CHUNK_SHIFT;
+            MappedByteBuffer[] current = chunks;
+            if (chunk >= current.length) {
+                MappedByteBuffer[] grown = new MappedByteBuffer[chunk + 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                try {
+                    for (int i = current.length; i < grown.length; i++) {
+                        grown[i] = map(i);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to grow account index", e);
+                }
+                chunks = grown;
+                current = grown;
+            }
+            return current[chunk];
+        }
+
+        private static int position(int id) {
+            return (id & (CHUNK_SLOTS - 1)) * SLOT_BYTES;
+        }
+
+        private boolean isPresent(int id) {
+            MappedByteBuffer chunk = id > 0 ? chunkFor(id) : null;
+            return chunk != null && (chunk.getInt(position(id) + 12) & FLAG_PRESENT) != 0;
+        }
+
+        private boolean isLocked(int id) {
+            return (chunkFor(id).getInt(position(id) + 12) & FLAG_LOCKED) != 0;
+        }
+
+        private long offset(int id) {
+            return chunkFor(id).getLong(position(id));
+        }
+
+        private int length(int id) {
+            return chunkFor(id).getInt(position(id) + 8);
+        }
+
+        private double balance(int id) {
+            return chunkFor(id).getDouble(position(id) + 16);
+        }
+
+        private long lastSequence(int id) {
+            return chunkFor(id).getLong(position(id) + 24);
+        }
+
+        private void putMetadata(int id, double balance, boolean locked, long lastSequence) {
+            MappedByteBuffer chunk = writableChunkFor(id);
+            int position = position(id);
+            chunk.putDouble(position + 16, balance);
+            chunk.putLong(position + 24, lastSequence);
+            chunk.putInt(position + 12, FLAG_PRESENT | (locked ? FLAG_LOCKED : 0));
+        }
+
+        private void putLocation(int id, long offset, int length) {
+            MappedByteBuffer chunk = writableChunkFor(id);
+            int position = position(id);
+            chunk.putLong(position, offset);
+            chunk.putInt(position + 8, length);
+        }
+
+        private void markDeleted(int id) {
+            MappedByteBuffer chunk = writableChunkFor(id);
+            int position = position(id);
+            chunk.putLong(position, 0);
+            chunk.putInt(position + 8, 0);
+            chunk.putInt(position + 12, 0);
+        }
+
+        private int getNextId() {
+            return nextId;
+        }
+
+        private void raiseNextId(int candidate) {
+            if (candidate > nextId) {
+                nextId = candidate;
+                header.putInt(8, candidate);
+            }
+        }
+
+        private long getLastSequence() {
+            return header.getLong(16);
+        }
+
+        /**
+         * Data файлының буыны (0 - accounts.db, N - accounts.db.N; ескі idx-терде 0)
+         */
+        private int getDataGeneration() {
+            return header.getInt(24);
+        }
+
+        private void setDataGeneration(int generation) {
+            header.putInt(24, generation);
+        }
+
+        private void setLastSequence(long sequence) {
+            if (sequence > header.getLong(16)) {
+                header.putLong(16, sequence);
+            }
+        }
+
+        private void force() {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+            header.force();
+        }
+
+        /**
+         * Channel жабылады; map-тер GC-ге дейін жарамды (lock-сыз оқитын scan-дер үшін)
+         */
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Тірі объектке weak сілтеме (ID - GC жинағаннан кейін map-тен өшіру үшін)
+     */
+    private static final class LiveRef extends WeakReference<AccountWithHistory> {
+        private final int id;
+
+        private LiveRef(AccountWithHistory account, ReferenceQueue<AccountWithHistory> queue) {
+            super(account, queue);
+            this.id = account.getId();
+        }
+    }
+}
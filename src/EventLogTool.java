@@ -0,0 +1,112 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Binary оқиға журналының CLI құралы
+ *
+ * Қолдану:
+ *   java EventLogTool decode [file] [--account ID]
+ *   java EventLogTool replay [file] [--data-dir DIR]
+ *
+ * file әдепкі мәні: data/logs/events.bin
+ * replay --data-dir берілмесе, memory-дағы repository-ге ойнатып, тек есеп шығарады
+ */
+public class EventLogTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            printUsage();
+            System.exit(1);
+        }
+
+        Path file = args.length > 1 && !args[1].startsWith("--")
+                ? Paths.get(args[1])
+                : TransactionLogger.getEventLogPath();
+
+        switch (args[0]) {
+            case "decode":
+                String account = option(args, "--account");
+                decode(file, account != null ? Integer.parseInt(account) : null);
+                break;
+            case "replay":
+                replay(file, option(args, "--data-dir"));
+                break;
+            default:
+                printUsage();
+                System.exit(1);
+        }
+    }
+
+    /**
+     * Журналды мәтін түрінде шығару
+     */
+    private static void decode(Path file, Integer accountId) throws IOException {
+        Map<BankEvent.Op, Long> counts = new EnumMap<>(BankEvent.Op.class);
+        StringBuilder sb = new StringBuilder(128);
+
+        long total = BinaryEventLog.read(file, event -> {
+            counts.merge(event.getOp(), 1L, Long::sum);
+            if (accountId != null && event.getAccountId() != accountId
+                    && event.getCounterpartyId() != accountId) {
+                return;
+            }
+
+            sb.setLength(0);
+            LocalDateTime time = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(event.getTimestampMillis()), ZoneId.systemDefault());
+            TextFormat.appendIsoDateTime(sb, time).append(' ')
+                    .append(event.getOp()).append(' ')
+                    .append(event.getOutcome())
+                    .append(" account=").append(event.getAccountId());
+            if (event.getCounterpartyId() != 0) {
+                sb.append(" counterparty=").append(event.getCounterpartyId());
+            }
+            if (event.getAmountMinor() != 0) {
+                TextFormat.appendAmount(sb.append(" amount="), event.getAmount());
+            }
+            if (event.getOwnerName() != null) {
+                sb.append(" owner=").append(event.getOwnerName());
+            }
+            System.out.println(sb);
+        });
+
+        System.out.println("--- " + total + " events: " + counts);
+    }
+
+    /**
+     * Журналды бос repository-ге қайта ойнату
+     */
+    private static void replay(Path file, String dataDirectory) throws IOException {
+        AccountRepository repository = dataDirectory != null
+                ? new FileAccountRepository(dataDirectory, "accounts.dat")
+                : new InMemoryAccountRepository();
+
+        EventReplayer.Report report = new EventReplayer(repository).replay(file);
+        System.out.println(report);
+        if (dataDirectory != null) {
+            System.out.println("Accounts written to " + dataDirectory
+                    + " (PIN for every account: " + EventReplayer.PLACEHOLDER_PIN + ")");
+        }
+    }
+
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage:");
+        System.err.println("  java EventLogTool decode [file] [--account ID]");
+        System.err.println("  java EventLogTool replay [file] [--data-dir DIR]");
+    }
+}
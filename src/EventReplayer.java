@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Binary оқиға журналын бос repository-ге қайта ойнату (state қалпына келтіру)
+ * - Тек SUCCESS оқиғалары қолданылады, сәтсіздері тек саналады
+ * - Ақша қозғалысы importTransactions арқылы қолданылады (PIN тексерусіз, уақыты сақталады)
+ * - PIN хэштері журналда жоқ, сондықтан барлық аккаунт PLACEHOLDER_PIN алады
+ * - Lock күйі қалпына келтірілмейді (сәтсіз PIN әрекеттері аудит үшін ғана)
+ */
+public class EventReplayer {
+    public static final String PLACEHOLDER_PIN = "0000";
+
+    private final AccountRepository repository;
+
+    private long applied;
+    private long failedEvents;
+    private long inconsistencies;
+    private int maxAccountId;
+
+    public EventReplayer(AccountRepository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (repository.count() != 0) {
+            throw new IllegalArgumentException("Replay target repository must be empty");
+        }
+        this.repository = repository;
+    }
+
+    /**
+     * Журналды қайта ойнату
+     */
+    public Report replay(Path eventLog) throws IOException {
+        long startNanos = System.nanoTime();
+        long events = BinaryEventLog.read(eventLog, this::apply);
+
+        // Repository келесі ID-ді журналдағы ең үлкен ID-ден кейін беруі керек
+        if (maxAccountId > 0) {
+            int next = repository.allocateIds(1);
+            if (next <= maxAccountId) {
+                repository.allocateIds(maxAccountId - next + 1);
+            }
+        }
+        repository.flush();
+
+        double totalBalance = repository.findAll().stream()
+                .mapToDouble(AccountWithHistory::getBalance)
+                .sum();
+        return new Report(events, applied, failedEvents, inconsistencies, repository.count(),
+                totalBalance, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private void apply(BankEvent event) {
+        if (!event.isSuccess()) {
+            failedEvents++;
+            return;
+        }
+
+        LocalDateTime time = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(event.getTimestampMillis()), ZoneId.systemDefault());
+        int id = event.getAccountId();
+        double amount = event.getAmount();
+        boolean ok;
+
+        switch (event.getOp()) {
+            case ACCOUNT_CREATED:
+                ok = create(event, time);
+                break;
+            case DEPOSIT:
+                ok = applyTo(id, new Transaction(TransactionType.DEPOSIT, amount, id, id, null, time));
+                break;
+            case WITHDRAW:
+                ok = applyTo(id, new Transaction(TransactionType.WITHDRAW, amount, id, id, null, time));
+                break;
+            case TRANSFER:
+                int toId = event.getCounterpartyId();
+                ok = repository.existsById(toId)
+                        && applyTo(id, new Transaction(TransactionType.TRANSFER_OUT, amount, id, toId, null, time))
+                        && applyTo(toId, new Transaction(TransactionType.TRANSFER_IN, amount, id, toId, null, time));
+                break;
+            case TRANSFER_IN:
+                ok = applyTo(id, new Transaction(TransactionType.TRANSFER_IN, amount,
+                        event.getCounterpartyId(), id, null, time));
+                break;
+            case TRANSFER_OUT:
+                ok = applyTo(id, new Transaction(TransactionType.TRANSFER_OUT, amount,
+                        id, event.getCounterpartyId(), null, time));
+                break;
+            case PIN_CHANGED:
+                ok = repository.existsById(id); // PIN хэші журналда жоқ
+                break;
+            case ACCOUNT_UNLOCKED:
+                Optional<AccountWithHistory> account = repository.findById(id);
+                account.ifPresent(AccountWithHistory::unlock);
+                ok = account.isPresent();
+                break;
+            case ACCOUNT_DELETED:
+                ok = repository.deleteById(id);
+                break;
+            default:
+                ok = false;
+        }
+
+        if (ok) {
+            applied++;
+        } else {
+            inconsistencies++;
+        }
+    }
+
+    private boolean create(BankEvent event, LocalDateTime time) {
+        int id = event.getAccountId();
+        if (repository.existsById(id)) {
+            return false;
+        }
+
+        AccountWithHistory account = new AccountWithHistory(id, event.getOwnerName(), PLACEHOLDER_PIN);
+        if (event.getAmountMinor() > 0) {
+            account.importTransactions(Collections.singletonList(
+                    new Transaction(TransactionType.DEPOSIT, event.getAmount(), id, id, null, time)));
+        }
+        repository.save(account);
+        maxAccountId = Math.max(maxAccountId, id);
+        return true;
+    }
+
+    /**
+     * Бір транзакцияны аккаунтқа қолдану
+     * @return аккаунт жоқ немесе баланс теріс болатын болса false
+     */
+    private boolean applyTo(int accountId, Transaction transaction) {
+        Optional<AccountWithHistory> account = repository.findById(accountId);
+        if (!account.isPresent()) {
+            return false;
+        }
+        List<Transaction> rejected = account.get().importTransactions(
+                Collections.singletonList(transaction));
+        repository.save(account.get());
+        return rejected.isEmpty();
+    }
+
+    /**
+     * Replay есебі
+     */
+    public static final class Report {
+        private final long events;
+        private final long applied;
+        private final long failedEvents;
+        private final long inconsistencies;
+        private final int accounts;
+        private final double totalBalance;
+        private final long elapsedMillis;
+
+        Report(long events, long applied, long failedEvents, long inconsistencies,
+               int accounts, double totalBalance, long elapsedMillis) {
+            this.events = events;
+            this.applied = applied;
+            this.failedEvents = failedEvents;
+            this.inconsistencies = inconsistencies;
+            this.accounts = accounts;
+            this.totalBalance = totalBalance;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getEvents() { return events; }
+        public long getApplied() { return applied; }
+        public long getFailedEvents() { return failedEvents; }
+        public long getInconsistencies() { return inconsistencies; }
+        public int getAccounts() { return accounts; }
+        public double getTotalBalance() { return totalBalance; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("Events: %d, applied: %d, failed (skipped): %d, inconsistent: %d, "
+                            + "accounts: %d, total balance: %.2f, %d ms",
+                    events, applied, failedEvents, inconsistencies, accounts, totalBalance, elapsedMillis);
+        }
+    }
+}
@@ -2,8 +2,7 @@
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 /**
  * Файлмен жұмыс істейтін Repository
  * - Thread-safe операциялар
@@ -12,15 +11,23 @@ import java.util.stream.Collectors;
  * - Atomic file operations
  */
 public class FileAccountRepository implements AccountRepository {
-    private final Map<Integer, AccountWithHistory> accountsCache;
+    private final IntAccountMap accountsCache;
+    private final OwnerNameIndex ownerNameIndex;
+    private final BalanceIndex balanceIndex;
+    private final BankCounters counters;
+    private final AccountIdSet accountIds; // findPage үшін реттелген ID-лер
     private final String dataDirectory;
     private final String fileName;
     private final String backupDirectory;
-    private int nextId;
+    private final IdAllocator idAllocator; // Persisted high-water mark (ids.hwm)
+    private final boolean ownsLedgerJournal; // Shard-та journal-ды ShardedAccountRepository басқарады
 
     private static final String DEFAULT_DIR = "data";
     private static final String DEFAULT_FILE = "accounts.dat";
-    private static final String BACKUP_DIR = "data/backups";
+    private static final String BACKUP_DIR = "backups"; // dataDirectory ішінде
+    private static final String LEDGER_FILE = "ledger.log";
+    private static final String ID_FILE = "ids.hwm";
+    private static final String TEMP_SUFFIX = ".tmp";
 
     /**
      * Конструктор - default файл
@@ -33,14 +40,30 @@ public class FileAccountRepository implements AccountRepository {
      * Конструктор - custom файл
      */
     public FileAccountRepository(String dataDirectory, String fileName) {
+        this(dataDirectory, fileName, true);
+    }
+
+    /**
+     * @param attachLedgerJournal false болса ledger journal-ды шақырушы өзі байланыстырады
+     *                            (ShardedAccountRepository: бір journal, көп shard)
+     */
+    FileAccountRepository(String dataDirectory, String fileName, boolean attachLedgerJournal) {
         this.dataDirectory = dataDirectory;
         this.fileName = fileName;
-        this.backupDirectory = BACKUP_DIR;
-        this.accountsCache = new ConcurrentHashMap<>();
-        this.nextId = 1;
+        this.backupDirectory = Paths.get(dataDirectory, BACKUP_DIR).toString();
+        this.accountsCache = new IntAccountMap();
+        this.ownerNameIndex = new OwnerNameIndex();
+        this.balanceIndex = new BalanceIndex();
+        this.counters = new BankCounters();
+        this.accountIds = new AccountIdSet();
+        this.idAllocator = new IdAllocator(Paths.get(dataDirectory, ID_FILE));
 
         initializeDirectories();
         loadFromFile();
+        this.ownsLedgerJournal = attachLedgerJournal;
+        if (attachLedgerJournal) {
+            TransactionLedger.getInstance().attachJournal(Paths.get(dataDirectory, LEDGER_FILE));
+        }
     }
 
     /**
@@ -62,13 +85,36 @@ public class FileAccountRepository implements AccountRepository {
         }
 
         accountsCache.put(account.getId(), account);
+        ownerNameIndex.put(account.getId(), account.getOwnerName());
+        balanceIndex.put(account);
+        counters.onSaved(account);
+        accountIds.add(account.getId());
+        idAllocator.observe(account.getId());
 
-        // nextId жаңарту
-        if (account.getId() >= nextId) {
-            nextId = account.getId() + 1;
+        return account;
+    }
+
+    /**
+     * Бір өтуде: cache, trigram index (write lock бір рет), balance index, санағыштар
+     */
+    @Override
+    public synchronized List<AccountWithHistory> saveAll(Collection<AccountWithHistory> accounts) {
+        if (accounts == null || accounts.contains(null)) {
+            throw new IllegalArgumentException("Accounts cannot be null");
         }
 
-        return account;
+        int highest = 0;
+        for (AccountWithHistory account : accounts) {
+            accountsCache.put(account.getId(), account);
+            balanceIndex.put(account);
+            counters.onSaved(account);
+            accountIds.add(account.getId());
+            highest = Math.max(highest, account.getId());
+        }
+        ownerNameIndex.putAll(accounts);
+        idAllocator.observe(highest);
+
+        return new ArrayList<>(accounts);
     }
 
     @Override
@@ -76,14 +122,74 @@ public class FileAccountRepository implements AccountRepository {
         return Optional.ofNullable(accountsCache.get(id));
     }
 
+    @Override
+    public List<AccountWithHistory> findAllById(Collection<Integer> ids) {
+        List<AccountWithHistory> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            AccountWithHistory account = accountsCache.get(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<AccountWithHistory> findAll() {
-        return new ArrayList<>(accountsCache.values());
+        return accountsCache.values();
+    }
+
+    @Override
+    public Stream<AccountWithHistory> stream() {
+        // Сегменттер бойынша бөлінеді - бүкіл банк көшірілмейді
+        return accountsCache.stream();
+    }
+
+    /**
+     * Реттелген ID жиыны бойынша afterId-ден кейінгі ID-лер: құны O(limit),
+     * ID-лер арасындағы бос аралықтар бір-бірлеп тексерілмейді, сұрыптау мен көшірмесіз
+     */
+    @Override
+    public List<AccountWithHistory> findPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        List<AccountWithHistory> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = accountIds.next(afterId); id != AccountIdSet.NONE && page.size() < limit;
+             id = accountIds.next(id)) {
+            AccountWithHistory account = accountsCache.get(id);
+            if (account != null) {
+                page.add(account);
+            }
+        }
+        return page;
     }
 
     @Override
     public synchronized boolean deleteById(int id) {
-        return accountsCache.remove(id) != null;
+        if (accountsCache.remove(id) == null) {
+            return false;
+        }
+        accountIds.remove(id);
+        ownerNameIndex.remove(id);
+        balanceIndex.remove(id);
+        counters.onDeleted(id);
+        return true;
+    }
+
+    @Override
+    public synchronized List<Integer> deleteAllById(Collection<Integer> ids) {
+        List<Integer> deleted = new ArrayList<>();
+        for (int id : ids) {
+            if (accountsCache.remove(id) != null) {
+                accountIds.remove(id);
+                balanceIndex.remove(id);
+                counters.onDeleted(id);
+                deleted.add(id);
+            }
+        }
+        ownerNameIndex.removeAll(deleted);
+        return deleted;
     }
 
     @Override
@@ -92,17 +198,48 @@ public class FileAccountRepository implements AccountRepository {
             return Collections.emptyList();
         }
 
-        String searchName = ownerName.trim().toLowerCase();
-        return accountsCache.values().stream()
-                .filter(acc -> acc.getOwnerName().toLowerCase().contains(searchName))
-                .collect(Collectors.toList());
+        // Trigram index - толық сканерлеусіз
+        return resolve(ownerNameIndex.search(ownerName));
     }
 
     @Override
     public List<AccountWithHistory> findByBalanceGreaterThan(double minBalance) {
-        return accountsCache.values().stream()
-                .filter(acc -> acc.getBalance() > minBalance)
-                .collect(Collectors.toList());
+        return resolve(balanceIndex.greaterThan(minBalance));
+    }
+
+    @Override
+    public List<AccountWithHistory> findByBalanceBetween(double minBalance, double maxBalance,
+                                                         int offset, int limit) {
+        return resolve(balanceIndex.range(minBalance, maxBalance, offset, limit));
+    }
+
+    @Override
+    public List<AccountWithHistory> findTopByBalance(int offset, int limit) {
+        return resolve(balanceIndex.top(offset, limit));
+    }
+
+    @Override
+    public List<AccountWithHistory> findBottomByBalance(int offset, int limit) {
+        return resolve(balanceIndex.bottom(offset, limit));
+    }
+
+    @Override
+    public BankCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Index қайтарған ID-лерді аккаунттарға айналдыру (ретін сақтап)
+     */
+    private List<AccountWithHistory> resolve(List<Integer> ids) {
+        List<AccountWithHistory> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            AccountWithHistory account = accountsCache.get(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -115,50 +252,119 @@ public class FileAccountRepository implements AccountRepository {
         return accountsCache.size();
     }
 
+    /**
+     * Repository monitor-ы алынбайды - IdAllocator блок ішінен lock-сыз береді
+     */
     @Override
-    public synchronized int getNextId() {
-        return nextId++;
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public int allocateIds(int count) {
+        return idAllocator.allocate(count);
     }
 
     @Override
     public synchronized void flush() {
-        saveToFile();
+        // Ledger journal snapshot-тан бұрын жазылуы керек
+        long covered = TransactionLedger.getInstance().flush();
+        idAllocator.checkpoint(); // Restart нақты келесі ID-ден жалғасады
+        if (saveToFile() && ownsLedgerJournal) {
+            TransactionLedger.getInstance().markPersisted(covered); // Journal басын кесуге болады
+        }
     }
 
     /**
      * Файлға сақтау (atomic operation)
      */
-    private void saveToFile() {
-        String fullPath = dataDirectory + File.separator + fileName;
-        String tempPath = fullPath + ".tmp";
-
+    private boolean saveToFile() {
         try {
-            // Backup жасау (егер файл бар болса)
-            File existingFile = new File(fullPath);
-            if (existingFile.exists()) {
-                createBackup(existingFile);
-            }
+            writeSnapshot(false);
+            installSnapshot();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving accounts: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            // Временный файлға жазу
-            try (ObjectOutputStream oos = new ObjectOutputStream(
-                    new FileOutputStream(tempPath))) {
-                oos.writeObject(new ArrayList<>(accountsCache.values()));
-                oos.writeInt(nextId);
-            }
+    // ============ TWO-PHASE FLUSH (ShardedAccountRepository) ============
 
-            // Atomic rename (Windows-та rename алдында ескі файлды өшіру керек)
-            File tempFile = new File(tempPath);
-            if (existingFile.exists()) {
-                existingFile.delete();
-            }
+    /**
+     * 1-фаза: snapshot .tmp файлға жазылып fsync болады, негізгі файл өзгермейді
+     */
+    synchronized void prepareFlush() throws IOException {
+        writeSnapshot(true);
+    }
 
-            if (!tempFile.renameTo(existingFile)) {
-                throw new IOException("Failed to rename temp file");
+    /**
+     * 2-фаза: дайындалған .tmp негізгі файлдың орнына қойылады
+     * .tmp жоқ болса - бұрын қойылған (commit қайталанып жатыр), ештеңе жасалмайды
+     */
+    synchronized void commitFlush() throws IOException {
+        if (Files.exists(Paths.get(dataDirectory, fileName + TEMP_SUFFIX))) {
+            installSnapshot();
+        }
+    }
+
+    /**
+     * Дайындалған .tmp-ны тастау (басқа shard-тың 1-фазасы сәтсіз болды)
+     */
+    synchronized void abortFlush() throws IOException {
+        Files.deleteIfExists(Paths.get(dataDirectory, fileName + TEMP_SUFFIX));
+    }
+
+    /**
+     * Repository ашылмас бұрын қалған .tmp-ны аяқтау: commit болса негізгі файлдың орнына қойылады,
+     * әйтпесе өшіріледі
+     */
+    static void recoverPrepared(String dataDirectory, String fileName, boolean commit) throws IOException {
+        Path temp = Paths.get(dataDirectory, fileName + TEMP_SUFFIX);
+        if (!Files.exists(temp)) {
+            return;
+        }
+        if (commit) {
+            Files.move(temp, Paths.get(dataDirectory, fileName),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.delete(temp);
+        }
+    }
+
+    private void writeSnapshot(boolean sync) throws IOException {
+        String tempPath = dataDirectory + File.separator + fileName + TEMP_SUFFIX;
+
+        // Временный файлға жазу
+        FileOutputStream out = new FileOutputStream(tempPath);
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(accountsCache.values());
+            oos.writeInt(idAllocator.peekNext()); // Ескі форматпен үйлесімділік үшін
+            if (sync) {
+                oos.flush();
+                out.getFD().sync();
             }
+        }
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error saving accounts: " + e.getMessage());
-            e.printStackTrace();
+    private void installSnapshot() throws IOException {
+        String fullPath = dataDirectory + File.separator + fileName;
+
+        // Backup жасау (егер файл бар болса)
+        File existingFile = new File(fullPath);
+        if (existingFile.exists()) {
+            createBackup(existingFile);
+        }
+
+        // Atomic rename (Windows-та rename алдында ескі файлды өшіру керек)
+        File tempFile = new File(fullPath + TEMP_SUFFIX);
+        if (existingFile.exists()) {
+            existingFile.delete();
+        }
+
+        if (!tempFile.renameTo(existingFile)) {
+            throw new IOException("Failed to rename temp file");
         }
     }
 
@@ -181,23 +387,30 @@ public class FileAccountRepository implements AccountRepository {
             List<AccountWithHistory> loadedAccounts =
                     (List<AccountWithHistory>) ois.readObject();
 
-            // nextId оқу (егер бар болса)
+            // nextId оқу (егер бар болса) - ids.hwm жоқ ескі деректер үшін
             try {
-                this.nextId = ois.readInt();
+                idAllocator.observe(ois.readInt() - 1);
             } catch (EOFException e) {
-                // Ескі файлда nextId жоқ болуы мүмкін
-                this.nextId = loadedAccounts.isEmpty() ? 1 :
-                        loadedAccounts.stream()
-                                .mapToInt(AccountWithHistory::getId)
-                                .max()
-                                .orElse(0) + 1;
+                // Ескі файлда nextId жоқ болуы мүмкін - ID-лер төменде observe болады
             }
 
             // Cache-ке жүктеу
             accountsCache.clear();
+            ownerNameIndex.clear();
+            balanceIndex.clear();
+            counters.clear();
+            accountIds.clear();
+            long lastSequence = 0;
             for (AccountWithHistory account : loadedAccounts) {
                 accountsCache.put(account.getId(), account);
+                ownerNameIndex.put(account.getId(), account.getOwnerName());
+                balanceIndex.put(account);
+                counters.onSaved(account);
+                accountIds.add(account.getId());
+                idAllocator.observe(account.getId());
+                lastSequence = Math.max(lastSequence, account.getLastSequenceId());
             }
+            TransactionLedger.getInstance().restoreSequence(lastSequence);
 
             System.out.println("Loaded " + accountsCache.size() + " accounts from file.");
 
@@ -294,7 +507,11 @@ public class FileAccountRepository implements AccountRepository {
      */
     public synchronized void clearCache() {
         accountsCache.clear();
-        nextId = 1;
+        ownerNameIndex.clear();
+        balanceIndex.clear();
+        counters.clear();
+        accountIds.clear();
+        // ID бөлуші қалпына келтірілмейді: берілген ID-лер қайта берілмеуі керек
     }
 
     /**
@@ -304,7 +521,7 @@ public class FileAccountRepository implements AccountRepository {
     public String toString() {
         return String.format(
                 "FileAccountRepository[accounts=%d, nextId=%d, file=%s/%s]",
-                count(), nextId, dataDirectory, fileName
+                count(), idAllocator.peekNext(), dataDirectory, fileName
         );
     }
 }
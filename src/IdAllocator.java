@@ -0,0 +1,233 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Аккаунт ID бөлушісі (block leasing)
+ * - Дискке high-water mark (HWM) жазылады: осыдан кіші ID-лердің бәрі "берілген" деп саналады
+ * - ID-лер блокпен (default 4096) жалға алынады: алдымен жаңа HWM дискке жазылып, fsync болады,
+ *   содан кейін блок ішінен lock-сыз (AtomicLong.getAndAdd) беріледі
+ * - checkpoint() (repository flush/close): ағымдағы блок жабылып, HWM ретінде нақты келесі ID жазылады -
+ *   таза restart ID-лерді өткізбейді; тек crash болса, блоктың берілмеген қалдығы өткізіледі (бос орын),
+ *   бірақ ID ешқашан қайта берілмейді
+ * - observe(): сырттан келген ID (файлдан жүктелген, replay) бөлушіні алға жылжытады
+ *
+ * Файлсыз конструктор - тек memory (InMemoryAccountRepository, тестілеу)
+ */
+public class IdAllocator implements Closeable {
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    private static final int HWM_BYTES = 8;
+
+    private final FileChannel channel; // null - persistence жоқ
+    private final int blockSize;
+    private volatile Block current;
+    private long highWaterMark; // Жалға берілген соңғы блоктың шегі (эксклюзив), lock астында
+
+    /**
+     * Memory-дағы бөлуші (restart-тан кейін 1-ден басталады)
+     */
+    public IdAllocator() {
+        this.channel = null;
+        this.blockSize = DEFAULT_BLOCK_SIZE;
+        this.highWaterMark = 1;
+        this.current = new Block(1, 1);
+    }
+
+    public IdAllocator(Path file) {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param file HWM сақталатын файл (жоқ болса жасалады)
+     * @param blockSize бір жалға алынатын ID саны
+     */
+    public IdAllocator(Path file, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockSize = blockSize;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.highWaterMark = Math.max(1, readHighWaterMark());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ID allocator file: " + file, e);
+        }
+        this.current = new Block(highWaterMark, highWaterMark);
+    }
+
+    /**
+     * Келесі бір ID
+     */
+    public int next() {
+        return allocate(1);
+    }
+
+    /**
+     * Қатар келетін count ID бөлу - әдетте бір getAndAdd (lock-сыз)
+     * @return қатардың бірінші ID-і (first .. first + count - 1)
+     */
+    public int allocate(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        while (true) {
+            Block block = current;
+            long first = block.next.getAndAdd(count);
+            if (first + count <= block.limit) {
+                return (int) first;
+            }
+            lease(block, count); // Блок таусылды - жаңасын жалға алу
+        }
+    }
+
+    /**
+     * Сақталған/жүктелген ID-ді ескеру: бұдан кейін ол және одан кішілері берілмейді
+     * Дискке жазылмайды - ID-дің өзі деректермен бірге сақталады және жүктегенде қайта observe болады
+     */
+    public void observe(int id) {
+        Block block = current;
+        if (id < block.limit && block.next.accumulateAndGet(id + 1L, Math::max) < block.limit) {
+            return; // Әдеттегі жағдай - lock-сыз (checkpoint жапқан блокта нәтиже limit-ке тең болады)
+        }
+        synchronized (this) {
+            if (id >= highWaterMark) {
+                highWaterMark = id + 1L;
+                current = new Block(highWaterMark, highWaterMark); // Келесі allocate жаңа блок алады
+            } else {
+                current.next.accumulateAndGet(id + 1L, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Келесі берілетін ID (snapshot файлдарына жазу үшін; бөлмейді)
+     */
+    public int peekNext() {
+        Block block = current;
+        return (int) Math.min(block.next.get(), block.limit);
+    }
+
+    public synchronized long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Memory-дағы бөлушіні басынан бастау (тестілеу үшін)
+     * Persistent бөлушіде рұқсат жоқ - берілген ID-лер қайталанар еді
+     */
+    public synchronized void reset() {
+        if (channel != null) {
+            throw new IllegalStateException("Persistent ID allocator cannot be reset");
+        }
+        highWaterMark = 1;
+        current = new Block(1, 1);
+    }
+
+    /**
+     * Нақты келесі ID-ді HWM ретінде сақтау (repository flush/close кезінде)
+     * Ағымдағы блок жабылады: одан кейінгі allocate жаңа блокты жалға алады (HWM алдымен дискке),
+     * сондықтан берілген ID ешқашан сақталған HWM-нен асып кетпейді
+     * Соңғы checkpoint/lease-тен бері ID берілмесе, ештеңе жазылмайды
+     */
+    public synchronized void checkpoint() {
+        if (channel == null) {
+            return;
+        }
+        Block block = current;
+        // getAndSet-тен кейін блоктан ID алынбайды: getAndAdd >= limit қайтарып, lease-ке кетеді
+        long used = Math.min(block.next.getAndSet(block.limit), block.limit);
+        if (used == highWaterMark) {
+            return;
+        }
+        writeHighWaterMark(used);
+        highWaterMark = used;
+        current = new Block(used, used);
+    }
+
+    /**
+     * checkpoint жасап, HWM файлын жабу
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        checkpoint();
+        channel.close();
+    }
+
+    // ============ LEASING ============
+
+    private synchronized void lease(Block exhausted, int count) {
+        if (current != exhausted) {
+            return; // Басқа thread жалға алып үлгерді
+        }
+        long start = highWaterMark;
+        long limit = start + Math.max(blockSize, count);
+        if (limit - 1 > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Account ID space exhausted");
+        }
+        writeHighWaterMark(limit); // Алдымен дискке - содан кейін ғана беріледі
+        highWaterMark = limit;
+        current = new Block(start, limit);
+    }
+
+    private long readHighWaterMark() throws IOException {
+        if (channel.size() < HWM_BYTES) {
+            return 1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HWM_BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                throw new IOException("Truncated ID allocator file");
+            }
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    private void writeHighWaterMark(long value) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(HWM_BYTES);
+            buffer.putLong(value).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist ID high-water mark", e);
+        }
+    }
+
+    /**
+     * Жалға алынған [next, limit) аралығы
+     */
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long next, long limit) {
+            this.next = new AtomicLong(next);
+            this.limit = limit;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IdAllocator[next=%d, highWaterMark=%d, blockSize=%d, %s]",
+                peekNext(), getHighWaterMark(), blockSize, channel != null ? "persistent" : "memory");
+    }
+}
@@ -0,0 +1,570 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotency кілттері бойынша қайталанған сұраныстарды сүзу (dedup cache)
+ * - Бірінші сұраныс орындалады, нәтижесі (сәтті немесе exception) кілтпен сақталады
+ * - Сол кілтпен қайта келген сұраныс орындалмайды - сақталған нәтиже қайтарылады
+ * - Сол кілт әлі орындалып жатса, қайталанған сұраныс оның аяқталуын күтеді
+ * - Кілттің басқа сұраныспен (басқа сома, басқа аккаунт) қолданылуы - IllegalArgumentException
+ * - Өзгерістен кейін сақтау сәтсіз болса (OutcomeUnknownException) - кілт UNKNOWN нәтижемен жабылады,
+ *   қайталау операцияны қайта орындамай, сол exception-ды алады
+ *
+ * Шектеулер: ConcurrentHashMap бойынша O(1) іздеу, жазбалар TTL (default 24 сағ) өткенде
+ * немесе maxEntries асқанда ең ескісінен бастап өшіріледі (FIFO queue, amortized O(1))
+ *
+ * Journal (міндетті емес): әр аяқталған нәтиже бір жол болып append-only файлға жазылады,
+ * ашқанда мерзімі өтпеген жазбалар қалпына келеді, файл тірі жазбалармен қайта жазылып (compaction) отырады.
+ * Нәтижелер бірден жазылмайды - буферде күтеді: BankService.flush() алдымен mark() алады, repository.flush()
+ * сәтті болған соң flush(mark) тек сол flush жапқан нәтижелерді жазады. Сондықтан журналдағы SUCCESS-тің
+ * өзгерісі әрқашан дискте; repository.flush() мен журнал жазуының арасында crash болса ғана қайталанған
+ * сұраныс қайта орындалуы мүмкін
+ * commit (execute-тың 4-параметрі) нәтиже жарияланбас бұрын өзгерісті дискке жеткізеді; сәтсіз болса
+ * SUCCESS орнына UNKNOWN сақталады
+ */
+public class IdempotencyCache implements Closeable {
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    public static final int DEFAULT_MAX_ENTRIES = 1_000_000;
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final int MIN_COMPACTION_RECORDS = 4096;
+
+    /**
+     * Қорғалатын операция (BankService.deposit/withdraw/transfer)
+     */
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final ConcurrentLinkedQueue<Entry> order; // Қосылу реті = мерзімінің өту реті
+    private final AtomicInteger queued;
+
+    // Journal (null - тек memory)
+    private final Path journalPath;
+    private final Object journalLock = new Object();
+    private Writer journal;
+    private long journalRecords;
+    private final ArrayDeque<Entry> unwritten = new ArrayDeque<>(); // Журналға жазылуын күтетін нәтижелер
+    private long bufferedRecords; // Буферге түскен нәтижелердің жалпы саны (mark)
+    private long writtenRecords;  // Солардың журналға жазылғаны
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Memory-дағы cache (default TTL және шек)
+     */
+    public IdempotencyCache() {
+        this(null, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    public IdempotencyCache(Path journalPath) {
+        this(journalPath, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param journalPath нәтижелер журналы (null - persistence жоқ)
+     * @param ttl кілттің жарамдылық мерзімі
+     * @param maxEntries memory-дағы жазбалардың ең көп саны
+     */
+    public IdempotencyCache(Path journalPath, Duration ttl, int maxEntries) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+        this.order = new ConcurrentLinkedQueue<>();
+        this.queued = new AtomicInteger();
+        this.journalPath = journalPath;
+
+        if (journalPath != null) {
+            try {
+                if (journalPath.getParent() != null) {
+                    Files.createDirectories(journalPath.getParent());
+                }
+                loadJournal();
+                compactJournal(); // Мерзімі өткен жазбаларды файлдан алып тастау
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open idempotency journal: " + journalPath, e);
+            }
+        }
+    }
+
+    /**
+     * Операцияны кілт бойынша бір рет орындау
+     * @param key idempotency кілті (клиент береді)
+     * @param request сұраныстың сипаттамасы (операция, аккаунттар, сома) - кілтті басқа сұраныспен
+     *                қайта қолдануды анықтау үшін
+     * @throws Exception операцияның өз exception-ы немесе сақталған нәтиженің көшірмесі
+     */
+    public void execute(String key, String request, Operation operation) throws Exception {
+        execute(key, request, operation, null);
+    }
+
+    /**
+     * @param commit нәтиже буферге түскен соң, жарияланбас бұрын шақырылады (өзгерісті дискке жеткізу);
+     *               null - күтпейді (нәтиже келесі BankService.flush()-та жазылады)
+     */
+    public void execute(String key, String request, Operation operation, Operation commit) throws Exception {
+        validateKey(key);
+        long fingerprint = fingerprint(request);
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry fresh = new Entry(key, fingerprint, now + ttlMillis);
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing != null && existing.isExpired(now)) {
+                if (!entries.replace(key, existing, fresh)) {
+                    continue; // Басқа thread ауыстырып үлгерді
+                }
+                existing = null;
+            }
+
+            if (existing == null) {
+                enqueue(fresh, now);
+                run(fresh, operation, commit);
+                return;
+            }
+
+            if (existing.fingerprint != fingerprint) {
+                throw new IllegalArgumentException("Idempotency key reused for a different request: " + key);
+            }
+            CountDownLatch pending = existing.pending;
+            if (pending != null) {
+                waits.increment();
+                pending.await();
+            }
+            if (existing.outcome == null) {
+                continue; // Бірінші сұраныс күтпеген қатемен аяқталды - қайта орындауға болады
+            }
+            replays.increment();
+            existing.replay();
+            return;
+        }
+    }
+
+    /**
+     * Кілт бойынша сақталған нәтиже бар ма (мерзімі өтпеген, аяқталған)
+     */
+    public boolean contains(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.pending == null && entry.outcome != null
+                && !entry.isExpired(System.currentTimeMillis());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Осы уақытқа дейін буферге түскен нәтижелердің белгісі
+     * repository.flush()-тан бұрын алынады: бұл нәтижелердің өзгерістері сол flush-қа кіреді
+     */
+    public long mark() {
+        synchronized (journalLock) {
+            return bufferedRecords;
+        }
+    }
+
+    /**
+     * mark()-қа дейінгі нәтижелерді журналға жазу (repository.flush() сәтті болғаннан кейін ғана)
+     */
+    public void flush(long mark) {
+        synchronized (journalLock) {
+            if (journal == null) {
+                return;
+            }
+            try {
+                while (writtenRecords < mark && !unwritten.isEmpty()) {
+                    Entry entry = unwritten.poll();
+                    journal.write(entry.toRecord());
+                    entry.written = true;
+                    writtenRecords++;
+                    journalRecords++;
+                }
+                journal.flush();
+                if (journalRecords >= 2L * Math.max(entries.size(), MIN_COMPACTION_RECORDS)) {
+                    compactJournal();
+                }
+            } catch (IOException e) {
+                System.err.println("Warning: Failed to write idempotency journal: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Flush болмаған нәтижелер жазылмайды (олардың өзгерістері де дискке жетпеген)
+     */
+    @Override
+    public void close() {
+        synchronized (journalLock) {
+            if (journal == null) {
+                return;
+            }
+            if (!unwritten.isEmpty()) {
+                System.err.println("Warning: " + unwritten.size()
+                        + " idempotency records discarded (changes were not flushed)");
+                unwritten.clear();
+            }
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Warning: Could not close idempotency journal: " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(entries.size(), maxEntries, executions.sum(), replays.sum(),
+                waits.sum(), evictions.sum());
+    }
+
+    // ============ EXECUTION ============
+
+    /**
+     * Операция -> нәтиже буферге -> commit -> нәтиже жарияланады (күтіп тұрған қайталаулар оны көреді)
+     */
+    private void run(Entry entry, Operation operation, Operation commit) throws Exception {
+        executions.increment();
+        Exception failure = null;
+        try {
+            operation.run();
+        } catch (Exception e) {
+            failure = e;
+        } catch (Error e) {
+            release(entry);
+            throw e;
+        }
+        if (!setOutcome(entry, failure)) {
+            // Өзгеріс жасалмай тұрып қате (мысалы, оқу кезіндегі IO) - кілт босатылады, қайталау қайта орындайды
+            release(entry);
+            throw failure;
+        }
+
+        bufferRecord(entry);
+        if (commit != null) {
+            try {
+                commit.run();
+            } catch (Exception e) {
+                failure = commitFailed(entry, failure, e);
+            }
+        }
+        entry.release();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Операцияның нәтижесін entry-ге жазу (әлі жарияланбайды)
+     * @return false - күтпеген қате, нәтиже сақталмайды
+     */
+    private static boolean setOutcome(Entry entry, Exception failure) {
+        if (failure == null) {
+            entry.setOutcome(BankEvent.Outcome.SUCCESS, 0, 0, null);
+        } else if (failure instanceof InsufficientFundsException) {
+            InsufficientFundsException e = (InsufficientFundsException) failure;
+            entry.setOutcome(BankEvent.Outcome.INSUFFICIENT_FUNDS, e.getBalance(), e.getRequestedAmount(), null);
+        } else if (failure instanceof InvalidAmountException) {
+            entry.setOutcome(BankEvent.Outcome.INVALID_AMOUNT, ((InvalidAmountException) failure).getAmount(), 0, null);
+        } else if (failure instanceof InvalidPinException) {
+            InvalidPinException e = (InvalidPinException) failure;
+            entry.setOutcome(BankEvent.Outcome.INVALID_PIN, e.getAccountId(), e.getAttemptsRemaining(), null);
+        } else if (failure instanceof AccountNotFoundException) {
+            entry.setOutcome(BankEvent.Outcome.ACCOUNT_NOT_FOUND,
+                    ((AccountNotFoundException) failure).getAccountId(), 0, null);
+        } else if (failure instanceof IllegalArgumentException) {
+            entry.setOutcome(BankEvent.Outcome.REJECTED, 0, 0, failure.getMessage());
+        } else if (failure instanceof OutcomeUnknownException) {
+            // Өзгеріс memory-да қалды - кілт босатылмайды, қайталау оны екінші рет қолданбайды
+            entry.setOutcome(BankEvent.Outcome.UNKNOWN, 0, 0, failure.getMessage());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * commit сәтсіз: SUCCESS -> UNKNOWN (өзгеріс memory-да, дискте жоқ); бизнес қатесі өзгеріссіз қалады
+     * Буфердегі жазба келесі сәтті flush-та жаңа нәтижемен жазылады
+     * @return клиентке лақтырылатын exception
+     */
+    private Exception commitFailed(Entry entry, Exception failure, Exception cause) {
+        if (failure != null) {
+            failure.addSuppressed(cause);
+            return failure;
+        }
+        OutcomeUnknownException unknown = new OutcomeUnknownException(
+                "Change applied but not persisted: " + cause.getMessage(), cause);
+        synchronized (journalLock) {
+            entry.setOutcome(BankEvent.Outcome.UNKNOWN, 0, 0, unknown.getMessage());
+        }
+        return unknown;
+    }
+
+    private void release(Entry entry) {
+        entries.remove(entry.key, entry);
+        entry.release();
+    }
+
+    /**
+     * Жаңа жазбаны FIFO-ға қосу және мерзімі өткен/артық жазбаларды басынан өшіру
+     */
+    private void enqueue(Entry entry, long now) {
+        order.add(entry);
+        queued.incrementAndGet();
+        evict(now);
+    }
+
+    private void evict(long now) {
+        Entry head = order.peek();
+        if (head == null || (queued.get() <= maxEntries && !head.isExpired(now))) {
+            return; // Әдеттегі жағдай - lock-сыз
+        }
+        synchronized (order) {
+            while ((head = order.peek()) != null
+                    && (queued.get() > maxEntries || head.isExpired(now))) {
+                order.poll();
+                queued.decrementAndGet();
+                if (entries.remove(head.key, head)) {
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    // ============ JOURNAL ============
+
+    /**
+     * Нәтижені журнал буферіне қою: flush(mark) оны repository.flush()-тан кейін жазады
+     */
+    private void bufferRecord(Entry entry) {
+        synchronized (journalLock) {
+            if (journal != null) {
+                unwritten.add(entry);
+                bufferedRecords++;
+            }
+        }
+    }
+
+    private void loadJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = Entry.parse(line);
+                if (entry == null) {
+                    System.err.println("Warning: Skipping corrupted idempotency record: " + line);
+                    continue;
+                }
+                if (!entry.isExpired(now)) {
+                    entries.put(entry.key, entry); // Кейінгі жазба алдыңғысын ауыстырады
+                    enqueue(entry, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Журналды тек memory-дағы журналға жазылған жазбалармен қайта жазу (tmp + atomic move)
+     * journalLock астында шақырылады
+     */
+    private void compactJournal() throws IOException {
+        Path temp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+        long now = System.currentTimeMillis();
+        long written = 0;
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Entry entry : order) {
+                if (entry.written && !entry.isExpired(now) && entries.get(entry.key) == entry) {
+                    writer.write(entry.toRecord());
+                    written++;
+                }
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        Files.move(temp, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(journalPath.toFile(), true), StandardCharsets.UTF_8), 64 * 1024);
+        journalRecords = written;
+    }
+
+    // ============ HELPERS ============
+
+    private static void validateKey(String key) {
+        if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == ',' || Character.isISOControl(c)) {
+                throw new IllegalArgumentException("Idempotency key contains invalid character: " + key);
+            }
+        }
+    }
+
+    /**
+     * FNV-1a 64-bit: сұраныстың өзі емес, тек hash-і сақталады (memory үнемдеу)
+     */
+    private static long fingerprint(String request) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < request.length(); i++) {
+            hash ^= request.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Кілт және оның нәтижесі
+     * Exception объектісі сақталмайды (stack trace memory алады) - тек коды мен мәндері,
+     * replay кезінде жаңа exception құрылады
+     */
+    private static final class Entry {
+        private final String key;
+        private final long fingerprint;
+        private final long expiresAtMillis;
+        private volatile CountDownLatch pending; // null - аяқталды
+
+        // pending = null болғанға дейін жазылады (volatile арқылы жарияланады);
+        // буферге түскен соң тек journalLock астында өзгереді
+        private BankEvent.Outcome outcome; // null - күтпеген қатемен аяқталды
+        private double first;
+        private double second;
+        private String message;
+        private boolean written; // Журналда бар (journalLock)
+
+        private Entry(String key, long fingerprint, long expiresAtMillis) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+            this.pending = new CountDownLatch(1);
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+
+        private void setOutcome(BankEvent.Outcome outcome, double first, double second, String message) {
+            this.outcome = outcome;
+            this.first = first;
+            this.second = second;
+            this.message = message;
+        }
+
+        private void release() {
+            CountDownLatch latch = pending;
+            pending = null;
+            latch.countDown();
+        }
+
+        /**
+         * Сақталған нәтижені қайталау: сәтті болса ештеңе, әйтпесе сол exception
+         */
+        private void replay() throws Exception {
+            switch (outcome) {
+                case SUCCESS:
+                    return;
+                case INSUFFICIENT_FUNDS:
+                    throw new InsufficientFundsException(first, second);
+                case INVALID_AMOUNT:
+                    throw new InvalidAmountException(first);
+                case INVALID_PIN:
+                    throw new InvalidPinException((int) first, (int) second);
+                case ACCOUNT_NOT_FOUND:
+                    throw new AccountNotFoundException((int) first);
+                case UNKNOWN:
+                    throw new OutcomeUnknownException(message);
+                default:
+                    throw new IllegalArgumentException(message);
+            }
+        }
+
+        /**
+         * Journal жолы: expiresAt,outcome,fingerprint,first,second,key,message
+         */
+        private String toRecord() {
+            String text = message == null ? "" : message.replace('\n', ' ').replace('\r', ' ');
+            return expiresAtMillis + "," + outcome.getCode() + "," + fingerprint + ","
+                    + first + "," + second + "," + key + "," + text + "\n";
+        }
+
+        private static Entry parse(String line) {
+            String[] parts = line.split(",", 7);
+            if (parts.length != 7) {
+                return null; // Crash кезінде жартылай жазылған жол
+            }
+            try {
+                Entry entry = new Entry(parts[5], Long.parseLong(parts[2]), Long.parseLong(parts[0]));
+                entry.outcome = BankEvent.Outcome.fromCode(Integer.parseInt(parts[1]));
+                entry.first = Double.parseDouble(parts[3]);
+                entry.second = Double.parseDouble(parts[4]);
+                entry.message = parts[6].isEmpty() ? null : parts[6];
+                entry.written = true;
+                entry.pending = null;
+                return entry;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Dedup cache метрикалары
+     */
+    public static final class Stats {
+        private final int size;
+        private final int maxEntries;
+        private final long executions;
+        private final long replays;
+        private final long waits;
+        private final long evictions;
+
+        Stats(int size, int maxEntries, long executions, long replays, long waits, long evictions) {
+            this.size = size;
+            this.maxEntries = maxEntries;
+            this.executions = executions;
+            this.replays = replays;
+            this.waits = waits;
+            this.evictions = evictions;
+        }
+
+        public int getSize() { return size; }
+        public int getMaxEntries() { return maxEntries; }
+        public long getExecutions() { return executions; }
+        public long getReplays() { return replays; }
+        public long getWaits() { return waits; }
+        public long getEvictions() { return evictions; }
+
+        @Override
+        public String toString() {
+            return String.format("Idempotency keys %d/%d, executed: %d, replayed: %d "
+                            + "(waited for in-flight: %d), evicted: %d",
+                    size, maxEntries, executions, replays, waits, evictions);
+        }
+    }
+}
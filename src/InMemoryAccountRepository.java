@@ -1,18 +1,25 @@
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Memory-дағы Repository (тестілеу және демо үшін)
  * Thread-safe, жылдам, файлсыз
  */
 public class InMemoryAccountRepository implements AccountRepository{
-    private final Map<Integer, AccountWithHistory> accounts;
-    private int nextId;
+    private final IntAccountMap accounts;
+    private final OwnerNameIndex ownerNameIndex;
+    private final BalanceIndex balanceIndex;
+    private final BankCounters counters;
+    private final AccountIdSet accountIds; // findPage үшін реттелген ID-лер
+    private final IdAllocator idAllocator;
 
     public InMemoryAccountRepository() {
-        this.accounts = new ConcurrentHashMap<>();
-        this.nextId = 1;
+        this.accounts = new IntAccountMap();
+        this.ownerNameIndex = new OwnerNameIndex();
+        this.balanceIndex = new BalanceIndex();
+        this.counters = new BankCounters();
+        this.accountIds = new AccountIdSet();
+        this.idAllocator = new IdAllocator();
     }
 
     @Override
@@ -21,22 +28,110 @@ public class InMemoryAccountRepository implements AccountRepository{
             throw new IllegalArgumentException("Account cannot be null");
         }
         accounts.put(account.getId(), account);
+        ownerNameIndex.put(account.getId(), account.getOwnerName());
+        balanceIndex.put(account);
+        counters.onSaved(account);
+        accountIds.add(account.getId());
+        idAllocator.observe(account.getId());
         return account;
     }
 
+    /**
+     * Бір өтуде: cache, trigram index (write lock бір рет), balance index, санағыштар
+     */
+    @Override
+    public List<AccountWithHistory> saveAll(Collection<AccountWithHistory> accounts) {
+        if (accounts == null || accounts.contains(null)) {
+            throw new IllegalArgumentException("Accounts cannot be null");
+        }
+
+        int highest = 0;
+        for (AccountWithHistory account : accounts) {
+            this.accounts.put(account.getId(), account);
+            balanceIndex.put(account);
+            counters.onSaved(account);
+            accountIds.add(account.getId());
+            highest = Math.max(highest, account.getId());
+        }
+        ownerNameIndex.putAll(accounts);
+        idAllocator.observe(highest);
+
+        return new ArrayList<>(accounts);
+    }
+
     @Override
     public Optional<AccountWithHistory> findById(int id) {
         return Optional.ofNullable(accounts.get(id));
     }
 
+    @Override
+    public List<AccountWithHistory> findAllById(Collection<Integer> ids) {
+        List<AccountWithHistory> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            AccountWithHistory account = accounts.get(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<AccountWithHistory> findAll() {
-        return new ArrayList<>(accounts.values());
+        return accounts.values();
+    }
+
+    @Override
+    public Stream<AccountWithHistory> stream() {
+        // Сегменттер бойынша бөлінеді - бүкіл банк көшірілмейді
+        return accounts.stream();
+    }
+
+    /**
+     * Реттелген ID жиыны бойынша afterId-ден кейінгі ID-лер: құны O(limit),
+     * ID-лер арасындағы бос аралықтар бір-бірлеп тексерілмейді, сұрыптау мен көшірмесіз
+     */
+    @Override
+    public List<AccountWithHistory> findPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        List<AccountWithHistory> page = new ArrayList<>(Math.min(limit, 1024));
+        for (int id = accountIds.next(afterId); id != AccountIdSet.NONE && page.size() < limit;
+             id = accountIds.next(id)) {
+            AccountWithHistory account = accounts.get(id);
+            if (account != null) {
+                page.add(account);
+            }
+        }
+        return page;
     }
 
     @Override
     public boolean deleteById(int id) {
-        return accounts.remove(id) != null;
+        if (accounts.remove(id) == null) {
+            return false;
+        }
+        accountIds.remove(id);
+        ownerNameIndex.remove(id);
+        balanceIndex.remove(id);
+        counters.onDeleted(id);
+        return true;
+    }
+
+    @Override
+    public List<Integer> deleteAllById(Collection<Integer> ids) {
+        List<Integer> deleted = new ArrayList<>();
+        for (int id : ids) {
+            if (accounts.remove(id) != null) {
+                accountIds.remove(id);
+                balanceIndex.remove(id);
+                counters.onDeleted(id);
+                deleted.add(id);
+            }
+        }
+        ownerNameIndex.removeAll(deleted);
+        return deleted;
     }
 
     @Override
@@ -45,18 +140,47 @@ public class InMemoryAccountRepository implements AccountRepository{
             return Collections.emptyList();
         }
 
-        String searchName = ownerName.trim().toLowerCase();
-
-        return accounts.values().stream()
-                .filter(acc -> acc.getOwnerName().toLowerCase().contains(searchName))
-                .collect(Collectors.toList());
+        return resolve(ownerNameIndex.search(ownerName));
     }
 
     @Override
     public List<AccountWithHistory> findByBalanceGreaterThan(double minBalance) {
-        return accounts.values().stream()
-                .filter(acc -> acc.getBalance() > minBalance)
-                .collect(Collectors.toList());
+        return resolve(balanceIndex.greaterThan(minBalance));
+    }
+
+    @Override
+    public List<AccountWithHistory> findByBalanceBetween(double minBalance, double maxBalance,
+                                                         int offset, int limit) {
+        return resolve(balanceIndex.range(minBalance, maxBalance, offset, limit));
+    }
+
+    @Override
+    public List<AccountWithHistory> findTopByBalance(int offset, int limit) {
+        return resolve(balanceIndex.top(offset, limit));
+    }
+
+    @Override
+    public List<AccountWithHistory> findBottomByBalance(int offset, int limit) {
+        return resolve(balanceIndex.bottom(offset, limit));
+    }
+
+    @Override
+    public BankCounters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Index қайтарған ID-лерді аккаунттарға айналдыру (ретін сақтап)
+     */
+    private List<AccountWithHistory> resolve(List<Integer> ids) {
+        List<AccountWithHistory> result = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            AccountWithHistory account = accounts.get(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -70,8 +194,13 @@ public class InMemoryAccountRepository implements AccountRepository{
     }
 
     @Override
-    public synchronized int getNextId() {
-        return nextId++;
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public int allocateIds(int count) {
+        return idAllocator.allocate(count);
     }
 
     @Override
@@ -84,12 +213,16 @@ public class InMemoryAccountRepository implements AccountRepository{
      */
     public void clear() {
         accounts.clear();
-        nextId = 1;
+        ownerNameIndex.clear();
+        balanceIndex.clear();
+        counters.clear();
+        accountIds.clear();
+        idAllocator.reset();
     }
 
     @Override
     public String toString() {
         return String.format("InMemoryAccountRepository[accounts=%d, nextId=%d]",
-                count(), nextId);
+                count(), idAllocator.peekNext());
     }
 }
@@ -0,0 +1,388 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Аккаунт cache-і үшін primitive int кілтті concurrent map
+ * - Open addressing (linear probing): int[] кілттер + AccountWithHistory[] мәндер,
+ *   node объектілері мен Integer boxing жоқ
+ * - Сегменттерге бөлінген: әр сегменттің өз кестесі және StampedLock-ы бар
+ * - get() optimistic read арқылы lock-сыз және allocation-сыз, тек қатар жазу болса қайталанады
+ * - Өшіру backward-shift арқылы (tombstone жоқ, probe тізбегі қысқа қалады)
+ * - 0 кілті бос ұяшық белгісі ретінде резервтелген (аккаунт ID-лері 1-ден басталады)
+ */
+public class IntAccountMap {
+    private static final int EMPTY = 0;
+    private static final int DEFAULT_SEGMENTS = 64;
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    public IntAccountMap() {
+        this(DEFAULT_SEGMENTS, 0);
+    }
+
+    /**
+     * @param segments сегменттер саны (2-нің дәрежесіне дейін дөңгелектенеді)
+     * @param expectedSize күтілетін жазбалар саны (resize болмауы үшін)
+     */
+    public IntAccountMap(int segments, int expectedSize) {
+        if (segments <= 0 || expectedSize < 0) {
+            throw new IllegalArgumentException("Segments must be positive and expected size non-negative");
+        }
+        int count = Integer.highestOneBit(Math.min(segments, 1 << 16) * 2 - 1);
+        this.segments = new Segment[count];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+        int perSegment = tableSizeFor((int) Math.ceil(expectedSize / (double) count / LOAD_FACTOR));
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public AccountWithHistory get(int key) {
+        int hash = hash(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return алдыңғы мән немесе null
+     */
+    public AccountWithHistory put(int key, AccountWithHistory value) {
+        checkKey(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+    /**
+     * @return өшірілген мән немесе null
+     */
+    public AccountWithHistory remove(int key) {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    public int size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.size;
+        }
+        return (int) Math.min(total, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Барлық мәндердің көшірмесі (snapshot)
+     */
+    public List<AccountWithHistory> values() {
+        List<AccountWithHistory> result = new ArrayList<>(size());
+        for (Segment segment : segments) {
+            segment.copyValuesTo(result);
+        }
+        return result;
+    }
+
+    /**
+     * Мәндер stream-і: сегменттер бойынша бөлінеді (parallel үшін), әр сегмент
+     * traversal кезінде read lock астында көшіріледі (weakly consistent)
+     */
+    public Stream<AccountWithHistory> stream() {
+        return StreamSupport.stream(new SegmentSpliterator(0, segments.length), false);
+    }
+
+    // ============ INTERNAL ============
+
+    private Segment segmentFor(int hash) {
+        return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+    }
+
+    /**
+     * Fibonacci hashing: жоғарғы биттер сегментті, төменгі биттер ұяшықты таңдайды
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static void checkKey(int key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = MIN_SEGMENT_CAPACITY;
+        while (size < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Кілттер мен мәндер бір объектіде - resize кезінде бірге ауыстырылады
+     */
+    private static final class Table {
+        private final int[] keys;
+        private final AccountWithHistory[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new AccountWithHistory[capacity];
+            this.mask = capacity - 1;
+        }
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table;
+        private volatile int size;
+
+        private Segment(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        private AccountWithHistory get(int key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            AccountWithHistory value = find(table, key, hash);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+
+            // Қатар жазу болды - read lock астында қайталау
+            stamp = lock.readLock();
+            try {
+                return find(table, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Optimistic оқу кезінде кесте өзгеріп жатуы мүмкін, сондықтан цикл
+         * кесте сыйымдылығынан аспайды (нәтижені validate тексереді)
+         */
+        private static AccountWithHistory find(Table t, int key, int hash) {
+            int[] keys = t.keys;
+            int mask = t.mask;
+            int index = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                int k = keys[index];
+                if (k == key) {
+                    return t.values[index];
+                }
+                if (k == EMPTY) {
+                    return null;
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        private AccountWithHistory put(int key, int hash, AccountWithHistory value) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int index = hash & t.mask;
+                while (true) {
+                    int k = t.keys[index];
+                    if (k == key) {
+                        AccountWithHistory previous = t.values[index];
+                        t.values[index] = value;
+                        return previous;
+                    }
+                    if (k == EMPTY) {
+                        break;
+                    }
+                    index = (index + 1) & t.mask;
+                }
+
+                t.keys[index] = key;
+                t.values[index] = value;
+                size++;
+                if (size > (t.mask + 1) * LOAD_FACTOR) {
+                    resize(t);
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private AccountWithHistory remove(int key, int hash) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int mask = t.mask;
+                int index = hash & mask;
+                while (true) {
+                    int k = t.keys[index];
+                    if (k == EMPTY) {
+                        return null;
+                    }
+                    if (k == key) {
+                        break;
+                    }
+                    index = (index + 1) & mask;
+                }
+
+                AccountWithHistory previous = t.values[index];
+                shiftBack(t, index);
+                size--;
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Backward-shift deletion: бос ұяшыққа кейінгі жазбаларды жылжыту,
+         * әйтпесе олардың probe тізбегі үзіліп қалады
+         */
+        private static void shiftBack(Table t, int hole) {
+            int mask = t.mask;
+            int index = hole;
+            while (true) {
+                index = (index + 1) & mask;
+                int k = t.keys[index];
+                if (k == EMPTY) {
+                    break;
+                }
+                int ideal = hash(k) & mask;
+                // Жазба hole-ға жылжи алады, егер hole оның ideal..index аралығында болса
+                if (((index - ideal) & mask) >= ((index - hole) & mask)) {
+                    t.keys[hole] = k;
+                    t.values[hole] = t.values[index];
+                    hole = index;
+                }
+            }
+            t.keys[hole] = EMPTY;
+            t.values[hole] = null;
+        }
+
+        private void resize(Table old) {
+            Table grown = new Table((old.mask + 1) * 2);
+            for (int i = 0; i <= old.mask; i++) {
+                int k = old.keys[i];
+                if (k != EMPTY) {
+                    int index = hash(k) & grown.mask;
+                    while (grown.keys[index] != EMPTY) {
+                        index = (index + 1) & grown.mask;
+                    }
+                    grown.keys[index] = k;
+                    grown.values[index] = old.values[i];
+                }
+            }
+            table = grown;
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(MIN_SEGMENT_CAPACITY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void copyValuesTo(List<AccountWithHistory> target) {
+            long stamp = lock.readLock();
+            try {
+                for (AccountWithHistory value : table.values) {
+                    if (value != null) {
+                        target.add(value);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    /**
+     * Сегменттер аралығы бойынша бөлінетін spliterator
+     */
+    private final class SegmentSpliterator implements Spliterator<AccountWithHistory> {
+        private int next;
+        private final int end;
+        private List<AccountWithHistory> buffer; // Ағымдағы сегменттің көшірмесі
+        private int bufferIndex;
+
+        private SegmentSpliterator(int from, int end) {
+            this.next = from;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super AccountWithHistory> action) {
+            while (buffer == null || bufferIndex >= buffer.size()) {
+                if (next >= end) {
+                    return false;
+                }
+                buffer = new ArrayList<>(segments[next].size);
+                segments[next++].copyValuesTo(buffer);
+                bufferIndex = 0;
+            }
+            action.accept(buffer.get(bufferIndex++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super AccountWithHistory> action) {
+            while (tryAdvance(action)) {
+                // Сегмент-сегментімен жалғастыру
+            }
+        }
+
+        @Override
+        public Spliterator<AccountWithHistory> trySplit() {
+            if (buffer != null && bufferIndex < buffer.size()) {
+                return null; // Басталған сегментті бөлмейміз
+            }
+            int remaining = end - next;
+            if (remaining < 2) {
+                return null;
+            }
+            int middle = next + remaining / 2;
+            SegmentSpliterator prefix = new SegmentSpliterator(next, middle);
+            next = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long estimate = buffer != null ? buffer.size() - bufferIndex : 0;
+            for (int i = next; i < end; i++) {
+                estimate += segments[i].size;
+            }
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return NONNULL | CONCURRENT;
+        }
+    }
+}
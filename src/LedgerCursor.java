@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Ledger-ді соңынан оқитын change-feed cursor
+ * - Позиция = соңғы өңделген sequence ID
+ * - Бір poll() ең көбі batchSize жазба қайтарады (memory шектеулі)
+ * - Позицияны файлға сақтап, кейін сол жерден жалғастыруға болады
+ */
+public class LedgerCursor {
+    private final TransactionLedger ledger;
+    private final int batchSize;
+    private long position;
+
+    public LedgerCursor(TransactionLedger ledger, long position, int batchSize) {
+        if (ledger == null) {
+            throw new IllegalArgumentException("Ledger cannot be null");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("Cursor position cannot be negative");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.ledger = ledger;
+        this.position = position;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Ledger басынан оқитын cursor
+     */
+    public static LedgerCursor fromBeginning(TransactionLedger ledger, int batchSize) {
+        return new LedgerCursor(ledger, 0, batchSize);
+    }
+
+    /**
+     * Сақталған позициядан cursor ашу (файл жоқ болса - басынан)
+     */
+    public static LedgerCursor load(TransactionLedger ledger, Path cursorFile, int batchSize) {
+        long position = 0;
+        try {
+            if (Files.exists(cursorFile)) {
+                String content = new String(Files.readAllBytes(cursorFile), StandardCharsets.UTF_8).trim();
+                if (!content.isEmpty()) {
+                    position = Long.parseLong(content);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read cursor file: " + cursorFile, e);
+        }
+        return new LedgerCursor(ledger, position, batchSize);
+    }
+
+    /**
+     * Келесі batch-ты оқып, позицияны алға жылжыту
+     */
+    public List<Transaction> poll() {
+        List<Transaction> batch = ledger.readFrom(position, batchSize);
+        if (!batch.isEmpty()) {
+            position = batch.get(batch.size() - 1).getSequenceId();
+        }
+        return batch;
+    }
+
+    /**
+     * Оқылмаған жазбалар саны
+     */
+    public long getLag() {
+        return Math.max(0, ledger.getLastSequence() - position);
+    }
+
+    /**
+     * Позицияны файлға сақтау (atomic rename)
+     */
+    public void save(Path cursorFile) {
+        Path tempFile = cursorFile.resolveSibling(cursorFile.getFileName() + ".tmp");
+        try {
+            if (cursorFile.getParent() != null) {
+                Files.createDirectories(cursorFile.getParent());
+            }
+            Files.write(tempFile, Long.toString(position).getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, cursorFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save cursor file: " + cursorFile, e);
+        }
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LedgerCursor[position=%d, lag=%d]", position, getLag());
+    }
+}
@@ -0,0 +1,232 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Ротацияланған лог файлдарын басқару
+ * - Архив аты: <base>-yyyy-MM-dd.N.log, сығылғаннан кейін .log.gz
+ * - GZIP сығу фондық thread-та орындалады
+ * - Retention: ең көбі maxArchives архив сақталады, ескілері өшіріледі
+ * - Белсенді файлдың side index-і (.idx) архивпен бірге көшіріледі: <base>-yyyy-MM-dd.N.idx
+ */
+public class LogArchiver {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final String baseName;
+    private final int maxArchives;
+    private final Pattern archivePattern;
+    private final ExecutorService compressor;
+
+    public LogArchiver(Path directory, String baseName, int maxArchives) {
+        if (maxArchives < 0) {
+            throw new IllegalArgumentException("Max archives cannot be negative");
+        }
+        this.directory = directory;
+        this.baseName = baseName;
+        this.maxArchives = maxArchives;
+        this.archivePattern = Pattern.compile(
+                Pattern.quote(baseName) + "-(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.log(\\.gz)?");
+        this.compressor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "log-archive-compressor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Жабылған белсенді файлды архивке көшіру және фонда сығуды бастау
+     * @return архив файлының жолы (сығылғанға дейін)
+     */
+    public synchronized Path archive(Path activeFile, LocalDate day) throws IOException {
+        int index = 1;
+        for (Archive archive : scan()) {
+            if (archive.day.equals(day)) {
+                index = Math.max(index, archive.index + 1);
+            }
+        }
+
+        Path target = directory.resolve(baseName + "-" + day + "." + index + ".log");
+        Files.move(activeFile, target);
+
+        Path activeIndex = activeFile.resolveSibling(activeFile.getFileName() + LogSearchIndex.INDEX_SUFFIX);
+        if (Files.exists(activeIndex)) {
+            Files.move(activeIndex, indexFileFor(target), StandardCopyOption.REPLACE_EXISTING);
+        }
+        compressor.submit(() -> compress(target));
+        return target;
+    }
+
+    /**
+     * Архивті GZIP-ке сығу (уақытша файл арқылы, сосын атомарлы rename)
+     */
+    private void compress(Path source) {
+        Path gzip = source.resolveSibling(source.getFileName() + ".gz");
+        Path temp = source.resolveSibling(source.getFileName() + ".gz.tmp");
+
+        if (Files.exists(source)) {
+            try {
+                try (InputStream in = Files.newInputStream(source);
+                     OutputStream out = new GZIPOutputStream(
+                             Files.newOutputStream(temp), COPY_BUFFER_SIZE)) {
+                    in.transferTo(out);
+                }
+                Files.move(temp, gzip, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(source);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not compress log archive " + source
+                        + ": " + e.getMessage());
+                deleteQuietly(temp);
+            }
+        }
+
+        applyRetention();
+    }
+
+    /**
+     * Retention саясатын қолдану - ең ескі архивтерді өшіру
+     */
+    private synchronized void applyRetention() {
+        List<Path> archives = listArchives();
+        for (int i = maxArchives; i < archives.size(); i++) {
+            deleteArchive(archives.get(i));
+        }
+    }
+
+    /**
+     * Барлық архивтер (ең жаңасы бірінші)
+     * Сығу аяқталмаған архив үшін .log нұсқасы қайтарылады
+     */
+    public synchronized List<Path> listArchives() {
+        List<Archive> archives = scan();
+        archives.sort(Comparator.comparing((Archive a) -> a.day)
+                .thenComparingInt(a -> a.index)
+                .reversed());
+
+        List<Path> paths = new ArrayList<>(archives.size());
+        Archive previous = null;
+        for (Archive archive : archives) {
+            if (previous != null && previous.day.equals(archive.day)
+                    && previous.index == archive.index) {
+                // Бір архивтің .log және .log.gz нұсқасы - толық .log нұсқасын қалдырамыз
+                if (!archive.compressed) {
+                    paths.set(paths.size() - 1, archive.path);
+                }
+                continue;
+            }
+            paths.add(archive.path);
+            previous = archive;
+        }
+        return paths;
+    }
+
+    /**
+     * Сығылған нұсқаның жолы (архив осы кезде сығылып кеткен жағдайда қайта ашу үшін)
+     */
+    public static Path compressedFor(Path archive) {
+        String name = archive.getFileName().toString();
+        return name.endsWith(".gz") ? archive : archive.resolveSibling(name + ".gz");
+    }
+
+    /**
+     * Архивтің side index файлы (.log және .log.gz үшін бірдей)
+     */
+    public static Path indexFileFor(Path archive) {
+        String name = archive.getFileName().toString();
+        String stem = name.substring(0, name.indexOf(".log"));
+        return archive.resolveSibling(stem + LogSearchIndex.INDEX_SUFFIX);
+    }
+
+    /**
+     * Архивті оқуға ашу (.gz болса автоматты түрде ашылады)
+     */
+    public static BufferedReader openReader(Path archive) throws IOException {
+        InputStream in = Files.newInputStream(archive);
+        if (archive.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, COPY_BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Барлық архивтерді өшіру
+     */
+    public synchronized void deleteAll() {
+        for (Path archive : listArchives()) {
+            deleteArchive(archive);
+        }
+    }
+
+    /**
+     * Күтіп тұрған сығуларды аяқтап, thread-ты тоқтату
+     */
+    public void close() {
+        compressor.shutdown();
+        try {
+            if (!compressor.awaitTermination(30, TimeUnit.SECONDS)) {
+                compressor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            compressor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Archive> scan() {
+        List<Archive> archives = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return archives;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, baseName + "-*")) {
+            for (Path path : stream) {
+                Matcher matcher = archivePattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    archives.add(new Archive(path, LocalDate.parse(matcher.group(1)),
+                            Integer.parseInt(matcher.group(2)), matcher.group(3) != null));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not list log archives: " + e.getMessage());
+        }
+        return archives;
+    }
+
+    private static void deleteArchive(Path archive) {
+        deleteQuietly(archive);
+        deleteQuietly(indexFileFor(archive));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class Archive {
+        private final Path path;
+        private final LocalDate day;
+        private final int index;
+        private final boolean compressed;
+
+        private Archive(Path path, LocalDate day, int index, boolean compressed) {
+            this.path = path;
+            this.day = day;
+            this.index = index;
+            this.compressed = compressed;
+        }
+    }
+}
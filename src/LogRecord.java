@@ -0,0 +1,182 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Бір лог жазбасы - уақыт, қатысты аккаунттар және мәтін жолы
+ * Жол форматы: [yyyy-MM-dd HH:mm:ss] [acct=12,34] message
+ * (аккаунтсыз жазбада [acct=...] бөлігі болмайды)
+ *
+ * Құрылымды оқиға (BankEvent) жазбасының мәтіні тек алғаш сұралғанда жасалады,
+ * сондықтан форматтау шақырушы thread-та емес, flusher thread-та орындалады
+ */
+public final class LogRecord {
+    static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final int[] NO_ACCOUNTS = new int[0];
+
+    private static final int TIMESTAMP_END = 20; // "[" + 19 таңба + "]"
+    private static final String ACCOUNT_TAG = "[acct=";
+
+    private final long epochSecond;
+    private final int[] accountIds;
+    private final LocalDateTime time;
+    private final String message;
+    private final BankEvent event;
+    private final boolean text; // false - тек binary журналға
+    private String line; // Жалқау (lazy) жасалады
+
+    private LogRecord(long epochSecond, int[] accountIds, LocalDateTime time, String message,
+                      BankEvent event, boolean text, String line) {
+        this.epochSecond = epochSecond;
+        this.accountIds = accountIds;
+        this.time = time;
+        this.message = message;
+        this.event = event;
+        this.text = text;
+        this.line = line;
+    }
+
+    /**
+     * Жаңа мәтін жазбасын құру
+     */
+    public static LogRecord create(LocalDateTime time, String message, int... accountIds) {
+        return new LogRecord(toEpochSecond(time), accountIds, time, message, null, true, null);
+    }
+
+    /**
+     * Құрылымды оқиға жазбасын құру
+     * @param text false болса мәтін логқа жазылмайды (тек binary журнал, time null болуы мүмкін)
+     */
+    public static LogRecord forEvent(LocalDateTime time, BankEvent event, boolean text) {
+        return new LogRecord(time != null ? toEpochSecond(time) : 0, event.getAccountIds(),
+                time, null, event, text, null);
+    }
+
+    /**
+     * Файлдағы жолды талдау
+     * @return жазба емес жол болса (мысалы, header) null
+     */
+    public static LogRecord parse(String line) {
+        if (line.length() <= TIMESTAMP_END || line.charAt(0) != '['
+                || line.charAt(TIMESTAMP_END) != ']') {
+            return null;
+        }
+
+        long epochSecond;
+        try {
+            epochSecond = toEpochSecond(LocalDateTime.of(
+                    digits(line, 1, 4), digits(line, 6, 2), digits(line, 9, 2),
+                    digits(line, 12, 2), digits(line, 15, 2), digits(line, 18, 2)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        int[] accountIds = NO_ACCOUNTS;
+        int tagStart = TIMESTAMP_END + 2;
+        if (line.startsWith(ACCOUNT_TAG, tagStart)) {
+            int tagEnd = line.indexOf(']', tagStart);
+            if (tagEnd > 0) {
+                accountIds = parseAccounts(line, tagStart + ACCOUNT_TAG.length(), tagEnd);
+            }
+        }
+        return new LogRecord(epochSecond, accountIds, null, null, null, true, line);
+    }
+
+    private static int[] parseAccounts(String line, int start, int end) {
+        int count = 1;
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == ',') {
+                count++;
+            }
+        }
+
+        int[] ids = new int[count];
+        int index = 0;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == ',') {
+                ids[index++] = value;
+                value = 0;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else {
+                return NO_ACCOUNTS;
+            }
+        }
+        ids[index] = value;
+        return ids;
+    }
+
+    private static int digits(String s, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Not a digit: " + c);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Жергілікті уақытты секундқа айналдыру (файлдағы мәтінмен бірдей, timezone жоқ)
+     */
+    public static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public boolean involves(int accountId) {
+        for (int id : accountIds) {
+            if (id == accountId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Мәтін жолы (алғаш шақырылғанда жасалады)
+     */
+    public String getLine() {
+        String result = line;
+        if (result == null) {
+            StringBuilder sb = new StringBuilder(96);
+            TextFormat.appendDateTime(sb.append('['), time).append("] ");
+            if (accountIds.length > 0) {
+                sb.append(ACCOUNT_TAG);
+                for (int i = 0; i < accountIds.length; i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(accountIds[i]);
+                }
+                sb.append("] ");
+            }
+            if (event != null) {
+                event.appendMessage(sb);
+            } else {
+                sb.append(message);
+            }
+            result = sb.toString();
+            line = result; // String immutable - бірнеше thread қатар жасаса да қауіпсіз
+        }
+        return result;
+    }
+
+    // Getters
+    public long getEpochSecond() { return epochSecond; }
+    public int[] getAccountIds() { return accountIds.clone(); }
+    public BankEvent getEvent() { return event; }
+    public boolean isText() { return text; }
+
+    int[] accountIdsUnsafe() {
+        return accountIds;
+    }
+
+    @Override
+    public String toString() {
+        return getLine();
+    }
+}
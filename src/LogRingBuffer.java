@@ -0,0 +1,97 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Шектеулі lock-free ring buffer (көп producer, бір consumer)
+ * - Әр ұяшықтың sequence нөмірі бар, producer CAS арқылы орын алады
+ * - Толы болса offer() бірден false қайтарады (күтпейді)
+ * - Тек бір consumer thread poll/drain жасауы керек
+ */
+public class LogRingBuffer<T> {
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Келесі producer позициясы
+    private volatile long head; // Келесі consumer позициясы
+
+    public LogRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.buffer = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Элемент қосу (lock-free)
+     * @return орын болмаса false
+     */
+    public boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = item;
+                    sequences.set(index, position + 1); // Consumer-ге жариялау
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // Толы
+            }
+            // diff > 0: басқа producer алып қойды, қайталаймыз
+        }
+    }
+
+    /**
+     * Бір элемент алу (тек consumer thread)
+     * @return бос болса null
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null; // Бос немесе producer әлі жазып бітірмеген
+        }
+
+        T item = (T) buffer[index];
+        buffer[index] = null;
+        sequences.set(index, position + buffer.length); // Ұяшықты келесі айналымға босату
+        head = position + 1;
+        return item;
+    }
+
+    /**
+     * Ең көбі maxItems элементті consumer-ге беру (тек consumer thread)
+     * @return берілген элементтер саны
+     */
+    public int drain(Consumer<T> consumer, int maxItems) {
+        int count = 0;
+        T item;
+        while (count < maxItems && (item = poll()) != null) {
+            consumer.accept(item);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Кезектегі элементтер саны (шамамен)
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, buffer.length));
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,289 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Лог файлына арналған сирек (sparse) side index
+ * - Файл ~64KB блоктарға бөлінеді, әр блок үшін: byte аралығы, уақыт аралығы, аккаунттар
+ * - account → блоктар posting тізімі
+ * - Жабылған блоктар <log>.idx файлына append режимінде жазылады,
+ *   ашық блок restart кезінде лог файлының соңынан қайта құрылады
+ *
+ * Idx жол форматы: startOffset,endOffset,minTime,maxTime,id;id;id
+ */
+public class LogSearchIndex {
+    static final int BLOCK_BYTES = 64 * 1024;
+    static final String INDEX_SUFFIX = ".idx";
+
+    private final Path indexFile;
+    private final List<Block> blocks = new ArrayList<>();
+    private final Map<Integer, List<Integer>> postings = new HashMap<>();
+
+    // Ашық (жабылмаған) блок
+    private long openStart = -1;
+    private long openEnd;
+    private long openMinTime = Long.MAX_VALUE;
+    private long openMaxTime = Long.MIN_VALUE;
+    private int[] openAccounts = new int[64];
+    private int openAccountCount;
+
+    private LogSearchIndex(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Белсенді лог файлының индексін ашу (idx жүктеу + файл соңын қайта индекстеу)
+     */
+    public static LogSearchIndex open(Path logFile) throws IOException {
+        LogSearchIndex index = new LogSearchIndex(
+                logFile.resolveSibling(logFile.getFileName() + INDEX_SUFFIX));
+        long fileSize = Files.exists(logFile) ? Files.size(logFile) : 0;
+
+        if (!index.loadBlocks() || index.coveredBytes() > fileSize) {
+            // Idx бүлінген немесе лог файлына сәйкес емес - нөлден құрамыз
+            index.reset();
+            Files.deleteIfExists(index.indexFile);
+        }
+
+        if (fileSize > index.coveredBytes()) {
+            index.catchUp(logFile, index.coveredBytes());
+        }
+        return index;
+    }
+
+    /**
+     * Архив индексін тек оқу үшін жүктеу
+     * @return idx жоқ немесе бүлінген болса null
+     */
+    public static LogSearchIndex load(Path indexFile) {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        LogSearchIndex index = new LogSearchIndex(indexFile);
+        return index.loadBlocks() ? index : null;
+    }
+
+    private boolean loadBlocks() {
+        if (!Files.exists(indexFile)) {
+            return true;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] parts = line.split(",", 5);
+                int[] accounts = parts[4].isEmpty() ? LogRecord.NO_ACCOUNTS
+                        : Arrays.stream(parts[4].split(";")).mapToInt(Integer::parseInt).toArray();
+                addBlock(new Block(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2]), Long.parseLong(parts[3]), accounts));
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not load log index " + indexFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Idx-те жоқ лог жолдарын индекстеу (byte offset дәл есептеледі)
+     */
+    private void catchUp(Path logFile, long from) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(logFile), BLOCK_BYTES)) {
+            long skipped = in.skip(from);
+            long offset = from;
+            while (skipped < from) {
+                // skip() аз өткізуі мүмкін
+                long more = in.skip(from - skipped);
+                if (more <= 0) {
+                    return;
+                }
+                skipped += more;
+            }
+
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                int length = line.size() + 1;
+                add(offset, length, LogRecord.parse(line.toString(StandardCharsets.UTF_8)));
+                offset += length;
+                line.reset();
+            }
+            // Аяқталмаған соңғы жол индекстелмейді - келесі жазуда файл жалғасады
+        }
+    }
+
+    /**
+     * Жазылған жолды индекстеу
+     * @param record жазба емес жол үшін null (тек byte аралығы кеңейеді)
+     */
+    public void add(long offset, int length, LogRecord record) {
+        if (openStart < 0) {
+            openStart = offset;
+        }
+        openEnd = offset + length;
+
+        if (record != null) {
+            openMinTime = Math.min(openMinTime, record.getEpochSecond());
+            openMaxTime = Math.max(openMaxTime, record.getEpochSecond());
+            for (int id : record.accountIdsUnsafe()) {
+                if (openAccountCount == openAccounts.length) {
+                    openAccounts = Arrays.copyOf(openAccounts, openAccountCount * 2);
+                }
+                openAccounts[openAccountCount++] = id;
+            }
+        }
+
+        if (openEnd - openStart >= BLOCK_BYTES) {
+            seal();
+        }
+    }
+
+    /**
+     * Ашық блокты жабу және idx файлына жазу
+     */
+    public void seal() {
+        if (openStart < 0) {
+            return;
+        }
+
+        int[] accounts = Arrays.stream(openAccounts, 0, openAccountCount).sorted().distinct().toArray();
+        Block block = new Block(openStart, openEnd, openMinTime, openMaxTime, accounts);
+        addBlock(block);
+        resetOpenBlock();
+
+        try {
+            Files.write(indexFile, Collections.singletonList(block.toIndexLine()), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write log index: " + e.getMessage());
+        }
+    }
+
+    private void addBlock(Block block) {
+        int blockNumber = blocks.size();
+        blocks.add(block);
+        for (int id : block.accounts) {
+            postings.computeIfAbsent(id, k -> new ArrayList<>()).add(blockNumber);
+        }
+    }
+
+    /**
+     * Сұранысқа сәйкес келуі мүмкін блоктардың byte аралықтары (файл ретімен)
+     * @param accountId null болса барлық аккаунт
+     */
+    public List<long[]> candidateRanges(Integer accountId, long fromSecond, long toSecond) {
+        List<long[]> ranges = new ArrayList<>();
+
+        if (accountId == null) {
+            for (Block block : blocks) {
+                if (block.overlaps(fromSecond, toSecond)) {
+                    ranges.add(new long[]{block.start, block.end});
+                }
+            }
+        } else {
+            for (int blockNumber : postings.getOrDefault(accountId, Collections.emptyList())) {
+                Block block = blocks.get(blockNumber);
+                if (block.overlaps(fromSecond, toSecond)) {
+                    ranges.add(new long[]{block.start, block.end});
+                }
+            }
+        }
+
+        if (openStart >= 0 && openMinTime <= toSecond && openMaxTime >= fromSecond
+                && (accountId == null || openBlockContains(accountId))) {
+            ranges.add(new long[]{openStart, openEnd});
+        }
+        return ranges;
+    }
+
+    private boolean openBlockContains(int accountId) {
+        for (int i = 0; i < openAccountCount; i++) {
+            if (openAccounts[i] == accountId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Бүкіл файл (мысалы, архив) сұранысқа сәйкес келуі мүмкін бе
+     */
+    public boolean mayContain(Integer accountId, long fromSecond, long toSecond) {
+        return !candidateRanges(accountId, fromSecond, toSecond).isEmpty();
+    }
+
+    /**
+     * Индексті толық өшіру (лог файлы тазаланғанда)
+     */
+    public void clear() {
+        reset();
+        try {
+            Files.deleteIfExists(indexFile);
+        } catch (IOException e) {
+            System.err.println("Warning: Could not delete log index: " + e.getMessage());
+        }
+    }
+
+    public int getBlockCount() {
+        return blocks.size() + (openStart >= 0 ? 1 : 0);
+    }
+
+    private long coveredBytes() {
+        return blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).end;
+    }
+
+    private void reset() {
+        blocks.clear();
+        postings.clear();
+        resetOpenBlock();
+    }
+
+    private void resetOpenBlock() {
+        openStart = -1;
+        openEnd = 0;
+        openMinTime = Long.MAX_VALUE;
+        openMaxTime = Long.MIN_VALUE;
+        openAccountCount = 0;
+    }
+
+    private static final class Block {
+        private final long start;
+        private final long end;
+        private final long minTime;
+        private final long maxTime;
+        private final int[] accounts;
+
+        private Block(long start, long end, long minTime, long maxTime, int[] accounts) {
+            this.start = start;
+            this.end = end;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+            this.accounts = accounts;
+        }
+
+        private boolean overlaps(long fromSecond, long toSecond) {
+            return minTime <= toSecond && maxTime >= fromSecond;
+        }
+
+        private String toIndexLine() {
+            StringBuilder sb = new StringBuilder(48 + accounts.length * 6);
+            sb.append(start).append(',').append(end).append(',')
+                    .append(minTime).append(',').append(maxTime).append(',');
+            for (int i = 0; i < accounts.length; i++) {
+                if (i > 0) {
+                    sb.append(';');
+                }
+                sb.append(accounts[i]);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Лог файлын соңынан оқу
+ * - readLastLines: файлдың соңынан блок-блокпен артқа қарай іздейді,
+ *   уақыты барлық файлға емес, N жолға пропорционал
+ * - follow: жаңа жолдарды live бақылау (tail -f), ротацияны танады
+ */
+public final class LogTailReader {
+    private static final int BLOCK_SIZE = 8192;
+
+    private LogTailReader() {
+    }
+
+    /**
+     * Файлдың соңғы maxLines жолын қайтару
+     */
+    public static List<String> readLastLines(Path file, int maxLines) throws IOException {
+        if (maxLines <= 0) {
+            return Collections.emptyList();
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long start = findTailStart(channel, maxLines);
+            channel.position(start);
+
+            List<String> lines = new ArrayList<>(Math.min(maxLines, 1024));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Соңғы maxLines жолдың басталу offset-ін табу
+     * UTF-8-де '\n' байты көп байтты символ ішінде кездеспейді
+     */
+    private static long findTailStart(FileChannel channel, int maxLines) throws IOException {
+        long size = channel.size();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        long end = size;
+        int newlines = 0;
+        boolean skipTrailing = true; // Соңғы жолды аяқтайтын '\n' есептелмейді
+
+        while (end > 0) {
+            long blockStart = Math.max(0, end - BLOCK_SIZE);
+            int length = (int) (end - blockStart);
+
+            block.clear().limit(length);
+            while (block.hasRemaining()) {
+                if (channel.read(block, blockStart + block.position()) < 0) {
+                    break;
+                }
+            }
+
+            for (int i = length - 1; i >= 0; i--) {
+                if (block.get(i) != '\n') {
+                    skipTrailing = false;
+                    continue;
+                }
+                if (skipTrailing) {
+                    skipTrailing = false;
+                    continue;
+                }
+                if (++newlines == maxLines) {
+                    return blockStart + i + 1;
+                }
+            }
+            end = blockStart;
+        }
+        return 0;
+    }
+
+    /**
+     * Файлды бақылауды бастау (файлдың қазіргі соңынан)
+     * Әр толық жаңа жол listener-ге беріледі
+     */
+    public static Follower follow(Path file, Consumer<String> listener, long pollIntervalMillis) {
+        Follower follower = new Follower(file, listener, pollIntervalMillis);
+        follower.start();
+        return follower;
+    }
+
+    /**
+     * Live бақылау (фондық daemon thread)
+     */
+    public static final class Follower implements AutoCloseable {
+        private final Path file;
+        private final Consumer<String> listener;
+        private final long pollIntervalMillis;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private volatile long position;
+        private Object fileKey;
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+
+        private Follower(Path file, Consumer<String> listener, long pollIntervalMillis) {
+            if (pollIntervalMillis <= 0) {
+                throw new IllegalArgumentException("Poll interval must be positive");
+            }
+            this.file = file;
+            this.listener = listener;
+            this.pollIntervalMillis = pollIntervalMillis;
+            this.thread = new Thread(this::run, "log-tail-follower");
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                position = attributes.size();
+                fileKey = attributes.fileKey();
+            } catch (IOException e) {
+                position = 0; // Файл әлі жоқ - пайда болғанда басынан оқимыз
+            }
+            thread.start();
+        }
+
+        private void run() {
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+            while (running) {
+                try {
+                    poll(block);
+                } catch (NoSuchFileException e) {
+                    // Ротация кезінде файл уақытша жоқ
+                } catch (IOException e) {
+                    System.err.println("Warning: Log follow failed: " + e.getMessage());
+                }
+
+                try {
+                    Thread.sleep(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void poll(ByteBuffer block) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+            // Ротация немесе тазалау: жаңа файл - басынан оқу
+            boolean replaced = fileKey != null && !Objects.equals(fileKey, attributes.fileKey());
+            if (replaced || attributes.size() < position) {
+                position = 0;
+                partial.reset();
+            }
+            fileKey = attributes.fileKey();
+
+            if (attributes.size() == position) {
+                return;
+            }
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                int read;
+                while (running && (read = channel.read(block.clear(), position)) > 0) {
+                    position += read;
+                    emitLines(block.array(), read);
+                }
+            }
+        }
+
+        private void emitLines(byte[] bytes, int length) {
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] == '\n') {
+                    partial.write(bytes, lineStart, i - lineStart);
+                    listener.accept(stripCarriageReturn(partial.toString(StandardCharsets.UTF_8)));
+                    partial.reset();
+                    lineStart = i + 1;
+                }
+            }
+            partial.write(bytes, lineStart, length - lineStart); // Аяқталмаған жол
+        }
+
+        private static String stripCarriageReturn(String line) {
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * Бақылауды тоқтату
+         */
+        @Override
+        public void close() {
+            running = false; // interrupt() FileChannel-ды жауып тастайды, сондықтан күтеміз
+            try {
+                thread.join(pollIntervalMillis + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * TransactionLogger баптаулары (Builder стилі)
+ * Әдепкі мәндер бұрынғы мінез-құлықпен бірдей: синхронды, әр жолдан кейін flush
+ */
+public class LoggerConfig {
+    private boolean async = false;
+    private int bufferCapacity = 8192;
+    private long flushIntervalMillis = 200;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+    private int sampleRate = 10;
+    private long maxFileBytes = 10L * 1024 * 1024; // 10 MB
+    private boolean dailyRotation = true;
+    private int maxArchives = 30;
+    private int recentLogCapacity = 100;
+    private boolean binaryEventLog = false;
+
+    public LoggerConfig setAsync(boolean async) {
+        this.async = async;
+        return this;
+    }
+
+    /**
+     * Ring buffer сыйымдылығы (2-нің дәрежесіне дейін дөңгелектенеді)
+     */
+    public LoggerConfig setBufferCapacity(int bufferCapacity) {
+        if (bufferCapacity <= 1) {
+            throw new IllegalArgumentException("Buffer capacity must be greater than 1");
+        }
+        this.bufferCapacity = bufferCapacity;
+        return this;
+    }
+
+    public LoggerConfig setFlushIntervalMillis(long flushIntervalMillis) {
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.flushIntervalMillis = flushIntervalMillis;
+        return this;
+    }
+
+    public LoggerConfig setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        if (backpressurePolicy == null) {
+            throw new IllegalArgumentException("Backpressure policy cannot be null");
+        }
+        this.backpressurePolicy = backpressurePolicy;
+        return this;
+    }
+
+    /**
+     * SAMPLE саясатында буфер толы кезде N оқиғаның біреуі сақталады
+     */
+    public LoggerConfig setSampleRate(int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive");
+        }
+        this.sampleRate = sampleRate;
+        return this;
+    }
+
+    /**
+     * Белсенді лог файлы осы өлшемнен асқанда ротация жасалады
+     */
+    public LoggerConfig setMaxFileBytes(long maxFileBytes) {
+        if (maxFileBytes <= 0) {
+            throw new IllegalArgumentException("Max file size must be positive");
+        }
+        this.maxFileBytes = maxFileBytes;
+        return this;
+    }
+
+    /**
+     * Күн ауысқанда ротация жасау
+     */
+    public LoggerConfig setDailyRotation(boolean dailyRotation) {
+        this.dailyRotation = dailyRotation;
+        return this;
+    }
+
+    /**
+     * Retention: сақталатын сығылған архивтердің ең көп саны
+     */
+    public LoggerConfig setMaxArchives(int maxArchives) {
+        if (maxArchives < 0) {
+            throw new IllegalArgumentException("Max archives cannot be negative");
+        }
+        this.maxArchives = maxArchives;
+        return this;
+    }
+
+    /**
+     * Memory-да сақталатын соңғы логтар саны
+     */
+    public LoggerConfig setRecentLogCapacity(int recentLogCapacity) {
+        if (recentLogCapacity <= 0) {
+            throw new IllegalArgumentException("Recent log capacity must be positive");
+        }
+        this.recentLogCapacity = recentLogCapacity;
+        return this;
+    }
+
+    /**
+     * Құрылымды оқиғаларды data/logs/events.bin binary журналына да жазу
+     */
+    public LoggerConfig setBinaryEventLog(boolean binaryEventLog) {
+        this.binaryEventLog = binaryEventLog;
+        return this;
+    }
+
+    // Getters
+    public boolean isAsync() { return async; }
+    public long getFlushIntervalMillis() { return flushIntervalMillis; }
+    public BackpressurePolicy getBackpressurePolicy() { return backpressurePolicy; }
+    public int getSampleRate() { return sampleRate; }
+    public long getMaxFileBytes() { return maxFileBytes; }
+    public boolean isDailyRotation() { return dailyRotation; }
+    public int getMaxArchives() { return maxArchives; }
+    public int getRecentLogCapacity() { return recentLogCapacity; }
+    public boolean isBinaryEventLog() { return binaryEventLog; }
+
+    public int getBufferCapacity() {
+        return Integer.highestOneBit(bufferCapacity - 1) << 1;
+    }
+}
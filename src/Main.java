@@ -1,6 +1,23 @@
+import java.util.Arrays;
+
+/**
+ * Кіру нүктесі
+ *   java Main                    - интерактивті меню
+ *   java Main --batch <file|->   - командалар файлдан/stdin-нен (BatchCommandRunner)
+ *   java Main --http [port]      - HTTP/JSON API (BankHttpServer)
+ */
 public class Main {
     public static void main(String[] args) {
         try {
+            if (args.length > 0 && args[0].equals("--batch")) {
+                BatchCommandRunner.main(args.length > 1 ? new String[]{args[1]} : new String[0]);
+                return;
+            }
+            if (args.length > 0 && args[0].equals("--http")) {
+                BankHttpServer.main(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
+
             // Console қолданбасын іске қосу
             ConsoleApp app = new ConsoleApp();
             app.run();
@@ -0,0 +1,16 @@
+/**
+ * Өзгеріс memory-да жасалғаннан кейін сақтау (save/flush) сәтсіз болғанда лақтырылады
+ * Операцияның нәтижесі белгісіз: idempotency кілті осы нәтижемен жабылады,
+ * сол кілтпен қайталанған сұраныс операцияны екінші рет орындамайды
+ */
+public class OutcomeUnknownException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    public OutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,300 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Иесінің аты бойынша trigram inverted index
+ * - Аттар Character.toLowerCase арқылы кіші әріпке келтіріледі (locale-ға тәуелсіз,
+ *   қазақ кириллицасы да: Ә/ә, Ғ/ғ, Қ/қ, Ң/ң, Ө/ө, Ұ/ұ, Ү/ү, Һ/һ, І/і)
+ * - Әр trigram → аккаунт ID-лер тізімі (posting list)
+ * - Entry әр trigram үшін posting list-тегі өз орнын (slot) сақтайды: өшіру O(1) swap-remove,
+ *   ауыстырылған ID-нің slot-ы binary search арқылы жаңартылады (сызықтық іздеу жоқ)
+ * - Substring іздеу: ең қысқа posting list-тегі кандидаттар ғана тексеріледі
+ * - 3 таңбадан қысқа сұраныс үшін дайын (folded) аттар сканерленеді
+ * - Аты өзгергенін save кезінде анықтайды (setOwnerName-ден кейін save шақырылады)
+ */
+public class OwnerNameIndex {
+    private static final int GRAM = 3;
+    private static final int NONE = Integer.MIN_VALUE; // IntList.removeAt: ешнәрсе жылжымады
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Аккаунтты индекстеу немесе атын жаңарту
+     * Аты өзгермесе (әдеттегі save) lock алынбайды
+     */
+    public void put(int id, String ownerName) {
+        Entry current = entries.get(id);
+        if (current != null && current.raw.equals(ownerName)) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            putLocked(id, ownerName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Бірнеше аккаунтты индекстеу - аты өзгергендері болса, write lock бір рет алынады
+     */
+    public void putAll(Collection<? extends Account> accounts) {
+        List<Account> changed = new ArrayList<>();
+        for (Account account : accounts) {
+            Entry current = entries.get(account.getId());
+            if (current == null || !current.raw.equals(account.getOwnerName())) {
+                changed.add(account);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Account account : changed) {
+                putLocked(account.getId(), account.getOwnerName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(int id, String ownerName) {
+        Entry previous = entries.get(id);
+        if (previous != null) {
+            if (previous.raw.equals(ownerName)) {
+                return;
+            }
+            removePostings(previous);
+        }
+        Entry entry = new Entry(ownerName, fold(ownerName));
+        addPostings(id, entry);
+        entries.put(id, entry);
+    }
+
+    /**
+     * Аккаунтты индекстен өшіру
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                removePostings(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Бірнеше аккаунтты индекстен өшіру (write lock бір рет)
+     */
+    public void removeAll(Collection<Integer> ids) {
+        lock.writeLock().lock();
+        try {
+            for (int id : ids) {
+                Entry previous = entries.remove(id);
+                if (previous != null) {
+                    removePostings(previous);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Атында query (регистрге тәуелсіз) кездесетін аккаунттар ID-лері (өсу ретімен)
+     */
+    public List<Integer> search(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        String needle = fold(query.trim());
+        List<Integer> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                // Trigram жоқ - дайын folded аттарды сканерлеу (toLowerCase қайталанбайды)
+                for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+                    if (e.getValue().folded.contains(needle)) {
+                        result.add(e.getKey());
+                    }
+                }
+            } else {
+                IntList candidates = smallestPosting(needle);
+                if (candidates == null) {
+                    return Collections.emptyList();
+                }
+                for (int i = 0; i < candidates.size; i++) {
+                    int id = candidates.values[i];
+                    Entry entry = entries.get(id);
+                    if (entry != null && entry.folded.contains(needle)) {
+                        result.add(id);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Сұраныстың ең сирек trigram-ының posting list-і
+     * @return қандай да бір trigram индексте жоқ болса null (нәтиже бос)
+     */
+    private IntList smallestPosting(String needle) {
+        IntList smallest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            IntList posting = postings.get(gram(needle, i));
+            if (posting == null || posting.size == 0) {
+                return null;
+            }
+            if (smallest == null || posting.size < smallest.size) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // ============ INTERNAL ============
+
+    private void addPostings(int id, Entry entry) {
+        for (int i = 0; i < entry.grams.length; i++) {
+            entry.slots[i] = postings.computeIfAbsent(entry.grams[i], k -> new IntList()).add(id);
+        }
+    }
+
+    /**
+     * Entry-дің ID-ін әр posting list-тен slot бойынша өшіру (swap-remove)
+     * Entry entries-тен алдын ала өшірілген болуы мүмкін; ауыстырылған ID-лер entries-те бар
+     */
+    private void removePostings(Entry entry) {
+        for (int i = 0; i < entry.grams.length; i++) {
+            long gram = entry.grams[i];
+            IntList posting = postings.get(gram);
+            int moved = posting.removeAt(entry.slots[i]);
+            if (moved != NONE) {
+                entries.get(moved).setSlot(gram, entry.slots[i]);
+            }
+            if (posting.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Қайталанбайтын trigram-дар, өсу ретімен (Entry.setSlot binary search жасайды)
+     */
+    private static long[] distinctGrams(String folded) {
+        int count = Math.max(0, folded.length() - GRAM + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = gram(folded, i);
+        }
+        Arrays.sort(grams);
+
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == count ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Үш char-ды бір long кілтке орау
+     */
+    private static long gram(String s, int start) {
+        return ((long) s.charAt(start) << 32)
+                | ((long) s.charAt(start + 1) << 16)
+                | s.charAt(start + 2);
+    }
+
+    /**
+     * Регистрді біріздендіру (locale-ға тәуелсіз, таңба бойынша)
+     */
+    static String fold(String s) {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static final class Entry {
+        private final String raw;
+        private final String folded;
+        private final long[] grams;  // Сұрыпталған, қайталанбайтын
+        private final int[] slots;   // slots[i] - grams[i] posting list-індегі орын (write lock астында)
+
+        private Entry(String raw, String folded) {
+            this.raw = raw;
+            this.folded = folded;
+            this.grams = distinctGrams(folded);
+            this.slots = new int[grams.length];
+        }
+
+        private void setSlot(long gram, int slot) {
+            slots[Arrays.binarySearch(grams, gram)] = slot;
+        }
+    }
+
+    /**
+     * Primitive int тізімі (boxing жоқ)
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        /**
+         * @return қосылған мәннің slot-ы
+         */
+        private int add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            return size++;
+        }
+
+        /**
+         * Slot-тағы мәнді соңғы мәнмен ауыстырып өшіру (ретін сақтау керек емес)
+         * @return slot-қа жылжытылған мән, жылжыту болмаса NONE
+         */
+        private int removeAt(int slot) {
+            int last = --size;
+            if (slot == last) {
+                return NONE;
+            }
+            values[slot] = values[last];
+            return values[slot];
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Соңғы N жазбаны сақтайтын тұрақты сыйымдылықты lock-free ring
+ * - add(): O(1), көп writer қатар жаза алады, ескі жазбалар үстінен жазылады
+ * - getLast(k): O(k), тек соңғы k ұяшық оқылады
+ * - Әр ұяшықтың sequence нөмірі seqlock ретінде қолданылады:
+ *   оқу кезінде үстінен жазылған ұяшық өткізіліп жіберіледі
+ */
+public class RecentLogRing<T> {
+    private static final long WRITING = -1;
+
+    private final AtomicReferenceArray<T> values;
+    private final AtomicLongArray sequences;
+    private final AtomicLong cursor = new AtomicLong();
+    private final int capacity;
+
+    public RecentLogRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.values = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, WRITING);
+        }
+    }
+
+    /**
+     * Жазба қосу (lock-free)
+     */
+    public void add(T value) {
+        long sequence = cursor.getAndIncrement();
+        int index = (int) (sequence % capacity);
+
+        sequences.set(index, WRITING); // Оқушылар жартылай жазылған ұяшықты көрмеуі үшін
+        values.set(index, value);
+        sequences.set(index, sequence);
+    }
+
+    /**
+     * Соңғы count жазба (ескісінен жаңасына)
+     */
+    public List<T> getLast(int count) {
+        long end = cursor.get();
+        int wanted = (int) Math.min(Math.max(count, 0), Math.min(end, capacity));
+        List<T> result = new ArrayList<>(wanted);
+
+        for (long sequence = end - wanted; sequence < end; sequence++) {
+            int index = (int) (sequence % capacity);
+            if (sequences.get(index) != sequence) {
+                continue; // Әлі жазылып жатыр немесе жаңа жазбамен ауыстырылды
+            }
+            T value = values.get(index);
+            if (sequences.get(index) == sequence) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Барлық сақталған жазбалар
+     */
+    public List<T> getAll() {
+        return getLast(capacity);
+    }
+
+    public int size() {
+        return (int) Math.min(cursor.get(), capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
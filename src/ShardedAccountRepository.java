@@ -0,0 +1,605 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ID бойынша бөлінген (sharded) Repository
+ * - Аккаунт floorMod(id, N) shard-та тұрады; әр shard - өз lock-ы мен файлы бар тәуелсіз repository
+ * - Бір аккаунттық операциялар (save, findById, delete) тікелей иесі shard-қа барады
+ * - Scan, іздеу және flush() барлық shard-тарға параллель таратылады
+ * - flush() тек соңғы flush-тан кейін өзгерген shard-тарды жазады
+ *
+ * Файлдағы shard-тар (dataDirectory конструкторы) екі фазалы flush-пен жазылады, сондықтан
+ * shard-аралық transfer-дің екі жағы бірге сақталады немесе ешқайсысы сақталмайды:
+ * 1) transfer lock exclusive алынып, өзгерген shard-тар snapshot-ын accounts.dat.tmp-ға жазып
+ *    fsync жасайды (негізгі файлдар өзгермейді);
+ * 2) flush.commit маркері (shard тізімі) atomic rename арқылы жазылады - бұл commit нүктесі;
+ * 3) әр .tmp негізгі файлдың орнына қойылып, маркер өшіріледі.
+ * Ашқанда маркер болса, тізімдегі .tmp-лар аяқталады (roll forward), болмаса .tmp-лар өшіріледі.
+ * Transfer екі аккаунтты өзгерту мен saveAll-ды transfer lock-тың shared жағы астында жасайды
+ * (getTransferLock), сондықтан 1-фазадағы барлық snapshot-тар бір transfer-ге қатысты бірдей
+ * күйде: ол не толық алдында (екі shard та dirty, екеуі де жазылады), не толық кейін.
+ * Lock ұстамай аккаунтты өзгертетін бір аккаунттық операциялар shard-аралық инвариантқа әсер етпейді.
+ *
+ * ID-лерді root-тың бір IdAllocator-ы бөледі (shard-тардың өз бөлушілері қолданылмайды),
+ * сондықтан ID-лер shard-тар арасында да, restart-тан кейін де қайталанбайды.
+ * Shard саны деректер жасалғаннан кейін өзгертілмеуі керек (ашылғанда тексеріледі).
+ */
+public class ShardedAccountRepository implements AccountRepository {
+    private static final String SHARD_DIR_FORMAT = "shard-%02d";
+    private static final String SHARD_FILE = "accounts.dat";
+    private static final String LEDGER_FILE = "ledger.log";
+    private static final String ID_FILE = "ids.hwm";
+    private static final String COMMIT_FILE = "flush.commit";
+
+    private final List<AccountRepository> shards;
+    private final AtomicBoolean[] dirty;
+    private final IdAllocator idAllocator;
+    private final ExecutorService flusher;
+    private final String dataDirectory; // null - shard-тар файлсыз (екі фазалы flush жоқ)
+    private final ReentrantReadWriteLock transferLock = new ReentrantReadWriteLock();
+
+    /**
+     * dataDirectory/shard-00 .. shard-(N-1) ішінде FileAccountRepository shard-тар
+     * Ledger journal біреу - dataDirectory/ledger.log
+     */
+    public ShardedAccountRepository(String dataDirectory, int shardCount) {
+        this(createFileShards(dataDirectory, shardCount), new IdAllocator(Paths.get(dataDirectory, ID_FILE)),
+                dataDirectory);
+        TransactionLedger.getInstance().attachJournal(Paths.get(dataDirectory, LEDGER_FILE));
+    }
+
+    /**
+     * Дайын repository-лерден (мысалы, InMemoryAccountRepository) shard-тар құру
+     */
+    public ShardedAccountRepository(List<? extends AccountRepository> shards) {
+        this(shards, new IdAllocator());
+    }
+
+    /**
+     * @param idAllocator барлық shard-тарға ортақ ID бөлуші
+     */
+    public ShardedAccountRepository(List<? extends AccountRepository> shards, IdAllocator idAllocator) {
+        this(shards, idAllocator, null);
+    }
+
+    private ShardedAccountRepository(List<? extends AccountRepository> shards, IdAllocator idAllocator,
+                                     String dataDirectory) {
+        if (shards == null || shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (idAllocator == null) {
+            throw new IllegalArgumentException("ID allocator cannot be null");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.dirty = new AtomicBoolean[shards.size()];
+        for (int i = 0; i < dirty.length; i++) {
+            dirty[i] = new AtomicBoolean();
+        }
+        this.idAllocator = idAllocator;
+        this.dataDirectory = dataDirectory;
+        this.flusher = Executors.newFixedThreadPool(shards.size(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        validatePlacement();
+    }
+
+    private static List<AccountRepository> createFileShards(String dataDirectory, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        recoverCommit(dataDirectory, shardCount);
+        List<AccountRepository> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new FileAccountRepository(shardDirectory(dataDirectory, i), SHARD_FILE, false));
+        }
+        return shards;
+    }
+
+    /**
+     * Алдыңғы flush-тың аяқталмаған екі фазалы commit-ін аяқтау (shard-тар ашылмас бұрын)
+     * Маркер бар - тізімдегі .tmp-лар негізгі файлдың орнына; маркер жоқ - 1-фазаның .tmp-лары өшіріледі
+     */
+    private static void recoverCommit(String dataDirectory, int shardCount) {
+        Path marker = Paths.get(dataDirectory, COMMIT_FILE);
+        try {
+            List<Integer> committed = readCommitMarker(marker);
+            for (int i = 0; i < shardCount; i++) {
+                FileAccountRepository.recoverPrepared(shardDirectory(dataDirectory, i), SHARD_FILE,
+                        committed.contains(i));
+            }
+            Files.deleteIfExists(marker);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover shard flush in " + dataDirectory, e);
+        }
+    }
+
+    private static List<Integer> readCommitMarker(Path marker) throws IOException {
+        List<Integer> shards = new ArrayList<>();
+        if (Files.exists(marker)) {
+            for (String line : Files.readAllLines(marker, StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty()) {
+                    shards.add(Integer.parseInt(line.trim()));
+                }
+            }
+        }
+        return shards;
+    }
+
+    private static String shardDirectory(String dataDirectory, int shard) {
+        return Paths.get(dataDirectory, String.format(SHARD_DIR_FORMAT, shard)).toString();
+    }
+
+    /**
+     * Әр аккаунт өз shard-ында тұрғанын тексеру және ID бөлушіні ең үлкен ID-ден әрі жылжыту
+     */
+    private void validatePlacement() {
+        int highest = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            AccountRepository shard = shards.get(i);
+            for (AccountWithHistory account : (Iterable<AccountWithHistory>) shard.stream()::iterator) {
+                if (shardIndex(account.getId()) != i) {
+                    throw new IllegalStateException("Account " + account.getId() + " found in shard " + i
+                            + " but belongs to shard " + shardIndex(account.getId())
+                            + " (was the shard count changed?)");
+                }
+                highest = Math.max(highest, account.getId());
+            }
+        }
+        idAllocator.observe(highest);
+    }
+
+    private int shardIndex(int id) {
+        return Math.floorMod(id, shards.size());
+    }
+
+    private AccountRepository shardFor(int id) {
+        return shards.get(shardIndex(id));
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    // ============ SINGLE ACCOUNT ============
+
+    @Override
+    public AccountWithHistory save(AccountWithHistory account) {
+        if (account == null) {
+            throw new IllegalArgumentException("Account cannot be null");
+        }
+        int index = shardIndex(account.getId());
+        shards.get(index).save(account);
+        dirty[index].set(true);
+        idAllocator.observe(account.getId());
+        return account;
+    }
+
+    /**
+     * Shard бойынша топтап, әр shard-тың saveAll-ы бір рет шақырылады
+     */
+    @Override
+    public List<AccountWithHistory> saveAll(Collection<AccountWithHistory> accounts) {
+        if (accounts == null || accounts.contains(null)) {
+            throw new IllegalArgumentException("Accounts cannot be null");
+        }
+        List<List<AccountWithHistory>> groups = groupByShard(accounts, AccountWithHistory::getId);
+        for (int i = 0; i < groups.size(); i++) {
+            if (!groups.get(i).isEmpty()) {
+                shards.get(i).saveAll(groups.get(i));
+                dirty[i].set(true);
+            }
+        }
+        int highest = 0;
+        for (AccountWithHistory account : accounts) {
+            highest = Math.max(highest, account.getId());
+        }
+        idAllocator.observe(highest);
+        return new ArrayList<>(accounts);
+    }
+
+    @Override
+    public Optional<AccountWithHistory> findById(int id) {
+        return shardFor(id).findById(id);
+    }
+
+    @Override
+    public List<AccountWithHistory> findAllById(Collection<Integer> ids) {
+        List<List<Integer>> groups = groupByShard(ids, id -> id);
+        Map<Integer, AccountWithHistory> found = new HashMap<>(ids.size() * 4 / 3 + 1);
+        for (int i = 0; i < groups.size(); i++) {
+            if (!groups.get(i).isEmpty()) {
+                for (AccountWithHistory account : shards.get(i).findAllById(groups.get(i))) {
+                    found.put(account.getId(), account);
+                }
+            }
+        }
+
+        List<AccountWithHistory> result = new ArrayList<>(found.size());
+        for (int id : ids) {
+            AccountWithHistory account = found.get(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean deleteById(int id) {
+        int index = shardIndex(id);
+        if (!shards.get(index).deleteById(id)) {
+            return false;
+        }
+        dirty[index].set(true);
+        return true;
+    }
+
+    @Override
+    public List<Integer> deleteAllById(Collection<Integer> ids) {
+        List<List<Integer>> groups = groupByShard(ids, id -> id);
+        List<Integer> deleted = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            if (!groups.get(i).isEmpty()) {
+                List<Integer> shardDeleted = shards.get(i).deleteAllById(groups.get(i));
+                if (!shardDeleted.isEmpty()) {
+                    dirty[i].set(true);
+                    deleted.addAll(shardDeleted);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean existsById(int id) {
+        return shardFor(id).existsById(id);
+    }
+
+    @Override
+    public int getNextId() {
+        return idAllocator.next();
+    }
+
+    @Override
+    public int allocateIds(int count) {
+        return idAllocator.allocate(count);
+    }
+
+    // ============ FAN-OUT ============
+
+    @Override
+    public List<AccountWithHistory> findAll() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Shard-тар бойынша бөлінеді: parallel() әр shard-ты бөлек thread-те аралайды
+     */
+    @Override
+    public Stream<AccountWithHistory> stream() {
+        return shards.stream().flatMap(AccountRepository::stream);
+    }
+
+    /**
+     * Әр shard өз реттелген ID жиынынан afterId-ден кейінгі limit аккаунтты береді,
+     * біріктіріп ID бойынша кесеміз: құны O(shard саны × limit), бос ID аралықтарына тәуелсіз
+     */
+    @Override
+    public List<AccountWithHistory> findPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return mergePage(shard -> shard.findPage(afterId, limit),
+                Comparator.comparingInt(AccountWithHistory::getId), 0, limit);
+    }
+
+    @Override
+    public List<AccountWithHistory> findByOwnerName(String ownerName) {
+        if (ownerName == null || ownerName.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<AccountWithHistory> matches = fanOut(shard -> shard.findByOwnerName(ownerName));
+        matches.sort(Comparator.comparingInt(AccountWithHistory::getId));
+        return matches;
+    }
+
+    @Override
+    public List<AccountWithHistory> findByBalanceGreaterThan(double minBalance) {
+        List<AccountWithHistory> matches = fanOut(shard -> shard.findByBalanceGreaterThan(minBalance));
+        matches.sort(byBalance(false));
+        return matches;
+    }
+
+    @Override
+    public List<AccountWithHistory> findByBalanceBetween(double minBalance, double maxBalance,
+                                                         int offset, int limit) {
+        int perShard = pageDepth(offset, limit);
+        return mergePage(shard -> shard.findByBalanceBetween(minBalance, maxBalance, 0, perShard),
+                byBalance(false), offset, limit);
+    }
+
+    @Override
+    public List<AccountWithHistory> findTopByBalance(int offset, int limit) {
+        int perShard = pageDepth(offset, limit);
+        return mergePage(shard -> shard.findTopByBalance(0, perShard), byBalance(true), offset, limit);
+    }
+
+    @Override
+    public List<AccountWithHistory> findBottomByBalance(int offset, int limit) {
+        int perShard = pageDepth(offset, limit);
+        return mergePage(shard -> shard.findBottomByBalance(0, perShard), byBalance(false), offset, limit);
+    }
+
+    @Override
+    public int count() {
+        int total = 0;
+        for (AccountRepository shard : shards) {
+            total += shard.count();
+        }
+        return total;
+    }
+
+    /**
+     * Shard санағыштарының қосындысы (әр шақыруда жаңа snapshot)
+     */
+    @Override
+    public BankCounters getCounters() {
+        List<BankCounters> parts = new ArrayList<>(shards.size());
+        for (AccountRepository shard : shards) {
+            parts.add(shard.getCounters());
+        }
+        return BankCounters.sum(parts);
+    }
+
+    /**
+     * Өзгерген shard-тарды параллель жазу (ledger journal бір рет, бірінші болып жазылады)
+     */
+    /**
+     * Shard-аралық transfer-лер shared жағын, файлдағы flush-тың 1-фазасы exclusive жағын алады
+     */
+    @Override
+    public Lock getTransferLock() {
+        return transferLock.readLock();
+    }
+
+    @Override
+    public void flush() {
+        long covered = TransactionLedger.getInstance().flush();
+        idAllocator.checkpoint(); // Restart нақты келесі ID-ден жалғасады
+
+        if (dataDirectory != null) {
+            flushAtomically();
+            TransactionLedger.getInstance().markPersisted(covered); // Journal басын кесуге болады
+            return;
+        }
+
+        List<Integer> pending = takeDirtyShards();
+        try {
+            onShards(pending, "flush", AccountRepository::flush);
+        } catch (RuntimeException e) {
+            redirty(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Екі фазалы flush (класс құжатын қараңыз); flusher-лер бір уақытта бір рет қана жұмыс істейді
+     * Dirty shard-тар тізімі де transfer lock астында алынады: lock-қа дейін аяқталған transfer-дің
+     * екі shard-ы да тізімде болады
+     */
+    private synchronized void flushAtomically() {
+        Path marker = Paths.get(dataDirectory, COMMIT_FILE);
+        List<Integer> pending = Collections.emptyList();
+        try {
+            finishCommit(marker); // Алдыңғы flush 2-фазада құлаған болса
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to commit shard flush", e);
+        }
+
+        transferLock.writeLock().lock();
+        try {
+            pending = takeDirtyShards();
+            if (pending.isEmpty()) {
+                return;
+            }
+            onShards(pending, "prepare", ShardedAccountRepository::prepare);
+        } catch (RuntimeException e) {
+            for (int i : pending) {
+                try {
+                    ((FileAccountRepository) shards.get(i)).abortFlush();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            redirty(pending);
+            throw e;
+        } finally {
+            transferLock.writeLock().unlock();
+        }
+
+        try {
+            writeCommitMarker(marker, pending);
+            finishCommit(marker);
+        } catch (IOException e) {
+            redirty(pending); // Келесі flush қайта жазады
+            throw new UncheckedIOException("Failed to commit shard flush", e);
+        } catch (RuntimeException e) {
+            redirty(pending);
+            throw e;
+        }
+    }
+
+    private List<Integer> takeDirtyShards() {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (dirty[i].compareAndSet(true, false)) {
+                pending.add(i);
+            }
+        }
+        return pending;
+    }
+
+    private void redirty(List<Integer> pending) {
+        for (int i : pending) {
+            dirty[i].set(true);
+        }
+    }
+
+    private static void prepare(AccountRepository shard) {
+        try {
+            ((FileAccountRepository) shard).prepareFlush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Маркердегі shard-тардың .tmp-ларын орнына қойып, маркерді өшіру (маркер жоқ болса - ештеңе)
+     */
+    private void finishCommit(Path marker) throws IOException {
+        List<Integer> committed = readCommitMarker(marker);
+        if (committed.isEmpty()) {
+            Files.deleteIfExists(marker);
+            return;
+        }
+        onShards(committed, "commit", shard -> {
+            try {
+                ((FileAccountRepository) shard).commitFlush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Files.delete(marker);
+    }
+
+    /**
+     * Маркер .tmp арқылы жазылып fsync болады, содан кейін atomic rename (commit нүктесі)
+     */
+    private static void writeCommitMarker(Path marker, List<Integer> shards) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int shard : shards) {
+            content.append(shard).append('\n');
+        }
+        Path temp = marker.resolveSibling(COMMIT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(temp, marker, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Әрекетті берілген shard-тарда flusher pool-да параллель орындау
+     * @throws IllegalStateException бірінші сәтсіздік (қалғандары да аяқталғанша күтіледі)
+     */
+    private void onShards(List<Integer> indices, String action, Consumer<AccountRepository> task) {
+        List<Future<?>> futures = new ArrayList<>(indices.size());
+        for (int i : indices) {
+            AccountRepository shard = shards.get(i);
+            futures.add(flusher.submit(() -> task.accept(shard)));
+        }
+
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = new IllegalStateException("Interrupted while flushing shards", e);
+            } catch (ExecutionException e) {
+                failure = new IllegalStateException("Failed to " + action + " shard " + indices.get(i), e.getCause());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // ============ HELPERS ============
+
+    private <T> List<List<T>> groupByShard(Collection<T> items, ToIntFunction<T> id) {
+        List<List<T>> groups = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            groups.get(shardIndex(id.applyAsInt(item))).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Сұранысты барлық shard-та параллель орындап, нәтижелерді біріктіру
+     */
+    private List<AccountWithHistory> fanOut(Function<AccountRepository, List<AccountWithHistory>> query) {
+        return shards.parallelStream()
+                .map(query)
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Әр shard-тан ең жақсы offset + limit жазбаны алып, біріктіріп, бетті кесу
+     */
+    private List<AccountWithHistory> mergePage(Function<AccountRepository, List<AccountWithHistory>> query,
+                                               Comparator<AccountWithHistory> order, int offset, int limit) {
+        List<AccountWithHistory> merged = fanOut(query);
+        merged.sort(order);
+        if (offset >= merged.size()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(merged.subList(offset, (int) Math.min(merged.size(), (long) offset + limit)));
+    }
+
+    private static int pageDepth(int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Offset must be non-negative and limit positive");
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+    }
+
+    private static Comparator<AccountWithHistory> byBalance(boolean descending) {
+        // BalanceIndex-пен бірдей: (balance, id) өсу ретімен немесе толық кері
+        Comparator<AccountWithHistory> order = Comparator.comparingDouble(AccountWithHistory::getBalance)
+                .thenComparingInt(AccountWithHistory::getId);
+        return descending ? order.reversed() : order;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ShardedAccountRepository[shards=%d, accounts=%d, nextId=%d]",
+                shards.size(), count(), idAllocator.peekNext());
+    }
+}
@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Барлық аккаунттарға айлық statement жасау
+ * - Аккаунттар findPage арқылы беттеп оқылады (findAll көшірмесі жоқ),
+ *   әр бет fork/join pool арқылы параллель өңделеді
+ * - Әр worker thread өз буферлерін қайта пайдаланады
+ * - Әр statement бірден файлға жазылады (барлығы memory-да сақталмайды)
+ * - Прогресс пен throughput есебі
+ */
+public class StatementGenerator {
+    private static final int FILES_PER_DIRECTORY = 1000;
+    private static final int PAGE_SIZE = 4096; // findPage бір беті
+
+    private final AccountRepository repository;
+    private final Path outputDirectory;
+
+    // Worker thread-қа арналған буферлер
+    private final ThreadLocal<RenderBuffer> buffers = ThreadLocal.withInitial(RenderBuffer::new);
+
+    public StatementGenerator(AccountRepository repository, Path outputDirectory) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        this.repository = repository;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Берілген айға statement-тер жасау
+     * @param period ай
+     * @param parallelism worker саны
+     * @param progressListener әр секунд сайын шақырылады (null болуы мүмкін)
+     * @return қорытынды есеп
+     */
+    public Report generate(YearMonth period, int parallelism, Consumer<Report> progressListener) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        Path periodDirectory = outputDirectory.resolve(period.toString());
+        Progress progress = new Progress(repository.count());
+
+        ScheduledExecutorService reporter = null;
+        if (progressListener != null) {
+            reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "statement-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(() -> progressListener.accept(progress.snapshot()),
+                    1, 1, TimeUnit.SECONDS);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int afterId = 0;
+            while (true) {
+                List<AccountWithHistory> page = repository.findPage(afterId, PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                pool.submit(() -> page.parallelStream()
+                        .forEach(account -> writeStatement(account, period, periodDirectory, progress)))
+                        .get();
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Statement generation failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            pool.shutdown();
+            if (reporter != null) {
+                reporter.shutdownNow();
+            }
+        }
+
+        return progress.snapshot();
+    }
+
+    /**
+     * Бір аккаунттың statement-ін жасап, файлға жазу
+     */
+    private void writeStatement(AccountWithHistory account, YearMonth period,
+                                Path periodDirectory, Progress progress) {
+        RenderBuffer buffer = buffers.get();
+        int transactionCount = render(account, period, buffer.text);
+
+        Path directory = periodDirectory.resolve(Integer.toString(account.getId() / FILES_PER_DIRECTORY));
+        Path file = directory.resolve("account_" + account.getId() + ".txt");
+        try {
+            Files.createDirectories(directory);
+            long bytes = buffer.writeTo(file);
+            progress.record(transactionCount, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write statement: " + file, e);
+        }
+    }
+
+    /**
+     * Statement мәтінін буферге жазу
+     * @return кезеңдегі транзакциялар саны
+     */
+    private int render(AccountWithHistory account, YearMonth period, StringBuilder sb) {
+        LocalDateTime start = period.atDay(1).atStartOfDay();
+        LocalDateTime end = period.plusMonths(1).atDay(1).atStartOfDay();
+
+        sb.setLength(0);
+        sb.append("STATEMENT ").append(period).append('\n');
+        sb.append("Account #").append(account.getId())
+                .append(" (").append(account.getOwnerName()).append(")\n");
+        sb.append("Period: ");
+        TextFormat.appendDate(sb, start).append(" - ");
+        TextFormat.appendDate(sb, end.minusDays(1)).append('\n');
+        sb.append("------------------------------------------------\n");
+
+        // Account lock астында бір рет аралап, кезеңдегі жолдарды және сальдоны есептейміз
+        double[] netAfterEnd = new double[1];
+        double[] netInPeriod = new double[1];
+        int[] count = new int[1];
+        double balance;
+        synchronized (account) {
+            balance = account.getBalance();
+            account.forEachTransaction(tx -> {
+                LocalDateTime time = tx.getTimestamp();
+                if (time.isBefore(start)) {
+                    return;
+                }
+                if (time.isBefore(end)) {
+                    netInPeriod[0] += tx.getSignedAmount();
+                    tx.appendTo(sb.append("  ")).append('\n');
+                    count[0]++;
+                } else {
+                    netAfterEnd[0] += tx.getSignedAmount();
+                }
+            });
+        }
+
+        if (count[0] == 0) {
+            sb.append("  No transactions in this period\n");
+        }
+
+        double closing = balance - netAfterEnd[0];
+        double opening = closing - netInPeriod[0];
+        sb.append("------------------------------------------------\n");
+        sb.append("Opening balance: ");
+        TextFormat.appendAmount(sb, opening).append(" KZT\n");
+        sb.append("Closing balance: ");
+        TextFormat.appendAmount(sb, closing).append(" KZT\n");
+        return count[0];
+    }
+
+    /**
+     * Worker thread-тың қайта пайдаланылатын буферлері
+     */
+    private static final class RenderBuffer {
+        private final StringBuilder text = new StringBuilder(4096);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final ByteBuffer bytes = ByteBuffer.allocate(16 * 1024);
+
+        long writeTo(Path file) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                boolean done = false;
+                while (!done) {
+                    CoderResult result = encoder.encode(chars, bytes, true);
+                    if (!result.isOverflow()) {
+                        encoder.flush(bytes);
+                        done = true;
+                    }
+                    bytes.flip();
+                    while (bytes.hasRemaining()) {
+                        written += channel.write(bytes);
+                    }
+                    bytes.clear();
+                }
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Прогресті thread-safe түрде санау
+     */
+    private static final class Progress {
+        private final long totalAccounts;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong accounts = new AtomicLong();
+        private final AtomicLong transactions = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+
+        Progress(long totalAccounts) {
+            this.totalAccounts = totalAccounts;
+        }
+
+        void record(int transactionCount, long byteCount) {
+            accounts.incrementAndGet();
+            transactions.addAndGet(transactionCount);
+            bytes.addAndGet(byteCount);
+        }
+
+        Report snapshot() {
+            return new Report(accounts.get(), totalAccounts, transactions.get(), bytes.get(),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    /**
+     * Statement жасау есебі
+     */
+    public static final class Report {
+        private final long accountsProcessed;
+        private final long totalAccounts;
+        private final long transactions;
+        private final long bytesWritten;
+        private final long elapsedMillis;
+
+        Report(long accountsProcessed, long totalAccounts, long transactions,
+               long bytesWritten, long elapsedMillis) {
+            this.accountsProcessed = accountsProcessed;
+            this.totalAccounts = totalAccounts;
+            this.transactions = transactions;
+            this.bytesWritten = bytesWritten;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getAccountsPerSecond() {
+            return elapsedMillis == 0 ? accountsProcessed : accountsProcessed * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Statements: %d/%d accounts, %d transactions, %.1f MB in %.1fs (%.0f accounts/s)",
+                    accountsProcessed, totalAccounts, transactions, bytesWritten / (1024.0 * 1024.0),
+                    elapsedMillis / 1000.0, getAccountsPerSecond());
+        }
+
+        // Getters
+        public long getAccountsProcessed() { return accountsProcessed; }
+        public long getTotalAccounts() { return totalAccounts; }
+        public long getTransactions() { return transactions; }
+        public long getBytesWritten() { return bytesWritten; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+}
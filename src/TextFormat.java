@@ -0,0 +1,93 @@
+import java.time.LocalDateTime;
+
+/**
+ * Жылдам мәтін форматтау утилиталары
+ * - String.format / DateTimeFormatter орнына StringBuilder-ге тікелей жазу
+ * - Жолға (row) арналған қосымша объект жасамайды
+ * - Locale-ға тәуелсіз (ондық бөлгіш әрқашан нүкте)
+ */
+public final class TextFormat {
+
+    private TextFormat() {
+    }
+
+    /**
+     * Соманы 2 ондық таңбамен жазу (%.2f сияқты, HALF_UP)
+     */
+    public static StringBuilder appendAmount(StringBuilder sb, double amount) {
+        long cents = Math.round(amount * 100);
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        sb.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+
+    /**
+     * "yyyy-MM-dd HH:mm:ss" форматы
+     */
+    public static StringBuilder appendDateTime(StringBuilder sb, LocalDateTime time) {
+        appendDate(sb, time);
+        sb.append(' ');
+        return appendTime(sb, time);
+    }
+
+    /**
+     * ISO_LOCAL_DATE_TIME форматы (наносекунд соңындағы нөлдерсіз)
+     */
+    public static StringBuilder appendIsoDateTime(StringBuilder sb, LocalDateTime time) {
+        appendDate(sb, time);
+        sb.append('T');
+        appendTime(sb, time);
+
+        int nano = time.getNano();
+        if (nano != 0) {
+            sb.append('.');
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            appendPadded(sb, nano, digits);
+        }
+        return sb;
+    }
+
+    /**
+     * "yyyy-MM-dd" форматы
+     */
+    public static StringBuilder appendDate(StringBuilder sb, LocalDateTime time) {
+        appendPadded(sb, time.getYear(), 4);
+        sb.append('-');
+        appendPadded(sb, time.getMonthValue(), 2);
+        sb.append('-');
+        return appendPadded(sb, time.getDayOfMonth(), 2);
+    }
+
+    private static StringBuilder appendTime(StringBuilder sb, LocalDateTime time) {
+        appendPadded(sb, time.getHour(), 2);
+        sb.append(':');
+        appendPadded(sb, time.getMinute(), 2);
+        sb.append(':');
+        return appendPadded(sb, time.getSecond(), 2);
+    }
+
+    /**
+     * Санды алдыңғы нөлдермен width ұзындыққа дейін толтыру
+     */
+    public static StringBuilder appendPadded(StringBuilder sb, int value, int width) {
+        int limit = 1;
+        for (int i = 1; i < width; i++) {
+            limit *= 10;
+            if (value < limit) {
+                sb.append('0');
+            }
+        }
+        return sb.append(value);
+    }
+}
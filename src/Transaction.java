@@ -12,15 +12,13 @@ import java.time.format.DateTimeFormatter;
 public class Transaction implements Serializable {
     private static final long serialVersionUID = 2L;
 
-    private static final DateTimeFormatter FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     private final TransactionType type;
     private final double amount;
     private final LocalDateTime timestamp;
     private final int fromAccountId;
     private final int toAccountId;
     private final String description;
+    private long sequenceId; // Ledger береді (0 = әлі берілмеген)
 
     /**
      * Негізгі конструктор
@@ -34,11 +32,19 @@ public class Transaction implements Serializable {
      */
     public Transaction(TransactionType type, double amount, int fromAccountId,
                        int toAccountId, String description) {
+        this(type, amount, fromAccountId, toAccountId, description, LocalDateTime.now());
+    }
+
+    /**
+     * Уақыты белгілі транзакция (journal/CSV-тен қалпына келтіру үшін)
+     */
+    Transaction(TransactionType type, double amount, int fromAccountId,
+                int toAccountId, String description, LocalDateTime timestamp) {
         this.type = type;
         this.amount = amount;
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
         this.description = description;
     }
 
@@ -68,6 +74,23 @@ public class Transaction implements Serializable {
         return description;
     }
 
+    /**
+     * Ledger-дегі глобалды реттік нөмір
+     */
+    public long getSequenceId() {
+        return sequenceId;
+    }
+
+    /**
+     * Sequence ID-ді тек бір рет беруге болады (TransactionLedger үшін)
+     */
+    void assignSequenceId(long sequenceId) {
+        if (this.sequenceId != 0) {
+            throw new IllegalStateException("Sequence ID already assigned: " + this.sequenceId);
+        }
+        this.sequenceId = sequenceId;
+    }
+
     // ============ UTILITY METHODS ============
 
     /**
@@ -78,6 +101,22 @@ public class Transaction implements Serializable {
                 type == TransactionType.TRANSFER_OUT;
     }
 
+    /**
+     * Балансқа әсері: кіріс оң, шығыс теріс, қалғаны 0
+     */
+    public double getSignedAmount() {
+        switch (type) {
+            case DEPOSIT:
+            case TRANSFER_IN:
+                return amount;
+            case WITHDRAW:
+            case TRANSFER_OUT:
+                return -amount;
+            default:
+                return 0;
+        }
+    }
+
     /**
      * Қысқаша ақпарат
      */
@@ -90,12 +129,20 @@ public class Transaction implements Serializable {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[").append(timestamp.format(FORMATTER)).append("] ");
+        return appendTo(new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Толық ақпаратты бар буферге жазу (statement сияқты көп жолды шығыс үшін)
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        sb.append('[');
+        TextFormat.appendDateTime(sb, timestamp).append("] ");
         sb.append(type.getDisplayName());
 
         if (amount > 0) {
-            sb.append(String.format(" %.2f KZT", amount));
+            sb.append(' ');
+            TextFormat.appendAmount(sb, amount).append(" KZT");
         }
 
         // Transfer болса, аккаунт ID-лерін көрсету
@@ -111,7 +158,7 @@ public class Transaction implements Serializable {
             sb.append(" (").append(description).append(")");
         }
 
-        return sb.toString();
+        return sb;
     }
 
     /**
@@ -143,13 +190,67 @@ public class Transaction implements Serializable {
      * CSV форматында
      */
     public String toCsv() {
-        return String.format("%s,%s,%.2f,%d,%d,%s",
-                timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME),
-                type.name(),
-                amount,
-                fromAccountId,
-                toAccountId,
-                description != null ? description.replace(",", ";") : ""
+        return appendCsv(new StringBuilder(96)).toString();
+    }
+
+    /**
+     * CSV жолын бар буферге жазу (экспорт үшін - жолға объект жасалмайды)
+     * Description-да ',' немесе '"' болса, RFC 4180 бойынша тырнақшаға алынады;
+     * жол үзілімдері бос орынға ауыстырылады (journal және CSV бір жол = бір транзакция)
+     */
+    public StringBuilder appendCsv(StringBuilder sb) {
+        TextFormat.appendIsoDateTime(sb, timestamp).append(',');
+        sb.append(type.name()).append(',');
+        TextFormat.appendAmount(sb, amount).append(',');
+        sb.append(fromAccountId).append(',');
+        sb.append(toAccountId).append(',');
+        if (description != null) {
+            boolean quoted = description.indexOf(',') >= 0 || description.indexOf('"') >= 0;
+            if (quoted) {
+                sb.append('"');
+            }
+            for (int i = 0; i < description.length(); i++) {
+                char c = description.charAt(i);
+                if (c == '"') {
+                    sb.append("\"\"");
+                } else {
+                    sb.append(c == '\n' || c == '\r' ? ' ' : c);
+                }
+            }
+            if (quoted) {
+                sb.append('"');
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * CSV жолынан транзакцияны оқу (toCsv() форматы)
+     */
+    public static Transaction fromCsv(String line) {
+        String[] parts = line.split(",", 6);
+        if (parts.length < 5) {
+            throw new IllegalArgumentException("Invalid transaction CSV: " + line);
+        }
+
+        String description = parts.length == 6 && !parts[5].isEmpty() ? unquote(parts[5]) : null;
+        return new Transaction(
+                TransactionType.valueOf(parts[1].trim()),
+                Double.parseDouble(parts[2].trim()),
+                Integer.parseInt(parts[3].trim()),
+                Integer.parseInt(parts[4].trim()),
+                description,
+                LocalDateTime.parse(parts[0].trim(), DateTimeFormatter.ISO_LOCAL_DATE_TIME)
         );
     }
+
+    /**
+     * Тырнақшадағы CSV өрісін ашу ("" -> ") - тырнақшасыз ескі жолдар өзгеріссіз
+     */
+    private static String unquote(String field) {
+        if (field.length() < 2 || field.charAt(0) != '"' || field.charAt(field.length() - 1) != '"') {
+            return field;
+        }
+        return field.substring(1, field.length() - 1).replace("\"\"", "\"");
+    }
 }
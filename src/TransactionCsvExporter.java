@@ -0,0 +1,244 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Барлық транзакцияларды CSV-ге экспорттау
+ * - Әр shard өз файлына параллель жазады (id % shards)
+ * - Аккаунттар findPage арқылы беттеп оқылып, shard-тарға таратылады (findAll көшірмесі жоқ);
+ *   әр shard тек өз аккаунттарын алады
+ * - Транзакциялар аккаунт lock-ы астында шағын топпен көшіріледі, дискке lock-сыз жазылады
+ * - Жолдар қайта пайдаланылатын char буфер арқылы жазылады
+ * - Сандар мен уақыт TextFormat арқылы (жолға объект жасалмайды)
+ * - Қаласаңыз gzip
+ */
+public class TransactionCsvExporter {
+    public static final String HEADER = "timestamp,type,amount,from_account,to_account,description";
+
+    private static final int CHUNK_SIZE = 64 * 1024; // Writer-ге бір рет беретін символ саны
+    private static final int PAGE_SIZE = 4096; // findPage бір беті
+    private static final int COPY_BATCH = 256; // Аккаунт lock-ы астында бір рет көшірілетін транзакциялар
+    private static final int QUEUE_PAGES = 4; // Әр shard-тың кезегіндегі беттер (memory шегі)
+    private static final List<AccountWithHistory> END = new ArrayList<>();
+
+    private final AccountRepository repository;
+
+    public TransactionCsvExporter(AccountRepository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        this.repository = repository;
+    }
+
+    /**
+     * Экспорт жасау
+     * @param outputDirectory файлдар жазылатын папка
+     * @param shards файлдар саны (параллель жазушылар)
+     * @param gzip .csv.gz форматында жазу
+     * @return экспорт есебі
+     */
+    public Report export(Path outputDirectory, int shards, boolean gzip) throws IOException {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        Files.createDirectories(outputDirectory);
+
+        long startNanos = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(shards);
+        List<BlockingQueue<List<AccountWithHistory>>> queues = new ArrayList<>(shards);
+        List<Future<long[]>> results = new ArrayList<>(shards);
+        List<Path> files = new ArrayList<>(shards);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                Path file = outputDirectory.resolve(fileName(shard, shards, gzip));
+                files.add(file);
+                BlockingQueue<List<AccountWithHistory>> queue = new ArrayBlockingQueue<>(QUEUE_PAGES);
+                queues.add(queue);
+                results.add(executor.submit(() -> writeShard(queue, file, gzip)));
+            }
+
+            distribute(queues, results);
+
+            long rows = 0;
+            long accountCount = 0;
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                accountCount += counts[0];
+                rows += counts[1];
+            }
+
+            long bytes = 0;
+            for (Path file : files) {
+                bytes += Files.size(file);
+            }
+            return new Report(files, accountCount, rows, bytes, (System.nanoTime() - startNanos) / 1_000_000);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Export failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Аккаунттарды беттеп оқып, әр бетті shard-тар бойынша бөліп кезектерге салу
+     * Shard қатемен тоқтаса, оның кезегін күтпеу үшін result тексеріледі
+     */
+    private void distribute(List<BlockingQueue<List<AccountWithHistory>>> queues,
+                            List<Future<long[]>> results) throws InterruptedException, ExecutionException {
+        int shards = queues.size();
+        int afterId = 0;
+        while (true) {
+            List<AccountWithHistory> page = repository.findPage(afterId, PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            List<List<AccountWithHistory>> parts = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                parts.add(new ArrayList<>(page.size() / shards + 1));
+            }
+            for (AccountWithHistory account : page) {
+                parts.get(Math.floorMod(account.getId(), shards)).add(account);
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                if (!parts.get(shard).isEmpty()) {
+                    offer(queues.get(shard), parts.get(shard), results.get(shard));
+                }
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        for (int shard = 0; shard < shards; shard++) {
+            offer(queues.get(shard), END, results.get(shard));
+        }
+    }
+
+    private static void offer(BlockingQueue<List<AccountWithHistory>> queue, List<AccountWithHistory> part,
+                              Future<long[]> result) throws InterruptedException, ExecutionException {
+        while (!queue.offer(part, 100, TimeUnit.MILLISECONDS)) {
+            if (result.isDone()) {
+                result.get(); // Shard-тың exception-ын лақтырады
+                return;
+            }
+        }
+    }
+
+    /**
+     * Бір shard-ты жазу
+     * @return {аккаунттар, жолдар}
+     */
+    private long[] writeShard(BlockingQueue<List<AccountWithHistory>> queue,
+                              Path file, boolean gzip) throws IOException, InterruptedException {
+        StringBuilder buffer = new StringBuilder(CHUNK_SIZE + 512);
+        char[] chunk = new char[CHUNK_SIZE + 512];
+        List<Transaction> batch = new ArrayList<>(COPY_BATCH);
+        long[] counts = new long[2];
+
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), CHUNK_SIZE);
+        if (gzip) {
+            out = new GZIPOutputStream(out, CHUNK_SIZE);
+        }
+
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            buffer.append(HEADER).append('\n');
+
+            List<AccountWithHistory> part;
+            while ((part = queue.take()) != END) {
+                for (AccountWithHistory account : part) {
+                    counts[0]++;
+                    long position = 0;
+                    while (true) {
+                        // Lock астында тек көшіру; Writer-ге жазу lock-сыз (deposit күтпейді)
+                        batch.clear();
+                        position = account.copyTransactions(position, COPY_BATCH, batch);
+                        if (batch.isEmpty()) {
+                            break;
+                        }
+                        for (Transaction tx : batch) {
+                            tx.appendCsv(buffer).append('\n');
+                        }
+                        counts[1] += batch.size();
+                        if (buffer.length() >= CHUNK_SIZE) {
+                            drain(buffer, chunk, writer);
+                        }
+                    }
+                }
+            }
+
+            if (buffer.length() > 0) {
+                drain(buffer, chunk, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return counts;
+    }
+
+    /**
+     * Буферді char массив арқылы Writer-ге беру (String жасалмайды)
+     */
+    private static void drain(StringBuilder buffer, char[] chunk, Writer writer) {
+        int offset = 0;
+        int length = buffer.length();
+        try {
+            while (offset < length) {
+                int count = Math.min(chunk.length, length - offset);
+                buffer.getChars(offset, offset + count, chunk, 0);
+                writer.write(chunk, 0, count);
+                offset += count;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+
+    private static String fileName(int shard, int shards, boolean gzip) {
+        String base = shards == 1 ? "transactions" : String.format("transactions-part-%04d", shard);
+        return base + (gzip ? ".csv.gz" : ".csv");
+    }
+
+    /**
+     * Экспорт есебі
+     */
+    public static final class Report {
+        private final List<Path> files;
+        private final long accounts;
+        private final long rows;
+        private final long bytesWritten;
+        private final long elapsedMillis;
+
+        Report(List<Path> files, long accounts, long rows, long bytesWritten, long elapsedMillis) {
+            this.files = files;
+            this.accounts = accounts;
+            this.rows = rows;
+            this.bytesWritten = bytesWritten;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Exported %d rows from %d accounts into %d file(s), %.1f MB in %.1fs (%.0f rows/s)",
+                    rows, accounts, files.size(), bytesWritten / (1024.0 * 1024.0),
+                    elapsedMillis / 1000.0, getRowsPerSecond());
+        }
+
+        // Getters
+        public List<Path> getFiles() { return files; }
+        public long getAccounts() { return accounts; }
+        public long getRows() { return rows; }
+        public long getBytesWritten() { return bytesWritten; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+}
@@ -0,0 +1,531 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+/**
+ * Тарихи транзакцияларды CSV-ден жаппай жүктеу (ескі жүйеден миграция)
+ * - Файл chunk-тармен оқылады
+ * - Chunk-тар параллель worker-лерде parse жасалып, аккаунт бойынша топталады
+ * - Топтар файл ретімен аккаунттарға batch түрінде қолданылады
+ * - Соңында бір ғана flush (durable commit)
+ * - Қате жолдар quarantine файлына жазылады
+ *
+ * Transfer-дің екі жолы (TRANSFER_OUT жіберушіде, TRANSFER_IN алушыда) бірге қабылданады
+ * немесе бірге quarantine-ге түседі, сондықтан импорт банктегі жалпы соманы өзгертпейді:
+ * - Алдын ала өтуде жолдар (from, to, amount) және уақыт бойынша жұпталады; жұбы файлда
+ *   жоқ жол қабылданбайды (шардталған экспорттың файлдарын бір файлға біріктіріп импорттаңыз)
+ * - Шешімді TRANSFER_OUT жасайды (ол ғана балансты теріс қыла алады); алушы аккаунт жоқ болса да
+ *   қабылданбайды
+ * - TRANSFER_IN өз жұбы шешілгенше кейінге қалдырылады және алушының сол chunk-тағы басқа
+ *   жолдарынан кейін қолданылады
+ * - Қолдану кезінде repository transfer lock-ы ұсталады (snapshot жұптың бір жағын ғана көрмейді)
+ *
+ * CSV форматы - TransactionCsvExporter форматы (header міндетті емес)
+ */
+public class TransactionCsvImporter {
+    private static final int CHUNK_LINES = 50_000;
+    // Ескі экспорттарда transfer-дің екі жолының уақыты сәл өзгеше (бөлек now() шақырулары)
+    private static final Duration PAIR_TOLERANCE = Duration.ofSeconds(1);
+
+    private final AccountRepository repository;
+    private final int workers;
+    private Consumer<Transaction> importedListener;
+
+    public TransactionCsvImporter(AccountRepository repository, int workers) {
+        if (repository == null) {
+            throw new IllegalArgumentException("Repository cannot be null");
+        }
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        this.repository = repository;
+        this.workers = workers;
+    }
+
+    /**
+     * Әр қабылданған транзакция туралы хабарлау (worker thread-тардан қатар шақырылады)
+     */
+    public TransactionCsvImporter onImported(Consumer<Transaction> listener) {
+        this.importedListener = listener;
+        return this;
+    }
+
+    /**
+     * Файлды импорттау
+     * @param input CSV файлы
+     * @param quarantine қате жолдар жазылатын файл
+     * @return импорт есебі
+     */
+    public Report importFile(Path input, Path quarantine) throws IOException {
+        long startNanos = System.nanoTime();
+        Counters counters = new Counters();
+        TransferPairs pairs = new TransferPairs(pairTransferLegs(input));
+
+        ExecutorService parsers = Executors.newFixedThreadPool(workers);
+        // Parse-тан өткен, бірақ әлі қолданылмаған chunk-тар (memory шектеулі)
+        Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+
+        Lock transferLock = repository.getTransferLock();
+        if (transferLock != null) {
+            transferLock.lock();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(quarantine, StandardCharsets.UTF_8)) {
+
+            rejects.write("line_number,reason,original_line");
+            rejects.newLine();
+
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(CHUNK_LINES);
+            long chunkStart = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                lines.add(line);
+                if (lines.size() == CHUNK_LINES) {
+                    submit(parsers, inFlight, lines, chunkStart, pairs, rejects, counters);
+                    lines = new ArrayList<>(CHUNK_LINES);
+                    chunkStart = lineNumber + 1;
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(parsers, inFlight, lines, chunkStart, pairs, rejects, counters);
+            }
+
+            while (!inFlight.isEmpty()) {
+                apply(awaitChunk(inFlight.pollFirst()), pairs, rejects, counters);
+            }
+
+            // Барлық TRANSFER_OUT шешілді - кейінге қалған TRANSFER_IN қалмауы керек
+            for (ParsedRow row : pairs.deferred) {
+                writeReject(rejects, rejectLine(row.lineNumber, "Counterpart TRANSFER_OUT not applied", row.line),
+                        counters);
+            }
+
+        } finally {
+            parsers.shutdownNow();
+            if (transferLock != null) {
+                transferLock.unlock();
+            }
+        }
+
+        // Бүкіл импорт үшін бір ғана persistence жазбасы
+        repository.flush();
+
+        return new Report(counters.rows.get(), counters.imported.get(), counters.rejected.get(),
+                counters.skipped.get(), counters.accounts.get(), quarantine,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Chunk-ты parse-қа беру; кезек толса, ең ескі chunk-ты алдымен қолдану
+     */
+    private void submit(ExecutorService parsers, Deque<Future<ParsedChunk>> inFlight,
+                        List<String> lines, long firstLineNumber, TransferPairs pairs,
+                        BufferedWriter rejects, Counters counters) throws IOException {
+        if (inFlight.size() >= workers * 2) {
+            apply(awaitChunk(inFlight.pollFirst()), pairs, rejects, counters);
+        }
+        inFlight.addLast(parsers.submit(() -> parse(lines, firstLineNumber)));
+    }
+
+    /**
+     * Chunk жолдарын parse жасап, аккаунт бойынша топтау (worker thread-та)
+     */
+    private static ParsedChunk parse(List<String> lines, long firstLineNumber) {
+        ParsedChunk chunk = new ParsedChunk();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            long lineNumber = firstLineNumber + i;
+
+            if (line.isEmpty() || line.startsWith("timestamp,")) {
+                continue; // Бос жол немесе header
+            }
+            chunk.rows++;
+
+            try {
+                Transaction transaction = Transaction.fromCsv(line);
+                if (transaction.getType() == TransactionType.ACCOUNT_CREATED) {
+                    chunk.skipped++;
+                    continue; // Аккаунт бұрыннан бар, өзінің ACCOUNT_CREATED жазбасы бар
+                }
+                if (!hasValidAmount(transaction)) {
+                    chunk.reject(lineNumber, "Amount must be positive", line);
+                    continue;
+                }
+
+                ParsedRow row = new ParsedRow(lineNumber, line, transaction);
+                if (transaction.getType() == TransactionType.TRANSFER_IN) {
+                    chunk.incoming.add(row); // Жұбы шешілгеннен кейін қолданылады
+                } else {
+                    chunk.byAccount.computeIfAbsent(transaction.getFromAccountId(), id -> new ArrayList<>())
+                            .add(row);
+                }
+
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                chunk.reject(lineNumber, "Parse error: " + e.getMessage(), line);
+            }
+        }
+        return chunk;
+    }
+
+    private static boolean hasValidAmount(Transaction transaction) {
+        TransactionType type = transaction.getType();
+        boolean movesMoney = transaction.isTransfer()
+                || type == TransactionType.DEPOSIT || type == TransactionType.WITHDRAW;
+        return !movesMoney || transaction.getAmount() > 0;
+    }
+
+    /**
+     * Алдын ала өту: transfer жолдарын жұптау
+     * (from, to, amount) тобында OUT және IN жолдары уақыт бойынша сұрыпталып,
+     * PAIR_TOLERANCE ішіндегілер ретімен жұпталады
+     * @return жол нөмірі -> жұбының жол нөмірі (тек жұпталған жолдар)
+     */
+    private static Map<Long, Long> pairTransferLegs(Path input) throws IOException {
+        Map<TransferKey, LegGroup> groups = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.contains(",TRANSFER_")) {
+                    continue;
+                }
+                Transaction transaction;
+                try {
+                    transaction = Transaction.fromCsv(line);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    continue; // Негізгі өтуде quarantine-ге түседі
+                }
+                if (!transaction.isTransfer() || !hasValidAmount(transaction)) {
+                    continue;
+                }
+                LegGroup group = groups.computeIfAbsent(new TransferKey(transaction), key -> new LegGroup());
+                Leg leg = new Leg(lineNumber, transaction.getTimestamp());
+                if (transaction.getType() == TransactionType.TRANSFER_OUT) {
+                    group.out.add(leg);
+                } else {
+                    group.in.add(leg);
+                }
+            }
+        }
+
+        Map<Long, Long> partners = new HashMap<>();
+        Comparator<Leg> byTime = Comparator.comparing((Leg leg) -> leg.timestamp)
+                .thenComparingLong(leg -> leg.lineNumber);
+        for (LegGroup group : groups.values()) {
+            group.out.sort(byTime);
+            group.in.sort(byTime);
+            int i = 0;
+            int j = 0;
+            while (i < group.out.size() && j < group.in.size()) {
+                Leg out = group.out.get(i);
+                Leg in = group.in.get(j);
+                if (in.timestamp.isAfter(out.timestamp.plus(PAIR_TOLERANCE))) {
+                    i++; // OUT-тың жұбы жоқ
+                } else if (out.timestamp.isAfter(in.timestamp.plus(PAIR_TOLERANCE))) {
+                    j++; // IN-нің жұбы жоқ
+                } else {
+                    partners.put(out.lineNumber, in.lineNumber);
+                    partners.put(in.lineNumber, out.lineNumber);
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return partners;
+    }
+
+    /**
+     * Parse жасалған chunk-ты аккаунттарға қолдану
+     * Бір chunk ішіндегі әр аккаунт тобы тәуелсіз, сондықтан параллель;
+     * содан кейін жұбы шешілген TRANSFER_IN жолдары алушыларға қолданылады
+     */
+    private void apply(ParsedChunk chunk, TransferPairs pairs, BufferedWriter rejects, Counters counters)
+            throws IOException {
+        counters.rows.addAndGet(chunk.rows);
+        counters.skipped.addAndGet(chunk.skipped);
+
+        Queue<String> applyRejects = new ConcurrentLinkedQueue<>();
+        Queue<AccountWithHistory> touched = new ConcurrentLinkedQueue<>();
+        chunk.byAccount.entrySet().parallelStream().forEach(entry ->
+                applyOutgoing(entry.getKey(), entry.getValue(), pairs, applyRejects, touched, counters));
+
+        pairs.deferred.addAll(chunk.incoming);
+        Map<Integer, List<ParsedRow>> incoming = new LinkedHashMap<>();
+        for (Iterator<ParsedRow> it = pairs.deferred.iterator(); it.hasNext(); ) {
+            ParsedRow row = it.next();
+            Long partner = pairs.partners.get(row.lineNumber);
+            if (partner == null) {
+                applyRejects.add(rejectLine(row.lineNumber, "Transfer leg has no matching TRANSFER_OUT", row.line));
+                it.remove();
+                continue;
+            }
+            Boolean accepted = pairs.decisions.remove(partner);
+            if (accepted == null) {
+                continue; // TRANSFER_OUT кейінгі chunk-та
+            }
+            it.remove();
+            if (accepted) {
+                incoming.computeIfAbsent(row.transaction.getToAccountId(), id -> new ArrayList<>()).add(row);
+            } else {
+                applyRejects.add(rejectLine(row.lineNumber,
+                        "Counterpart TRANSFER_OUT rejected (line " + partner + ")", row.line));
+            }
+        }
+        incoming.entrySet().parallelStream().forEach(entry ->
+                applyBatch(entry.getKey(), entry.getValue(), applyRejects, touched, counters));
+
+        repository.saveAll(new ArrayList<>(touched)); // Chunk-тағы аккаунттар бір қадамда
+
+        for (String reject : chunk.rejects) {
+            writeReject(rejects, reject, counters);
+        }
+        for (String reject : applyRejects) {
+            writeReject(rejects, reject, counters);
+        }
+    }
+
+    /**
+     * Бір жіберуші аккаунттың жолдары (TRANSFER_IN-сіз); әр TRANSFER_OUT-тың шешімі жазылады
+     */
+    private void applyOutgoing(int accountId, List<ParsedRow> rows, TransferPairs pairs,
+                               Queue<String> applyRejects, Queue<AccountWithHistory> touched,
+                               Counters counters) {
+        List<ParsedRow> batch = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            Transaction transaction = row.transaction;
+            if (transaction.getType() != TransactionType.TRANSFER_OUT) {
+                batch.add(row);
+            } else if (!pairs.partners.containsKey(row.lineNumber)) {
+                applyRejects.add(rejectLine(row.lineNumber, "Transfer leg has no matching TRANSFER_IN", row.line));
+            } else if (!repository.existsById(transaction.getToAccountId())) {
+                applyRejects.add(rejectLine(row.lineNumber,
+                        "Account not found: " + transaction.getToAccountId(), row.line));
+                pairs.decisions.put(row.lineNumber, false);
+            } else {
+                batch.add(row);
+            }
+        }
+
+        Set<Transaction> rejected = applyBatch(accountId, batch, applyRejects, touched, counters);
+        for (ParsedRow row : batch) {
+            if (row.transaction.getType() == TransactionType.TRANSFER_OUT) {
+                pairs.decisions.put(row.lineNumber, !rejected.contains(row.transaction));
+            }
+        }
+    }
+
+    /**
+     * Жолдарды бір аккаунтқа қолдану
+     * @return қабылданбаған транзакциялар (аккаунт жоқ болса - барлығы)
+     */
+    private Set<Transaction> applyBatch(int accountId, List<ParsedRow> rows, Queue<String> applyRejects,
+                                        Queue<AccountWithHistory> touched, Counters counters) {
+        Set<Transaction> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (rows.isEmpty()) {
+            return rejected;
+        }
+        Optional<AccountWithHistory> account = repository.findById(accountId);
+        if (!account.isPresent()) {
+            for (ParsedRow row : rows) {
+                applyRejects.add(rejectLine(row.lineNumber, "Account not found: " + accountId, row.line));
+                rejected.add(row.transaction);
+            }
+            return rejected;
+        }
+
+        List<Transaction> batch = new ArrayList<>(rows.size());
+        Map<Transaction, ParsedRow> origin = new IdentityHashMap<>(rows.size());
+        for (ParsedRow row : rows) {
+            batch.add(row.transaction);
+            origin.put(row.transaction, row);
+        }
+
+        rejected.addAll(account.get().importTransactions(batch));
+        for (Transaction transaction : rejected) {
+            ParsedRow row = origin.get(transaction);
+            applyRejects.add(rejectLine(row.lineNumber, "Would make balance negative", row.line));
+        }
+        if (importedListener != null) {
+            notifyImported(batch, rejected);
+        }
+        touched.add(account.get());
+
+        counters.imported.addAndGet(rows.size() - rejected.size());
+        counters.accounts.incrementAndGet();
+        return rejected;
+    }
+
+    private void notifyImported(List<Transaction> batch, Set<Transaction> rejected) {
+        for (Transaction transaction : batch) {
+            if (!rejected.contains(transaction)) {
+                importedListener.accept(transaction);
+            }
+        }
+    }
+
+    private static void writeReject(BufferedWriter rejects, String line, Counters counters) throws IOException {
+        rejects.write(line);
+        rejects.newLine();
+        counters.rejected.incrementAndGet();
+    }
+
+    private static String rejectLine(long lineNumber, String reason, String line) {
+        return lineNumber + "," + reason.replace(',', ';') + "," + line;
+    }
+
+    private static ParsedChunk awaitChunk(Future<ParsedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // ============ INTERNAL TYPES ============
+
+    private static final class ParsedRow {
+        final long lineNumber;
+        final String line;
+        final Transaction transaction;
+
+        ParsedRow(long lineNumber, String line, Transaction transaction) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.transaction = transaction;
+        }
+    }
+
+    private static final class ParsedChunk {
+        // LinkedHashMap - аккаунттар файлдағы ретімен (жіберуші бойынша, TRANSFER_IN-сіз)
+        final Map<Integer, List<ParsedRow>> byAccount = new LinkedHashMap<>();
+        final List<ParsedRow> incoming = new ArrayList<>();
+        final List<String> rejects = new ArrayList<>();
+        long rows;
+        long skipped;
+
+        void reject(long lineNumber, String reason, String line) {
+            rejects.add(rejectLine(lineNumber, reason, line));
+        }
+    }
+
+    /**
+     * Импорт бойы transfer жұптарының күйі
+     */
+    private static final class TransferPairs {
+        final Map<Long, Long> partners; // Жол нөмірі -> жұбының жол нөмірі
+        final Map<Long, Boolean> decisions = new ConcurrentHashMap<>(); // TRANSFER_OUT жолы -> қабылданды ма
+        final List<ParsedRow> deferred = new ArrayList<>(); // Жұбы әлі шешілмеген TRANSFER_IN
+
+        TransferPairs(Map<Long, Long> partners) {
+            this.partners = partners;
+        }
+    }
+
+    private static final class TransferKey {
+        final int from;
+        final int to;
+        final long amountBits;
+
+        TransferKey(Transaction transaction) {
+            this.from = transaction.getFromAccountId();
+            this.to = transaction.getToAccountId();
+            this.amountBits = Double.doubleToLongBits(transaction.getAmount());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof TransferKey)) {
+                return false;
+            }
+            TransferKey other = (TransferKey) o;
+            return from == other.from && to == other.to && amountBits == other.amountBits;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(from, to, amountBits);
+        }
+    }
+
+    private static final class Leg {
+        final long lineNumber;
+        final LocalDateTime timestamp;
+
+        Leg(long lineNumber, LocalDateTime timestamp) {
+            this.lineNumber = lineNumber;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class LegGroup {
+        final List<Leg> out = new ArrayList<>();
+        final List<Leg> in = new ArrayList<>();
+    }
+
+    private static final class Counters {
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong accounts = new AtomicLong();
+    }
+
+    /**
+     * Импорт есебі
+     */
+    public static final class Report {
+        private final long rows;
+        private final long imported;
+        private final long rejected;
+        private final long skipped;
+        private final long accountBatches;
+        private final Path quarantineFile;
+        private final long elapsedMillis;
+
+        Report(long rows, long imported, long rejected, long skipped, long accountBatches,
+               Path quarantineFile, long elapsedMillis) {
+            this.rows = rows;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.skipped = skipped;
+            this.accountBatches = accountBatches;
+            this.quarantineFile = quarantineFile;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Imported %d of %d rows (%d rejected, %d skipped) in %d account batches, %.1fs (%.0f rows/s)",
+                    imported, rows, rejected, skipped, accountBatches,
+                    elapsedMillis / 1000.0, getRowsPerSecond());
+        }
+
+        // Getters
+        public long getRows() { return rows; }
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getSkipped() { return skipped; }
+        public long getAccountBatches() { return accountBatches; }
+        public Path getQuarantineFile() { return quarantineFile; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+}
@@ -0,0 +1,631 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Банк бойынша жалпы append-only ledger
+ * - Әр транзакцияға монотонды өсетін sequence ID береді
+ * - Memory-да тек соңғы жазбаларды сақтайды (ring buffer)
+ * - Journal файлына жазады, ескі cursor-лар сол жерден оқиды
+ *
+ * append() lock-сыз: sequence AtomicLong-тан алынып, транзакция MPSC queue-ге қосылады.
+ * Ring, type index және journal-ды queue-ден бір уақытта бір ғана thread толтырады (drainLock,
+ * tryLock - producer ешқашан күтпейді). Queue-дегі рет sequence ретімен сәйкес келмеуі мүмкін,
+ * сондықтан drain кезінде жазбалар sequence ретімен (reorder буфері арқылы) жарияланады.
+ * Оқу методтары алдымен queue-ді толық drain етеді.
+ *
+ * Journal шексіз өспейді: repository snapshot-ы durable болған соң (markPersisted) ring-тен
+ * шыққан және snapshot қамтыған жазбалар journal басынан кесіледі (тұрақты ескі cursor-лар
+ * "no longer available" алады). Соңғы sequence, journal басы және checkpoint-тар
+ * <journal>.meta файлында сақталады, сондықтан іске қосылғанда тек meta-дан кейінгі соңы оқылады.
+ */
+public class TransactionLedger {
+    private static final int DEFAULT_CAPACITY = 100_000;
+    private static final int CHECKPOINT_INTERVAL = 1024; // Әр 1024 жазба сайын offset сақтау
+    private static final String META_SUFFIX = ".meta";
+    private static final String META_HEADER = "ledger-meta 1";
+
+    private static final TransactionLedger INSTANCE = new TransactionLedger(DEFAULT_CAPACITY);
+
+    private final Transaction[] ring;
+    private final TransactionTypeIndex typeIndex; // Позиция = sequence ID
+    private final AtomicLong allocatedSequence = new AtomicLong(); // Берілген соңғы sequence
+    private final ConcurrentLinkedQueue<Transaction> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock drainLock = new ReentrantLock(); // Төмендегі өрістердің бәрін қорғайды
+    private final PriorityQueue<Transaction> reorder =
+            new PriorityQueue<>(Comparator.comparingLong(Transaction::getSequenceId));
+    private long lastSequence; // Жарияланған (ring/journal-ға жазылған) соңғы sequence, аралықсыз
+    private long firstInMemory = 1; // Осы сессияда ring-ке түскен бірінші sequence
+    private LocalDateTime newestNotRetained; // Memory-да жоқ жазбалардың ең жаңа уақыты (null - бәрі memory-да)
+
+    // Journal (міндетті емес)
+    private Path journalPath;
+    private OutputStream journal;
+    private long journalSize;
+    private long journalFirstSequence;
+    private long[] checkpointSequences = new long[16]; // Sparse index: sequence -> файл offset
+    private long[] checkpointOffsets = new long[16];
+    private int checkpointCount;
+    private int metaCheckpointCount = -1; // Meta файлына соңғы рет жазылған checkpoint саны
+
+    TransactionLedger(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ledger capacity must be positive");
+        }
+        this.ring = new Transaction[capacity];
+        this.typeIndex = new TransactionTypeIndex();
+    }
+
+    /**
+     * Жалғыз ledger (Singleton)
+     */
+    public static TransactionLedger getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Транзакцияны ledger-ге қосу және sequence ID беру (lock-сыз)
+     * Ring/journal-ға жазуды drainLock бос болса осы thread, әйтпесе lock ұстаушы жасайды
+     */
+    public long append(Transaction transaction) {
+        long sequence = allocatedSequence.incrementAndGet();
+        transaction.assignSequenceId(sequence);
+        pending.offer(transaction);
+
+        // Lock ұстаушы unlock-тан кейін queue-ді қайта тексереді, сондықтан жазба қалып қоймайды
+        do {
+            if (!drainLock.tryLock()) {
+                return sequence;
+            }
+            try {
+                drainPending();
+            } finally {
+                drainLock.unlock();
+            }
+        } while (!pending.isEmpty());
+        return sequence;
+    }
+
+    /**
+     * Соңғы жарияланған sequence ID (оған дейінгі барлық жазба ring/journal-да)
+     */
+    public long getLastSequence() {
+        lockAndDrain();
+        try {
+            return lastSequence;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Memory-да сақталған ең ескі sequence ID
+     */
+    public long getOldestRetainedSequence() {
+        lockAndDrain();
+        try {
+            return Math.max(firstInMemory, lastSequence - ring.length + 1);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * afterSequence-тен кейінгі ең көбі maxCount транзакцияны қайтару
+     * Жаңа жазбалар memory-дан, ескілері journal-дан оқылады
+     */
+    public List<Transaction> readFrom(long afterSequence, int maxCount) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be positive");
+        }
+
+        lockAndDrain();
+        try {
+            if (afterSequence >= lastSequence) {
+                return Collections.emptyList();
+            }
+
+            long oldest = Math.max(firstInMemory, lastSequence - ring.length + 1);
+            if (afterSequence + 1 >= oldest) {
+                long end = Math.min(lastSequence, afterSequence + maxCount);
+                List<Transaction> batch = new ArrayList<>((int) (end - afterSequence));
+                for (long seq = afterSequence + 1; seq <= end; seq++) {
+                    batch.add(ring[(int) (seq % ring.length)]);
+                }
+                return batch;
+            }
+
+            if (journal == null || afterSequence + 1 < journalFirstSequence) {
+                throw new IllegalStateException(
+                        "Ledger entries after sequence " + afterSequence + " are no longer available");
+            }
+            flushJournal();
+        } finally {
+            drainLock.unlock();
+        }
+
+        return readFromJournal(afterSequence, maxCount);
+    }
+
+    /**
+     * Банк бойынша since уақытынан кейінгі белгілі типтегі транзакциялар
+     * (мысалы, соңғы бір сағаттағы барлық TRANSFER_OUT)
+     * Type index соңынан жүреді - нәтиже өлшеміне пропорционал
+     */
+    public List<Transaction> findRecentByType(TransactionType type, LocalDateTime since) {
+        lockAndDrain();
+        try {
+            return findRecentByTypeLocked(type, since);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private List<Transaction> findRecentByTypeLocked(TransactionType type, LocalDateTime since) {
+        return typeIndex.findSince(type, since, sequence -> ring[(int) (sequence % ring.length)]);
+    }
+
+    /**
+     * Memory-дағы жазбалар since уақытынан бергі толық тарихты қамти ма
+     * Импортталған жазбалардың уақыты sequence ретімен өспейді, сондықтан ең ескі жазбаға емес,
+     * memory-дан шыққан жазбалардың ең жаңа уақытына қарайды
+     */
+    public boolean retainsSince(LocalDateTime since) {
+        lockAndDrain();
+        try {
+            return newestNotRetained == null || newestNotRetained.isBefore(since);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Ledger-ді journal файлына байланыстыру
+     * Бар journal болса, соңғы sequence пен checkpoint-тар қалпына келтіріледі
+     */
+    public void attachJournal(Path path) {
+        lockAndDrain();
+        try {
+            attachJournalLocked(path);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void attachJournalLocked(Path path) {
+        if (journal != null) {
+            if (journalPath.equals(path)) {
+                return;
+            }
+            throw new IllegalStateException("Ledger journal already attached: " + journalPath);
+        }
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (!loadMeta(path)) {
+                resetJournalIndex();
+            }
+            scanJournal(path, journalSize);
+            this.journal = new BufferedOutputStream(
+                    new FileOutputStream(path.toFile(), true), 64 * 1024);
+            this.journalPath = path;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open ledger journal: " + path, e);
+        }
+    }
+
+    /**
+     * Файлдан жүктелген транзакциялар үшін sequence-ті алға жылжыту
+     */
+    public void restoreSequence(long sequence) {
+        lockAndDrain();
+        try {
+            restoreSequenceLocked(sequence);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void restoreSequenceLocked(long sequence) {
+        allocatedSequence.accumulateAndGet(sequence, Math::max);
+        if (sequence > lastSequence) {
+            lastSequence = sequence;
+            firstInMemory = sequence + 1;
+            // Алдыңғы сессиялардың жазбалары осы сәтке дейін жасалған
+            notRetained(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Journal буферін дискке жазу
+     * @return journal-ға жазылған соңғы sequence (repository snapshot-ы оны markPersisted-ке береді)
+     */
+    public long flush() {
+        lockAndDrain();
+        try {
+            flushJournal();
+            return lastSequence;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /**
+     * Repository snapshot-ы sequence-ке дейінгі жазбаларды durable қамтиды
+     * Ring-тен де шыққан жазбалар бір ring көлемінен асса, journal басынан кесіледі;
+     * әйтпесе жаңа checkpoint-тар болса meta файлы жаңартылады
+     */
+    public void markPersisted(long sequence) {
+        lockAndDrain();
+        try {
+            if (journal == null) {
+                return;
+            }
+            long oldestInRing = Math.max(firstInMemory, lastSequence - ring.length + 1);
+            long releasable = Math.min(sequence, oldestInRing - 1);
+            if (journalFirstSequence > 0 && releasable - journalFirstSequence + 1 >= ring.length) {
+                rotateJournal(releasable);
+            } else if (checkpointCount != metaCheckpointCount) {
+                flushJournal();
+                writeMeta();
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // ============ DRAIN ============
+
+    private void lockAndDrain() {
+        drainLock.lock();
+        drainPending();
+    }
+
+    /**
+     * Queue-дегі жазбаларды sequence ретімен ring, type index және journal-ға жариялау
+     * drainLock астында шақырылады
+     */
+    private void drainPending() {
+        Transaction transaction;
+        while ((transaction = pending.poll()) != null) {
+            reorder.add(transaction);
+        }
+        // Sequence-і алынған, бірақ queue-ге әлі түспеген жазба болса, одан кейінгілер күтеді
+        while (!reorder.isEmpty() && reorder.peek().getSequenceId() <= lastSequence + 1) {
+            publish(reorder.poll());
+        }
+    }
+
+    private void publish(Transaction transaction) {
+        long sequence = transaction.getSequenceId();
+        if (sequence <= lastSequence) {
+            return; // restoreSequence-тен бұрын алынған sequence (тек жүктеу кезінде)
+        }
+        lastSequence = sequence;
+
+        int slot = (int) (sequence % ring.length);
+        Transaction overwritten = ring[slot];
+        if (overwritten != null) {
+            typeIndex.evict(overwritten.getType(), overwritten.getSequenceId());
+            notRetained(overwritten.getTimestamp());
+        }
+        ring[slot] = transaction;
+        typeIndex.add(transaction.getType(), sequence, transaction.getTimestamp());
+
+        if (journal != null) {
+            writeToJournal(sequence, transaction);
+        }
+    }
+
+    private void notRetained(LocalDateTime timestamp) {
+        if (newestNotRetained == null || timestamp.isAfter(newestNotRetained)) {
+            newestNotRetained = timestamp;
+        }
+    }
+
+    // ============ JOURNAL ============
+
+    private void writeToJournal(long sequence, Transaction transaction) {
+        byte[] line = (sequence + "," + transaction.toCsv() + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            if (journalFirstSequence == 0) {
+                journalFirstSequence = sequence;
+            }
+            maybeAddCheckpoint(sequence, journalSize);
+            journal.write(line);
+            journalSize += line.length;
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write ledger journal: " + e.getMessage());
+        }
+    }
+
+    private void flushJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.flush();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to flush ledger journal: " + e.getMessage());
+        }
+    }
+
+    private void maybeAddCheckpoint(long sequence, long offset) {
+        if (checkpointCount > 0 &&
+                sequence < checkpointSequences[checkpointCount - 1] + CHECKPOINT_INTERVAL) {
+            return;
+        }
+        if (checkpointCount == checkpointSequences.length) {
+            checkpointSequences = Arrays.copyOf(checkpointSequences, checkpointCount * 2);
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+        }
+        checkpointSequences[checkpointCount] = sequence;
+        checkpointOffsets[checkpointCount] = offset;
+        checkpointCount++;
+    }
+
+    /**
+     * Бар journal-ды fromOffset-тен (meta қамтымаған соңы) бір рет оқып, checkpoint-тарды құру
+     */
+    private void scanJournal(Path path, long fromOffset) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        long offset = fromOffset;
+        try (InputStream in = Files.newInputStream(path)) {
+            if (in.skip(fromOffset) != fromOffset) {
+                throw new IOException("Journal is shorter than expected");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long sequence = parseSequence(line);
+                if (journalFirstSequence == 0) {
+                    journalFirstSequence = sequence;
+                }
+                maybeAddCheckpoint(sequence, offset);
+                offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                restoreSequenceLocked(sequence);
+            }
+        }
+        this.journalSize = offset;
+    }
+
+    /**
+     * Journal-дан оқу - жақын checkpoint-тан бастап, тек maxCount жазба
+     * Файл lock астында ашылады: rotation жаңа файлды орнына қойса да, offset-тер ашылған файлға сәйкес
+     */
+    private List<Transaction> readFromJournal(long afterSequence, int maxCount) {
+        long target = afterSequence + 1;
+        long startOffset;
+        InputStream opened;
+        drainLock.lock();
+        try {
+            int index = Arrays.binarySearch(checkpointSequences, 0, checkpointCount, target);
+            if (index < 0) {
+                index = Math.max(0, -index - 2); // target-тен кіші ең жақын checkpoint
+            }
+            startOffset = checkpointOffsets[index];
+            opened = Files.newInputStream(journalPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ledger journal", e);
+        } finally {
+            drainLock.unlock();
+        }
+
+        List<Transaction> batch = new ArrayList<>(Math.min(maxCount, CHECKPOINT_INTERVAL));
+        try (InputStream in = opened) {
+            long skipped = in.skip(startOffset);
+            if (skipped != startOffset) {
+                throw new IOException("Journal is shorter than expected");
+            }
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while (batch.size() < maxCount && (line = reader.readLine()) != null) {
+                long sequence = parseSequence(line);
+                if (sequence < target) {
+                    continue;
+                }
+                Transaction transaction = Transaction.fromCsv(line.substring(line.indexOf(',') + 1));
+                transaction.assignSequenceId(sequence);
+                batch.add(transaction);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read ledger journal", e);
+        }
+        return batch;
+    }
+
+    /**
+     * releasable-ге дейінгі жазбаларды journal басынан кесу (drainLock астында)
+     * Кесу нүктесі - releasable + 1-ден аспайтын соңғы checkpoint (жол шекарасы).
+     * Қалған соңы .tmp-ға көшіріліп fsync болады, meta өшіріледі, содан кейін atomic rename;
+     * rename-ге дейін құласа ескі journal өзгеріссіз, кейін құласа meta жоқ - толық (қысқа) scan.
+     */
+    private void rotateJournal(long releasable) {
+        int index = Arrays.binarySearch(checkpointSequences, 0, checkpointCount, releasable + 1);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        if (index <= 0) {
+            return;
+        }
+        long cut = checkpointOffsets[index];
+        Path temp = journalPath.resolveSibling(journalPath.getFileName() + ".tmp");
+
+        try {
+            journal.flush();
+            try (FileChannel in = FileChannel.open(journalPath, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                long position = cut;
+                while (position < journalSize) {
+                    position += in.transferTo(position, journalSize - position, out);
+                }
+                out.force(true);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to rotate ledger journal: " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Келесі rotation қайта жазады
+            }
+            return;
+        }
+
+        try {
+            journal.close();
+            Files.deleteIfExists(metaPath(journalPath));
+            Files.move(temp, journalPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            checkpointCount -= index;
+            System.arraycopy(checkpointSequences, index, checkpointSequences, 0, checkpointCount);
+            System.arraycopy(checkpointOffsets, index, checkpointOffsets, 0, checkpointCount);
+            for (int i = 0; i < checkpointCount; i++) {
+                checkpointOffsets[i] -= cut;
+            }
+            journalFirstSequence = checkpointSequences[0];
+            journalSize -= cut;
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to rotate ledger journal: " + e.getMessage());
+        }
+
+        try {
+            journal = new BufferedOutputStream(new FileOutputStream(journalPath.toFile(), true), 64 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reopen ledger journal: " + journalPath, e);
+        }
+        writeMeta();
+    }
+
+    /**
+     * Meta файлы (.tmp + atomic rename): journal басы, соңғы sequence, journal өлшемі және checkpoint-тар
+     */
+    private void writeMeta() {
+        StringBuilder content = new StringBuilder(64 + checkpointCount * 24);
+        content.append(META_HEADER).append('\n');
+        content.append("first ").append(journalFirstSequence).append('\n');
+        content.append("last ").append(lastSequence).append('\n');
+        content.append("size ").append(journalSize).append('\n');
+        for (int i = 0; i < checkpointCount; i++) {
+            content.append(checkpointSequences[i]).append(' ').append(checkpointOffsets[i]).append('\n');
+        }
+
+        Path meta = metaPath(journalPath);
+        Path temp = meta.resolveSibling(meta.getFileName() + ".tmp");
+        try {
+            Files.write(temp, content.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, meta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            metaCheckpointCount = checkpointCount;
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to write ledger journal meta: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Meta файлын оқу; journal-мен сәйкес келмесе (ескі, бүлінген) false - толық scan
+     */
+    private boolean loadMeta(Path path) throws IOException {
+        Path meta = metaPath(path);
+        if (!Files.exists(meta) || !Files.exists(path)) {
+            return false;
+        }
+        List<String> lines = Files.readAllLines(meta, StandardCharsets.UTF_8);
+        try {
+            if (lines.size() < 4 || !lines.get(0).equals(META_HEADER)) {
+                throw new IllegalStateException("unknown format");
+            }
+            long first = Long.parseLong(lines.get(1).substring("first ".length()));
+            long last = Long.parseLong(lines.get(2).substring("last ".length()));
+            long size = Long.parseLong(lines.get(3).substring("size ".length()));
+            if (size > Files.size(path)) {
+                throw new IllegalStateException("journal is shorter than recorded");
+            }
+            for (int i = 4; i < lines.size(); i++) {
+                String[] parts = lines.get(i).split(" ");
+                long sequence = Long.parseLong(parts[0]);
+                long offset = Long.parseLong(parts[1]);
+                if (checkpointCount > 0 && (sequence <= checkpointSequences[checkpointCount - 1]
+                        || offset <= checkpointOffsets[checkpointCount - 1])) {
+                    throw new IllegalStateException("checkpoints out of order");
+                }
+                maybeAddCheckpoint(sequence, offset);
+            }
+            if (checkpointCount > 0 && (checkpointSequences[0] != first
+                    || !lineStartsWith(path, checkpointOffsets[0], first)
+                    || !lineStartsWith(path, checkpointOffsets[checkpointCount - 1],
+                            checkpointSequences[checkpointCount - 1]))) {
+                throw new IllegalStateException("checkpoints do not match journal");
+            }
+
+            this.journalFirstSequence = first;
+            this.journalSize = size;
+            this.metaCheckpointCount = checkpointCount;
+            restoreSequenceLocked(last);
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Warning: Ignoring ledger journal meta (" + e.getMessage() + "), rescanning journal");
+            resetJournalIndex();
+            return false;
+        }
+    }
+
+    private static boolean lineStartsWith(Path path, long offset, long sequence) throws IOException {
+        byte[] expected = (sequence + ",").getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                // Толғанша оқу
+            }
+            return Arrays.equals(buffer.array(), expected);
+        }
+    }
+
+    private void resetJournalIndex() {
+        journalFirstSequence = 0;
+        journalSize = 0;
+        checkpointCount = 0;
+        metaCheckpointCount = -1;
+    }
+
+    private static Path metaPath(Path journalPath) {
+        return journalPath.resolveSibling(journalPath.getFileName() + META_SUFFIX);
+    }
+
+    private static long parseSequence(String line) {
+        int comma = line.indexOf(',');
+        if (comma <= 0) {
+            throw new IllegalStateException("Corrupted ledger journal line: " + line);
+        }
+        return Long.parseLong(line.substring(0, comma));
+    }
+
+    @Override
+    public String toString() {
+        lockAndDrain();
+        try {
+            return String.format("TransactionLedger[lastSequence=%d, capacity=%d, journal=%s]",
+                    lastSequence, ring.length, journalPath);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+}
@@ -1,32 +1,86 @@
-
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 /**
  * Transaction логтарын жазу
  * - Thread-safe
  * - Файлға автоматты жазу
  * - Memory-да соңғы логтарды сақтау
+ * - Async режим: lock-free ring buffer + фондық flusher thread
+ * - Ротация: өлшем және күн бойынша, архивтер фонда сығылады
+ * - Құрылымды жазбалар (уақыт + аккаунт ID) және sparse side index арқылы іздеу
+ * - Binary оқиға журналы (BankEvent) - аудит және replay үшін
  */
 public class TransactionLogger {
     private static final String LOG_DIR = "data/logs";
-    private static final String LOG_FILE = "transactions.log";
-    private static final int MAX_MEMORY_LOGS = 100;
-    private static final DateTimeFormatter FORMATTER =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String LOG_BASE_NAME = "transactions";
+    private static final String LOG_FILE = LOG_BASE_NAME + ".log";
+    private static final String EVENT_LOG_FILE = "events.bin";
+    private static final int FLUSH_BATCH_SIZE = 1024;
+    private static final long BLOCK_PARK_NANOS = 50_000; // BLOCK саясатында күту қадамы
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FORMATTER = LogRecord.FORMATTER;
 
-    private final Queue<String> recentLogs;
+    private final RecentLogRing<LogRecord> recentLogs;
     private final String logFilePath;
-    private PrintWriter writer;
+    private final LoggerConfig config;
+    private OutputStream writer; // UTF-8 байттары тікелей жазылады - offset дәл есептеледі
+    private LogSearchIndex searchIndex;
+    private final BinaryEventLog eventLog; // null - binary журнал өшірулі
+
+    // Ротация
+    private final LogArchiver archiver;
+    private long currentFileBytes;
+    private LocalDate currentDay;
+    private long nextRotationMillis;
+    private long rotations;
+
+    // Async режим
+    private final LogRingBuffer<LogRecord> buffer;
+    private final Thread flusher;
+    private volatile boolean running;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicInteger activePublishers = new AtomicInteger(); // close() handshake
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong writtenEvents = new AtomicLong();
+    private final AtomicLong overflowCounter = new AtomicLong();
 
     public TransactionLogger() {
-        this.recentLogs = new ConcurrentLinkedQueue<>();
+        this(new LoggerConfig());
+    }
+
+    public TransactionLogger(LoggerConfig config) {
+        this.recentLogs = new RecentLogRing<>(config.getRecentLogCapacity());
         this.logFilePath = LOG_DIR + File.separator + LOG_FILE;
+        this.config = config;
+        this.archiver = new LogArchiver(Paths.get(LOG_DIR), LOG_BASE_NAME, config.getMaxArchives());
 
         initializeLogFile();
+        this.eventLog = config.isBinaryEventLog() ? openEventLog() : null;
+
+        if (config.isAsync()) {
+            this.buffer = new LogRingBuffer<>(config.getBufferCapacity());
+            this.running = true;
+            this.flusher = new Thread(this::runFlusher, "transaction-log-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.buffer = null;
+            this.flusher = null;
+        }
     }
 
     /**
@@ -38,15 +92,22 @@ public class TransactionLogger {
 
             // Append режимінде ашу
             File logFile = new File(logFilePath);
-            this.writer = new PrintWriter(
-                    new BufferedWriter(
-                            new FileWriter(logFile, true)
-                    )
-            );
-
-            if (logFile.length() == 0) {
-                writer.println("=== Transaction Log Started: " +
-                        LocalDateTime.now().format(FORMATTER) + " ===");
+            this.searchIndex = LogSearchIndex.open(logFile.toPath());
+            this.writer = new BufferedOutputStream(
+                    new FileOutputStream(logFile, true), WRITE_BUFFER_SIZE);
+
+            // Файл басталған күн (бұрыннан бар файл үшін - соңғы өзгерту күні)
+            currentFileBytes = logFile.length();
+            currentDay = currentFileBytes > 0
+                    ? Instant.ofEpochMilli(logFile.lastModified()).atZone(ZoneId.systemDefault()).toLocalDate()
+                    : LocalDate.now();
+            nextRotationMillis = currentDay.plusDays(1)
+                    .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+            if (currentFileBytes == 0) {
+                String header = "=== Transaction Log Started: " +
+                        LocalDateTime.now().format(FORMATTER) + " ===";
+                writeLine(header, null);
                 writer.flush();
             }
 
@@ -55,23 +116,247 @@ public class TransactionLogger {
         }
     }
 
+    private static BinaryEventLog openEventLog() {
+        try {
+            return new BinaryEventLog(getEventLogPath());
+        } catch (IOException e) {
+            System.err.println("Warning: Could not open binary event log: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Binary оқиға журналының жолы
+     */
+    public static Path getEventLogPath() {
+        return Paths.get(LOG_DIR, EVENT_LOG_FILE);
+    }
+
     /**
      * Лог жазу
+     * Async режимде файлға жазу фондық thread-қа беріледі (global lock жоқ)
+     */
+    public void log(String message) {
+        log(message, LogRecord.NO_ACCOUNTS);
+    }
+
+    /**
+     * Аккаунтқа байланысты лог жазу (аккаунт бойынша іздеуге индекстеледі)
+     */
+    public void log(String message, int... accountIds) {
+        LogRecord record = LogRecord.create(LocalDateTime.now(), message, accountIds);
+        recentLogs.add(record); // Memory-да сақтау
+        dispatch(record);
+    }
+
+    /**
+     * Құрылымды оқиға жазу: мәтін логқа (форматтау flusher-де) және binary журналға
+     */
+    public void logEvent(BankEvent event) {
+        LogRecord record = LogRecord.forEvent(LocalDateTime.now(), event, true);
+        recentLogs.add(record);
+        dispatch(record);
+    }
+
+    /**
+     * Оқиғаны тек binary журналға жазу (мәтін логты толтырмайтын аудит жазбалары,
+     * мысалы, сәтсіз операциялар немесе bulk импорттың әр транзакциясы)
+     */
+    public void recordEvent(BankEvent event) {
+        if (eventLog != null) {
+            dispatch(LogRecord.forEvent(null, event, false));
+        }
+    }
+
+    /**
+     * close()-пен handshake: жариялаушы алдымен activePublishers-ті арттырып, содан кейін closed-ты
+     * тексереді; close() closed қойып, белсенді жариялаушылар бітуін күтеді - сондықтан
+     * close() басталғаннан кейін ешбір жазба буферде қалып қоймайды
+     */
+    private void dispatch(LogRecord record) {
+        activePublishers.incrementAndGet();
+        try {
+            if (closed.get()) {
+                droppedEvents.incrementAndGet(); // Logger жабылған - жазба қабылданбайды
+                return;
+            }
+            if (buffer != null) {
+                publish(record);
+            } else {
+                writeSync(record);
+            }
+        } finally {
+            activePublishers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Синхронды жазу - әр жолдан кейін flush
+     */
+    private synchronized void writeSync(LogRecord record) {
+        writeEntry(record);
+        flushWriter();
+    }
+
+    /**
+     * Бір жазбаны жазу (lock ұсталған кезде шақырылады)
+     */
+    private void writeEntry(LogRecord record) {
+        try {
+            if (record.isText()) {
+                rotateIfNeeded();
+                if (writer == null) {
+                    droppedEvents.incrementAndGet();
+                    return;
+                }
+                writeLine(record.getLine(), record);
+            }
+            if (record.getEvent() != null && eventLog != null) {
+                eventLog.write(record.getEvent());
+            }
+            writtenEvents.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write log entry: " + e.getMessage());
+            droppedEvents.incrementAndGet();
+        }
+    }
+
+    /**
+     * Жолды UTF-8 байттарымен жазып, side index-ке offset-ін тіркеу
+     */
+    private void writeLine(String line, LogRecord record) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        long offset = currentFileBytes;
+        writer.write(bytes);
+        writer.write('\n');
+        currentFileBytes += bytes.length + 1;
+        searchIndex.add(offset, bytes.length + 1, record);
+    }
+
+    // ============ ROTATION ============
+
+    /**
+     * Өлшем шегі немесе күн ауысуы бойынша ротация (lock ұсталған кезде)
+     */
+    private void rotateIfNeeded() {
+        boolean sizeExceeded = currentFileBytes >= config.getMaxFileBytes();
+        boolean dayChanged = config.isDailyRotation()
+                && System.currentTimeMillis() >= nextRotationMillis;
+
+        if (sizeExceeded || dayChanged) {
+            rotate();
+        }
+    }
+
+    private void rotate() {
+        closeWriter();
+        if (searchIndex != null) {
+            searchIndex.seal(); // Архив индексі толық болуы үшін
+        }
+
+        try {
+            archiver.archive(Paths.get(logFilePath), currentDay);
+            rotations++;
+        } catch (IOException e) {
+            System.err.println("Warning: Could not rotate log file: " + e.getMessage());
+        }
+
+        initializeLogFile();
+    }
+
+    /**
+     * Жасалған ротациялар саны
      */
-    public synchronized void log(String message) {
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        String logEntry = String.format("[%s] %s", timestamp, message);
+    public synchronized long getRotationCount() {
+        return rotations;
+    }
 
-        // Memory-да сақтау
-        recentLogs.offer(logEntry);
-        if (recentLogs.size() > MAX_MEMORY_LOGS) {
-            recentLogs.poll();
+    /**
+     * Ring buffer-ге жариялау, толы болса backpressure саясатын қолдану
+     */
+    private void publish(LogRecord logEntry) {
+        if (buffer.offer(logEntry)) {
+            return;
+        }
+
+        switch (config.getBackpressurePolicy()) {
+            case DROP:
+                droppedEvents.incrementAndGet();
+                return;
+            case SAMPLE:
+                if (overflowCounter.getAndIncrement() % config.getSampleRate() != 0) {
+                    droppedEvents.incrementAndGet();
+                    return;
+                }
+                blockUntilPublished(logEntry); // Үлгіге түскен оқиға жоғалмауы керек
+                return;
+            case BLOCK:
+            default:
+                blockUntilPublished(logEntry);
+        }
+    }
+
+    private void blockUntilPublished(LogRecord logEntry) {
+        while (!buffer.offer(logEntry)) {
+            if (!running) {
+                writeSync(logEntry); // Logger жабылып жатыр - тікелей жазамыз
+                return;
+            }
+            LockSupport.unpark(flusher);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Фондық flusher: buffer-ді batch-пен жазып, интервал сайын flush жасайды
+     */
+    private void runFlusher() {
+        long flushIntervalNanos = config.getFlushIntervalMillis() * 1_000_000;
+        long lastFlush = System.nanoTime();
+        boolean dirty = false;
+
+        while (running || buffer.size() > 0) {
+            int written = drainBatch();
+            dirty |= written > 0;
+
+            long now = System.nanoTime();
+            if (dirty && (written == 0 || now - lastFlush >= flushIntervalNanos)) {
+                flushWriter();
+                lastFlush = now;
+                dirty = false;
+            }
+            if (written == 0 && running) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+        flushWriter();
+    }
+
+    private synchronized int drainBatch() {
+        return buffer.drain(this::writeEntry, FLUSH_BATCH_SIZE);
+    }
+
+    private synchronized void flushWriter() {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (eventLog != null) {
+                eventLog.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not flush log file: " + e.getMessage());
         }
+    }
 
-        // Файлға жазу
+    private synchronized void closeWriter() {
         if (writer != null) {
-            writer.println(logEntry);
-            writer.flush();
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Warning: Could not close log file: " + e.getMessage());
+            }
+            writer = null;
         }
     }
 
@@ -79,37 +364,88 @@ public class TransactionLogger {
      * Соңғы логтарды қайтару
      */
     public List<String> getRecentLogs(int count) {
-        List<String> logs = new ArrayList<>(recentLogs);
-        int size = logs.size();
-        int start = Math.max(0, size - count);
-        return logs.subList(start, size);
+        return toLines(recentLogs.getLast(count));
     }
 
     /**
      * Барлық memory логтарды қайтару
      */
     public List<String> getAllRecentLogs() {
-        return new ArrayList<>(recentLogs);
+        return toLines(recentLogs.getAll());
+    }
+
+    private static List<String> toLines(List<LogRecord> records) {
+        List<String> lines = new ArrayList<>(records.size());
+        for (LogRecord record : records) {
+            lines.add(record.getLine());
+        }
+        return lines;
+    }
+
+    // ============ METRICS ============
+
+    /**
+     * Async буфердегі жазылмаған оқиғалар саны
+     */
+    public int getQueueDepth() {
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /**
+     * Backpressure салдарынан тасталған оқиғалар саны
+     */
+    public long getDroppedCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Файлға жазылған оқиғалар саны
+     */
+    public long getWrittenCount() {
+        return writtenEvents.get();
+    }
+
+    public boolean isAsync() {
+        return buffer != null;
     }
 
     /**
      * Файлдан логтарды оқу
+     * Белсенді файлдың соңынан оқылады (tail-seek), жол жетпесе жаңа архивтерден толықтырылады
      */
     public List<String> readLogsFromFile(int maxLines) {
-        List<String> logs = new ArrayList<>();
+        flushPending();
 
-        try (BufferedReader reader = new BufferedReader(
-                new FileReader(logFilePath))) {
+        try {
+            List<String> logs = LogTailReader.readLastLines(Paths.get(logFilePath), maxLines);
+            List<List<String>> older = new ArrayList<>();
+            int total = logs.size();
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add(line);
+            for (Path archive : archiver.listArchives()) {
+                if (total >= maxLines) {
+                    break;
+                }
+                List<String> lines;
+                try {
+                    lines = readArchiveTail(archive, maxLines - total);
+                } catch (NoSuchFileException e) {
+                    // Архив осы кезде сығылды немесе retention бойынша өшірілді
+                    lines = readArchiveTail(LogArchiver.compressedFor(archive), maxLines - total);
+                }
+                older.add(lines);
+                total += lines.size();
+            }
+
+            if (older.isEmpty()) {
+                return logs;
             }
 
-            // Соңғы N жолды қайтару
-            int size = logs.size();
-            int start = Math.max(0, size - maxLines);
-            return logs.subList(start, size);
+            List<String> combined = new ArrayList<>(total);
+            for (int i = older.size() - 1; i >= 0; i--) {
+                combined.addAll(older.get(i));
+            }
+            combined.addAll(logs);
+            return combined;
 
         } catch (IOException e) {
             System.err.println("Error reading log file: " + e.getMessage());
@@ -118,30 +454,248 @@ public class TransactionLogger {
     }
 
     /**
-     * Logger-ді жабу
+     * Архивтің соңғы N жолы (.gz артқа қарай seek жасай алмайды - шектеулі deque арқылы)
      */
-    public synchronized void close() {
-        if (writer != null) {
-            writer.close();
+    private static List<String> readArchiveTail(Path archive, int maxLines) throws IOException {
+        if (!archive.getFileName().toString().endsWith(".gz")) {
+            return LogTailReader.readLastLines(archive, maxLines);
         }
+
+        ArrayDeque<String> tail = new ArrayDeque<>(Math.min(maxLines, 1024));
+        try (BufferedReader reader = LogArchiver.openReader(archive)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (tail.size() == maxLines) {
+                    tail.pollFirst();
+                }
+                tail.addLast(line);
+            }
+        }
+        return new ArrayList<>(tail);
     }
 
     /**
-     * Лог файлын тазалау
+     * Белсенді лог файлын live бақылау (tail -f)
+     * Ротациядан кейін жаңа файлды басынан оқуды жалғастырады
      */
-    public synchronized void clearLogFile() {
+    public LogTailReader.Follower follow(Consumer<String> listener) {
+        return LogTailReader.follow(Paths.get(logFilePath), listener, config.getFlushIntervalMillis());
+    }
+
+    // ============ SEARCH ============
+
+    /**
+     * Аккаунт және уақыт аралығы бойынша лог іздеу (хронологиялық ретпен)
+     * Side index арқылы тек сәйкес келуі мүмкін блоктар оқылады
+     * @param accountId null болса барлық аккаунт
+     * @param from null болса шектеусіз
+     * @param to null болса шектеусіз
+     */
+    public List<String> searchLogs(Integer accountId, LocalDateTime from, LocalDateTime to,
+                                   int maxResults) {
+        flushPending();
+
+        long fromSecond = from != null ? LogRecord.toEpochSecond(from) : Long.MIN_VALUE;
+        long toSecond = to != null ? LogRecord.toEpochSecond(to) : Long.MAX_VALUE;
+        List<String> results = new ArrayList<>();
+
         try {
-            if (writer != null) {
-                writer.close();
+            // Архивтер (ескісінен жаңасына)
+            List<Path> archives = archiver.listArchives();
+            for (int i = archives.size() - 1; i >= 0 && results.size() < maxResults; i--) {
+                Path archive = archives.get(i);
+                LogSearchIndex index = LogSearchIndex.load(LogArchiver.indexFileFor(archive));
+                if (index != null && !index.mayContain(accountId, fromSecond, toSecond)) {
+                    continue; // Бүкіл архив өткізіледі
+                }
+                try {
+                    searchArchive(archive, index, accountId, fromSecond, toSecond, maxResults, results);
+                } catch (NoSuchFileException e) {
+                    // Архив осы кезде сығылды - сығылған нұсқасын оқимыз
+                    searchArchive(LogArchiver.compressedFor(archive), index, accountId,
+                            fromSecond, toSecond, maxResults, results);
+                }
             }
 
-            Files.deleteIfExists(Paths.get(logFilePath));
-            initializeLogFile();
-
-            log("Log file cleared");
+            // Белсенді файл
+            List<long[]> ranges;
+            synchronized (this) {
+                ranges = searchIndex != null
+                        ? searchIndex.candidateRanges(accountId, fromSecond, toSecond)
+                        : Collections.<long[]>emptyList();
+            }
+            scanRanges(Paths.get(logFilePath), ranges, accountId, fromSecond, toSecond,
+                    maxResults, results);
 
         } catch (IOException e) {
-            System.err.println("Error clearing log file: " + e.getMessage());
+            System.err.println("Error searching log file: " + e.getMessage());
+        }
+        return results;
+    }
+
+    private static void searchArchive(Path archive, LogSearchIndex index, Integer accountId,
+                                      long fromSecond, long toSecond, int maxResults,
+                                      List<String> results) throws IOException {
+        if (index == null || archive.getFileName().toString().endsWith(".gz")) {
+            // .gz ішінде seek жоқ - индекс тек бүкіл архивті өткізіп жіберу үшін қолданылады
+            scanArchive(archive, accountId, fromSecond, toSecond, maxResults, results);
+        } else {
+            scanRanges(archive, index.candidateRanges(accountId, fromSecond, toSecond),
+                    accountId, fromSecond, toSecond, maxResults, results);
+        }
+    }
+
+    /**
+     * Тек берілген byte аралықтарын оқып, жолдарды сүзу
+     */
+    private static void scanRanges(Path file, List<long[]> ranges, Integer accountId,
+                                   long fromSecond, long toSecond, int maxResults,
+                                   List<String> results) throws IOException {
+        if (ranges.isEmpty()) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(LogSearchIndex.BLOCK_BYTES * 2);
+            for (long[] range : ranges) {
+                int length = (int) (range[1] - range[0]);
+                if (block.capacity() < length) {
+                    block = ByteBuffer.allocate(length);
+                }
+                block.clear().limit(length);
+                while (block.hasRemaining()) {
+                    if (channel.read(block, range[0] + block.position()) < 0) {
+                        break;
+                    }
+                }
+
+                String text = new String(block.array(), 0, block.position(), StandardCharsets.UTF_8);
+                int lineStart = 0;
+                int newline;
+                while ((newline = text.indexOf('\n', lineStart)) >= 0) {
+                    if (!collect(text.substring(lineStart, newline), accountId,
+                            fromSecond, toSecond, maxResults, results)) {
+                        return;
+                    }
+                    lineStart = newline + 1;
+                }
+            }
+        }
+    }
+
+    private static void scanArchive(Path archive, Integer accountId, long fromSecond, long toSecond,
+                                    int maxResults, List<String> results) throws IOException {
+        try (BufferedReader reader = LogArchiver.openReader(archive)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!collect(line, accountId, fromSecond, toSecond, maxResults, results)) {
+                    return;
+                }
+            }
         }
     }
+
+    /**
+     * @return нәтиже толса false
+     */
+    private static boolean collect(String line, Integer accountId, long fromSecond, long toSecond,
+                                   int maxResults, List<String> results) {
+        LogRecord record = LogRecord.parse(line);
+        if (record != null
+                && record.getEpochSecond() >= fromSecond && record.getEpochSecond() <= toSecond
+                && (accountId == null || record.involves(accountId))) {
+            results.add(line);
+        }
+        return results.size() < maxResults;
+    }
+
+    /**
+     * Async буфердегі барлық оқиғаны файлға жазу (оқу алдында)
+     */
+    private void flushPending() {
+        if (buffer != null && running) {
+            while (buffer.size() > 0) {
+                LockSupport.unpark(flusher);
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+        flushWriter();
+    }
+
+    /**
+     * Logger-ді жабу (async режимде буфер толық жазылады)
+     * Жабылғаннан кейінгі жазбалар қабылданбайды (dropped ретінде саналады)
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        // Жолдағы жариялаушылар буферге жазып бітсін (flusher әлі жұмыс істеп тұр)
+        while (activePublishers.get() > 0) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+
+        if (flusher != null) {
+            running = false;
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (this) {
+            // Flusher тоқтады - енді бұл thread жалғыз consumer, қалғанын жазамыз
+            if (buffer != null) {
+                while (buffer.drain(this::writeEntry, FLUSH_BATCH_SIZE) > 0) {
+                    // Буфер босағанша
+                }
+            }
+            flushWriter();
+            closeWriter();
+            if (searchIndex != null) {
+                searchIndex.seal();
+            }
+            if (eventLog != null) {
+                try {
+                    eventLog.close();
+                } catch (IOException e) {
+                    System.err.println("Warning: Could not close binary event log: " + e.getMessage());
+                }
+            }
+        }
+        archiver.close();
+    }
+
+    /**
+     * Лог файлын тазалау (архивтер де өшіріледі)
+     */
+    public void clearLogFile() {
+        flushPending();
+
+        synchronized (this) {
+            try {
+                closeWriter();
+                if (searchIndex != null) {
+                    searchIndex.clear();
+                }
+
+                Files.deleteIfExists(Paths.get(logFilePath));
+                archiver.deleteAll();
+                initializeLogFile();
+
+            } catch (IOException e) {
+                System.err.println("Error clearing log file: " + e.getMessage());
+            }
+        }
+
+        log("Log file cleared");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TransactionLogger[async=%s, binaryEvents=%s, queueDepth=%d, written=%d, dropped=%d]",
+                isAsync(), eventLog != null, getQueueDepth(), getWrittenCount(), getDroppedCount());
+    }
 }
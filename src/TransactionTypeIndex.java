@@ -0,0 +1,155 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Транзакция тарихына арналған secondary index
+ * - TransactionType бойынша EnumMap bucket-тер
+ * - Әр bucket - абсолютті позициялар кезегі (ескісі басында)
+ * - Тарих FIFO тәртібімен тазаланады, сондықтан eviction әрқашан bucket басынан
+ * - Әр позиция уақыт ретімен қосылды ма (bucket-тегі алдыңғылардың бәрінен ескі емес) белгіленеді:
+ *   импортталған ескі жазбалар тізбек соңында тұрса да, уақыт терезесі іздеуі дұрыс тоқтайды
+ *
+ * Thread-safe емес: иесінің lock-ы астында пайдалану керек
+ */
+public class TransactionTypeIndex {
+    private final Map<TransactionType, PositionQueue> buckets;
+
+    public TransactionTypeIndex() {
+        this.buckets = new EnumMap<>(TransactionType.class);
+        for (TransactionType type : TransactionType.values()) {
+            buckets.put(type, new PositionQueue());
+        }
+    }
+
+    /**
+     * Жаңа позицияны тіркеу
+     * @param timestamp транзакция уақыты (тізбек ретін тексеру үшін)
+     */
+    public void add(TransactionType type, long position, LocalDateTime timestamp) {
+        buckets.get(type).addLast(position, timestamp);
+    }
+
+    /**
+     * Тарихтан өшірілген позицияны алып тастау
+     */
+    public void evict(TransactionType type, long position) {
+        PositionQueue queue = buckets.get(type);
+        if (queue.size() > 0 && queue.get(0) == position) {
+            queue.removeFirst();
+        }
+    }
+
+    /**
+     * Типтегі жазбалар саны - O(1)
+     */
+    public int count(TransactionType type) {
+        return buckets.get(type).size();
+    }
+
+    /**
+     * i-ші позиция (0 - ең ескісі)
+     */
+    public long positionAt(TransactionType type, int i) {
+        return buckets.get(type).get(i);
+    }
+
+    /**
+     * since уақытынан бергі транзакциялар (позиция ретімен)
+     * Соңынан жүреді және уақыт ретімен қосылған жазба since-тен ескі болса тоқтайды - оған дейінгілердің
+     * бәрі одан да ескі. Кері уақытпен қосылған жазбалар өткізіледі, бірақ іздеуді тоқтатпайды,
+     * сондықтан құны нәтиже өлшемі + соңғы шағын бөліктегі импортталған жазбалар саны.
+     * @param lookup позиция бойынша транзакция
+     */
+    public List<Transaction> findSince(TransactionType type, LocalDateTime since,
+                                       LongFunction<Transaction> lookup) {
+        PositionQueue queue = buckets.get(type);
+        List<Transaction> result = new ArrayList<>();
+        for (int i = queue.size() - 1; i >= 0; i--) {
+            Transaction transaction = lookup.apply(queue.get(i));
+            if (!transaction.getTimestamp().isBefore(since)) {
+                result.add(transaction);
+            } else if (queue.isOrdered(i)) {
+                break;
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Барлық bucket-терді тазалау
+     */
+    public void clear() {
+        for (PositionQueue queue : buckets.values()) {
+            queue.clear();
+        }
+    }
+
+    /**
+     * long позицияларға арналған кеңейетін circular deque (boxing жоқ)
+     * ordered[i] - позиция уақыт ретімен қосылды ма; newest - қосылған ең жаңа уақыт
+     */
+    private static final class PositionQueue {
+        private long[] items = new long[8];
+        private boolean[] ordered = new boolean[8];
+        private int head;
+        private int size;
+        private LocalDateTime newest;
+
+        void addLast(long value, LocalDateTime timestamp) {
+            if (size == items.length) {
+                grow();
+            }
+            int slot = (head + size) % items.length;
+            items[slot] = value;
+            ordered[slot] = newest == null || !timestamp.isBefore(newest);
+            if (ordered[slot]) {
+                newest = timestamp;
+            }
+            size++;
+        }
+
+        boolean isOrdered(int i) {
+            return ordered[(head + i) % items.length];
+        }
+
+        void removeFirst() {
+            head = (head + 1) % items.length;
+            size--;
+        }
+
+        long get(int i) {
+            if (i < 0 || i >= size) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            }
+            return items[(head + i) % items.length];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+            newest = null;
+        }
+
+        private void grow() {
+            long[] grown = new long[items.length * 2];
+            boolean[] grownOrdered = new boolean[grown.length];
+            for (int i = 0; i < size; i++) {
+                grown[i] = items[(head + i) % items.length];
+                grownOrdered[i] = ordered[(head + i) % items.length];
+            }
+            items = grown;
+            ordered = grownOrdered;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Өлшемі шектелген W-TinyLFU cache (int кілт)
+ * - Window LRU (~1%): жаңа жазбалар алдымен осында түседі
+ * - Main SLRU (~99%): probation (20%) + protected (80%)
+ * - Window-дан шыққан кандидат main-ге тек probation victim-нен жиі қолданылса ғана кіреді
+ *   (жиілік Count-Min sketch арқылы бағаланады, 4-bit санағыштар, кезеңдік екіге бөлу)
+ * - Evict болған жазба listener-ге беріледі (мысалы, dirty жазбаны дискке жазу үшін)
+ *
+ * Thread-safe: барлық операциялар бір monitor астында (listener да сол lock астында шақырылады)
+ */
+public class WTinyLfuCache<V> {
+
+    /**
+     * Evict болған жазбаны өңдеу
+     */
+    public interface EvictionListener<V> {
+        void onEviction(int key, V value, boolean dirty);
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final Map<Integer, Node<V>> nodes;
+    private final Queue<V>[] queues;
+    private final FrequencySketch sketch;
+    private final EvictionListener<V> listener;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long dirtyEvictions;
+    private long rejections; // Admission фильтрі кіргізбеген кандидаттар
+
+    @SuppressWarnings("unchecked")
+    public WTinyLfuCache(int capacity, EvictionListener<V> listener) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Cache capacity must be at least 2");
+        }
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        int mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = (int) (mainCapacity * 0.8);
+        this.nodes = new HashMap<>(Math.min(capacity, 1 << 20) * 4 / 3 + 1);
+        this.queues = newQueues();
+        this.sketch = new FrequencySketch(capacity);
+        this.listener = listener;
+    }
+
+    /**
+     * Generic массив тікелей жасалмайды - wildcard массивінен типтелген көшірме
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Queue<V>[] newQueues() {
+        return (Queue<V>[]) new Queue<?>[]{new Queue<V>(WINDOW), new Queue<V>(PROBATION), new Queue<V>(PROTECTED)};
+    }
+
+    /**
+     * @return cache-тегі мән немесе null (miss)
+     */
+    public synchronized V get(int key) {
+        sketch.increment(key);
+        Node<V> node = nodes.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Статистика мен ретті өзгертпей қарау (scan кезінде cache-ті ластамау үшін)
+     */
+    public synchronized V peek(int key) {
+        Node<V> node = nodes.get(key);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Мәнді қосу немесе ауыстыру
+     * @param dirty true болса evict кезінде listener дискке жазуы керек
+     */
+    public synchronized void put(int key, V value, boolean dirty) {
+        Node<V> node = nodes.get(key);
+        if (node != null) {
+            node.value = value;
+            node.dirty |= dirty;
+            onAccess(node);
+            return;
+        }
+
+        node = new Node<>(key, value, dirty);
+        nodes.put(key, node);
+        queues[WINDOW].addLast(node);
+        if (queues[WINDOW].size > windowCapacity) {
+            admitFromWindow();
+        }
+    }
+
+    /**
+     * Дискке оқылған таза мәнді қосу - егер сол арада басқа мән қосылып үлгерсе, соны қайтарады
+     * @return бұрыннан бар мән немесе null (value қосылды)
+     */
+    public synchronized V putIfAbsent(int key, V value) {
+        Node<V> node = nodes.get(key);
+        if (node != null) {
+            return node.value;
+        }
+        put(key, value, false);
+        return null;
+    }
+
+    public synchronized V remove(int key) {
+        Node<V> node = nodes.remove(key);
+        if (node == null) {
+            return null;
+        }
+        queues[node.queue].unlink(node);
+        return node.value;
+    }
+
+    public synchronized boolean contains(int key) {
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * Dirty жазбалардың кілттері мен мәндерін жинау (flush үшін)
+     */
+    public synchronized List<Map.Entry<Integer, V>> dirtyEntries() {
+        List<Map.Entry<Integer, V>> dirty = new ArrayList<>();
+        for (Node<V> node : nodes.values()) {
+            if (node.dirty) {
+                dirty.add(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value));
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Жазба дискке жазылды - dirty белгісін алу (мән сол күйінде болса ғана)
+     */
+    public synchronized void markClean(int key, V expected) {
+        Node<V> node = nodes.get(key);
+        if (node != null && node.value == expected) {
+            node.dirty = false;
+        }
+    }
+
+    public synchronized void clear() {
+        nodes.clear();
+        for (Queue<V> queue : queues) {
+            queue.clear();
+        }
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(capacity, nodes.size(), hits, misses, evictions, dirtyEvictions, rejections);
+    }
+
+    // ============ POLICY ============
+
+    private void onAccess(Node<V> node) {
+        switch (node.queue) {
+            case WINDOW:
+            case PROTECTED:
+                queues[node.queue].moveToLast(node);
+                break;
+            default:
+                // Probation-да екінші рет қолданылды - protected-ке көтеру
+                queues[PROBATION].unlink(node);
+                queues[PROTECTED].addLast(node);
+                if (queues[PROTECTED].size > protectedCapacity) {
+                    Node<V> demoted = queues[PROTECTED].removeFirst();
+                    queues[PROBATION].addLast(demoted);
+                }
+        }
+    }
+
+    /**
+     * Window-дан шыққан кандидатты main-ге кіргізу немесе evict ету (TinyLFU admission)
+     */
+    private void admitFromWindow() {
+        Node<V> candidate = queues[WINDOW].removeFirst();
+        int mainSize = queues[PROBATION].size + queues[PROTECTED].size;
+        if (mainSize < capacity - windowCapacity) {
+            queues[PROBATION].addLast(candidate);
+            return;
+        }
+
+        Queue<V> victimQueue = queues[PROBATION].size > 0 ? queues[PROBATION] : queues[PROTECTED];
+        Node<V> victim = victimQueue.first();
+        if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            victimQueue.unlink(victim);
+            evict(victim);
+            queues[PROBATION].addLast(candidate);
+        } else {
+            rejections++;
+            evict(candidate);
+        }
+    }
+
+    private void evict(Node<V> node) {
+        nodes.remove(node.key);
+        evictions++;
+        if (node.dirty) {
+            dirtyEvictions++;
+        }
+        if (listener != null) {
+            listener.onEviction(node.key, node.value, node.dirty);
+        }
+    }
+
+    // ============ STRUCTURES ============
+
+    private static final class Node<V> {
+        private final int key;
+        private V value;
+        private boolean dirty;
+        private int queue;
+        private Node<V> prev;
+        private Node<V> next;
+
+        private Node(int key, V value, boolean dirty) {
+            this.key = key;
+            this.value = value;
+            this.dirty = dirty;
+        }
+    }
+
+    /**
+     * Intrusive екі жақты тізім (LRU реті: басы - ең ескі)
+     */
+    private static final class Queue<V> {
+        private Node<V> head;
+        private Node<V> tail;
+        private int size;
+        private final int id;
+
+        private Queue(int id) {
+            this.id = id;
+        }
+
+        private void addLast(Node<V> node) {
+            node.queue = id;
+            node.prev = tail;
+            node.next = null;
+            if (tail != null) {
+                tail.next = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void unlink(Node<V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        private void moveToLast(Node<V> node) {
+            if (node != tail) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        private Node<V> first() {
+            return head;
+        }
+
+        private Node<V> removeFirst() {
+            Node<V> node = head;
+            unlink(node);
+            return node;
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Count-Min sketch: 4 қатар, 4-bit санағыштар (бір long-та 16 санағыш)
+     * Үлгілер саны 10 * capacity-ге жеткенде барлық санағыштар екіге бөлінеді (ескі жиілік ұмытылады)
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0x85EBCA77C2B2AE63L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int samples;
+
+        private FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+            this.table = new long[size];
+            this.mask = size - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        private int frequency(int key) {
+            int frequency = 15;
+            for (int row = 0; row < 4; row++) {
+                long hash = hash(key, row);
+                int index = (int) (hash >>> 32) & mask;
+                int shift = (int) (hash & 15) << 2;
+                frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xF));
+            }
+            return frequency;
+        }
+
+        private void increment(int key) {
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                long hash = hash(key, row);
+                int index = (int) (hash >>> 32) & mask;
+                int shift = (int) (hash & 15) << 2;
+                if (((table[index] >>> shift) & 0xF) < 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++samples >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            samples /= 2;
+        }
+
+        private static long hash(int key, int row) {
+            long h = (key + SEEDS[row]) * SEEDS[(row + 1) & 3];
+            return h ^ (h >>> 29);
+        }
+    }
+
+    /**
+     * Cache метрикалары
+     */
+    public static final class Stats {
+        private final int capacity;
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long dirtyEvictions;
+        private final long rejections;
+
+        Stats(int capacity, int size, long hits, long misses, long evictions,
+              long dirtyEvictions, long rejections) {
+            this.capacity = capacity;
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.dirtyEvictions = dirtyEvictions;
+            this.rejections = rejections;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : hits / (double) requests;
+        }
+
+        public int getCapacity() { return capacity; }
+        public int getSize() { return size; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getDirtyEvictions() { return dirtyEvictions; }
+        public long getRejections() { return rejections; }
+
+        @Override
+        public String toString() {
+            return String.format("Cache %d/%d, hits: %d, misses: %d (hit rate %.1f%%), "
+                            + "evictions: %d (written back: %d), admission rejected: %d",
+                    size, capacity, hits, misses, getHitRate() * 100, evictions, dirtyEvictions, rejections);
+        }
+    }
+}